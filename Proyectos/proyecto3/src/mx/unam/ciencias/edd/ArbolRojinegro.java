@@ -21,14 +21,16 @@ public class ArbolRojinegro<T extends Comparable<T>>
     extends ArbolBinarioOrdenado<T> {
 
     /**
-     * Clase interna protegida para vértices de árboles rojinegros. La única
-     * diferencia con los vértices de árbol binario, es que tienen un campo para
-     * el color del vértice.
+     * Clase interna protegida para vértices de árboles rojinegros. La
+     * diferencia con los vértices de árbol binario, es que tienen campos para
+     * el color del vértice y el tamaño de su subárbol.
      */
     protected class VerticeRojinegro extends ArbolBinario<T>.Vertice {
 
         /** El color del vértice. */
         public Color color;
+        /** El número de elementos en el subárbol del vértice. */
+        public int tamano;
 
         /**
          * Constructor único que recibe un elemento.
@@ -37,6 +39,7 @@ public class ArbolRojinegro<T extends Comparable<T>>
         public VerticeRojinegro(T elemento) {
             super(elemento);
             color = Color.ROJO;
+            tamano = 1;
         }
 
         /**
@@ -132,6 +135,26 @@ public class ArbolRojinegro<T extends Comparable<T>>
         return v.color;
     }
 
+    /**
+     * Construye un árbol rojinegro a partir de una colección ordenada. El árbol
+     * queda perfectamente balanceado en tiempo <i>O</i>(<i>n</i>), sin hacer
+     * ningún giro: todos los niveles están llenos excepto tal vez el último, y
+     * se colorean de NEGRO salvo el último cuando está incompleto, que se
+     * colorea de ROJO para que todos los caminos tengan los mismos vértices
+     * NEGROS.
+     * @param <T> el tipo de los elementos del árbol.
+     * @param coleccion la colección ordenada con los elementos del árbol.
+     * @return un árbol rojinegro con los elementos de la colección.
+     * @throws IllegalArgumentException si la colección es <code>null</code>,
+     *         contiene <code>null</code> o no está ordenada.
+     */
+    public static <T extends Comparable<T>> ArbolRojinegro<T>
+    deOrdenados(Coleccion<T> coleccion) {
+        ArbolRojinegro<T> arbol = new ArbolRojinegro<T>();
+        arbol.cargaOrdenados(coleccion);
+        return arbol;
+    }
+
     /**
      * Agrega un nuevo elemento al árbol. El método invoca al método {@link
      * ArbolBinarioOrdenado#agrega}, y después balancea el árbol recoloreando
@@ -141,6 +164,7 @@ public class ArbolRojinegro<T extends Comparable<T>>
     @Override public void agrega(T elemento) {
        super.agrega(elemento);
        VerticeRojinegro v = (VerticeRojinegro)ultimoAgregado;
+       cambiaTamanos(v.padre, 1);
        rebalancea(v);
 
     }
@@ -292,42 +316,106 @@ public class ArbolRojinegro<T extends Comparable<T>>
      * @param elemento el elemento a eliminar del árbol.
      */
     @Override public void elimina(T elemento) {
-        VerticeRojinegro v = verticeRojinegro(super.busca(elemento));
-        if (v == null)
+        Vertice buscado = busca(raiz, elemento);
+        if (buscado == null)
             return;
-        VerticeRojinegro anterior = 
-                        verticeRojinegro(super.maximoEnSubarbol(v.izquierdo));
-        /* Si no hay anterior. */
-        if (anterior == null)
-            anterior = v;
-        /* Intercambiamos de todas maneras. */
-        intercambia(v,anterior);
-        VerticeRojinegro hijo = hijo(anterior,anterior.izquierdo);
-        subir(anterior,hijo);
-        if (anterior.color == Color.NEGRO && hijo.color == Color.ROJO)
-            hijo.color = Color.NEGRO;
-        if (anterior.color == Color.ROJO)
-            eliminarNodo(hijo);
-        if (anterior.color == Color.NEGRO && hijo.color == Color.NEGRO)
-            rebalanceaEliminado(hijo);
-
-
+        VerticeRojinegro v = verticeRojinegro(buscado);
+        /* Si tiene dos hijos, lo intercambiamos con su anterior, que tiene a
+           lo más un hijo. */
+        if (v.izquierdo != null && v.derecho != null) {
+            VerticeRojinegro anterior =
+                verticeRojinegro(maximoEnSubarbol(v.izquierdo));
+            intercambia(v, anterior);
+            v = anterior;
+        }
+        elementos--;
+        cambiaTamanos(v.padre, -1);
+        /* Si no tiene hijos, le colgamos un vértice fantasma negro. */
+        VerticeRojinegro fantasma = null;
+        if (v.izquierdo == null && v.derecho == null) {
+            fantasma = new VerticeRojinegro(null);
+            fantasma.color = Color.NEGRO;
+            fantasma.tamano = 0;
+            fantasma.padre = v;
+            v.izquierdo = fantasma;
+        }
+        VerticeRojinegro hijo =
+            verticeRojinegro(v.izquierdo != null ? v.izquierdo : v.derecho);
+        sube(v, hijo);
+        if (esNegro(v)) {
+            if (esRojo(hijo))
+                hijo.color = Color.NEGRO;
+            else
+                rebalanceaEliminado(hijo);
+        }
+        if (fantasma != null)
+            quitaFantasma(fantasma);
     }
 
-    private void eliminarNodo(Vertice v) {
-        if (esDerecho(v)) {
-            v.padre.derecho = null;
-            v.padre = null;
-            elementos--;
+    /* Rebalancea el árbol a partir del vértice recibido, que ocupa el lugar
+       de un vértice negro eliminado y por lo tanto le falta un negro. */
+    private void rebalanceaEliminado(VerticeRojinegro v) {
+        VerticeRojinegro padre = getPadre(v);
+        /* Caso 1 */
+        if (padre == null)
+            return;
+        boolean izquierdo = !esDerecho(v);
+        VerticeRojinegro hermano = getHermano(v);
+        /* Caso 2 */
+        if (esRojo(hermano)) {
+            padre.color = Color.ROJO;
+            hermano.color = Color.NEGRO;
+            if (izquierdo)
+                rotarIzquierda(padre);
+            else
+                rotarDerecha(padre);
+            hermano = getHermano(v);
+        }
+        VerticeRojinegro hi = getHijo(hermano, true);
+        VerticeRojinegro hd = getHijo(hermano, false);
+        if (esNegro(hi) && esNegro(hd)) {
+            hermano.color = Color.ROJO;
+            /* Caso 3 */
+            if (esNegro(padre))
+                rebalanceaEliminado(padre);
+            /* Caso 4 */
+            else
+                padre.color = Color.NEGRO;
+            return;
+        }
+        /* Caso 5 */
+        if (izquierdo && esNegro(hd)) {
+            hermano.color = Color.ROJO;
+            hi.color = Color.NEGRO;
+            rotarDerecha(hermano);
+        } else if (!izquierdo && esNegro(hi)) {
+            hermano.color = Color.ROJO;
+            hd.color = Color.NEGRO;
+            rotarIzquierda(hermano);
+        }
+        /* Caso 6 */
+        hermano = getHermano(v);
+        hermano.color = padre.color;
+        padre.color = Color.NEGRO;
+        if (izquierdo) {
+            getHijo(hermano, false).color = Color.NEGRO;
+            rotarIzquierda(padre);
         } else {
-            v.padre.izquierdo = null;
-            v.padre = null;
-            elementos--;
+            getHijo(hermano, true).color = Color.NEGRO;
+            rotarDerecha(padre);
         }
     }
 
-    private void rebalanceaEliminado(VerticeRojinegro n){
-        return;
+    /* Regresa el hermano del vértice, que no tiene que ser la raíz. */
+    private VerticeRojinegro getHermano(VerticeRojinegro v) {
+        Vertice h = esDerecho(v) ? v.padre.izquierdo : v.padre.derecho;
+        return h == null ? null : verticeRojinegro(h);
+    }
+
+    /* Regresa el hijo izquierdo o derecho del vértice, o null si no tiene. */
+    private VerticeRojinegro getHijo(VerticeRojinegro v, boolean izquierdo) {
+        Vertice h = izquierdo ? v.izquierdo : v.derecho;
+        return h == null ? null : verticeRojinegro(h);
     }
 
     private void intercambia(VerticeRojinegro v1, VerticeRojinegro v2) {
@@ -335,32 +423,67 @@ public class ArbolRojinegro<T extends Comparable<T>>
         v1.elemento = v2.elemento;
         v2.elemento = p;
     }
+
+    /* Pone al hijo en el lugar del vértice, que tiene a lo más ese hijo. */
+    private void sube(Vertice v, Vertice hijo) {
+        hijo.padre = v.padre;
+        if (v.padre == null)
+            raiz = hijo;
+        else if (esDerecho(v))
+            v.padre.derecho = hijo;
+        else
+            v.padre.izquierdo = hijo;
+    }
+
+    /* Desconecta al vértice fantasma del árbol. */
+    private void quitaFantasma(Vertice fantasma) {
+        if (fantasma.padre == null)
+            raiz = null;
+        else if (esDerecho(fantasma))
+            fantasma.padre.derecho = null;
+        else
+            fantasma.padre.izquierdo = null;
+        fantasma.padre = null;
+    }
+
     /**
-    * Método auxiliar; como usamos el máximo del subárbol izquierdo entonces
-    * se regresa el izquierdo de v, en dado caso que sea null, regresamos un
-    * vértice fantasma (vertice que su elemento es null)
-    */
-    private VerticeRojinegro hijo(Vertice padre, Vertice v) {
-        VerticeRojinegro hijo;
-        if (v == null) {
-            hijo = new VerticeRojinegro(null);
-            hijo.color = Color.NEGRO;
-            hijo.padre = padre;
-            padre.izquierdo = hijo;
-            return verticeRojinegro(hijo);
-        } 
-        return verticeRojinegro(v);
+     * Regresa el número de elementos en el subárbol del vértice, que el
+     * vértice rojinegro guarda.
+     * @param vertice la raíz del subárbol.
+     * @return el número de elementos en el subárbol.
+     */
+    @Override protected int tamano(Vertice vertice) {
+        return vertice == null ? 0 : verticeRojinegro(vertice).tamano;
     }
 
-    private void subir(Vertice papa, Vertice hijo) {
-            papa.padre.derecho = hijo;
-            hijo.padre = papa.padre;
-            hijo.izquierdo = papa;
-            papa.padre = hijo;
-            if (papa == raiz)
-                raiz = hijo;
+    /* Suma el cambio al tamaño del vértice y de todos sus ancestros. */
+    private void cambiaTamanos(Vertice v, int cambio) {
+        for (; v != null; v = v.padre)
+            verticeRojinegro(v).tamano += cambio;
     }
 
+    /**
+     * Calcula el tamaño y el color de un vértice creado por {@link
+     * ArbolBinarioOrdenado#cargaOrdenados}. El árbol tiene profundidad
+     * ⌊log<sub>2</sub> <i>n</i>⌋; si el último nivel no está lleno, sus
+     * vértices son ROJOS y todos los demás NEGROS.
+     * @param vertice el vértice creado.
+     * @param profundidad la profundidad del vértice en el árbol.
+     */
+    @Override protected void verticeCargado(Vertice vertice, int profundidad) {
+        VerticeRojinegro v = verticeRojinegro(vertice);
+        actualizaTamano(v);
+        int ultimo = 31 - Integer.numberOfLeadingZeros(elementos);
+        boolean lleno = ((elementos + 1) & elementos) == 0;
+        v.color = profundidad == ultimo && ultimo > 0 && !lleno ?
+            Color.ROJO : Color.NEGRO;
+    }
+
+    /* Recalcula el tamaño del vértice a partir de sus hijos. */
+    private void actualizaTamano(Vertice v) {
+        verticeRojinegro(v).tamano =
+            1 + tamano(v.izquierdo) + tamano(v.derecho);
+    }
 
     /**
      * Lanza la excepción {@link UnsupportedOperationException}: los árboles
@@ -394,6 +517,7 @@ public class ArbolRojinegro<T extends Comparable<T>>
     */
     private void rotarDerecha(VerticeArbolBinario<T> vertice) {
         super.giraDerecha(vertice);
+        actualizaTamanosGiro(vertice(vertice));
     }
 
     /**
@@ -402,5 +526,14 @@ public class ArbolRojinegro<T extends Comparable<T>>
     */
     private void rotarIzquierda(VerticeArbolBinario<T> vertice) {
         super.giraIzquierda(vertice);
+        actualizaTamanosGiro(vertice(vertice));
+    }
+
+    /* Después de un giro sobre el vértice, recalcula su tamaño y el de su
+       nuevo padre; el resto del árbol no cambia. */
+    private void actualizaTamanosGiro(Vertice v) {
+        actualizaTamano(v);
+        if (v.padre != null)
+            actualizaTamano(v.padre);
     }
 }
@@ -2,6 +2,8 @@ package mx.unam.ciencias.edd;
 
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 /**
  * Clase para diccionarios (<em>hash tables</em>). Un diccionario generaliza el
@@ -21,53 +23,92 @@ public class Diccionario<K, V> implements Iterable<V> {
         public K llave;
         /* El valor. */
         public V valor;
+        /* La dispersión de la llave; la guardamos para poder mover la entrada
+           a otro arreglo sin volver a dispersarla. */
+        public int dispersion;
 
         /* Construye una nueva entrada. */
-        public Entrada(K llave, V valor) {
+        public Entrada(K llave, V valor, int dispersion) {
             this.llave = llave;
             this.valor = valor;
+            this.dispersion = dispersion;
         }
     }
 
-    /* Clase privada para iteradores de diccionarios. */
+    /* Clase privada para iteradores de diccionarios. Si el diccionario está
+       creciendo, primero recorre las listas del arreglo antiguo que no se han
+       migrado y después las del arreglo nuevo. */
     private class Iterador implements Iterator<V> {
 
+        /* El arreglo que estamos recorriendo. */
+        private Lista<Entrada>[] arreglo;
         /* En qué lista estamos. */
         private int indice;
-        /* Iterador auxiliar. */
+        /* Iterador auxiliar; es null si ya no hay elementos. */
         private Iterator<Diccionario<K,V>.Entrada> iterador;
 
         /* Construye un nuevo iterador, auxiliándose de las listas del
          * diccionario. */
         public Iterador() {
-            Lista<Entrada> l = new Lista<>();
-
-            for (int i = 0; i < entradas.length; i++) {
-                if(entradas[i] != null)
-                    for (Entrada e : entradas[i])
-                        l.agrega(e);
+            if (antiguas != null) {
+                arreglo = antiguas;
+                indice = migradas - 1;
+            } else {
+                arreglo = entradas;
+                indice = -1;
             }
-            this.iterador = l.iterator();
+            avanza();
         }
 
         /* Nos dice si hay un siguiente elemento. */
         public boolean hasNext() {
-            return iterador.hasNext();
+            return iterador != null;
         }
 
         /* Regresa el siguiente elemento. */
-        public V next() { 
-            return iterador.next().valor;
+        public V next() {
+            return siguienteEntrada().valor;
         }
 
         /* No lo implementamos: siempre lanza una excepción. */
         public void remove() {
             throw new UnsupportedOperationException();
         }
+
+        /* Regresa la siguiente entrada. */
+        public Entrada siguienteEntrada() {
+            if (iterador == null)
+                throw new NoSuchElementException("No hay siguiente.");
+            Entrada e = iterador.next();
+            if (!iterador.hasNext())
+                avanza();
+            return e;
+        }
+
+        /* Mueve el iterador auxiliar a la siguiente lista no vacía. */
+        private void avanza() {
+            iterador = null;
+            while (iterador == null || !iterador.hasNext()) {
+                if (++indice == arreglo.length) {
+                    if (arreglo == entradas) {
+                        iterador = null;
+                        return;
+                    }
+                    arreglo = entradas;
+                    indice = 0;
+                }
+                if (arreglo[indice] != null)
+                    iterador = arreglo[indice].iterator();
+            }
+        }
     }
 
     /* Tamaño mínimo; decidido arbitrariamente a 2^6. */
     private static final int MIN_N = 64;
+    /* Cuántas listas del arreglo antiguo se migran en cada operación mientras
+       el diccionario crece de forma incremental. Con 4 la migración siempre
+       termina antes de que el arreglo nuevo se vuelva a llenar. */
+    private static final int MIGRACION_POR_OPERACION = 4;
 
     /* Máscara para no usar módulo. */
     private int mascara;
@@ -77,6 +118,15 @@ public class Diccionario<K, V> implements Iterable<V> {
     private Lista<Entrada>[] entradas;
     /* Número de valores*/
     private int elementos;
+    /* Si crecemos el arreglo poco a poco en lugar de todo de una vez. */
+    private boolean incremental;
+    /* El arreglo anterior mientras migramos sus entradas; null si no estamos
+       creciendo. */
+    private Lista<Entrada>[] antiguas;
+    /* Máscara del arreglo anterior. */
+    private int mascaraAntigua;
+    /* Las listas del arreglo anterior con índice menor a éste ya se migraron. */
+    private int migradas;
 
     /* Truco para crear un arreglo genérico. Es necesario hacerlo así por cómo
        Java implementa sus genéricos; de otra forma obtenemos advertencias del
@@ -147,18 +197,13 @@ public class Diccionario<K, V> implements Iterable<V> {
     public void agrega(K llave, V valor) {
         if (llave == null || valor == null)
             throw new IllegalArgumentException();
-        int indice = getIndice(llave);
-        if (entradas[indice] == null)
-            entradas[indice] = new Lista<Entrada>();
-        for (Entrada e : entradas[indice])
-            if (e.llave.equals(llave)) {
-                e.valor = valor;
-                return;
-                }
-        entradas[indice].agregaFinal(new Entrada(llave,valor));
-        elementos++;
-        if (estaCargado())
-            creceArreglo();
+        migra(MIGRACION_POR_OPERACION);
+        int d = dispersor.dispersa(llave);
+        Entrada e = busca(llave, d);
+        if (e != null)
+            e.valor = valor;
+        else
+            agregaNueva(llave, valor, d);
     }
 
     /**
@@ -168,13 +213,11 @@ public class Diccionario<K, V> implements Iterable<V> {
      * @throws NoSuchElementException si la llave no está en el diccionario.
      */
     public V get(K llave) {
-        int indice = getIndice(llave);
-        if (contiene(llave)) {
-        for (Entrada e : entradas[indice])
-            if (e.llave.equals(llave))
-                return e.valor;
-        }
-        throw new NoSuchElementException("La llave no está en el diccionario.");
+        migra(MIGRACION_POR_OPERACION);
+        Entrada e = busca(llave);
+        if (e == null)
+            throw new NoSuchElementException("La llave no está en el diccionario.");
+        return e.valor;
     }
 
     /**
@@ -184,13 +227,7 @@ public class Diccionario<K, V> implements Iterable<V> {
      *         <tt>false</tt> en otro caso.
      */
     public boolean contiene(K llave) {
-        int indice = getIndice(llave);
-        if (entradas[indice] == null)
-            return false;
-        for (Entrada e : entradas[indice])
-            if (e.llave.equals(llave))
-                return true;
-        return false;
+        return busca(llave) != null;
     }
 
     /**
@@ -200,13 +237,108 @@ public class Diccionario<K, V> implements Iterable<V> {
      *         el diccionario.
      */
     public void elimina(K llave) {
-        int indice = getIndice(llave);
-        if (!contiene(llave))
+        migra(MIGRACION_POR_OPERACION);
+        Entrada e = busca(llave);
+        if (e == null)
             throw new NoSuchElementException("La llave no se encuentra.");
-        for (Entrada e : entradas[indice])
-            if (e.llave.equals(llave))
-                entradas[indice].elimina(e);
-        elementos--;
+        eliminaEntrada(e);
+    }
+
+    /**
+     * Regresa el valor asociado a la llave proporcionada, o el valor
+     * predeterminado si la llave no está en el diccionario.
+     * @param llave la llave para buscar el valor.
+     * @param predeterminado el valor a regresar si la llave no está.
+     * @return el valor correspondiente a la llave, o el predeterminado.
+     */
+    public V getOPredeterminado(K llave, V predeterminado) {
+        migra(MIGRACION_POR_OPERACION);
+        Entrada e = busca(llave);
+        return e == null ? predeterminado : e.valor;
+    }
+
+    /**
+     * Regresa el valor asociado a la llave proporcionada; si la llave no está
+     * en el diccionario, calcula su valor con la función recibida y lo agrega.
+     * La llave se dispersa y se busca una sola vez.
+     * @param llave la llave para buscar el valor.
+     * @param funcion la función para calcular el valor a partir de la llave.
+     * @return el valor asociado a la llave después de la operación, o
+     *         <code>null</code> si la función regresó <code>null</code>.
+     * @throws IllegalArgumentException si la llave es nula.
+     */
+    public V calculaSiAusente(K llave, Function<? super K, ? extends V> funcion) {
+        if (llave == null)
+            throw new IllegalArgumentException();
+        migra(MIGRACION_POR_OPERACION);
+        int d = dispersor.dispersa(llave);
+        Entrada e = busca(llave, d);
+        if (e != null)
+            return e.valor;
+        V valor = funcion.apply(llave);
+        if (valor != null)
+            agregaNueva(llave, valor, d);
+        return valor;
+    }
+
+    /**
+     * Calcula un nuevo valor para la llave a partir de la llave y su valor
+     * actual (<code>null</code> si la llave no está). Si el nuevo valor es
+     * <code>null</code> la llave se elimina del diccionario; en otro caso se
+     * asocia a la llave. La llave se dispersa y se busca una sola vez.
+     * @param llave la llave para calcular el valor.
+     * @param funcion la función que calcula el nuevo valor.
+     * @return el nuevo valor asociado a la llave, o <code>null</code> si la
+     *         llave se eliminó.
+     * @throws IllegalArgumentException si la llave es nula.
+     */
+    public V calcula(K llave,
+                     BiFunction<? super K, ? super V, ? extends V> funcion) {
+        if (llave == null)
+            throw new IllegalArgumentException();
+        migra(MIGRACION_POR_OPERACION);
+        int d = dispersor.dispersa(llave);
+        Entrada e = busca(llave, d);
+        V valor = funcion.apply(llave, e == null ? null : e.valor);
+        if (e != null && valor != null)
+            e.valor = valor;
+        else if (e != null)
+            eliminaEntrada(e);
+        else if (valor != null)
+            agregaNueva(llave, valor, d);
+        return valor;
+    }
+
+    /**
+     * Mezcla un valor con el asociado a la llave. Si la llave no está en el
+     * diccionario, se le asocia el valor recibido; si está, se le asocia el
+     * resultado de aplicar la función al valor actual y al recibido, y si
+     * ese resultado es <code>null</code> la llave se elimina. La llave se
+     * dispersa y se busca una sola vez.
+     * @param llave la llave del valor a mezclar.
+     * @param valor el valor a mezclar.
+     * @param funcion la función que mezcla el valor actual con el recibido.
+     * @return el nuevo valor asociado a la llave, o <code>null</code> si la
+     *         llave se eliminó.
+     * @throws IllegalArgumentException si la llave o el valor son nulos.
+     */
+    public V mezcla(K llave, V valor,
+                    BiFunction<? super V, ? super V, ? extends V> funcion) {
+        if (llave == null || valor == null)
+            throw new IllegalArgumentException();
+        migra(MIGRACION_POR_OPERACION);
+        int d = dispersor.dispersa(llave);
+        Entrada e = busca(llave, d);
+        if (e == null) {
+            agregaNueva(llave, valor, d);
+            return valor;
+        }
+        V nuevo = funcion.apply(e.valor, valor);
+        if (nuevo != null)
+            e.valor = nuevo;
+        else
+            eliminaEntrada(e);
+        return nuevo;
     }
 
     /**
@@ -216,12 +348,9 @@ public class Diccionario<K, V> implements Iterable<V> {
      */
     public Lista<K> llaves() {
         Lista<K> llaves = new Lista<K>();
-        for (int i = 0 ; i < entradas.length ; i++) {
-            if (entradas[i] == null)
-                continue;
-            for (Entrada e : entradas[i])
-                llaves.agrega(e.llave);
-        }
+        Iterador iterador = new Iterador();
+        while (iterador.hasNext())
+            llaves.agrega(iterador.siguienteEntrada().llave);
         return llaves;
     }
 
@@ -243,12 +372,9 @@ public class Diccionario<K, V> implements Iterable<V> {
      * @return cuántas colisiones hay en el diccionario.
      */
     public int colisiones() {
-        int c = 0;
-        for (int i = 0 ; i < entradas.length ; i++) {
-            if (entradas[i] == null)
-                continue;
-            c += entradas[i].getElementos() - 1;
-        }
+        int c = colisiones(entradas, 0);
+        if (antiguas != null)
+            c += colisiones(antiguas, migradas);
         return c;
     }
 
@@ -258,13 +384,9 @@ public class Diccionario<K, V> implements Iterable<V> {
      * @return el máximo número de colisiones para una misma llave.
      */
     public int colisionMaxima() {
-        int c = 0;
-        for (int i = 0 ; i < entradas.length ; i++ ) {
-            if (entradas[i] == null)
-                continue;
-            if (entradas[i].getElementos() - 1 > c)
-                c += entradas[i].getElementos() - 1;
-        }
+        int c = colisionMaxima(entradas, 0);
+        if (antiguas != null)
+            c = Math.max(c, colisionMaxima(antiguas, migradas));
         return c;
     }
 
@@ -308,11 +430,10 @@ public class Diccionario<K, V> implements Iterable<V> {
         @SuppressWarnings("unchecked") Diccionario<K, V> d = (Diccionario<K, V>)o;
         if (d.elementos != this.elementos)
             return false;
-        for(int i = 0 ; i < entradas.length ; i++)
-            if (entradas[i] != null)
-                for (Entrada e : entradas[i])
-                    if (!d.contiene(e.llave))
-                        return false;
+        Iterador iterador = new Iterador();
+        while (iterador.hasNext())
+            if (!d.contiene(iterador.siguienteEntrada().llave))
+                return false;
         return true;
     }
 
@@ -346,23 +467,119 @@ public class Diccionario<K, V> implements Iterable<V> {
     }
 
     /**
-    * Crece el arreglo de las entradas; hay qué volver a agregar todos los 
-    * elementos uno por uno por el problema de las diferentes máscaras.
+     * Define si el diccionario crece de forma incremental. En ese caso, al
+     * llegar a la carga máxima el arreglo anterior se conserva junto con el
+     * nuevo, y cada llamada a {@link #agrega}, {@link #get} y {@link #elimina}
+     * migra unas cuantas listas del anterior al nuevo; las búsquedas consultan
+     * ambos arreglos mientras tanto. Así ninguna operación individual tiene
+     * que volver a colocar todas las entradas. Por omisión el diccionario
+     * crece de una vez.
+     * @param incremental si el diccionario debe crecer de forma incremental.
+     */
+    public void setCrecimientoIncremental(boolean incremental) {
+        this.incremental = incremental;
+        if (!incremental && antiguas != null)
+            migra(antiguas.length);
+    }
+
+    /**
+    * Crece el arreglo de las entradas. El arreglo actual pasa a ser el antiguo
+    * y sus listas se migran al nuevo, todas de una vez o de poco en poco si el
+    * crecimiento es incremental.
     */
     private void creceArreglo() {
-        int tam = longitud(entradas.length);  
-        this.mascara = tam - 1;
-        this.elementos = 0;
-        Lista<Entrada>[] antiguo = this.entradas;
-        Lista<Entrada>[] nuevo = nuevoArreglo(tam);
-        this.entradas = nuevo;
-        for (int i = 0 ; i < antiguo.length ; i++)
-            if (antiguo[i] != null)
-                for (Entrada e : antiguo[i])
-                    agrega(e.llave,e.valor);
+        if (antiguas != null)
+            migra(antiguas.length);
+        antiguas = entradas;
+        mascaraAntigua = mascara;
+        migradas = 0;
+        entradas = nuevoArreglo(longitud(entradas.length));
+        mascara = entradas.length - 1;
+        if (!incremental)
+            migra(antiguas.length);
+    }
+
+    /* Migra a lo más n listas del arreglo antiguo al nuevo. Las entradas se
+       mueven tal cual, sin crearlas de nuevo ni volver a dispersarlas. */
+    private void migra(int n) {
+        while (antiguas != null && n-- > 0) {
+            Lista<Entrada> l = antiguas[migradas];
+            antiguas[migradas++] = null;
+            if (l != null)
+                for (Entrada e : l) {
+                    int indice = e.dispersion & mascara;
+                    if (entradas[indice] == null)
+                        entradas[indice] = new Lista<Entrada>();
+                    entradas[indice].agregaFinal(e);
+                }
+            if (migradas == antiguas.length)
+                antiguas = null;
+        }
+    }
+
+    /* Regresa el arreglo en el que debe estar una llave con la dispersión
+       recibida: el antiguo si su lista ahí todavía no se ha migrado, o el
+       actual en otro caso. */
+    private Lista<Entrada>[] arregloDe(int dispersion) {
+        if (antiguas != null && (dispersion & mascaraAntigua) >= migradas)
+            return antiguas;
+        return entradas;
     }
 
-    private int getIndice(K llave) {
-        return (mascara & (dispersor.dispersa(llave)));
+    /* Regresa la entrada de la llave, o null si no está. */
+    private Entrada busca(K llave) {
+        return busca(llave, dispersor.dispersa(llave));
+    }
+
+    /* Regresa la entrada de la llave con la dispersión recibida, o null si no
+       está. */
+    private Entrada busca(K llave, int d) {
+        Lista<Entrada>[] arreglo = arregloDe(d);
+        Lista<Entrada> lista = arreglo[d & (arreglo.length - 1)];
+        if (lista == null)
+            return null;
+        for (Entrada e : lista)
+            if (e.dispersion == d && e.llave.equals(llave))
+                return e;
+        return null;
+    }
+
+    /* Agrega una entrada para una llave que sabemos que no está en el
+       diccionario, y crece el arreglo si hace falta. */
+    private void agregaNueva(K llave, V valor, int d) {
+        Lista<Entrada>[] arreglo = arregloDe(d);
+        int indice = d & (arreglo.length - 1);
+        if (arreglo[indice] == null)
+            arreglo[indice] = new Lista<Entrada>();
+        arreglo[indice].agregaFinal(new Entrada(llave, valor, d));
+        elementos++;
+        if (estaCargado())
+            creceArreglo();
+    }
+
+    /* Elimina una entrada que sabemos que está en el diccionario. */
+    private void eliminaEntrada(Entrada e) {
+        Lista<Entrada>[] arreglo = arregloDe(e.dispersion);
+        arreglo[e.dispersion & (arreglo.length - 1)].elimina(e);
+        elementos--;
+    }
+
+    /* Cuenta las colisiones de un arreglo a partir del índice recibido. */
+    private int colisiones(Lista<Entrada>[] arreglo, int desde) {
+        int c = 0;
+        for (int i = desde; i < arreglo.length; i++)
+            if (arreglo[i] != null && !arreglo[i].esVacio())
+                c += arreglo[i].getElementos() - 1;
+        return c;
+    }
+
+    /* Regresa la colisión máxima de un arreglo a partir del índice
+       recibido. */
+    private int colisionMaxima(Lista<Entrada>[] arreglo, int desde) {
+        int c = 0;
+        for (int i = desde; i < arreglo.length; i++)
+            if (arreglo[i] != null && arreglo[i].getElementos() - 1 > c)
+                c = arreglo[i].getElementos() - 1;
+        return c;
     }
 }
@@ -0,0 +1,27 @@
+package mx.unam.ciencias.edd;
+
+/**
+ * Interfaz genérica para dispersores de 64 bits. Un dispersor largo también
+ * es un {@link Dispersor}: su huella de 32 bits es la mezcla por XOR de las
+ * dos mitades de la huella de 64 bits.
+ */
+@FunctionalInterface
+public interface DispersorLargo<T> extends Dispersor<T> {
+
+    /**
+     * Calcula la función de dispersión de 64 bits del objeto recibido.
+     * @param objeto el objeto que queremos dispersar.
+     * @return el resultado de dispersar del objeto recibido.
+     */
+    public long dispersaLargo(T objeto);
+
+    /**
+     * Calcula la función de dispersión de 32 bits del objeto recibido.
+     * @param objeto el objeto que queremos dispersar.
+     * @return el resultado de dispersar del objeto recibido.
+     */
+    @Override public default int dispersa(T objeto) {
+        long h = dispersaLargo(objeto);
+        return (int)(h ^ (h >>> 32));
+    }
+}
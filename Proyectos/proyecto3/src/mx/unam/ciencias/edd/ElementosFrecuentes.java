@@ -0,0 +1,233 @@
+package mx.unam.ciencias.edd;
+
+/**
+ * <p>Clase para encontrar los elementos más frecuentes de un flujo en memoria
+ * fija, con el algoritmo <em>Space-Saving</em>.</p>
+ *
+ * <p>La estructura vigila a lo más <em>k</em> elementos, cada uno con un
+ * contador. Cuando llega un elemento vigilado se incrementa su contador;
+ * cuando llega uno no vigilado y ya hay <em>k</em>, reemplaza al de menor
+ * contador y hereda su cuenta más uno. Así la cuenta de cada elemento vigilado
+ * nunca es menor que su frecuencia real, y la excede por a lo más la cuenta
+ * heredada, que también se guarda como su error. Todo elemento con frecuencia
+ * mayor que N/<em>k</em>, donde N es el total de elementos agregados, está
+ * vigilado.</p>
+ *
+ * <p>Los contadores se mantienen en un montículo mínimo, así que cada
+ * operación toma tiempo <em>O</em>(log <em>k</em>).</p>
+ *
+ * @param <T> el tipo de los elementos.
+ */
+public class ElementosFrecuentes<T> {
+
+    /* Clase para los contadores de los elementos vigilados. */
+    private class Contador implements Comparable<Contador> {
+
+        /* El elemento. */
+        public T elemento;
+        /* La cuenta del elemento. */
+        public long cuenta;
+        /* La cuenta heredada al reemplazar a otro elemento. */
+        public long error;
+        /* El índice del contador en el montículo. */
+        public int indice;
+
+        /* Ordena de mayor a menor cuenta. */
+        @Override public int compareTo(Contador c) {
+            return Long.compare(c.cuenta, cuenta);
+        }
+    }
+
+    /* Los contadores de cada elemento vigilado. */
+    private Diccionario<T, Contador> vigilados;
+    /* El montículo mínimo de los contadores, por cuenta. */
+    private Contador[] monticulo;
+    /* El número de contadores. */
+    private int elementos;
+    /* El total de ocurrencias agregadas. */
+    private long total;
+
+    /**
+     * Construye una estructura que vigila a lo más la capacidad recibida de
+     * elementos.
+     * @param capacidad el máximo número de elementos vigilados.
+     * @throws IllegalArgumentException si la capacidad no es positiva.
+     */
+    public ElementosFrecuentes(int capacidad) {
+        if (capacidad <= 0)
+            throw new IllegalArgumentException();
+        vigilados = new Diccionario<T, Contador>(capacidad);
+        monticulo = nuevoArreglo(capacidad);
+    }
+
+    /**
+     * Construye una estructura que garantiza vigilar a todo elemento con
+     * frecuencia mayor que el error por el total de ocurrencias, y cuyas
+     * cuentas exceden a las frecuencias reales por a lo más lo mismo.
+     * @param <T> el tipo de los elementos.
+     * @param error el error relativo al total de ocurrencias.
+     * @return una estructura con capacidad ⌈1/error⌉.
+     * @throws IllegalArgumentException si el error no está entre 0 y 1.
+     */
+    public static <T> ElementosFrecuentes<T> conError(double error) {
+        if (!(error > 0.0 && error < 1.0))
+            throw new IllegalArgumentException();
+        return new ElementosFrecuentes<T>((int)Math.ceil(1.0 / error));
+    }
+
+    /* Truco para crear un arreglo genérico. Es necesario hacerlo así por cómo
+       Java implementa sus genéricos; de otra forma obtenemos advertencias del
+       compilador. */
+    @SuppressWarnings("unchecked") private Contador[] nuevoArreglo(int n) {
+        ElementosFrecuentes.Contador[] arreglo =
+            new ElementosFrecuentes.Contador[n];
+        return (Contador[])arreglo;
+    }
+
+    /**
+     * Agrega una ocurrencia del elemento.
+     * @param elemento el elemento a agregar.
+     * @throws IllegalArgumentException si el elemento es <code>null</code>.
+     */
+    public void agrega(T elemento) {
+        agrega(elemento, 1);
+    }
+
+    /**
+     * Agrega varias ocurrencias del elemento.
+     * @param elemento el elemento a agregar.
+     * @param veces el número de ocurrencias a agregar.
+     * @throws IllegalArgumentException si el elemento es <code>null</code> o
+     *         si el número de ocurrencias no es positivo.
+     */
+    public void agrega(T elemento, long veces) {
+        if (elemento == null || veces <= 0)
+            throw new IllegalArgumentException();
+        total += veces;
+        Contador c = vigilados.getOPredeterminado(elemento, null);
+        if (c == null) {
+            if (elementos < monticulo.length) {
+                c = new Contador();
+                c.indice = elementos;
+                monticulo[elementos++] = c;
+            } else {
+                c = monticulo[0];
+                vigilados.elimina(c.elemento);
+                c.error = c.cuenta;
+            }
+            c.elemento = elemento;
+            vigilados.agrega(elemento, c);
+        }
+        c.cuenta += veces;
+        baja(c.indice);
+        sube(c.indice);
+    }
+
+    /**
+     * Regresa la cuenta del elemento: una cota superior de su frecuencia si
+     * está vigilado, o 0 si no lo está.
+     * @param elemento el elemento.
+     * @return la cuenta del elemento.
+     */
+    public long cuenta(T elemento) {
+        Contador c = vigilados.getOPredeterminado(elemento, null);
+        return c == null ? 0 : c.cuenta;
+    }
+
+    /**
+     * Regresa el error de la cuenta del elemento: su cuenta menos el error es
+     * una cota inferior de su frecuencia.
+     * @param elemento el elemento.
+     * @return el error de la cuenta del elemento, o 0 si no está vigilado.
+     */
+    public long error(T elemento) {
+        Contador c = vigilados.getOPredeterminado(elemento, null);
+        return c == null ? 0 : c.error;
+    }
+
+    /**
+     * Nos dice si el elemento está vigilado.
+     * @param elemento el elemento.
+     * @return <code>true</code> si el elemento está vigilado,
+     *         <code>false</code> en otro caso.
+     */
+    public boolean contiene(T elemento) {
+        return vigilados.contiene(elemento);
+    }
+
+    /**
+     * Regresa una lista con los elementos de mayor cuenta, de mayor a menor.
+     * @param n el máximo número de elementos en la lista.
+     * @return una lista con los <em>n</em> elementos de mayor cuenta.
+     */
+    public Lista<T> getTop(int n) {
+        Contador[] a = nuevoArreglo(elementos);
+        System.arraycopy(monticulo, 0, a, 0, elementos);
+        Arreglos.quickSort(a);
+        Lista<T> top = new Lista<T>();
+        for (int i = 0; i < Math.min(n, elementos); i++)
+            top.agregaFinal(a[i].elemento);
+        return top;
+    }
+
+    /**
+     * Regresa el número de elementos vigilados.
+     * @return el número de elementos vigilados.
+     */
+    public int getElementos() {
+        return elementos;
+    }
+
+    /**
+     * Regresa el máximo número de elementos vigilados.
+     * @return el máximo número de elementos vigilados.
+     */
+    public int getCapacidad() {
+        return monticulo.length;
+    }
+
+    /**
+     * Regresa el total de ocurrencias agregadas.
+     * @return el total de ocurrencias agregadas.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /* Sube el contador en el índice i mientras sea menor que su padre. */
+    private void sube(int i) {
+        Contador c = monticulo[i];
+        while (i > 0) {
+            int p = (i - 1) >>> 1;
+            if (monticulo[p].cuenta <= c.cuenta)
+                break;
+            coloca(monticulo[p], i);
+            i = p;
+        }
+        coloca(c, i);
+    }
+
+    /* Baja el contador en el índice i mientras sea mayor que algún hijo. */
+    private void baja(int i) {
+        Contador c = monticulo[i];
+        while (true) {
+            int h = 2 * i + 1;
+            if (h >= elementos)
+                break;
+            if (h + 1 < elementos &&
+                monticulo[h + 1].cuenta < monticulo[h].cuenta)
+                h++;
+            if (c.cuenta <= monticulo[h].cuenta)
+                break;
+            coloca(monticulo[h], i);
+            i = h;
+        }
+        coloca(c, i);
+    }
+
+    /* Coloca el contador en el índice i del montículo. */
+    private void coloca(Contador c, int i) {
+        monticulo[i] = c;
+        c.indice = i;
+    }
+}
@@ -1,7 +1,23 @@
 package mx.unam.ciencias.edd;
 
+import java.nio.ByteBuffer;
+
 /**
- * Clase para fabricar dispersores.
+ * <p>Clase para fabricar dispersores.</p>
+ *
+ * <p>Los algoritmos trabajan sobre bytes. Las secuencias de caracteres se
+ * dispersan como su codificación en UTF-8, que se calcula al vuelo mientras se
+ * recorren; así el resultado es el mismo que dispersar <code>getBytes()</code>
+ * en UTF-8 (y en cualquier codificación si la cadena es ASCII), pero sin crear
+ * ningún arreglo. También se pueden dispersar pedazos de arreglos de bytes y de
+ * {@link ByteBuffer}, sin copiarlos.</p>
+ *
+ * <p>Además de los algoritmos clásicos de 32 bits, la fábrica ofrece
+ * MurmurHash3, xxHash64, FNV-1a y wyhash, que mezclan mejor los bits (lo que
+ * importa porque {@link Diccionario} sólo usa los bits bajos de la huella) y
+ * son más rápidos por byte en llaves largas. Éstos aceptan una semilla, para
+ * que cada tabla pueda usar una función distinta, y los de 64 bits o más
+ * también están disponibles como {@link DispersorLargo}.</p>
  */
 public class FabricaDispersores {
 
@@ -13,14 +29,631 @@ public class FabricaDispersores {
      *         reconocido.
      */
     public static Dispersor<String> getInstancia(AlgoritmoDispersor algoritmo) {
+        if (algoritmo.aceptaSemilla())
+            return getInstancia(algoritmo, 0);
+        switch (algoritmo) {
+            case BJ_STRING: return (cadena) -> dispersaBJ(cadena, null, null,
+                                                          0, cadena.length());
+            case GLIB_STRING: return (cadena) -> dispersaGLib(cadena, null, null,
+                                                              0, cadena.length());
+            case XOR_STRING: return (cadena) -> dispersaXOR(cadena, null, null,
+                                                            0, cadena.length());
+            default: throw new IllegalArgumentException();
+        }
+    }
+
+    /**
+     * Regresa una instancia de {@link Dispersor} para cadenas, con la semilla
+     * recibida.
+     * @param algoritmo el algoritmo de dispersor que se desea.
+     * @param semilla la semilla del dispersor; MurmurHash3 de 32 bits sólo usa
+     *                sus 32 bits bajos.
+     * @return una instancia de {@link Dispersor} para cadenas.
+     * @throws IllegalArgumentException si el algoritmo no acepta semilla.
+     */
+    public static Dispersor<String> getInstancia(AlgoritmoDispersor algoritmo,
+                                                 long semilla) {
+        if (!algoritmo.aceptaSemilla())
+            throw new IllegalArgumentException("El algoritmo no acepta " +
+                                               "semilla.");
+        return (cadena) -> pliega(algoritmo,
+                                  dispersaConSemilla(algoritmo, semilla, cadena,
+                                                     null, null, 0,
+                                                     cadena.length()));
+    }
+
+    /**
+     * Regresa una instancia de {@link DispersorLargo} para cadenas.
+     * @param algoritmo el algoritmo de dispersor que se desea.
+     * @return una instancia de {@link DispersorLargo} para cadenas.
+     * @throws IllegalArgumentException si el algoritmo no genera huellas de 64
+     *         bits.
+     */
+    public static DispersorLargo<String>
+    getInstanciaLarga(AlgoritmoDispersor algoritmo) {
+        return getInstanciaLarga(algoritmo, 0);
+    }
+
+    /**
+     * Regresa una instancia de {@link DispersorLargo} para cadenas, con la
+     * semilla recibida.
+     * @param algoritmo el algoritmo de dispersor que se desea.
+     * @param semilla la semilla del dispersor.
+     * @return una instancia de {@link DispersorLargo} para cadenas.
+     * @throws IllegalArgumentException si el algoritmo no genera huellas de 64
+     *         bits.
+     */
+    public static DispersorLargo<String>
+    getInstanciaLarga(AlgoritmoDispersor algoritmo, long semilla) {
+        if (!algoritmo.esLargo())
+            throw new IllegalArgumentException("El algoritmo no genera " +
+                                               "huellas de 64 bits.");
+        return (cadena) -> dispersaConSemilla(algoritmo, semilla, cadena,
+                                              null, null, 0, cadena.length());
+    }
+
+    /**
+     * Regresa una instancia de {@link Dispersor} para secuencias de
+     * caracteres, como {@link StringBuilder} o {@link java.nio.CharBuffer}. El
+     * resultado es el mismo que el del dispersor de {@link #getInstancia} para
+     * la cadena con los mismos caracteres.
+     * @param algoritmo el algoritmo de dispersor que se desea.
+     * @return una instancia de {@link Dispersor} para secuencias de caracteres.
+     * @throws IllegalArgumentException si recibe un identificador no
+     *         reconocido.
+     */
+    public static Dispersor<CharSequence>
+    getInstanciaSecuencia(AlgoritmoDispersor algoritmo) {
+        if (algoritmo == null)
+            throw new IllegalArgumentException();
+        return (secuencia) -> dispersa(algoritmo, secuencia);
+    }
+
+    /**
+     * Dispersa una secuencia de caracteres sin crear objetos.
+     * @param algoritmo el algoritmo de dispersor que se desea.
+     * @param secuencia la secuencia a dispersar.
+     * @return el resultado de dispersar la codificación en UTF-8 de la
+     *         secuencia.
+     * @throws IllegalArgumentException si recibe un identificador no
+     *         reconocido.
+     */
+    public static int dispersa(AlgoritmoDispersor algoritmo,
+                               CharSequence secuencia) {
+        return dispersa(algoritmo, secuencia, null, null, 0, secuencia.length());
+    }
+
+    /**
+     * Dispersa un pedazo de un arreglo de bytes sin copiarlo.
+     * @param algoritmo el algoritmo de dispersor que se desea.
+     * @param bytes el arreglo con los bytes a dispersar.
+     * @param inicio el índice del primer byte a dispersar.
+     * @param longitud cuántos bytes dispersar.
+     * @return el resultado de dispersar los bytes.
+     * @throws IllegalArgumentException si recibe un identificador no
+     *         reconocido.
+     * @throws ExcepcionIndiceInvalido si el pedazo no está dentro del arreglo.
+     */
+    public static int dispersa(AlgoritmoDispersor algoritmo, byte[] bytes,
+                               int inicio, int longitud) {
+        if (inicio < 0 || longitud < 0 || inicio > bytes.length - longitud)
+            throw new ExcepcionIndiceInvalido("Pedazo inválido.");
+        return dispersa(algoritmo, null, bytes, null, inicio, inicio + longitud);
+    }
+
+    /**
+     * Dispersa los bytes restantes de un {@link ByteBuffer} (de su posición a
+     * su límite), sin copiarlos ni mover la posición.
+     * @param algoritmo el algoritmo de dispersor que se desea.
+     * @param buffer el buffer con los bytes a dispersar.
+     * @return el resultado de dispersar los bytes.
+     * @throws IllegalArgumentException si recibe un identificador no
+     *         reconocido.
+     */
+    public static int dispersa(AlgoritmoDispersor algoritmo, ByteBuffer buffer) {
+        if (buffer.hasArray())
+            return dispersa(algoritmo, null, buffer.array(), null,
+                            buffer.arrayOffset() + buffer.position(),
+                            buffer.arrayOffset() + buffer.limit());
+        return dispersa(algoritmo, null, null, buffer,
+                        buffer.position(), buffer.limit());
+    }
+
+    /**
+     * Dispersa con 64 bits una secuencia de caracteres.
+     * @param algoritmo el algoritmo de dispersor que se desea.
+     * @param semilla la semilla del dispersor.
+     * @param secuencia la secuencia a dispersar.
+     * @return el resultado de dispersar la codificación en UTF-8 de la
+     *         secuencia.
+     * @throws IllegalArgumentException si el algoritmo no genera huellas de 64
+     *         bits.
+     */
+    public static long dispersaLargo(AlgoritmoDispersor algoritmo, long semilla,
+                                     CharSequence secuencia) {
+        if (!algoritmo.esLargo())
+            throw new IllegalArgumentException("El algoritmo no genera " +
+                                               "huellas de 64 bits.");
+        return dispersaConSemilla(algoritmo, semilla, secuencia, null, null,
+                                  0, secuencia.length());
+    }
+
+    /**
+     * Dispersa con 64 bits un pedazo de un arreglo de bytes sin copiarlo.
+     * @param algoritmo el algoritmo de dispersor que se desea.
+     * @param semilla la semilla del dispersor.
+     * @param bytes el arreglo con los bytes a dispersar.
+     * @param inicio el índice del primer byte a dispersar.
+     * @param longitud cuántos bytes dispersar.
+     * @return el resultado de dispersar los bytes.
+     * @throws IllegalArgumentException si el algoritmo no genera huellas de 64
+     *         bits.
+     * @throws ExcepcionIndiceInvalido si el pedazo no está dentro del arreglo.
+     */
+    public static long dispersaLargo(AlgoritmoDispersor algoritmo, long semilla,
+                                     byte[] bytes, int inicio, int longitud) {
+        if (!algoritmo.esLargo())
+            throw new IllegalArgumentException("El algoritmo no genera " +
+                                               "huellas de 64 bits.");
+        if (inicio < 0 || longitud < 0 || inicio > bytes.length - longitud)
+            throw new ExcepcionIndiceInvalido("Pedazo inválido.");
+        return dispersaConSemilla(algoritmo, semilla, null, bytes, null,
+                                  inicio, inicio + longitud);
+    }
+
+    /**
+     * Dispersa con 64 bits los bytes restantes de un {@link ByteBuffer}, sin
+     * copiarlos ni mover la posición.
+     * @param algoritmo el algoritmo de dispersor que se desea.
+     * @param semilla la semilla del dispersor.
+     * @param buffer el buffer con los bytes a dispersar.
+     * @return el resultado de dispersar los bytes.
+     * @throws IllegalArgumentException si el algoritmo no genera huellas de 64
+     *         bits.
+     */
+    public static long dispersaLargo(AlgoritmoDispersor algoritmo, long semilla,
+                                     ByteBuffer buffer) {
+        if (!algoritmo.esLargo())
+            throw new IllegalArgumentException("El algoritmo no genera " +
+                                               "huellas de 64 bits.");
+        if (buffer.hasArray())
+            return dispersaConSemilla(algoritmo, semilla, null, buffer.array(),
+                                      null,
+                                      buffer.arrayOffset() + buffer.position(),
+                                      buffer.arrayOffset() + buffer.limit());
+        return dispersaConSemilla(algoritmo, semilla, null, null, buffer,
+                                  buffer.position(), buffer.limit());
+    }
+
+    /**
+     * Calcula la huella completa de 128 bits de MurmurHash3 de un pedazo de un
+     * arreglo de bytes. La primera mitad es la que regresan los dispersores de
+     * {@link AlgoritmoDispersor#MURMUR3_128}.
+     * @param semilla la semilla del dispersor.
+     * @param bytes el arreglo con los bytes a dispersar.
+     * @param inicio el índice del primer byte a dispersar.
+     * @param longitud cuántos bytes dispersar.
+     * @param resultado un arreglo de al menos dos elementos, donde se dejan
+     *                  las dos mitades de la huella.
+     * @throws ExcepcionIndiceInvalido si el pedazo no está dentro del arreglo.
+     */
+    public static void dispersaMurmur3_128(long semilla, byte[] bytes,
+                                           int inicio, int longitud,
+                                           long[] resultado) {
+        if (inicio < 0 || longitud < 0 || inicio > bytes.length - longitud)
+            throw new ExcepcionIndiceInvalido("Pedazo inválido.");
+        dispersaMurmur3_128(semilla, null, bytes, null,
+                            inicio, inicio + longitud, resultado);
+    }
+
+    /* Dispersa con el algoritmo de la fuente que no sea null, del índice
+       inicio al índice fin. */
+    private static int dispersa(AlgoritmoDispersor algoritmo,
+                                CharSequence secuencia, byte[] bytes,
+                                ByteBuffer buffer, int inicio, int fin) {
+        switch (algoritmo) {
+            case BJ_STRING:
+                return dispersaBJ(secuencia, bytes, buffer, inicio, fin);
+            case GLIB_STRING:
+                return dispersaGLib(secuencia, bytes, buffer, inicio, fin);
+            case XOR_STRING:
+                return dispersaXOR(secuencia, bytes, buffer, inicio, fin);
+            default:
+                return pliega(algoritmo,
+                              dispersaConSemilla(algoritmo, 0, secuencia, bytes,
+                                                 buffer, inicio, fin));
+        }
+    }
+
+    /* Reduce a 32 bits la huella de un algoritmo con semilla. */
+    private static int pliega(AlgoritmoDispersor algoritmo, long h) {
+        if (algoritmo == AlgoritmoDispersor.MURMUR3_32)
+            return (int)h;
+        return (int)(h ^ (h >>> 32));
+    }
+
+    /* Arreglo de cada hilo para codificar en UTF-8 las secuencias que no son
+       ASCII; los algoritmos con semilla necesitan leer los bytes en desorden,
+       así que no podemos codificarlas al vuelo. Se reutiliza en cada llamada,
+       de manera que sólo se crea uno nuevo si la secuencia no cabe. */
+    private static final ThreadLocal<byte[]> codificado =
+        ThreadLocal.withInitial(() -> new byte[64]);
+
+    /* Dispersa con uno de los algoritmos que aceptan semilla. Una secuencia
+       que sólo tiene caracteres ASCII se lee directamente; en otro caso se
+       codifica primero. */
+    private static long dispersaConSemilla(AlgoritmoDispersor algoritmo,
+                                           long semilla, CharSequence secuencia,
+                                           byte[] bytes, ByteBuffer buffer,
+                                           int inicio, int fin) {
+        if (secuencia != null) {
+            int n = 0;
+            boolean ascii = true;
+            for (int i = inicio; i < fin; i++) {
+                int m = cuantosBytes(bytesEn(secuencia, null, null, i, fin));
+                if (m != 1 || secuencia.charAt(i) >= 0x80)
+                    ascii = false;
+                if (m == 4)
+                    i++;
+                n += m;
+            }
+            if (!ascii) {
+                bytes = codificado.get();
+                if (bytes.length < n) {
+                    bytes = new byte[Math.max(n, 2 * bytes.length)];
+                    codificado.set(bytes);
+                }
+                int j = 0;
+                for (int i = inicio; i < fin; i++) {
+                    int u = bytesEn(secuencia, null, null, i, fin);
+                    int m = cuantosBytes(u);
+                    if (m == 4)
+                        i++;
+                    for (; m > 0; m--, u >>>= 8)
+                        bytes[j++] = (byte)u;
+                }
+                secuencia = null;
+                inicio = 0;
+                fin = n;
+            }
+        }
         switch (algoritmo) {
-            case BJ_STRING: return getBJString();
-            case GLIB_STRING: return getGLibString();
-            case XOR_STRING: return getXORString();
+            case MURMUR3_32:
+                return dispersaMurmur3_32((int)semilla, secuencia, bytes,
+                                          buffer, inicio, fin);
+            case MURMUR3_128:
+                return dispersaMurmur3_128(semilla, secuencia, bytes, buffer,
+                                           inicio, fin, null);
+            case XXHASH_64:
+                return dispersaXXHash64(semilla, secuencia, bytes, buffer,
+                                        inicio, fin);
+            case FNV1A_64:
+                return dispersaFNV1a64(semilla, secuencia, bytes, buffer,
+                                       inicio, fin);
+            case WYHASH:
+                return dispersaWyhash(semilla, secuencia, bytes, buffer,
+                                      inicio, fin);
             default: throw new IllegalArgumentException();
         }
     }
 
+    /* Regresa el byte en el índice i de la fuente, sin signo. Una secuencia
+       aquí siempre es ASCII. */
+    private static int octeto(CharSequence secuencia, byte[] bytes,
+                              ByteBuffer buffer, int i) {
+        if (bytes != null)
+            return bytes[i] & 0xff;
+        if (buffer != null)
+            return buffer.get(i) & 0xff;
+        return secuencia.charAt(i);
+    }
+
+    /* Lee un entero de 32 bits en orden little-endian. */
+    private static int lee32(CharSequence secuencia, byte[] bytes,
+                             ByteBuffer buffer, int i) {
+        return octeto(secuencia, bytes, buffer, i) |
+            octeto(secuencia, bytes, buffer, i + 1) << 8 |
+            octeto(secuencia, bytes, buffer, i + 2) << 16 |
+            octeto(secuencia, bytes, buffer, i + 3) << 24;
+    }
+
+    /* Lee un entero de 64 bits en orden little-endian. */
+    private static long lee64(CharSequence secuencia, byte[] bytes,
+                              ByteBuffer buffer, int i) {
+        return (lee32(secuencia, bytes, buffer, i) & 0xffffffffL) |
+            (long)lee32(secuencia, bytes, buffer, i + 4) << 32;
+    }
+
+    /* Genera una huella digital de MurmurHash3 de 32 bits. */
+    private static int dispersaMurmur3_32(int semilla, CharSequence secuencia,
+                                          byte[] bytes, ByteBuffer buffer,
+                                          int inicio, int fin) {
+        final int c1 = 0xcc9e2d51, c2 = 0x1b873593;
+        int h = semilla;
+        int i = inicio;
+        for (; i + 4 <= fin; i += 4) {
+            int k = lee32(secuencia, bytes, buffer, i);
+            k *= c1;
+            k = Integer.rotateLeft(k, 15);
+            k *= c2;
+            h ^= k;
+            h = Integer.rotateLeft(h, 13);
+            h = h * 5 + 0xe6546b64;
+        }
+        int k = 0;
+        switch (fin - i) {
+        case 3: k ^= octeto(secuencia, bytes, buffer, i + 2) << 16;
+        case 2: k ^= octeto(secuencia, bytes, buffer, i + 1) << 8;
+        case 1: k ^= octeto(secuencia, bytes, buffer, i);
+                k *= c1;
+                k = Integer.rotateLeft(k, 15);
+                k *= c2;
+                h ^= k;
+        }
+        h ^= fin - inicio;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /* Mezcla final de 64 bits de MurmurHash3. */
+    private static long mezclaFinal64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    /* Genera una huella digital de MurmurHash3 de 128 bits; regresa la
+       primera mitad, y si resultado no es null deja ahí las dos. */
+    private static long dispersaMurmur3_128(long semilla, CharSequence secuencia,
+                                            byte[] bytes, ByteBuffer buffer,
+                                            int inicio, int fin,
+                                            long[] resultado) {
+        final long c1 = 0x87c37b91114253d5L, c2 = 0x4cf5ad432745937fL;
+        long h1 = semilla, h2 = semilla;
+        int i = inicio;
+        for (; i + 16 <= fin; i += 16) {
+            long k1 = lee64(secuencia, bytes, buffer, i);
+            long k2 = lee64(secuencia, bytes, buffer, i + 8);
+            k1 *= c1;
+            k1 = Long.rotateLeft(k1, 31);
+            k1 *= c2;
+            h1 ^= k1;
+            h1 = Long.rotateLeft(h1, 27);
+            h1 += h2;
+            h1 = h1 * 5 + 0x52dce729;
+            k2 *= c2;
+            k2 = Long.rotateLeft(k2, 33);
+            k2 *= c1;
+            h2 ^= k2;
+            h2 = Long.rotateLeft(h2, 31);
+            h2 += h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+        int r = fin - i;
+        long k1 = 0, k2 = 0;
+        for (int j = r - 1; j >= 8; j--)
+            k2 ^= (long)octeto(secuencia, bytes, buffer, i + j) << ((j - 8) * 8);
+        if (r > 8) {
+            k2 *= c2;
+            k2 = Long.rotateLeft(k2, 33);
+            k2 *= c1;
+            h2 ^= k2;
+        }
+        for (int j = Math.min(r, 8) - 1; j >= 0; j--)
+            k1 ^= (long)octeto(secuencia, bytes, buffer, i + j) << (j * 8);
+        if (r > 0) {
+            k1 *= c1;
+            k1 = Long.rotateLeft(k1, 31);
+            k1 *= c2;
+            h1 ^= k1;
+        }
+        h1 ^= fin - inicio;
+        h2 ^= fin - inicio;
+        h1 += h2;
+        h2 += h1;
+        h1 = mezclaFinal64(h1);
+        h2 = mezclaFinal64(h2);
+        h1 += h2;
+        h2 += h1;
+        if (resultado != null) {
+            resultado[0] = h1;
+            resultado[1] = h2;
+        }
+        return h1;
+    }
+
+    /* Primos de xxHash64. */
+    private static final long P1 = 0x9e3779b185ebca87L;
+    private static final long P2 = 0xc2b2ae3d27d4eb4fL;
+    private static final long P3 = 0x165667b19e3779f9L;
+    private static final long P4 = 0x85ebca77c2b2ae63L;
+    private static final long P5 = 0x27d4eb2f165667c5L;
+
+    /* Una ronda de xxHash64. */
+    private static long rondaXX(long acumulado, long entrada) {
+        acumulado += entrada * P2;
+        acumulado = Long.rotateLeft(acumulado, 31);
+        return acumulado * P1;
+    }
+
+    /* Mezcla un acumulador en la huella de xxHash64. */
+    private static long juntaXX(long h, long acumulado) {
+        h ^= rondaXX(0, acumulado);
+        return h * P1 + P4;
+    }
+
+    /* Genera una huella digital de xxHash64. */
+    private static long dispersaXXHash64(long semilla, CharSequence secuencia,
+                                         byte[] bytes, ByteBuffer buffer,
+                                         int inicio, int fin) {
+        int i = inicio;
+        long h;
+        if (fin - inicio >= 32) {
+            long v1 = semilla + P1 + P2, v2 = semilla + P2;
+            long v3 = semilla, v4 = semilla - P1;
+            for (; i + 32 <= fin; i += 32) {
+                v1 = rondaXX(v1, lee64(secuencia, bytes, buffer, i));
+                v2 = rondaXX(v2, lee64(secuencia, bytes, buffer, i + 8));
+                v3 = rondaXX(v3, lee64(secuencia, bytes, buffer, i + 16));
+                v4 = rondaXX(v4, lee64(secuencia, bytes, buffer, i + 24));
+            }
+            h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) +
+                Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            h = juntaXX(h, v1);
+            h = juntaXX(h, v2);
+            h = juntaXX(h, v3);
+            h = juntaXX(h, v4);
+        } else {
+            h = semilla + P5;
+        }
+        h += fin - inicio;
+        for (; i + 8 <= fin; i += 8) {
+            h ^= rondaXX(0, lee64(secuencia, bytes, buffer, i));
+            h = Long.rotateLeft(h, 27) * P1 + P4;
+        }
+        if (i + 4 <= fin) {
+            h ^= (lee32(secuencia, bytes, buffer, i) & 0xffffffffL) * P1;
+            h = Long.rotateLeft(h, 23) * P2 + P3;
+            i += 4;
+        }
+        for (; i < fin; i++) {
+            h ^= octeto(secuencia, bytes, buffer, i) * P5;
+            h = Long.rotateLeft(h, 11) * P1;
+        }
+        h ^= h >>> 33;
+        h *= P2;
+        h ^= h >>> 29;
+        h *= P3;
+        h ^= h >>> 32;
+        return h;
+    }
+
+    /* Genera una huella digital de FNV-1a de 64 bits; la semilla se mezcla
+       con la base, así que con semilla 0 es el FNV-1a estándar. */
+    private static long dispersaFNV1a64(long semilla, CharSequence secuencia,
+                                        byte[] bytes, ByteBuffer buffer,
+                                        int inicio, int fin) {
+        long h = 0xcbf29ce484222325L ^ semilla;
+        for (int i = inicio; i < fin; i++) {
+            h ^= octeto(secuencia, bytes, buffer, i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    /* Secretos predeterminados de wyhash. */
+    private static final long W0 = 0x2d358dccaa6c78a5L;
+    private static final long W1 = 0x8bb84b93962eacc9L;
+    private static final long W2 = 0x4b33a62ed433d4a3L;
+    private static final long W3 = 0x4d5a2da51de1aa47L;
+
+    /* Regresa los 64 bits altos del producto sin signo de a y b. */
+    private static long multiplicaAlto(long a, long b) {
+        long a0 = a & 0xffffffffL, a1 = a >>> 32;
+        long b0 = b & 0xffffffffL, b1 = b >>> 32;
+        long p00 = a0 * b0, p01 = a0 * b1, p10 = a1 * b0, p11 = a1 * b1;
+        long medio = (p00 >>> 32) + (p01 & 0xffffffffL) + (p10 & 0xffffffffL);
+        return p11 + (p01 >>> 32) + (p10 >>> 32) + (medio >>> 32);
+    }
+
+    /* Mezcla de wyhash: el XOR de las dos mitades del producto de 128
+       bits. */
+    private static long mezclaWy(long a, long b) {
+        return (a * b) ^ multiplicaAlto(a, b);
+    }
+
+    /* Genera una huella digital de wyhash. */
+    private static long dispersaWyhash(long semilla, CharSequence secuencia,
+                                       byte[] bytes, ByteBuffer buffer,
+                                       int inicio, int fin) {
+        int n = fin - inicio;
+        long s = semilla ^ mezclaWy(semilla ^ W0, W1);
+        long a, b;
+        if (n <= 16) {
+            if (n >= 4) {
+                int d = (n >>> 3) << 2;
+                a = (lee32(secuencia, bytes, buffer, inicio) & 0xffffffffL) << 32 |
+                    (lee32(secuencia, bytes, buffer, inicio + d) & 0xffffffffL);
+                b = (lee32(secuencia, bytes, buffer, fin - 4) & 0xffffffffL) << 32 |
+                    (lee32(secuencia, bytes, buffer, fin - 4 - d) & 0xffffffffL);
+            } else if (n > 0) {
+                a = (long)octeto(secuencia, bytes, buffer, inicio) << 16 |
+                    (long)octeto(secuencia, bytes, buffer, inicio + (n >>> 1)) << 8 |
+                    octeto(secuencia, bytes, buffer, fin - 1);
+                b = 0;
+            } else {
+                a = b = 0;
+            }
+        } else {
+            int i = inicio;
+            if (n > 48) {
+                long s1 = s, s2 = s;
+                do {
+                    s = mezclaWy(lee64(secuencia, bytes, buffer, i) ^ W1,
+                                 lee64(secuencia, bytes, buffer, i + 8) ^ s);
+                    s1 = mezclaWy(lee64(secuencia, bytes, buffer, i + 16) ^ W2,
+                                  lee64(secuencia, bytes, buffer, i + 24) ^ s1);
+                    s2 = mezclaWy(lee64(secuencia, bytes, buffer, i + 32) ^ W3,
+                                  lee64(secuencia, bytes, buffer, i + 40) ^ s2);
+                    i += 48;
+                } while (fin - i > 48);
+                s ^= s1 ^ s2;
+            }
+            while (fin - i > 16) {
+                s = mezclaWy(lee64(secuencia, bytes, buffer, i) ^ W1,
+                             lee64(secuencia, bytes, buffer, i + 8) ^ s);
+                i += 16;
+            }
+            a = lee64(secuencia, bytes, buffer, fin - 16);
+            b = lee64(secuencia, bytes, buffer, fin - 8);
+        }
+        a ^= W1;
+        b ^= s;
+        long bajo = a * b, alto = multiplicaAlto(a, b);
+        return mezclaWy(bajo ^ W0 ^ n, alto ^ W1);
+    }
+
+    /* Regresa los bytes del índice i de la fuente, empacados del menos al más
+       significativo. De una secuencia son los bytes en UTF-8 del carácter en
+       i (o del par sustituto que empieza en i); de un arreglo o un buffer es
+       un solo byte. */
+    private static int bytesEn(CharSequence secuencia, byte[] bytes,
+                               ByteBuffer buffer, int i, int fin) {
+        if (bytes != null)
+            return bytes[i] & 0xff;
+        if (buffer != null)
+            return buffer.get(i) & 0xff;
+        char c = secuencia.charAt(i);
+        if (c < 0x80)
+            return c;
+        if (c < 0x800)
+            return (0xc0 | c >> 6) | (0x80 | c & 0x3f) << 8;
+        if (!Character.isSurrogate(c))
+            return (0xe0 | c >> 12) | (0x80 | c >> 6 & 0x3f) << 8 |
+                (0x80 | c & 0x3f) << 16;
+        if (!Character.isHighSurrogate(c) || i + 1 == fin ||
+            !Character.isLowSurrogate(secuencia.charAt(i + 1)))
+            return '?';
+        int p = Character.toCodePoint(c, secuencia.charAt(i + 1));
+        return (0xf0 | p >> 18) | (0x80 | p >> 12 & 0x3f) << 8 |
+            (0x80 | p >> 6 & 0x3f) << 16 | (0x80 | p & 0x3f) << 24;
+    }
+
+    /* Nos dice cuántos bytes empacó bytesEn, a partir del primero. */
+    private static int cuantosBytes(int u) {
+        int b = u & 0xff;
+        if (b < 0xc0 || u == b)
+            return 1;
+        return b < 0xe0 ? 2 : b < 0xf0 ? 3 : 4;
+    }
+
     /* Suma dos enteros sin preocuparse por el signo. */
     private static int ss(int a, int b) {
         long la = a;
@@ -29,15 +662,6 @@ public class FabricaDispersores {
         return (int)r;
     }
 
-
-    /* Suma dos bytes sin preocuparse por el signo. */
-    private static byte ss(byte a, byte b) {
-        int ia = a;
-        int ib = b;
-        int r = (ia + ib) & 0xff;
-        return (byte)r;
-    }
-
     /* Multiplica dos enteros sin preocuparse por el signo. */
     private static int ms(int a, int b) {
         long la = a;
@@ -46,9 +670,52 @@ public class FabricaDispersores {
         return (int)r;
     }
 
-    /* Mezcla tres enteros. */
-    private static void mezclaBJ(int[] r) {
-        int a = r[0], b = r[1], c = r[2];
+    /* Genera una huella digital de Bob Jenkins. Los bytes se acumulan en
+       bloques de 12 (pa, pb y pc) y se mezclan con a, b y c cada vez que se
+       completa uno; los del último bloque incompleto se agregan al final,
+       con el primer byte de c reservado para la longitud. */
+    private static int dispersaBJ(CharSequence secuencia, byte[] bytes,
+                                  ByteBuffer buffer, int inicio, int fin) {
+        int a = 0x9e3779b9, b = 0x9e3779b9, c = 0xffffffff;
+        int pa = 0, pb = 0, pc = 0;
+        int p = 0, n = 0;
+        for (int i = inicio; i < fin; i++) {
+            int u = bytesEn(secuencia, bytes, buffer, i, fin);
+            int m = cuantosBytes(u);
+            if (m == 4 && secuencia != null)
+                i++;
+            for (; m > 0; m--, u >>>= 8) {
+                int k = (byte)u;
+                if (p < 4) {
+                    pa = ss(pa, k << (8 * p));
+                } else if (p < 8) {
+                    pb = ss(pb, k << (8 * (p - 4)));
+                } else if (p < 11) {
+                    pc = ss(pc, k << (8 * (p - 8)));
+                } else {
+                    a = ss(a, pa);
+                    b = ss(b, pb);
+                    c = ss(c, ss(pc, k << 24));
+                    a = ss(a, -b); a = ss(a, -c); a ^= (c >>> 13);
+                    b = ss(b, -c); b = ss(b, -a); b ^= (a << 8);
+                    c = ss(c, -a); c = ss(c, -b); c ^= (b >>> 13);
+                    a = ss(a, -b); a = ss(a, -c); a ^= (c >>> 12);
+                    b = ss(b, -c); b = ss(b, -a); b ^= (a << 16);
+                    c = ss(c, -a); c = ss(c, -b); c ^= (b >>> 5);
+                    a = ss(a, -b); a = ss(a, -c); a ^= (c >>> 3);
+                    b = ss(b, -c); b = ss(b, -a); b ^= (a << 10);
+                    c = ss(c, -a); c = ss(c, -b); c ^= (b >>> 15);
+                    pa = pb = pc = 0;
+                    p = -1;
+                }
+                p++;
+                n++;
+            }
+        }
+
+        a = ss(a, pa);
+        b = ss(b, pb);
+        c = ss(c, ss(n, pc << 8));
         a = ss(a, -b); a = ss(a, -c); a ^= (c >>> 13);
         b = ss(b, -c); b = ss(b, -a); b ^= (a << 8);
         c = ss(c, -a); c = ss(c, -b); c ^= (b >>> 13);
@@ -58,76 +725,45 @@ public class FabricaDispersores {
         a = ss(a, -b); a = ss(a, -c); a ^= (c >>> 3);
         b = ss(b, -c); b = ss(b, -a); b ^= (a << 10);
         c = ss(c, -a); c = ss(c, -b); c ^= (b >>> 15);
-        r[0] = a; r[1] = b; r[2] = c;
+        return c;
     }
 
-     /* Genera una huella digital de Bob Jenkins. */
-    private static Dispersor<String> getBJString() {
-        return (cadena) -> {    
-            byte[] k = cadena.getBytes();
-            int n = k.length;
-
-            int[] r = { 0x9e3779b9, 0x9e3779b9, 0xffffffff };
-
-            int i = 0;
-            while (i+11 < n) {
-                r[0] = ss(r[0], k[i] + (k[i+1] <<  8) + (k[i+2] << 16) + (k[i+3] << 24));
-                r[1] = ss(r[1], k[i+4] + (k[i+5] <<  8) + (k[i+6] << 16) + (k[i+7] << 24));
-                r[2] = ss(r[2], k[i+8] + (k[i+9] << 8) + (k[i+10] << 16) + (k[i+11] << 24));
-                mezclaBJ(r);
-                i += 12;
-            }
-
-            r[2] += n;
-            switch (n - i) {
-            case 11: r[2] = ss(r[2], k[i+10] << 24);
-            case 10: r[2] = ss(r[2], k[i+9] << 16);
-            case  9: r[2] = ss(r[2], k[i+8] <<  8);
-            case  8: r[1] = ss(r[1], k[i+7] << 24);
-            case  7: r[1] = ss(r[1], k[i+6] << 16);
-            case  6: r[1] = ss(r[1], k[i+5] <<  8);
-            case  5: r[1] = ss(r[1], k[i+4]);
-            case  4: r[0] = ss(r[0], k[i+3] << 24);
-            case  3: r[0] = ss(r[0], k[i+2] << 16);
-            case  2: r[0] = ss(r[0], k[i+1] <<  8);
-            case  1: r[0] = ss(r[0], k[i]);
-            }
+    /* Genera una huella digital de GLib. */
+    private static int dispersaGLib(CharSequence secuencia, byte[] bytes,
+                                    ByteBuffer buffer, int inicio, int fin) {
+        int h = 5381;
+        for (int i = inicio; i < fin; i++) {
+            int u = bytesEn(secuencia, bytes, buffer, i, fin);
+            int m = cuantosBytes(u);
+            if (m == 4 && secuencia != null)
+                i++;
+            for (; m > 0; m--, u >>>= 8)
+                h = ss(ms(h, 33), (byte)u);
+        }
+        return h;
+    }
 
-            mezclaBJ(r);
-            return r[2];
-        };
-    }
-
-     /* Genera una huella digital de GLib. */
-    private static Dispersor<String> getGLibString() {
-        return (cadena) -> {
-            byte[] k = cadena.getBytes();
-            int h = 5381;
-            for (int i = 0; i < k.length; i++)
-                h = ss(ms(h, 33), k[i]);
-            return h;
-        };
-    }
-
-    /* Genera una huella digital de XOR. */
-    private static Dispersor<String> getXORString() {
-        return (cadena) -> {
-            byte[] k = cadena.getBytes();
-            int l = k.length;
-            int r = 0, i = 0;
-            while (l >= 4) {
-                r ^= (k[i] << 24) | (k[i+1] << 16) | (k[i+2] << 8) | k[i+3];
-                i += 4;
-                l -= 4;
+    /* Genera una huella digital de XOR. Los bytes se juntan de cuatro en
+       cuatro, del más al menos significativo. */
+    private static int dispersaXOR(CharSequence secuencia, byte[] bytes,
+                                   ByteBuffer buffer, int inicio, int fin) {
+        int r = 0, t = 0, p = 0;
+        for (int i = inicio; i < fin; i++) {
+            int u = bytesEn(secuencia, bytes, buffer, i, fin);
+            int m = cuantosBytes(u);
+            if (m == 4 && secuencia != null)
+                i++;
+            for (; m > 0; m--, u >>>= 8) {
+                int k = (byte)u;
+                if (p < 3) {
+                    t |= k << (24 - 8 * p++);
+                } else {
+                    r ^= t | k;
+                    t = p = 0;
+                }
             }
-            int t = 0;
-            switch (l) {
-            case 3: t |= k[i+2] << 8;
-            case 2: t |= k[i+1] << 16;
-            case 1: t |= k[i]   << 24;
-            }
-            r ^= t;
-            return r;
-        };
+        }
+        r ^= t;
+        return r;
     }
 }
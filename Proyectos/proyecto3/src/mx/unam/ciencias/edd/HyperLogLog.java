@@ -0,0 +1,249 @@
+package mx.unam.ciencias.edd;
+
+import java.nio.ByteBuffer;
+
+/**
+ * <p>Clase para estimar el número de elementos distintos de un flujo con
+ * <em>HyperLogLog</em>, en memoria fija.</p>
+ *
+ * <p>La estructura tiene <em>m</em> = 2<sup><em>p</em></sup> registros, donde
+ * <em>p</em> es la precisión. Cada elemento se dispersa a 64 bits: los
+ * <em>p</em> bits altos eligen un registro, y el registro guarda el máximo
+ * número de ceros al inicio de los bits restantes (más uno) que ha visto. La
+ * estimación es una media armónica de 2 elevado a los registros, con error
+ * estándar de alrededor de 1.04/√<em>m</em>; para cardinalidades pequeñas se
+ * usa el conteo lineal de los registros vacíos. Agregar un elemento repetido
+ * no cambia la estructura.</p>
+ *
+ * <p>A diferencia de un {@link Conjunto}, no guarda los elementos: sólo sirve
+ * cuando lo único que importa es la cardinalidad. Dos estructuras con la misma
+ * precisión y el mismo dispersor pueden unirse, por ejemplo para combinar las
+ * de varios archivos o hilos, y el estado puede convertirse en bytes.</p>
+ *
+ * @param <T> el tipo de los elementos.
+ */
+public class HyperLogLog<T> {
+
+    /** Mínima precisión permitida. */
+    public static final int MIN_PRECISION = 4;
+    /** Máxima precisión permitida. */
+    public static final int MAX_PRECISION = 18;
+
+    /* Número mágico al inicio de los bytes ("EDDH"). */
+    private static final int MAGIA = 0x45444448;
+    /* Versión del formato de los bytes. */
+    private static final int VERSION = 1;
+
+    /* El dispersor de 64 bits. */
+    private DispersorLargo<T> dispersor;
+    /* Los registros. */
+    private byte[] registros;
+    /* La precisión. */
+    private int precision;
+
+    /**
+     * Construye un estimador para elementos cualesquiera, usando su método
+     * {@link Object#hashCode} mezclado a 64 bits. Como la huella original es
+     * de 32 bits, las estimaciones pierden exactitud arriba de cientos de
+     * millones de elementos distintos; para cadenas conviene usar {@link
+     * #deCadenas}.
+     * @param precision el logaritmo base 2 del número de registros.
+     * @throws IllegalArgumentException si la precisión no está entre {@link
+     *         #MIN_PRECISION} y {@link #MAX_PRECISION}.
+     */
+    public HyperLogLog(int precision) {
+        this(precision, (T o) -> mezcla(o.hashCode()));
+    }
+
+    /**
+     * Construye un estimador con el dispersor de 64 bits recibido.
+     * @param precision el logaritmo base 2 del número de registros.
+     * @param dispersor el dispersor de 64 bits.
+     * @throws IllegalArgumentException si la precisión no está entre {@link
+     *         #MIN_PRECISION} y {@link #MAX_PRECISION}, o si el dispersor es
+     *         <code>null</code>.
+     */
+    public HyperLogLog(int precision, DispersorLargo<T> dispersor) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION ||
+            dispersor == null)
+            throw new IllegalArgumentException();
+        this.precision = precision;
+        this.dispersor = dispersor;
+        registros = new byte[1 << precision];
+    }
+
+    /**
+     * Construye un estimador para cadenas, con el dispersor de 64 bits del
+     * algoritmo recibido.
+     * @param precision el logaritmo base 2 del número de registros.
+     * @param algoritmo el algoritmo del dispersor.
+     * @return un estimador vacío para cadenas.
+     * @throws IllegalArgumentException si la precisión no es válida, o si el
+     *         algoritmo no genera huellas de 64 bits.
+     */
+    public static HyperLogLog<String> deCadenas(int precision,
+                                                AlgoritmoDispersor algoritmo) {
+        return new HyperLogLog<String>(
+            precision, FabricaDispersores.getInstanciaLarga(algoritmo));
+    }
+
+    /**
+     * Reconstruye un estimador a partir de los bytes generados por {@link
+     * #aBytes}. El dispersor debe ser el mismo del estimador original.
+     * @param <T> el tipo de los elementos.
+     * @param bytes los bytes del estimador.
+     * @param dispersor el dispersor de 64 bits.
+     * @return el estimador representado por los bytes.
+     * @throws IllegalArgumentException si los bytes no representan un
+     *         estimador válido, o si el dispersor es <code>null</code>.
+     */
+    public static <T> HyperLogLog<T> deBytes(byte[] bytes,
+                                             DispersorLargo<T> dispersor) {
+        if (bytes.length < 12)
+            throw new IllegalArgumentException("Bytes inválidos.");
+        ByteBuffer b = ByteBuffer.wrap(bytes);
+        if (b.getInt() != MAGIA || b.getInt() != VERSION)
+            throw new IllegalArgumentException("Bytes inválidos.");
+        int p = b.getInt();
+        if (p < MIN_PRECISION || p > MAX_PRECISION ||
+            b.remaining() != 1 << p)
+            throw new IllegalArgumentException("Bytes inválidos.");
+        HyperLogLog<T> h = new HyperLogLog<T>(p, dispersor);
+        b.get(h.registros);
+        for (byte r : h.registros)
+            if (r < 0 || r > 65 - p)
+                throw new IllegalArgumentException("Bytes inválidos.");
+        return h;
+    }
+
+    /**
+     * Reconstruye un estimador para cadenas a partir de los bytes generados
+     * por {@link #aBytes} de un estimador creado con {@link #deCadenas}.
+     * @param bytes los bytes del estimador.
+     * @param algoritmo el algoritmo del dispersor del estimador original.
+     * @return el estimador representado por los bytes.
+     * @throws IllegalArgumentException si los bytes no representan un
+     *         estimador válido, o si el algoritmo no genera huellas de 64
+     *         bits.
+     */
+    public static HyperLogLog<String> deBytes(byte[] bytes,
+                                              AlgoritmoDispersor algoritmo) {
+        return deBytes(bytes, FabricaDispersores.getInstanciaLarga(algoritmo));
+    }
+
+    /**
+     * Agrega un elemento al estimador.
+     * @param elemento el elemento a agregar.
+     * @throws IllegalArgumentException si el elemento es <code>null</code>.
+     */
+    public void agrega(T elemento) {
+        if (elemento == null)
+            throw new IllegalArgumentException();
+        agregaHuella(dispersor.dispersaLargo(elemento));
+    }
+
+    /**
+     * Agrega al estimador un elemento ya dispersado. La huella debe tener sus
+     * 64 bits bien mezclados.
+     * @param huella la huella de 64 bits del elemento.
+     */
+    public void agregaHuella(long huella) {
+        int i = (int)(huella >>> (64 - precision));
+        /* El bit centinela acota el número de ceros a 64 - precision. */
+        long resto = (huella << precision) | (1L << (precision - 1));
+        byte r = (byte)(Long.numberOfLeadingZeros(resto) + 1);
+        if (registros[i] < r)
+            registros[i] = r;
+    }
+
+    /**
+     * Estima el número de elementos distintos agregados.
+     * @return el número estimado de elementos distintos.
+     */
+    public long cardinalidad() {
+        int m = registros.length;
+        double suma = 0.0;
+        int vacios = 0;
+        for (byte r : registros) {
+            suma += Double.longBitsToDouble((1023L - r) << 52);
+            if (r == 0)
+                vacios++;
+        }
+        double e = alfa(m) * m * m / suma;
+        if (e <= 2.5 * m && vacios > 0)
+            e = m * Math.log((double)m / vacios);
+        return Math.round(e);
+    }
+
+    /**
+     * Agrega al estimador los elementos del estimador recibido. Los dos deben
+     * tener la misma precisión y usar el mismo dispersor.
+     * @param estimador el estimador a unir con éste.
+     * @throws IllegalArgumentException si el estimador recibido tiene otra
+     *         precisión.
+     */
+    public void une(HyperLogLog<T> estimador) {
+        if (estimador.precision != precision)
+            throw new IllegalArgumentException("Los estimadores tienen " +
+                                               "precisiones distintas.");
+        for (int i = 0; i < registros.length; i++)
+            if (registros[i] < estimador.registros[i])
+                registros[i] = estimador.registros[i];
+    }
+
+    /**
+     * Elimina todos los elementos del estimador.
+     */
+    public void limpia() {
+        for (int i = 0; i < registros.length; i++)
+            registros[i] = 0;
+    }
+
+    /**
+     * Regresa los bytes del estimador, de los que se puede reconstruir con
+     * {@link #deBytes}. El dispersor no se guarda.
+     * @return los bytes del estimador.
+     */
+    public byte[] aBytes() {
+        ByteBuffer b = ByteBuffer.allocate(12 + registros.length);
+        b.putInt(MAGIA).putInt(VERSION).putInt(precision).put(registros);
+        return b.array();
+    }
+
+    /**
+     * Regresa la precisión del estimador.
+     * @return la precisión del estimador.
+     */
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Regresa el error estándar relativo de las estimaciones.
+     * @return el error estándar relativo de las estimaciones.
+     */
+    public double errorEstandar() {
+        return 1.04 / Math.sqrt(registros.length);
+    }
+
+    /* Regresa la constante de corrección para m registros. */
+    private static double alfa(int m) {
+        switch (m) {
+            case 16: return 0.673;
+            case 32: return 0.697;
+            case 64: return 0.709;
+            default: return 0.7213 / (1.0 + 1.079 / m);
+        }
+    }
+
+    /* Mezcla los bits de un entero a 64 bits, con el finalizador de
+       MurmurHash3 de 64 bits. */
+    private static long mezcla(long x) {
+        x ^= x >>> 33;
+        x *= 0xff51afd7ed558ccdL;
+        x ^= x >>> 33;
+        x *= 0xc4ceb9fe1a85ec53L;
+        x ^= x >>> 33;
+        return x;
+    }
+}
@@ -0,0 +1,15 @@
+package mx.unam.ciencias.edd;
+
+/**
+ * Enumeración para las políticas de expulsión de {@link Cache}.
+ */
+public enum PoliticaCache {
+    /** Expulsa la entrada usada menos recientemente. */
+    LRU,
+    /**
+     * <em>W-TinyLFU</em>: las entradas nuevas pasan por una ventana LRU
+     * pequeña, y sólo entran a la región principal si son más frecuentes que
+     * la entrada que expulsarían.
+     */
+    W_TINY_LFU
+}
@@ -3,6 +3,10 @@ package mx.unam.ciencias.edd.proyecto3;
 import java.io.File;
 import mx.unam.ciencias.edd.Lista;
 import mx.unam.ciencias.edd.Diccionario;
+import mx.unam.ciencias.edd.BosquejoCountMin;
+import mx.unam.ciencias.edd.ElementosFrecuentes;
+import mx.unam.ciencias.edd.HyperLogLog;
+import mx.unam.ciencias.edd.AlgoritmoDispersor;
 
 public class ContadorPalabras {
 
@@ -16,6 +20,18 @@ public class ContadorPalabras {
 	private Diccionario<String, Palabra> d;
 	/* Total de palabras. */
 	private int total;	
+	/* Frecuencias estimadas, en el modo aproximado. */
+	private BosquejoCountMin<String> bosquejo;
+	/* Palabras más frecuentes, en el modo aproximado. */
+	private ElementosFrecuentes<String> frecuentes;
+	/* Palabras distintas estimadas, en el modo aproximado. */
+	private HyperLogLog<String> distintas;
+
+	/* Máximo número de caracteres del texto que se guardan en el modo
+	   aproximado. */
+	private static final int MAX_TEXTO = 1 << 16;
+	/* Precisión del estimador de palabras distintas. */
+	private static final int PRECISION = 14;
 
 	/* Constructor sin parámetros.*/
 	public ContadorPalabras(String archivo) {
@@ -26,6 +42,26 @@ public class ContadorPalabras {
 		this.total = 0;
 	}
 
+	/**
+	* Constructor para el modo aproximado: en lugar de contar cada palabra
+	* distinta, estima las frecuencias con un bosquejo Count-Min y sólo
+	* conserva las palabras más frecuentes, así que la memoria no depende del
+	* tamaño del archivo. Las ocurrencias de cada palabra reportada exceden a
+	* las reales por a lo más <code>error</code> por el total de palabras, con
+	* probabilidad al menos <code>1 - confianza</code>.
+	* @param archivo el archivo a contar.
+	* @param error el error relativo al total de palabras.
+	* @param confianza la probabilidad de exceder el error.
+	*/
+	public ContadorPalabras(String archivo, double error, double confianza) {
+		this(archivo);
+		this.d = null;
+		this.bosquejo = new BosquejoCountMin<>(error, confianza);
+		this.frecuentes = ElementosFrecuentes.conError(error);
+		this.distintas = HyperLogLog.deCadenas(PRECISION,
+		                                       AlgoritmoDispersor.XXHASH_64);
+	}
+
 	/**
 	* Regresa una lista ordenada según las coincidencias de las palabras.
 	* @return la lista con las palabras ordenadas.	
@@ -33,22 +69,28 @@ public class ContadorPalabras {
 	public Lista<Palabra> cuenta() {
 		String s = null;
 		while ((s = lector.leeLinea()) != null) {
-			texto += s + "\n";
+			if (d != null || texto.length() < MAX_TEXTO)
+				texto += s + "\n";
 			String[] palabrasLinea = s.split("\\s+");
 			for (String p : palabrasLinea) {
 				if (p.trim().isEmpty())
 					continue; 
 				total++;
 				Palabra palabra = new Palabra(p.toLowerCase());
-				String llave = palabra.getPalabra();
-				if (d.contiene(llave)) {
-					int o = d.get(llave).getOcurrencias() + 1;
-					d.get(llave).setOcurrencias(o);
-				} else {
-					d.agrega(llave, palabra);
+				if (d == null) {
+					bosquejo.agrega(palabra.getPalabra());
+					frecuentes.agrega(palabra.getPalabra());
+					distintas.agrega(palabra.getPalabra());
+					continue;
 				}
+				d.mezcla(palabra.getPalabra(), palabra, (anterior, nueva) -> {
+					anterior.setOcurrencias(anterior.getOcurrencias() + 1);
+					return anterior;
+				});
 			}
 		}
+		if (d == null)
+			return cuentaAproximada();
 		Lista<Palabra> lp = new Lista<>();
 		for (Palabra p : d) {
 			double veces = p.getOcurrencias();
@@ -59,6 +101,21 @@ public class ContadorPalabras {
 		return Lista.mergeSort(lp);
 	}
 
+	/* Regresa la lista ordenada de las palabras más frecuentes, con sus
+	   ocurrencias estimadas. */
+	private Lista<Palabra> cuentaAproximada() {
+		Lista<Palabra> lp = new Lista<>();
+		for (String s : frecuentes.getTop(frecuentes.getCapacidad())) {
+			Palabra p = new Palabra(s);
+			/* Las dos estimaciones exceden a la real; la menor es mejor. */
+			p.setOcurrencias((int)Math.min(frecuentes.cuenta(s),
+			                               bosquejo.estima(s)));
+			p.setPorcentaje((p.getOcurrencias() / (double)total) * 100.0);
+			lp.agrega(p);
+		}
+		return Lista.mergeSort(lp);
+	}
+
 	/**
 	* Regresa el nombre del archivo.
 	* @return el nombre del archivo.
@@ -76,7 +133,25 @@ public class ContadorPalabras {
 	}
 
 	/**
-	* Regresa el diccionario.
+	* Regresa el número de palabras distintas; en el modo aproximado es una
+	* estimación.
+	* @return el número de palabras distintas.
+	*/
+	public long getDistintas() {
+		return d != null ? d.getElementos() : distintas.cardinalidad();
+	}
+
+	/**
+	* Nos dice si el contador está en el modo aproximado.
+	* @return <code>true</code> si el contador está en el modo aproximado,
+	*         <code>false</code> en otro caso.
+	*/
+	public boolean esAproximado() {
+		return this.d == null;
+	}
+
+	/**
+	* Regresa el diccionario, o <code>null</code> en el modo aproximado.
 	* @return el diccionario.
 	*/
 	public Diccionario<String, Palabra> getDiccionario() {
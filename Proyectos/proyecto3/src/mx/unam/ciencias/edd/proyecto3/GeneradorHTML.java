@@ -31,6 +31,8 @@ public class GeneradorHTML {
 		s.append(String.format(ABRE_HTML, r.getTitulo()));
 		s.append(String.format(H1, "Texto original."));
 		s.append(String.format(PAR,"<i>Total de palabras:</i> " + r.getTotal()));
+		s.append(String.format(PAR,"<i>Palabras distintas:</i> " +
+		                       r.getDistintas()));
 		s.append(String.format(PAR, r.getTexto().replaceAll("\n","<br>\n")));
 		s.append(String.format(H1, "Coincidencias de palabras"));
 		StringBuffer c = new StringBuffer();
@@ -40,16 +42,17 @@ public class GeneradorHTML {
 		s.append(String.format(H1, "Gráfica de barras."));
 		s.append(g.barras(r.getTop()));
 		s.append(String.format(H1, "Árbol rojinegro."));
-		int i = 1;
-		ArbolRojinegro<Palabra> rojinegro = new ArbolRojinegro<Palabra>();
-		ArbolAVL<Palabra> avl = new ArbolAVL<>();
+		/* Las coincidencias ya vienen ordenadas; tomamos las 15 mayores en
+		   orden para construir los árboles de golpe. */
+		Lista<Palabra> mayores = new Lista<Palabra>();
 		for (Palabra p : r.getCoincidencias().reversa()) {
-			if (i != 16) {
-				rojinegro.agrega(p);
-				avl.agrega(p);
-				i++;
-			}
+			if (mayores.getLongitud() == 15)
+				break;
+			mayores.agregaInicio(p);
 		}
+		ArbolRojinegro<Palabra> rojinegro =
+			ArbolRojinegro.deOrdenados(mayores);
+		ArbolAVL<Palabra> avl = ArbolAVL.deOrdenados(mayores);
 		s.append(g.dibujaArbolBinario(rojinegro));
 		s.append(String.format(H1, "Árbol AVL"));
 		s.append(g.dibujaArbolBinario(avl));
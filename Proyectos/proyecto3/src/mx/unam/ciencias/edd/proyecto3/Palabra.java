@@ -1,6 +1,8 @@
 package mx.unam.ciencias.edd.proyecto3;
 
 import java.text.Normalizer;
+import mx.unam.ciencias.edd.Cache;
+import mx.unam.ciencias.edd.PoliticaCache;
 
 /**
 * Clase privada para objetos de tipo <code>Palabra</code>. Nuestras palabras
@@ -16,17 +18,28 @@ public class Palabra implements Comparable<Palabra> {
 	/* El porcentaje. */
 	private double porcentaje;
 
+	/* Formas normalizadas de las palabras vistas recientemente; normalizar
+	   cuesta dos expresiones regulares por palabra. */
+	private static final Cache<String, String> normalizadas =
+		new Cache<>(4096, PoliticaCache.W_TINY_LFU);
+
 	/**
 	* Constructor que normaliza la palabra para no tener qué lidiar con
 	* los caracteres especiales.
 	*/
 	public Palabra(String p) {
-		this.palabra = Normalizer
-							.normalize(p,Normalizer.Form.NFD)
-							.replaceAll("[^\\p{ASCII}]","")
-							.replaceAll("[.¡!¿?/#$&()=\\-,'\"]","");
+		this.palabra = normaliza(p);
 		this.ocurrencias = 1;
 	}
+
+	/* Quita acentos y signos de puntuación a la palabra. */
+	private static String normaliza(String p) {
+		return normalizadas.calculaSiAusente(p, (s) -> Normalizer
+							.normalize(s,Normalizer.Form.NFD)
+							.replaceAll("[^\\p{ASCII}]","")
+							.replaceAll("[.¡!¿?/#$&()=\\-,'\"]",""));
+	}
+
 	/**
 	* Compara palabras usando el número de ocurrencias; si el parámetro
 	* es la misma palabra que esta entonces se incrementa el contador, si no
@@ -35,10 +48,7 @@ public class Palabra implements Comparable<Palabra> {
 	*/
 	@Override
 	public int compareTo(Palabra p) {
-		p.palabra = Normalizer
-				.normalize(p.palabra,Normalizer.Form.NFD)
-				.replaceAll("[^\\p{ASCII}]","")
-				.replaceAll("[.¡!¿?/#$&()=\\-,'\"]","");
+		p.palabra = normaliza(p.palabra);
 		return (p.ocurrencias == ocurrencias) 
 				? this.palabra.compareTo(p.palabra) 
 				: this.ocurrencias - p.ocurrencias;
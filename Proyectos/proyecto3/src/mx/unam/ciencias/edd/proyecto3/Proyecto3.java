@@ -12,7 +12,19 @@ public class Proyecto3 {
 		//Probando, no es definitivo.
 		String archivo = args[0];
 		String directorio = args[1];
-		ReporteTexto reporte = new ReporteTexto(archivo);
+		ReporteTexto reporte;
+		/* Un tercer argumento pide el modo aproximado, con ese error. */
+		if (args.length > 2) {
+			try {
+				reporte = new ReporteTexto(archivo,
+				                           Double.parseDouble(args[2]));
+			} catch (IllegalArgumentException iae) {
+				System.out.println("El error debe estar entre 0 y 1.");
+				return;
+			}
+		} else {
+			reporte = new ReporteTexto(archivo);
+		}
 		String r = GeneradorHTML.genera(reporte);
 		File dir = new File(directorio); 
 		dir.mkdir();
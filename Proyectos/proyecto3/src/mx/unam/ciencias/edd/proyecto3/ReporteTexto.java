@@ -1,7 +1,7 @@
 package mx.unam.ciencias.edd.proyecto3;
 
 import mx.unam.ciencias.edd.Lista;
-import mx.unam.ciencias.edd.Diccionario;
+import mx.unam.ciencias.edd.DiccionarioIntInt;
 
 /**
 * Clase para reportes de texto, sirve para poder manejar los reportes como una
@@ -19,16 +19,41 @@ public class ReporteTexto {
 	private Lista<Palabra> coincidencias;
 	/* Total de palabras. */
 	private int total;
+	/* Total de palabras distintas. */
+	private long distintas;
+	/* Si las coincidencias son aproximadas. */
+	private boolean aproximado;
+
+	/* Número de palabras en la gráfica de barras del modo aproximado. */
+	private static final int TOP_APROXIMADO = 15;
+	/* Probabilidad de que una coincidencia aproximada exceda el error. */
+	private static final double CONFIANZA = 0.01;
 
 	/* Constructor único. (Que en realidad genera el reporte) */
 	public ReporteTexto(String archivo) {
+		this(archivo, new ContadorPalabras(archivo));
+	}
+
+	/**
+	* Genera un reporte aproximado, que usa memoria fija sin importar el
+	* tamaño del archivo. Las ocurrencias reportadas exceden a las reales por
+	* a lo más el error por el total de palabras.
+	* @param archivo el archivo del reporte.
+	* @param error el error relativo al total de palabras.
+	*/
+	public ReporteTexto(String archivo, double error) {
+		this(archivo, new ContadorPalabras(archivo, error, CONFIANZA));
+	}
+
+	/* Genera el reporte con el contador recibido. */
+	private ReporteTexto(String archivo, ContadorPalabras cp) {
 		this.archivo = archivo;
-		String[] a = archivo.split(".");
 		this.titulo = archivo;	
-		ContadorPalabras cp = new ContadorPalabras(archivo);
 		this.coincidencias = cp.cuenta();
 		this.texto = cp.getTexto();
 		this.total = cp.getTotal(); 
+		this.distintas = cp.getDistintas();
+		this.aproximado = cp.esAproximado();
 	}
 
 	/**
@@ -71,21 +96,29 @@ public class ReporteTexto {
 		return this.total;
 	}
 
+	/**
+	* Regresa el total de palabras distintas; en el modo aproximado es una
+	* estimación.
+	* @return el total de palabras distintas.
+	*/
+	public long getDistintas() {
+		return this.distintas;
+	}
+
 	/**
 	* Regresa la lista de palabras que más se repiten.
 	* @return una lista con las palabras que más se repiten.
 	*/
 	public Lista<Palabra> getTop() {
-		Diccionario<Integer, Integer> valores = new Diccionario<>();
+		if (aproximado)
+			return getTopAproximado();
+		DiccionarioIntInt valores = new DiccionarioIntInt();
+		for (Palabra p : coincidencias)
+			valores.agrega(p.getOcurrencias(), p.getOcurrencias());
 		int v = 0;
-		int contador = 1;
-		for (Palabra p : coincidencias) {
-			if (!valores.contiene(p.getOcurrencias())) {
-				v += p.getOcurrencias();
-				valores.agrega(p.getOcurrencias(), p.getOcurrencias());
-				contador++;
-			}
-		}
+		for (int o : valores.valores())
+			v += o;
+		int contador = valores.getElementos() + 1;
 		int limite = v / contador;
 		Lista<Palabra> top = new Lista<>();
 		for (Palabra p : coincidencias) {
@@ -94,4 +127,15 @@ public class ReporteTexto {
 		}
 		return top;
 	}
+
+	/* En el modo aproximado las coincidencias ya son sólo las palabras más
+	   frecuentes; regresa las últimas, que son las de más ocurrencias. */
+	private Lista<Palabra> getTopAproximado() {
+		Lista<Palabra> top = new Lista<>();
+		int omitir = coincidencias.getElementos() - TOP_APROXIMADO;
+		for (Palabra p : coincidencias)
+			if (omitir-- <= 0)
+				top.agrega(p);
+		return top;
+	}
 }
\ No newline at end of file
@@ -9,5 +9,35 @@ public enum AlgoritmoDispersor {
     /** Algoritmo de GLib para cadenas. */
     GLIB_STRING,
     /** Algoritmo de XOR para cadenas. */
-    XOR_STRING;
+    XOR_STRING,
+    /** Algoritmo MurmurHash3 de 32 bits (x86_32). */
+    MURMUR3_32,
+    /** Algoritmo MurmurHash3 de 128 bits (x64_128). */
+    MURMUR3_128,
+    /** Algoritmo xxHash de 64 bits. */
+    XXHASH_64,
+    /** Algoritmo FNV-1a de 64 bits. */
+    FNV1A_64,
+    /** Algoritmo wyhash (versión <em>final4</em>) de 64 bits. */
+    WYHASH;
+
+    /**
+     * Nos dice si el algoritmo genera huellas de al menos 64 bits, y por lo
+     * tanto puede usarse para un {@link DispersorLargo}.
+     * @return <code>true</code> si el algoritmo genera huellas de al menos 64
+     *         bits, <code>false</code> en otro caso.
+     */
+    public boolean esLargo() {
+        return this == MURMUR3_128 || this == XXHASH_64 ||
+            this == FNV1A_64 || this == WYHASH;
+    }
+
+    /**
+     * Nos dice si el algoritmo acepta una semilla.
+     * @return <code>true</code> si el algoritmo acepta una semilla,
+     *         <code>false</code> en otro caso.
+     */
+    public boolean aceptaSemilla() {
+        return this != BJ_STRING && this != GLIB_STRING && this != XOR_STRING;
+    }
 }
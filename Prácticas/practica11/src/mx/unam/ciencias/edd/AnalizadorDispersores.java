@@ -0,0 +1,399 @@
+package mx.unam.ciencias.edd;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * <p>Clase para analizar la calidad y la velocidad de dispersores de cadenas
+ * sobre un corpus de llaves, para poder escoger con datos el dispersor de cada
+ * población de llaves.</p>
+ *
+ * <p>Para cada dispersor se puede medir:</p>
+ * <ul>
+ *  <li>La distribución de las llaves en cubetas, usando los bits bajos de la
+ *      huella como lo hace {@link Diccionario}, y su estadístico
+ *      χ<sup>2</sup> contra la distribución uniforme.</li>
+ *  <li>El sesgo de avalancha: qué tan lejos de 1/2 está la probabilidad de
+ *      que un bit de la huella cambie al cambiar un bit de la llave.</li>
+ *  <li>Las colisiones de un {@link Diccionario} con las llaves, para varios
+ *      tamaños iniciales.</li>
+ *  <li>La velocidad, en nanosegundos por byte.</li>
+ * </ul>
+ *
+ * <p>El método {@link #main} analiza todos los algoritmos de {@link
+ * AlgoritmoDispersor}, y el {@link String#hashCode} de Java, sobre las
+ * palabras de un archivo o sobre llaves sintéticas.</p>
+ */
+public class AnalizadorDispersores {
+
+    /* Cuántos caracteres de cada llave se usan para medir la avalancha. */
+    private static final int CARACTERES_AVALANCHA = 16;
+    /* Cuántos bits de cada carácter se cambian para medir la avalancha; con
+       7 las llaves ASCII siguen siendo ASCII. */
+    private static final int BITS_AVALANCHA = 7;
+    /* Un bit de entrada que se probó menos veces que éstas no se considera
+       para la avalancha; con tan pocas pruebas el sesgo es puro ruido. */
+    private static final int MIN_PRUEBAS = 32;
+
+    /* Las llaves del corpus, sin repetir. */
+    private String[] llaves;
+    /* Cuántos bytes suman todas las llaves en UTF-8. */
+    private long bytes;
+    /* Para que el compilador no elimine las dispersiones que medimos. */
+    private volatile int sumidero;
+
+    /**
+     * Construye un analizador con las llaves de la colección recibida. Las
+     * llaves repetidas se consideran una sola vez.
+     * @param llaves las llaves del corpus.
+     * @throws IllegalArgumentException si no hay llaves.
+     */
+    public AnalizadorDispersores(Coleccion<String> llaves) {
+        Conjunto<String> distintas = new Conjunto<String>();
+        for (String llave : llaves)
+            distintas.agrega(llave);
+        if (distintas.getElementos() == 0)
+            throw new IllegalArgumentException("No hay llaves.");
+        this.llaves = new String[distintas.getElementos()];
+        int i = 0;
+        for (String llave : distintas) {
+            this.llaves[i++] = llave;
+            bytes += llave.getBytes(StandardCharsets.UTF_8).length;
+        }
+    }
+
+    /**
+     * Construye un analizador con las palabras distintas de un archivo de
+     * texto en UTF-8. Una palabra es una secuencia máxima de letras y
+     * dígitos.
+     * @param ruta la ruta del archivo.
+     * @return un analizador con las palabras del archivo.
+     * @throws IOException si no se puede leer el archivo.
+     */
+    public static AnalizadorDispersores deArchivo(String ruta)
+        throws IOException {
+        Lista<String> palabras = new Lista<String>();
+        try (BufferedReader in = new BufferedReader(
+                 new InputStreamReader(new FileInputStream(ruta),
+                                       StandardCharsets.UTF_8))) {
+            String l;
+            while ((l = in.readLine()) != null)
+                for (String palabra : l.split("[^\\p{L}\\p{N}]+"))
+                    if (!palabra.isEmpty())
+                        palabras.agrega(palabra);
+        }
+        return new AnalizadorDispersores(palabras);
+    }
+
+    /**
+     * Construye un analizador con llaves secuenciales de la forma
+     * <code>llave0</code>, <code>llave1</code>, etc. Son llaves muy parecidas
+     * entre sí, que castigan a los dispersores que mezclan mal.
+     * @param n el número de llaves.
+     * @return un analizador con las llaves secuenciales.
+     */
+    public static AnalizadorDispersores secuenciales(int n) {
+        Lista<String> llaves = new Lista<String>();
+        for (int i = 0; i < n; i++)
+            llaves.agrega("llave" + i);
+        return new AnalizadorDispersores(llaves);
+    }
+
+    /**
+     * Construye un analizador con llaves aleatorias de letras minúsculas.
+     * @param n el número de llaves.
+     * @param longitud la longitud de cada llave.
+     * @param random el generador de números aleatorios.
+     * @return un analizador con las llaves aleatorias.
+     */
+    public static AnalizadorDispersores aleatorias(int n, int longitud,
+                                                   Random random) {
+        Lista<String> llaves = new Lista<String>();
+        char[] c = new char[longitud];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < longitud; j++)
+                c[j] = (char)('a' + random.nextInt(26));
+            llaves.agrega(new String(c));
+        }
+        return new AnalizadorDispersores(llaves);
+    }
+
+    /**
+     * Regresa el número de llaves distintas del corpus.
+     * @return el número de llaves distintas del corpus.
+     */
+    public int getLlaves() {
+        return llaves.length;
+    }
+
+    /**
+     * Regresa cuántas llaves caen en cada cubeta, usando los bits bajos de la
+     * huella como índice.
+     * @param dispersor el dispersor a analizar.
+     * @param cubetas el número de cubetas; debe ser potencia de 2.
+     * @return un arreglo con cuántas llaves caen en cada cubeta.
+     * @throws IllegalArgumentException si el número de cubetas no es una
+     *         potencia de 2.
+     */
+    public int[] distribucion(Dispersor<String> dispersor, int cubetas) {
+        if (cubetas <= 0 || (cubetas & (cubetas - 1)) != 0)
+            throw new IllegalArgumentException("El número de cubetas debe " +
+                                               "ser potencia de 2.");
+        int[] d = new int[cubetas];
+        for (String llave : llaves)
+            d[dispersor.dispersa(llave) & (cubetas - 1)]++;
+        return d;
+    }
+
+    /**
+     * Calcula el estadístico χ<sup>2</sup> de la distribución en cubetas
+     * contra la distribución uniforme. Para un buen dispersor es cercano al
+     * número de cubetas menos uno.
+     * @param dispersor el dispersor a analizar.
+     * @param cubetas el número de cubetas; debe ser potencia de 2.
+     * @return el estadístico χ<sup>2</sup> de la distribución.
+     * @throws IllegalArgumentException si el número de cubetas no es una
+     *         potencia de 2.
+     */
+    public double chiCuadrada(Dispersor<String> dispersor, int cubetas) {
+        double esperado = (double)llaves.length / cubetas;
+        double chi = 0.0;
+        for (int n : distribucion(dispersor, cubetas))
+            chi += (n - esperado) * (n - esperado) / esperado;
+        return chi;
+    }
+
+    /**
+     * Calcula el sesgo de avalancha promedio. Para cada bit de entrada (los 7
+     * bits bajos de los primeros 16 caracteres) y cada bit de la huella, el
+     * sesgo es |2<i>p</i> - 1|, donde <i>p</i> es la proporción de llaves en
+     * las que cambiar el bit de entrada cambia el de la huella; los bits de
+     * entrada que tienen menos de 32 llaves no se consideran. Un dispersor
+     * ideal tiene sesgo 0; uno que no mezcla nada tiene sesgo 1.
+     * @param dispersor el dispersor a analizar.
+     * @param muestras cuántas llaves del corpus usar.
+     * @return el sesgo de avalancha promedio.
+     */
+    public double sesgoAvalancha(Dispersor<String> dispersor, int muestras) {
+        double suma = 0.0;
+        int n = 0;
+        for (double[] fila : sesgos(dispersor, muestras))
+            if (fila != null)
+                for (double s : fila) {
+                    suma += s;
+                    n++;
+                }
+        return n == 0 ? 0.0 : suma / n;
+    }
+
+    /**
+     * Calcula el sesgo de avalancha máximo: el peor par de bit de entrada y
+     * bit de la huella, medido como en {@link #sesgoAvalancha}.
+     * @param dispersor el dispersor a analizar.
+     * @param muestras cuántas llaves del corpus usar.
+     * @return el sesgo de avalancha máximo.
+     */
+    public double sesgoAvalanchaMaximo(Dispersor<String> dispersor,
+                                       int muestras) {
+        double m = 0.0;
+        for (double[] fila : sesgos(dispersor, muestras))
+            if (fila != null)
+                for (double s : fila)
+                    m = Math.max(m, s);
+        return m;
+    }
+
+    /**
+     * Regresa las colisiones de un {@link Diccionario} con el dispersor, el
+     * tamaño inicial recibido y todas las llaves del corpus.
+     * @param dispersor el dispersor a analizar.
+     * @param tam el tamaño inicial del diccionario.
+     * @return las colisiones del diccionario.
+     * @see Diccionario#colisiones
+     */
+    public int colisiones(Dispersor<String> dispersor, int tam) {
+        return llena(dispersor, tam).colisiones();
+    }
+
+    /**
+     * Regresa la colisión máxima de un {@link Diccionario} con el dispersor,
+     * el tamaño inicial recibido y todas las llaves del corpus.
+     * @param dispersor el dispersor a analizar.
+     * @param tam el tamaño inicial del diccionario.
+     * @return la colisión máxima del diccionario.
+     * @see Diccionario#colisionMaxima
+     */
+    public int colisionMaxima(Dispersor<String> dispersor, int tam) {
+        return llena(dispersor, tam).colisionMaxima();
+    }
+
+    /**
+     * Mide cuántos nanosegundos tarda el dispersor por cada byte (en UTF-8)
+     * de las llaves. Primero dispersa todas las llaves una vez sin medir, para
+     * que la máquina virtual compile el dispersor.
+     * @param dispersor el dispersor a analizar.
+     * @param rondas cuántas veces dispersar todas las llaves.
+     * @return los nanosegundos por byte.
+     */
+    public double nanosegundosPorByte(Dispersor<String> dispersor, int rondas) {
+        int s = 0;
+        for (String llave : llaves)
+            s += dispersor.dispersa(llave);
+        long tiempoInicial = System.nanoTime();
+        for (int r = 0; r < rondas; r++)
+            for (String llave : llaves)
+                s += dispersor.dispersa(llave);
+        long tiempoTotal = System.nanoTime() - tiempoInicial;
+        sumidero = s;
+        return (double)tiempoTotal / (bytes * rondas);
+    }
+
+    /**
+     * Regresa un reporte con todas las medidas del dispersor. Las cubetas son
+     * la potencia de 2 más cercana por arriba al número de llaves, y las
+     * colisiones se miden con diccionarios de tamaño inicial <i>n</i>,
+     * 4<i>n</i> y 16<i>n</i>.
+     * @param nombre el nombre del dispersor.
+     * @param dispersor el dispersor a analizar.
+     * @return una cadena con el reporte.
+     */
+    public String reporte(String nombre, Dispersor<String> dispersor) {
+        int n = llaves.length;
+        int cubetas = Integer.highestOneBit(n) == n ? n :
+            Integer.highestOneBit(n) << 1;
+        int[] d = distribucion(dispersor, cubetas);
+        int vacias = 0, maxima = 0;
+        for (int c : d) {
+            if (c == 0)
+                vacias++;
+            maxima = Math.max(maxima, c);
+        }
+        double chi = chiCuadrada(dispersor, cubetas);
+        double z = (chi - (cubetas - 1)) / Math.sqrt(2.0 * (cubetas - 1));
+        int muestras = Math.min(n, 2000);
+        String r = String.format("%s\n", nombre);
+        r += String.format("  cubetas: %d, vacías: %.1f%%, máxima: %d, " +
+                           "χ²: %.1f (z = %.2f)\n",
+                           cubetas, 100.0 * vacias / cubetas, maxima, chi, z);
+        r += String.format("  avalancha: sesgo promedio %.4f, máximo %.4f\n",
+                           sesgoAvalancha(dispersor, muestras),
+                           sesgoAvalanchaMaximo(dispersor, muestras));
+        r += "  colisiones:";
+        for (int f = 1; f <= 16; f *= 4) {
+            Diccionario<String, String> dicc = llena(dispersor, n * f);
+            r += String.format(" %dn: %d (máxima %d, %d en árbol)", f,
+                               dicc.colisiones(), dicc.colisionMaxima(),
+                               dicc.indicesConArbol().getLongitud());
+            if (f < 16)
+                r += ";";
+        }
+        r += String.format("\n  velocidad: %.3f ns/byte\n",
+                           nanosegundosPorByte(dispersor, 10));
+        return r;
+    }
+
+    /* Llena un diccionario con el dispersor y todas las llaves. */
+    private Diccionario<String, String> llena(Dispersor<String> dispersor,
+                                              int tam) {
+        Diccionario<String, String> d =
+            new Diccionario<String, String>(tam, dispersor);
+        for (String llave : llaves)
+            d.agrega(llave, llave);
+        return d;
+    }
+
+    /* Regresa la matriz de sesgos de avalancha: un renglón por bit de
+       entrada (null si muy pocas llaves lo tienen) y una columna por bit de
+       la huella. */
+    private double[][] sesgos(Dispersor<String> dispersor, int muestras) {
+        int entradas = CARACTERES_AVALANCHA * BITS_AVALANCHA;
+        int[][] cambios = new int[entradas][32];
+        int[] pruebas = new int[entradas];
+        for (int m = 0; m < muestras && m < llaves.length; m++) {
+            String llave = llaves[m];
+            int h = dispersor.dispersa(llave);
+            char[] c = llave.toCharArray();
+            for (int i = 0; i < c.length && i < CARACTERES_AVALANCHA; i++)
+                for (int b = 0; b < BITS_AVALANCHA; b++) {
+                    c[i] ^= 1 << b;
+                    int d = h ^ dispersor.dispersa(new String(c));
+                    c[i] ^= 1 << b;
+                    int e = i * BITS_AVALANCHA + b;
+                    pruebas[e]++;
+                    for (int j = 0; j < 32; j++)
+                        if ((d & (1 << j)) != 0)
+                            cambios[e][j]++;
+                }
+        }
+        double[][] sesgos = new double[entradas][];
+        for (int e = 0; e < entradas; e++) {
+            if (pruebas[e] < MIN_PRUEBAS)
+                continue;
+            sesgos[e] = new double[32];
+            for (int j = 0; j < 32; j++)
+                sesgos[e][j] =
+                    Math.abs(2.0 * cambios[e][j] / pruebas[e] - 1.0);
+        }
+        return sesgos;
+    }
+
+    /* Imprime el uso del programa y lo termina. */
+    private static void uso() {
+        System.err.println("Uso: java -cp practica11.jar " +
+                           "mx.unam.ciencias.edd.AnalizadorDispersores " +
+                           "[ARCHIVO | -s N]");
+        System.exit(1);
+    }
+
+    /**
+     * Analiza todos los algoritmos de {@link AlgoritmoDispersor} y el {@link
+     * String#hashCode} de Java. Sin argumentos usa 100,000 llaves secuenciales
+     * y 100,000 aleatorias; con <code>-s N</code> usa <i>N</i> de cada una; y
+     * con un archivo usa sus palabras distintas.
+     * @param args los argumentos del programa.
+     */
+    public static void main(String[] args) {
+        Lista<AnalizadorDispersores> corpus = new Lista<AnalizadorDispersores>();
+        Lista<String> nombres = new Lista<String>();
+        if (args.length == 1) {
+            try {
+                corpus.agrega(deArchivo(args[0]));
+                nombres.agrega(args[0]);
+            } catch (IOException ioe) {
+                System.err.printf("No se pudo leer \"%s\".\n", args[0]);
+                System.exit(1);
+            }
+        } else if (args.length == 0 || (args.length == 2 &&
+                                        args[0].equals("-s"))) {
+            int n = 100000;
+            try {
+                if (args.length == 2)
+                    n = Integer.parseInt(args[1]);
+            } catch (NumberFormatException nfe) {
+                uso();
+            }
+            corpus.agrega(secuenciales(n));
+            nombres.agrega("llaves secuenciales");
+            corpus.agrega(aleatorias(n, 12, new Random()));
+            nombres.agrega("llaves aleatorias");
+        } else {
+            uso();
+        }
+
+        IteradorLista<String> nombre = nombres.iteradorLista();
+        for (AnalizadorDispersores analizador : corpus) {
+            System.out.printf("== %s (%d llaves) ==\n\n", nombre.next(),
+                              analizador.getLlaves());
+            for (AlgoritmoDispersor algoritmo : AlgoritmoDispersor.values())
+                System.out.println(analizador.reporte(
+                                       algoritmo.toString(),
+                                       FabricaDispersores.getInstancia(algoritmo)));
+            System.out.println(analizador.reporte("String.hashCode",
+                                                  (s) -> s.hashCode()));
+        }
+    }
+}
@@ -310,17 +310,20 @@ public abstract class ArbolBinario<T> implements Coleccion<T> {
         for (int i = 0; i < p; i++)
             /* Al inicio, no dibujamos ninguna rama. */
             rama[i] = false;
-        String s = aCadena(raiz, 0, rama);
+        String s = aCadena(raiz(), 0, rama);
         return s.substring(0, s.length()-1);
     }
 
-    /* Método auxiliar recursivo que hace todo el trabajo. */
-    private String aCadena(Vertice vertice, int nivel, boolean[] rama) {
+    /* Método auxiliar recursivo que hace todo el trabajo. Recorre los vértices
+       por su interfaz, para que sirva también con subclases que no usan
+       instancias de Vertice. */
+    private String aCadena(VerticeArbolBinario<T> vertice, int nivel,
+                           boolean[] rama) {
         /* Primero que nada agregamos el vertice a la cadena. */
         String s = vertice + "\n";
         /* A partir de aquí, dibujamos rama en este nivel. */
         rama[nivel] = true;
-        if (vertice.izquierdo != null && vertice.derecho != null) {
+        if (vertice.hayIzquierdo() && vertice.hayDerecho()) {
             /* Si hay vertice izquierdo Y derecho, dibujamos ramas o
              * espacios. */
             s += espacios(nivel, rama);
@@ -328,7 +331,7 @@ public abstract class ArbolBinario<T> implements Coleccion<T> {
             s += "├─›";
             /* Recursivamente dibujamos el hijo izquierdo y sus
                descendientes. */
-            s += aCadena(vertice.izquierdo, nivel+1, rama);
+            s += aCadena(vertice.getIzquierdo(), nivel+1, rama);
             /* Dibujamos ramas o espacios. */
             s += espacios(nivel, rama);
             /* Dibujamos el conector al hijo derecho. */
@@ -337,8 +340,8 @@ public abstract class ArbolBinario<T> implements Coleccion<T> {
                nivel. */
             rama[nivel] = false;
             /* Recursivamente dibujamos el hijo derecho y sus descendientes. */
-            s += aCadena(vertice.derecho, nivel+1, rama);
-        } else if (vertice.izquierdo != null) {
+            s += aCadena(vertice.getDerecho(), nivel+1, rama);
+        } else if (vertice.hayIzquierdo()) {
             /* Dibujamos ramas o espacios. */
             s += espacios(nivel, rama);
             /* Dibujamos el conector al hijo izquierdo. */
@@ -348,8 +351,8 @@ public abstract class ArbolBinario<T> implements Coleccion<T> {
             rama[nivel] = false;
             /* Recursivamente dibujamos el hijo izquierdo y sus
                descendientes. */
-            s += aCadena(vertice.izquierdo, nivel+1, rama);
-        } else if (vertice.derecho != null) {
+            s += aCadena(vertice.getIzquierdo(), nivel+1, rama);
+        } else if (vertice.hayDerecho()) {
             /* Dibujamos ramas o espacios. */
             s += espacios(nivel, rama);
             /* Dibujamos el conector al hijo derecho. */
@@ -358,7 +361,7 @@ public abstract class ArbolBinario<T> implements Coleccion<T> {
                nivel. */
             rama[nivel] = false;
             /* Recursivamente dibujamos el hijo derecho y sus descendientes. */
-            s += aCadena(vertice.derecho, nivel+1, rama);
+            s += aCadena(vertice.getDerecho(), nivel+1, rama);
         }
         return s;
     }
@@ -8,6 +8,12 @@ import java.util.NoSuchElementException;
  *
  * <p>Un árbol binario completo agrega y elimina elementos de tal forma que el
  * árbol siempre es lo más cercano posible a estar lleno.</p>
+ *
+ * <p>El lugar del siguiente elemento y el último vértice en BFS se encuentran
+ * en tiempo <i>O</i>(log <i>n</i>) siguiendo la representación binaria de su
+ * posición. Si no hacen falta vértices ligados, {@link
+ * ArbolBinarioCompletoArreglo} guarda el árbol implícitamente en un
+ * arreglo.</p>
  */
 public class ArbolBinarioCompleto<T> extends ArbolBinario<T> {
 
@@ -48,6 +54,10 @@ public class ArbolBinarioCompleto<T> extends ArbolBinario<T> {
         }
     }
 
+    /* Índice opcional de cada elemento a los vértices que lo contienen; es
+       null si no está activo. */
+    private Diccionario<T, Lista<Vertice>> indice;
+
     /**
      * Constructor sin parámetros. Para no perder el constructor sin parámetros
      * de {@link ArbolBinario}.
@@ -66,7 +76,9 @@ public class ArbolBinarioCompleto<T> extends ArbolBinario<T> {
 
     /**
      * Agrega un elemento al árbol binario completo. El nuevo elemento se coloca
-     * a la derecha del último nivel, o a la izquierda de un nuevo nivel.
+     * a la derecha del último nivel, o a la izquierda de un nuevo nivel. El
+     * lugar se encuentra en tiempo <i>O</i>(log <i>n</i>), bajando desde la
+     * raíz.
      * @param elemento el elemento a agregar al árbol.
      * @throws IllegalArgumentException si <code>elemento</code> es
      *         <code>null</code>.
@@ -74,120 +86,136 @@ public class ArbolBinarioCompleto<T> extends ArbolBinario<T> {
     @Override public void agrega(T elemento) {
         if (elemento == null)
             throw new IllegalArgumentException("El elemento es null.");
+        Vertice v = nuevoVertice(elemento);
+        int posicion = elementos + 1;
         if (esVacio()) {
-            raiz = nuevoVertice(elemento);
-            ultimoAgregado = raiz;
-            elementos++;
-            return;
-        }
-        Cola<Vertice> c = new Cola<Vertice>();
-        c.mete(raiz);
-        agrega(elemento,c);
-    }
-    private void agrega(T e, Cola<Vertice> c) {
-        while (!c.esVacia()) {
-            Vertice v = c.saca();
-
-            if (v.izquierdo == null) {
-                v.izquierdo = nuevoVertice(e);
-                v.izquierdo.padre = v;
-                ultimoAgregado = v.izquierdo;
-                elementos++;
-                return;
-            }
-            if (v.derecho == null) {
-                v.derecho = nuevoVertice(e);
-                v.derecho.padre = v;
-                ultimoAgregado = v.derecho;
-                elementos++;
-                return;
-            }
-            c.mete(v.izquierdo);
-            c.mete(v.derecho);
+            raiz = v;
+        } else {
+            Vertice p = verticeEn(posicion >> 1);
+            if ((posicion & 1) == 0)
+                p.izquierdo = v;
+            else
+                p.derecho = v;
+            v.padre = p;
         }
+        ultimoAgregado = v;
+        elementos++;
+        agregaAlIndice(v);
     }
 
     /**
      * Elimina un elemento del árbol. El elemento a eliminar cambia lugares con
      * el último elemento del árbol al recorrerlo por BFS, y entonces es
-     * eliminado.
+     * eliminado. Si el elemento no está en el árbol, no hace nada. Con el
+     * índice de elementos activo el elemento se localiza en tiempo
+     * <i>O</i>(1); sin él, con un solo recorrido del árbol.
      * @param elemento el elemento a eliminar.
      */
     @Override public void elimina(T elemento) {
-        /*Si el elemento a eliminar es la raíz.*/
-        if (raiz.elemento.equals(elemento)) {
-            /*Si la raíz no tiene hijos.*/
-            if (raiz.izquierdo == null && raiz.derecho == null) {
-            raiz = null;
-            elementos--;
+        Vertice v = vertice(elemento);
+        if (v == null)
             return;
-            }
-            /*Si la raíz tiene hijos.*/
-            if(raiz.izquierdo != null || raiz.derecho != null) {
-                Vertice u = ultimoBFS();
-                raiz.elemento = u.elemento;
-                if(u.padre.izquierdo == u)
-                    u.padre.izquierdo = null;
-                else u.padre.derecho = null;
-                u.elemento = null;
-                elementos--;
-                return;
-            }
+        Vertice ultimo = verticeEn(elementos);
+        quitaDelIndice(v);
+        if (ultimo != v) {
+            quitaDelIndice(ultimo);
+            v.elemento = ultimo.elemento;
+            agregaAlIndice(v);
         }
-        /*Si el elemento a eliminar está en los subárboles de la raíz.*/
-        Lista<Vertice> vertices = recorridoBFS(elemento);
-        Vertice ultimo = vertices.getPrimero();
-        vertices.elimina(ultimo);
-        Vertice v = vertices.getPrimero();
-        if (v == raiz)
-            return;
-        v.elemento = ultimo.elemento;
-        if (ultimo.padre.izquierdo == ultimo)
+        if (ultimo == raiz)
+            raiz = null;
+        else if (ultimo.padre.izquierdo == ultimo)
             ultimo.padre.izquierdo = null;
-        else ultimo.padre.derecho = null;
+        else
+            ultimo.padre.derecho = null;
         ultimo.padre = null;
-        ultimo = null;
         elementos--;
     }
 
-    /* Método privado auxiliar para conseguir el vértice que contiene
-        al elemento buscado y al último vértice vía BFS.*/
-    private Lista<Vertice> recorridoBFS(T elemento) {
+    /**
+     * Busca un elemento en el árbol. Si lo encuentra, regresa el vértice que lo
+     * contiene; si no, regresa <tt>null</tt>. Con el índice de elementos
+     * activo la búsqueda toma tiempo <i>O</i>(1).
+     * @param elemento el elemento a buscar.
+     * @return un vértice que contiene el elemento buscado si lo encuentra;
+     *         <tt>null</tt> en otro caso.
+     */
+    @Override public VerticeArbolBinario<T> busca(T elemento) {
+        return vertice(elemento);
+    }
+
+    /**
+     * Define si el árbol mantiene un índice de sus elementos a los vértices
+     * que los contienen. Con el índice, {@link #busca}, {@link #contiene} y
+     * {@link #elimina} ya no recorren el árbol, a cambio de memoria extra y
+     * de que los elementos deben tener {@link Object#hashCode} consistente
+     * con {@link Object#equals}. Por omisión el índice no está activo.
+     * @param activo si el árbol debe mantener el índice.
+     */
+    public void setIndiceElementos(boolean activo) {
+        if (!activo) {
+            indice = null;
+            return;
+        }
+        if (indice != null)
+            return;
+        indice = new Diccionario<T, Lista<Vertice>>();
+        if (raiz == null)
+            return;
         Cola<Vertice> cola = new Cola<Vertice>();
         cola.mete(raiz);
-        Vertice ultimo = raiz;
-        Vertice ve = raiz;
         while (!cola.esVacia()) {
             Vertice v = cola.saca();
-            if (v.elemento.equals(elemento))
-                ve = v;
+            agregaAlIndice(v);
             if (v.izquierdo != null)
                 cola.mete(v.izquierdo);
             if (v.derecho != null)
                 cola.mete(v.derecho);
-            ultimo = v;
         }
-        Lista<Vertice> vertices = new Lista<Vertice>();
-        vertices.agregaFinal(ultimo);
-        vertices.agregaFinal(ve);
-        return vertices;
     }
-    
-    /* Método privado auxiliar para conseguir el último elemento del árbol vía
-        BFS.*/
-    private Vertice ultimoBFS() {
-        Cola<Vertice> cola = new Cola<Vertice>();
-        cola.mete(raiz);
-        Vertice ultimo = null;
-        while (!cola.esVacia()) {
-            Vertice v = cola.saca();
-            if (v.izquierdo != null)
-                cola.mete(v.izquierdo);
-            if (v.derecho != null)
-                cola.mete(v.derecho);
-            ultimo = v;
+
+    /* Regresa el vértice en la posición recibida, contando desde 1 en orden
+       BFS. Los bits de la posición después del más significativo dicen el
+       camino desde la raíz: 0 a la izquierda y 1 a la derecha. */
+    private Vertice verticeEn(int posicion) {
+        Vertice v = raiz;
+        for (int b = Integer.highestOneBit(posicion) >> 1; b > 0; b >>= 1)
+            v = (posicion & b) == 0 ? v.izquierdo : v.derecho;
+        return v;
+    }
+
+    /* Regresa un vértice que contiene al elemento, o null si no está. */
+    private Vertice vertice(T elemento) {
+        if (elemento == null)
+            return null;
+        if (indice == null)
+            return busca(raiz, elemento);
+        Lista<Vertice> l = indice.getOPredeterminado(elemento, null);
+        return l == null ? null : l.getPrimero();
+    }
+
+    /* Agrega el vértice al índice, si está activo. */
+    private void agregaAlIndice(Vertice v) {
+        if (indice != null)
+            indice.calculaSiAusente(v.elemento,
+                                    (e) -> new Lista<Vertice>()).agregaFinal(v);
+    }
+
+    /* Quita el vértice del índice, si está activo. Los vértices se comparan
+       por identidad: su equals compara subárboles completos. */
+    private void quitaDelIndice(Vertice v) {
+        if (indice == null)
+            return;
+        Lista<Vertice> l = indice.get(v.elemento);
+        if (l.getElementos() == 1) {
+            indice.elimina(v.elemento);
+            return;
         }
-        return ultimo;
+        Lista<Vertice> r = new Lista<Vertice>();
+        for (Vertice u : l)
+            if (u != v)
+                r.agregaFinal(u);
+        indice.agrega(v.elemento, r);
     }
 
     /**
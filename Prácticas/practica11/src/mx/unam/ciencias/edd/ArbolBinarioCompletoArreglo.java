@@ -0,0 +1,335 @@
+package mx.unam.ciencias.edd;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>Clase para árboles binarios completos representados implícitamente en un
+ * arreglo.</p>
+ *
+ * <p>Los elementos se guardan en el arreglo en el orden BFS del árbol: el
+ * padre del elemento en el índice <i>i</i> está en (<i>i</i>-1)/2, y sus hijos
+ * en 2<i>i</i>+1 y 2<i>i</i>+2. Así no hace falta recorrer el árbol para
+ * encontrar dónde agregar o cuál es el último elemento, y agregar y eliminar
+ * el último elemento toman tiempo <i>O</i>(1) (amortizado).</p>
+ *
+ * <p>Los vértices que regresa el árbol son vistas ligeras de una posición del
+ * arreglo, y se crean hasta que alguien las pide; una misma posición regresa
+ * siempre la misma vista, así que pueden compararse con <code>==</code>. Una
+ * vista ve el elemento que esté en su posición en ese momento.</p>
+ */
+public class ArbolBinarioCompletoArreglo<T> extends ArbolBinario<T> {
+
+    /* Clase privada para iteradores de árboles binarios completos en
+       arreglos. */
+    private class Iterador implements Iterator<T> {
+
+        /* El índice del siguiente elemento. */
+        private int indice;
+
+        /* Nos dice si hay un elemento siguiente. */
+        @Override public boolean hasNext() {
+            return indice < elementos;
+        }
+
+        /* Regresa el elemento siguiente. */
+        @Override public T next() {
+            if (indice >= elementos)
+                throw new NoSuchElementException("No hay siguiente.");
+            return arreglo[indice++];
+        }
+
+        /* No lo implementamos: siempre lanza una excepción. */
+        @Override public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /* Clase privada para las vistas de las posiciones del arreglo. */
+    private class VerticeArreglo implements VerticeArbolBinario<T> {
+
+        /* La posición del vértice en el arreglo. */
+        private int indice;
+
+        /* Construye la vista de una posición. */
+        public VerticeArreglo(int indice) {
+            this.indice = indice;
+        }
+
+        /* Nos dice si el vértice tiene padre. */
+        @Override public boolean hayPadre() {
+            return indice > 0 && indice < elementos;
+        }
+
+        /* Nos dice si el vértice tiene izquierdo. */
+        @Override public boolean hayIzquierdo() {
+            return 2 * indice + 1 < elementos;
+        }
+
+        /* Nos dice si el vértice tiene derecho. */
+        @Override public boolean hayDerecho() {
+            return 2 * indice + 2 < elementos;
+        }
+
+        /* Regresa el padre del vértice. */
+        @Override public VerticeArbolBinario<T> getPadre() {
+            if (!hayPadre())
+                throw new NoSuchElementException();
+            return vertice((indice - 1) / 2);
+        }
+
+        /* Regresa el izquierdo del vértice. */
+        @Override public VerticeArbolBinario<T> getIzquierdo() {
+            if (!hayIzquierdo())
+                throw new NoSuchElementException();
+            return vertice(2 * indice + 1);
+        }
+
+        /* Regresa el derecho del vértice. */
+        @Override public VerticeArbolBinario<T> getDerecho() {
+            if (!hayDerecho())
+                throw new NoSuchElementException();
+            return vertice(2 * indice + 2);
+        }
+
+        /* Regresa el elemento en la posición del vértice. */
+        @Override public T get() {
+            return indice < elementos ? arreglo[indice] : null;
+        }
+
+        /* Regresa una representación en cadena del vértice. */
+        @Override public String toString() {
+            return String.valueOf(get());
+        }
+
+        /* Compara recursivamente el vértice con otro objeto. */
+        @Override public boolean equals(Object o) {
+            if (o == null || getClass() != o.getClass())
+                return false;
+            @SuppressWarnings("unchecked") VerticeArreglo v = (VerticeArreglo)o;
+            return iguales(this, v);
+        }
+    }
+
+    /* Tamaño mínimo del arreglo. */
+    private static final int MIN_N = 16;
+
+    /* Los elementos del árbol, en orden BFS. No se inicializa en la
+       declaración porque el constructor de ArbolBinario agrega elementos
+       antes de que se inicialicen los campos de esta clase. */
+    private T[] arreglo;
+    /* Las vistas de las posiciones que ya se han pedido. */
+    private VerticeArreglo[] vertices;
+    /* La posición del último elemento agregado, o -1. */
+    private int ultimo = -1;
+
+    /* Truco para crear un arreglo genérico. Es necesario hacerlo así por cómo
+       Java implementa sus genéricos; de otra forma obtenemos advertencias del
+       compilador. */
+    @SuppressWarnings("unchecked") private T[] nuevoArreglo(int n) {
+        Object[] arreglo = new Object[n];
+        return (T[])arreglo;
+    }
+
+    /* Truco para crear un arreglo genérico de vistas. */
+    @SuppressWarnings("unchecked") private VerticeArreglo[]
+    nuevoArregloDeVertices(int n) {
+        ArbolBinarioCompletoArreglo.VerticeArreglo[] arreglo =
+            new ArbolBinarioCompletoArreglo.VerticeArreglo[n];
+        return (VerticeArreglo[])arreglo;
+    }
+
+    /**
+     * Constructor sin parámetros. Para no perder el constructor sin parámetros
+     * de {@link ArbolBinario}.
+     */
+    public ArbolBinarioCompletoArreglo() { super(); }
+
+    /**
+     * Construye un árbol binario completo a partir de una colección. El árbol
+     * binario completo tiene los mismos elementos que la colección recibida,
+     * en el orden en que la colección los itera.
+     * @param coleccion la colección a partir de la cual creamos el árbol
+     *        binario completo.
+     */
+    public ArbolBinarioCompletoArreglo(Coleccion<T> coleccion) {
+        super(coleccion);
+    }
+
+    /**
+     * Agrega un elemento al árbol binario completo. El nuevo elemento se coloca
+     * a la derecha del último nivel, o a la izquierda de un nuevo nivel.
+     * @param elemento el elemento a agregar al árbol.
+     * @throws IllegalArgumentException si <code>elemento</code> es
+     *         <code>null</code>.
+     */
+    @Override public void agrega(T elemento) {
+        if (elemento == null)
+            throw new IllegalArgumentException("El elemento es null.");
+        if (arreglo == null)
+            arreglo = nuevoArreglo(MIN_N);
+        if (elementos == arreglo.length)
+            redimensiona(arreglo.length << 1);
+        ultimo = elementos;
+        arreglo[elementos++] = elemento;
+    }
+
+    /**
+     * Elimina un elemento del árbol. El elemento a eliminar cambia lugares con
+     * el último elemento del árbol en orden BFS, y entonces es eliminado. Si el
+     * elemento no está en el árbol, no hace nada.
+     * @param elemento el elemento a eliminar.
+     */
+    @Override public void elimina(T elemento) {
+        int i = indiceDe(elemento);
+        if (i == -1)
+            return;
+        arreglo[i] = arreglo[elementos - 1];
+        eliminaUltimo();
+    }
+
+    /**
+     * Elimina el último elemento del árbol en orden BFS y lo regresa.
+     * @return el elemento eliminado.
+     * @throws NoSuchElementException si el árbol es vacío.
+     */
+    public T eliminaUltimo() {
+        if (elementos == 0)
+            throw new NoSuchElementException("El árbol es vacío.");
+        T e = arreglo[--elementos];
+        arreglo[elementos] = null;
+        if (arreglo.length > MIN_N && elementos < arreglo.length >> 2)
+            redimensiona(arreglo.length >> 1);
+        return e;
+    }
+
+    /**
+     * Regresa la profundidad del árbol, que en un árbol binario completo es
+     * ⌊log<sub>2</sub> <i>n</i>⌋.
+     * @return la profundidad del árbol.
+     */
+    @Override public int profundidad() {
+        return 31 - Integer.numberOfLeadingZeros(elementos);
+    }
+
+    /**
+     * Regresa el vértice que contiene el último elemento agregado al árbol, o
+     * <code>null</code> si ya no está en el árbol.
+     * @return el vértice que contiene el último elemento agregado al árbol.
+     */
+    @Override public VerticeArbolBinario<T> getUltimoVerticeAgregado() {
+        if (ultimo == -1 || ultimo >= elementos)
+            return null;
+        return vertice(ultimo);
+    }
+
+    /**
+     * Busca un elemento en el árbol. Si lo encuentra, regresa el vértice que lo
+     * contiene; si no, regresa <tt>null</tt>.
+     * @param elemento el elemento a buscar.
+     * @return un vértice que contiene el elemento buscado si lo encuentra;
+     *         <tt>null</tt> en otro caso.
+     */
+    @Override public VerticeArbolBinario<T> busca(T elemento) {
+        int i = indiceDe(elemento);
+        return i == -1 ? null : vertice(i);
+    }
+
+    /**
+     * Regresa el vértice que contiene la raíz del árbol.
+     * @return el vértice que contiene la raíz del árbol.
+     * @throws NoSuchElementException si el árbol es vacío.
+     */
+    @Override public VerticeArbolBinario<T> raiz() {
+        if (elementos == 0)
+            throw new NoSuchElementException();
+        return vertice(0);
+    }
+
+    /**
+     * Nos dice si el árbol es vacío.
+     * @return <code>true</code> si el árbol es vacío, <code>false</code> en
+     *         otro caso.
+     */
+    @Override public boolean esVacio() {
+        return elementos == 0;
+    }
+
+    /**
+     * Compara el árbol con un objeto. Como la forma de un árbol binario
+     * completo sólo depende de su número de elementos, dos árboles son iguales
+     * si tienen los mismos elementos en el mismo orden BFS.
+     * @param o el objeto con el que queremos comparar el árbol.
+     * @return <code>true</code> si el objeto recibido es un árbol binario
+     *         completo en arreglo y los árboles son iguales;
+     *         <code>false</code> en otro caso.
+     */
+    @Override public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass())
+            return false;
+        @SuppressWarnings("unchecked") ArbolBinarioCompletoArreglo<T> arbol =
+            (ArbolBinarioCompletoArreglo<T>)o;
+        if (elementos != arbol.elementos)
+            return false;
+        for (int i = 0; i < elementos; i++)
+            if (!arreglo[i].equals(arbol.arreglo[i]))
+                return false;
+        return true;
+    }
+
+    /**
+     * Regresa un iterador para iterar el árbol. El árbol se itera en orden BFS.
+     * @return un iterador para iterar el árbol.
+     */
+    @Override public Iterator<T> iterator() {
+        return new Iterador();
+    }
+
+    /* Regresa la vista de la posición, creándola si hace falta. */
+    private VerticeArreglo vertice(int i) {
+        if (vertices == null || vertices.length < arreglo.length) {
+            VerticeArreglo[] nuevos = nuevoArregloDeVertices(arreglo.length);
+            if (vertices != null)
+                System.arraycopy(vertices, 0, nuevos, 0, vertices.length);
+            vertices = nuevos;
+        }
+        if (vertices[i] == null)
+            vertices[i] = new VerticeArreglo(i);
+        return vertices[i];
+    }
+
+    /* Cambia el arreglo por uno de longitud n. Las vistas de las posiciones
+       que siguen existiendo se conservan. */
+    private void redimensiona(int n) {
+        T[] nuevo = nuevoArreglo(n);
+        System.arraycopy(arreglo, 0, nuevo, 0, elementos);
+        arreglo = nuevo;
+        if (vertices != null && vertices.length > n) {
+            VerticeArreglo[] nuevos = nuevoArregloDeVertices(n);
+            System.arraycopy(vertices, 0, nuevos, 0, n);
+            vertices = nuevos;
+        }
+    }
+
+    /* Regresa el índice del elemento en el arreglo, o -1 si no está. */
+    private int indiceDe(T elemento) {
+        if (elemento == null)
+            return -1;
+        for (int i = 0; i < elementos; i++)
+            if (arreglo[i].equals(elemento))
+                return i;
+        return -1;
+    }
+
+    /* Nos dice si los subárboles de los dos vértices son iguales. */
+    private boolean iguales(VerticeArbolBinario<T> a, VerticeArbolBinario<T> b) {
+        if (!a.get().equals(b.get()))
+            return false;
+        if (a.hayIzquierdo() != b.hayIzquierdo() ||
+            a.hayDerecho() != b.hayDerecho())
+            return false;
+        if (a.hayIzquierdo() && !iguales(a.getIzquierdo(), b.getIzquierdo()))
+            return false;
+        return !a.hayDerecho() || iguales(a.getDerecho(), b.getDerecho());
+    }
+}
@@ -1,6 +1,7 @@
     package mx.unam.ciencias.edd;
 
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 /**
  * <p>Clase para árboles binarios ordenados. Los árboles son genéricos, pero
@@ -17,29 +18,48 @@ import java.util.Iterator;
 public class ArbolBinarioOrdenado<T extends Comparable<T>>
     extends ArbolBinario<T> {
 
-    /* Clase privada para iteradores de árboles binarios ordenados. */
+    /* Clase privada para iteradores de árboles binarios ordenados. Pueden
+       acotarse por abajo y por arriba; una cota null no acota. */
     private class Iterador implements Iterator<T> {
 
         /* Pila para emular la pila de ejecución. */
         private Pila<ArbolBinario<T>.Vertice> pila;
+        /* El último elemento que se puede regresar, o null. */
+        private T hasta;
 
-        /* Construye un iterador con el vértice recibido. */
+        /* Construye un iterador para todo el árbol. */
         public Iterador() {
+            this(null, null);
+        }
+
+        /* Construye un iterador para los elementos entre desde y hasta. La
+           pila empieza con los ancestros del primer elemento mayor o igual
+           que desde por los que bajamos a la izquierda, así que llegar a él
+           toma tiempo proporcional a la profundidad. */
+        public Iterador(T desde, T hasta) {
             pila = new Pila<Vertice>();
+            this.hasta = hasta;
             Vertice v = raiz;
             while (v != null) {
-                pila.mete(v);
-                v = v.izquierdo;
+                if (desde == null || v.elemento.compareTo(desde) >= 0) {
+                    pila.mete(v);
+                    v = v.izquierdo;
+                } else {
+                    v = v.derecho;
+                }
             }
         }
 
         /* Nos dice si hay un siguiente elemento. */
         @Override public boolean hasNext() {
-            return !pila.esVacia();
+            return !pila.esVacia() &&
+                (hasta == null || pila.mira().elemento.compareTo(hasta) <= 0);
         }
 
         /* Regresa el siguiente elemento del árbol en orden. */
         @Override public T next() {
+            if (!hasNext())
+                throw new NoSuchElementException("No hay siguiente.");
             Vertice v = pila.saca();
             Vertice vi;
             if (v.derecho != null) {
@@ -74,6 +94,71 @@ public class ArbolBinarioOrdenado<T extends Comparable<T>>
         super(coleccion);
     }
 
+    /**
+     * Reemplaza el contenido del árbol con los elementos de una colección que
+     * ya está ordenada. El árbol se construye de abajo hacia arriba tomando
+     * como raíz de cada subárbol el elemento de en medio de su rango, así que
+     * queda perfectamente balanceado en tiempo <i>O</i>(<i>n</i>), sin
+     * comparar elementos para ubicarlos y sin girar vértices. Cada vértice se
+     * pasa a {@link #verticeCargado} después de sus hijos, para que las
+     * subclases ajusten lo que guardan en ellos.
+     * @param coleccion la colección ordenada con los elementos del árbol.
+     * @throws IllegalArgumentException si la colección es <code>null</code>,
+     *         contiene <code>null</code> o no está ordenada.
+     */
+    protected void cargaOrdenados(Coleccion<T> coleccion) {
+        if (coleccion == null)
+            throw new IllegalArgumentException("La colección es null.");
+        T[] arreglo = nuevoArreglo(coleccion.getElementos());
+        int n = 0;
+        for (T e : coleccion) {
+            if (e == null)
+                throw new IllegalArgumentException("La colección tiene null.");
+            if (n > 0 && arreglo[n-1].compareTo(e) > 0)
+                throw new IllegalArgumentException("La colección no está " +
+                                                   "ordenada.");
+            arreglo[n++] = e;
+        }
+        elementos = n;
+        ultimoAgregado = null;
+        raiz = construye(arreglo, 0, n, 0);
+        if (raiz != null)
+            raiz.padre = null;
+    }
+
+    /* Construye el subárbol con los elementos en [ini, fin) del arreglo. */
+    private Vertice construye(T[] arreglo, int ini, int fin, int profundidad) {
+        if (ini >= fin)
+            return null;
+        int m = (ini + fin) >>> 1;
+        Vertice v = nuevoVertice(arreglo[m]);
+        v.izquierdo = construye(arreglo, ini, m, profundidad + 1);
+        v.derecho = construye(arreglo, m + 1, fin, profundidad + 1);
+        if (v.izquierdo != null)
+            v.izquierdo.padre = v;
+        if (v.derecho != null)
+            v.derecho.padre = v;
+        verticeCargado(v, profundidad);
+        return v;
+    }
+
+    /**
+     * Ajusta un vértice creado por {@link #cargaOrdenados}, cuyos hijos ya
+     * están ajustados. Aquí no hace nada; las subclases que guardan
+     * información en sus vértices lo sobrecargan.
+     * @param vertice el vértice creado.
+     * @param profundidad la profundidad del vértice en el árbol.
+     */
+    protected void verticeCargado(Vertice vertice, int profundidad) {}
+
+    /* Truco para crear un arreglo genérico. Es necesario hacerlo así por cómo
+       Java implementa sus genéricos; de otra forma obtenemos advertencias del
+       compilador. */
+    @SuppressWarnings("unchecked") private T[] nuevoArreglo(int n) {
+        Object[] arreglo = new Comparable[n];
+        return (T[])arreglo;
+    }
+
     /**
      * Agrega un nuevo elemento al árbol. El árbol conserva su orden in-order.
      * @param elemento el elemento a agregar.
@@ -257,6 +342,84 @@ public class ArbolBinarioOrdenado<T extends Comparable<T>>
         return v;
     }
 
+    /**
+     * Regresa el vértice del <em>k</em>-ésimo elemento del árbol en orden,
+     * contando desde 0. En los árboles que guardan el tamaño de sus
+     * subárboles, como {@link ArbolAVL} y {@link ArbolRojinegro}, toma tiempo
+     * <i>O</i>(log <i>n</i>).
+     * @param k el índice del elemento en orden.
+     * @return el vértice del <em>k</em>-ésimo elemento del árbol en orden.
+     * @throws ExcepcionIndiceInvalido si <em>k</em> es menor que cero o mayor
+     *         o igual que el número de elementos en el árbol.
+     */
+    public VerticeArbolBinario<T> selecciona(int k) {
+        if (k < 0 || k >= elementos)
+            throw new ExcepcionIndiceInvalido();
+        Vertice v = raiz;
+        while (true) {
+            int i = tamano(v.izquierdo);
+            if (k == i)
+                return v;
+            if (k < i) {
+                v = v.izquierdo;
+            } else {
+                k -= i + 1;
+                v = v.derecho;
+            }
+        }
+    }
+
+    /**
+     * Regresa el <em>i</em>-ésimo elemento del árbol en orden, contando
+     * desde 0.
+     * @param i el índice del elemento en orden.
+     * @return el <em>i</em>-ésimo elemento del árbol en orden.
+     * @throws ExcepcionIndiceInvalido si <em>i</em> es menor que cero o mayor
+     *         o igual que el número de elementos en el árbol.
+     */
+    public T get(int i) {
+        return selecciona(i).get();
+    }
+
+    /**
+     * Regresa cuántos elementos del árbol son menores que el elemento
+     * recibido, que no tiene que estar en el árbol. Si el elemento está en el
+     * árbol, es el índice en orden de su primera aparición. Tiene la misma
+     * complejidad que {@link #selecciona}.
+     * @param elemento el elemento a comparar.
+     * @return cuántos elementos del árbol son menores que el elemento.
+     * @throws IllegalArgumentException si el elemento es <code>null</code>.
+     */
+    public int rango(T elemento) {
+        if (elemento == null)
+            throw new IllegalArgumentException();
+        int r = 0;
+        Vertice v = raiz;
+        while (v != null) {
+            if (v.elemento.compareTo(elemento) < 0) {
+                r += tamano(v.izquierdo) + 1;
+                v = v.derecho;
+            } else {
+                v = v.izquierdo;
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Regresa el número de elementos en el subárbol del vértice, o 0 si el
+     * vértice es <code>null</code>. Aquí se cuentan recorriendo el subárbol;
+     * las subclases que guardan el tamaño en sus vértices lo sobrecargan para
+     * que tome tiempo constante.
+     * @param vertice la raíz del subárbol.
+     * @return el número de elementos en el subárbol.
+     */
+    protected int tamano(Vertice vertice) {
+        if (vertice == null)
+            return 0;
+        return 1 + tamano(vertice.izquierdo) + tamano(vertice.derecho);
+    }
+
     /**
      * Regresa un iterador para iterar el árbol. El árbol se itera en orden.
      * @return un iterador para iterar el árbol.
@@ -265,6 +428,127 @@ public class ArbolBinarioOrdenado<T extends Comparable<T>>
         return new Iterador();
     }
 
+    /**
+     * Regresa un iterador que recorre en orden los elementos del árbol
+     * mayores o iguales que el elemento recibido, que no tiene que estar en
+     * el árbol. Encontrar el primer elemento toma tiempo proporcional a la
+     * profundidad del árbol, y cada elemento después tiempo constante
+     * amortizado. El árbol no debe modificarse mientras se usa el iterador.
+     * @param elemento el elemento desde el que se itera.
+     * @return un iterador desde el elemento recibido.
+     * @throws IllegalArgumentException si el elemento es <code>null</code>.
+     */
+    public Iterator<T> iteradorDesde(T elemento) {
+        if (elemento == null)
+            throw new IllegalArgumentException();
+        return new Iterador(elemento, null);
+    }
+
+    /**
+     * Regresa una vista de los elementos del árbol entre <code>desde</code> y
+     * <code>hasta</code>, inclusive. No copia nada: cada vez que se itera
+     * busca el primer elemento del intervalo y recorre el árbol en orden
+     * hasta pasar de <code>hasta</code>, así que iterar <em>k</em> elementos
+     * toma tiempo <i>O</i>(log <i>n</i> + <em>k</em>) en un árbol
+     * balanceado. El árbol no debe modificarse mientras se recorre la vista.
+     * @param desde el menor elemento del intervalo.
+     * @param hasta el mayor elemento del intervalo.
+     * @return una vista de los elementos en el intervalo.
+     * @throws IllegalArgumentException si alguno de los extremos es
+     *         <code>null</code>.
+     */
+    public Iterable<T> rango(T desde, T hasta) {
+        if (desde == null || hasta == null)
+            throw new IllegalArgumentException();
+        return () -> new Iterador(desde, hasta);
+    }
+
+    /**
+     * Regresa el mayor elemento del árbol que es menor o igual que el
+     * elemento recibido.
+     * @param elemento el elemento a comparar.
+     * @return el mayor elemento menor o igual que el recibido, o
+     *         <code>null</code> si no hay.
+     * @throws IllegalArgumentException si el elemento es <code>null</code>.
+     */
+    public T piso(T elemento) {
+        return menor(elemento, true);
+    }
+
+    /**
+     * Regresa el menor elemento del árbol que es mayor o igual que el
+     * elemento recibido.
+     * @param elemento el elemento a comparar.
+     * @return el menor elemento mayor o igual que el recibido, o
+     *         <code>null</code> si no hay.
+     * @throws IllegalArgumentException si el elemento es <code>null</code>.
+     */
+    public T techo(T elemento) {
+        return mayor(elemento, true);
+    }
+
+    /**
+     * Regresa el menor elemento del árbol que es estrictamente mayor que el
+     * elemento recibido.
+     * @param elemento el elemento a comparar.
+     * @return el menor elemento mayor que el recibido, o <code>null</code> si
+     *         no hay.
+     * @throws IllegalArgumentException si el elemento es <code>null</code>.
+     */
+    public T sucesor(T elemento) {
+        return mayor(elemento, false);
+    }
+
+    /**
+     * Regresa el mayor elemento del árbol que es estrictamente menor que el
+     * elemento recibido.
+     * @param elemento el elemento a comparar.
+     * @return el mayor elemento menor que el recibido, o <code>null</code> si
+     *         no hay.
+     * @throws IllegalArgumentException si el elemento es <code>null</code>.
+     */
+    public T predecesor(T elemento) {
+        return menor(elemento, false);
+    }
+
+    /* Regresa el mayor elemento menor (o igual, si se permite) que el
+       recibido, bajando una sola vez desde la raíz. */
+    private T menor(T elemento, boolean igual) {
+        if (elemento == null)
+            throw new IllegalArgumentException();
+        T r = null;
+        Vertice v = raiz;
+        while (v != null) {
+            int c = v.elemento.compareTo(elemento);
+            if (c < 0 || (igual && c == 0)) {
+                r = v.elemento;
+                v = v.derecho;
+            } else {
+                v = v.izquierdo;
+            }
+        }
+        return r;
+    }
+
+    /* Regresa el menor elemento mayor (o igual, si se permite) que el
+       recibido, bajando una sola vez desde la raíz. */
+    private T mayor(T elemento, boolean igual) {
+        if (elemento == null)
+            throw new IllegalArgumentException();
+        T r = null;
+        Vertice v = raiz;
+        while (v != null) {
+            int c = v.elemento.compareTo(elemento);
+            if (c > 0 || (igual && c == 0)) {
+                r = v.elemento;
+                v = v.izquierdo;
+            } else {
+                v = v.derecho;
+            }
+        }
+        return r;
+    }
+
     /**
      * Gira el árbol a la derecha sobre el vértice recibido. Si el vértice no
      * tiene hijo izquierdo, el método no hace nada.
@@ -0,0 +1,218 @@
+package mx.unam.ciencias.edd;
+
+/**
+ * <p>Clase para bosquejos <em>Count-Min</em>, que estiman la frecuencia de los
+ * elementos de un flujo en memoria fija.</p>
+ *
+ * <p>El bosquejo es una matriz de contadores con <em>d</em> renglones y
+ * <em>w</em> columnas; cada renglón tiene su propia función de dispersión, que
+ * manda a cada elemento a una columna. La frecuencia estimada de un elemento
+ * es el mínimo de sus <em>d</em> contadores: nunca es menor que la frecuencia
+ * real, y con probabilidad al menos 1 - δ la excede por a lo más ε·N, donde N
+ * es el total de elementos agregados, si <em>w</em> = ⌈e/ε⌉ y <em>d</em> =
+ * ⌈ln(1/δ)⌉.</p>
+ *
+ * <p>Al agregar se usa la <em>actualización conservadora</em>: sólo se
+ * incrementan los contadores que quedarían por debajo de la nueva estimación,
+ * lo que reduce mucho el error en la práctica sin perder las garantías.</p>
+ *
+ * <p>Las funciones de dispersión de los renglones se obtienen por dispersión
+ * doble de dos {@link Dispersor}es.</p>
+ *
+ * @param <T> el tipo de los elementos del bosquejo.
+ */
+public class BosquejoCountMin<T> {
+
+    /* El primer dispersor. */
+    private Dispersor<T> dispersor1;
+    /* El segundo dispersor. */
+    private Dispersor<T> dispersor2;
+    /* Los contadores, renglón por renglón. */
+    private int[] contadores;
+    /* El número de columnas. */
+    private int ancho;
+    /* El número de renglones. */
+    private int profundidad;
+    /* El error relativo al total. */
+    private double error;
+    /* El total de elementos agregados. */
+    private long total;
+    /* Las posiciones del elemento que se está agregando, para no dispersarlo
+       dos veces; sólo agrega las usa. */
+    private int[] posiciones;
+
+    /**
+     * Construye un bosquejo para elementos cualesquiera, usando su método
+     * {@link Object#hashCode}.
+     * @param error el error ε de las estimaciones, relativo al total de
+     *              elementos agregados.
+     * @param confianza la probabilidad δ de que una estimación exceda la
+     *                  cota de error.
+     * @throws IllegalArgumentException si el error o la confianza no están
+     *         entre 0 y 1.
+     */
+    public BosquejoCountMin(double error, double confianza) {
+        this(error, confianza,
+             (T o) -> DiccionarioIntInt.dispersa(o.hashCode()),
+             (T o) -> DiccionarioIntInt.dispersa(~o.hashCode()));
+    }
+
+    /**
+     * Construye un bosquejo con los dispersores recibidos.
+     * @param error el error ε de las estimaciones, relativo al total de
+     *              elementos agregados.
+     * @param confianza la probabilidad δ de que una estimación exceda la
+     *                  cota de error.
+     * @param dispersor1 el primer dispersor.
+     * @param dispersor2 el segundo dispersor.
+     * @throws IllegalArgumentException si el error o la confianza no están
+     *         entre 0 y 1, o si algún dispersor es <code>null</code>.
+     */
+    public BosquejoCountMin(double error, double confianza,
+                            Dispersor<T> dispersor1, Dispersor<T> dispersor2) {
+        if (!(error > 0.0 && error < 1.0) ||
+            !(confianza > 0.0 && confianza < 1.0) ||
+            dispersor1 == null || dispersor2 == null)
+            throw new IllegalArgumentException();
+        this.dispersor1 = dispersor1;
+        this.dispersor2 = dispersor2;
+        this.error = error;
+        ancho = (int)Math.ceil(Math.E / error);
+        profundidad = (int)Math.ceil(Math.log(1.0 / confianza));
+        if ((long)ancho * profundidad > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("El bosquejo es demasiado " +
+                                               "grande.");
+        contadores = new int[ancho * profundidad];
+        posiciones = new int[profundidad];
+    }
+
+    /**
+     * Agrega una ocurrencia del elemento al bosquejo.
+     * @param elemento el elemento a agregar.
+     * @throws IllegalArgumentException si el elemento es <code>null</code>.
+     */
+    public void agrega(T elemento) {
+        agrega(elemento, 1);
+    }
+
+    /**
+     * Agrega varias ocurrencias del elemento al bosquejo, y regresa su nueva
+     * frecuencia estimada.
+     * @param elemento el elemento a agregar.
+     * @param veces el número de ocurrencias a agregar.
+     * @return la frecuencia estimada del elemento después de agregarlo.
+     * @throws IllegalArgumentException si el elemento es <code>null</code> o
+     *         si el número de ocurrencias es negativo.
+     */
+    public int agrega(T elemento, int veces) {
+        if (elemento == null || veces < 0)
+            throw new IllegalArgumentException();
+        int minimo = minimo(elemento, posiciones);
+        int nuevo = (int)Math.min(Integer.MAX_VALUE, (long)minimo + veces);
+        for (int i = 0; i < profundidad; i++)
+            if (contadores[posiciones[i]] < nuevo)
+                contadores[posiciones[i]] = nuevo;
+        total += veces;
+        return nuevo;
+    }
+
+    /**
+     * Estima la frecuencia del elemento. La estimación nunca es menor que la
+     * frecuencia real.
+     * @param elemento el elemento a estimar.
+     * @return la frecuencia estimada del elemento.
+     */
+    public int estima(T elemento) {
+        if (elemento == null)
+            return 0;
+        return minimo(elemento, null);
+    }
+
+    /* Regresa el mínimo de los contadores del elemento, uno por renglón. Si
+       el arreglo recibido no es null, guarda en él sus posiciones. */
+    private int minimo(T elemento, int[] destino) {
+        int h1 = dispersor1.dispersa(elemento);
+        int h2 = dispersor2.dispersa(elemento);
+        int minimo = Integer.MAX_VALUE;
+        for (int i = 0; i < profundidad; i++) {
+            int j = i * ancho + (int)(((h1 & 0xffffffffL) * ancho) >>> 32);
+            if (destino != null)
+                destino[i] = j;
+            minimo = Math.min(minimo, contadores[j]);
+            h1 += h2;
+            h2 += i;
+        }
+        return minimo;
+    }
+
+    /**
+     * Suma al bosquejo los contadores del bosquejo recibido. Los dos bosquejos
+     * deben tener las mismas dimensiones y usar los mismos dispersores.
+     * @param bosquejo el bosquejo a unir con éste.
+     * @throws IllegalArgumentException si el bosquejo recibido no tiene las
+     *         mismas dimensiones.
+     */
+    public void une(BosquejoCountMin<T> bosquejo) {
+        if (bosquejo.ancho != ancho || bosquejo.profundidad != profundidad)
+            throw new IllegalArgumentException("Los bosquejos tienen " +
+                                               "dimensiones distintas.");
+        for (int i = 0; i < contadores.length; i++)
+            contadores[i] = (int)Math.min(Integer.MAX_VALUE,
+                                          (long)contadores[i] +
+                                          bosquejo.contadores[i]);
+        total += bosquejo.total;
+    }
+
+    /**
+     * Divide entre dos todos los contadores y el total, para que las
+     * ocurrencias viejas pesen menos que las recientes.
+     */
+    public void envejece() {
+        for (int i = 0; i < contadores.length; i++)
+            contadores[i] >>>= 1;
+        total >>>= 1;
+    }
+
+    /**
+     * Elimina todas las ocurrencias del bosquejo.
+     */
+    public void limpia() {
+        for (int i = 0; i < contadores.length; i++)
+            contadores[i] = 0;
+        total = 0;
+    }
+
+    /**
+     * Regresa el total de ocurrencias agregadas al bosquejo.
+     * @return el total de ocurrencias agregadas al bosquejo.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Regresa el número de columnas del bosquejo.
+     * @return el número de columnas del bosquejo.
+     */
+    public int getAncho() {
+        return ancho;
+    }
+
+    /**
+     * Regresa el número de renglones del bosquejo.
+     * @return el número de renglones del bosquejo.
+     */
+    public int getProfundidad() {
+        return profundidad;
+    }
+
+    /**
+     * Regresa la cota del error de las estimaciones con el total actual: con
+     * la confianza del bosquejo, ninguna estimación excede la frecuencia real
+     * por más que esto.
+     * @return la cota del error de las estimaciones.
+     */
+    public double cotaError() {
+        return error * total;
+    }
+}
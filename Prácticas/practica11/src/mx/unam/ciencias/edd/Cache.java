@@ -0,0 +1,481 @@
+package mx.unam.ciencias.edd;
+
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * <p>Clase para caches acotadas, que expulsan entradas cuando se llenan.</p>
+ *
+ * <p>Las entradas se buscan con un {@link Diccionario}, y cada una es también
+ * un nodo de una lista doblemente ligada de recencia: moverla al inicio o
+ * sacarla de la lista toma tiempo constante, sin recorrer la lista como lo
+ * haría {@link Lista#elimina}.</p>
+ *
+ * <p>Hay dos políticas de expulsión (ver {@link PoliticaCache}):</p>
+ *
+ * <ul>
+ *   <li>{@link PoliticaCache#LRU}: se expulsa la entrada usada menos
+ *       recientemente.</li>
+ *   <li>{@link PoliticaCache#W_TINY_LFU}: las entradas nuevas llegan a una
+ *       ventana LRU que ocupa el 1% de la capacidad. Al salir de la ventana,
+ *       una entrada sólo entra a la región principal si un {@link
+ *       BosquejoCountMin}, que cuenta los accesos recientes a cada llave, la
+ *       estima más frecuente que la víctima que expulsaría. La región
+ *       principal es una LRU segmentada: una entrada usada dos veces pasa de
+ *       la región de prueba a la protegida, que ocupa el 80% de la región
+ *       principal. Así una ráfaga de llaves que se usan una sola vez no
+ *       desplaza a las llaves populares.</li>
+ * </ul>
+ *
+ * <p>La capacidad se mide en unidades de peso: por omisión cada entrada pesa
+ * 1, pero puede darse una función que calcule el peso de cada entrada.</p>
+ *
+ * @param <K> el tipo de las llaves.
+ * @param <V> el tipo de los valores.
+ */
+public class Cache<K, V> {
+
+    /* Clase para las entradas, que también son nodos de su región. */
+    private class Nodo {
+
+        /* La llave. */
+        public K llave;
+        /* El valor. */
+        public V valor;
+        /* El peso. */
+        public int peso;
+        /* La región en la que está el nodo, o null si no está en ninguna. */
+        public Region region;
+        /* El nodo anterior en la región. */
+        public Nodo anterior;
+        /* El nodo siguiente en la región. */
+        public Nodo siguiente;
+
+        /* Construye un nodo. */
+        public Nodo(K llave, V valor, int peso) {
+            this.llave = llave;
+            this.valor = valor;
+            this.peso = peso;
+        }
+    }
+
+    /* Clase para las listas de recencia, de la más reciente a la menos. */
+    private class Region {
+
+        /* El nodo más reciente. */
+        public Nodo cabeza;
+        /* El nodo menos reciente. */
+        public Nodo rabo;
+        /* La suma de los pesos de los nodos. */
+        public long peso;
+
+        /* Agrega un nodo como el más reciente. */
+        public void agregaCabeza(Nodo n) {
+            n.region = this;
+            n.anterior = null;
+            n.siguiente = cabeza;
+            if (cabeza == null)
+                rabo = n;
+            else
+                cabeza.anterior = n;
+            cabeza = n;
+            peso += n.peso;
+        }
+
+        /* Saca un nodo de la región. */
+        public void quita(Nodo n) {
+            if (n.anterior == null)
+                cabeza = n.siguiente;
+            else
+                n.anterior.siguiente = n.siguiente;
+            if (n.siguiente == null)
+                rabo = n.anterior;
+            else
+                n.siguiente.anterior = n.anterior;
+            n.anterior = n.siguiente = null;
+            n.region = null;
+            peso -= n.peso;
+        }
+
+        /* Vacía la región. */
+        public void limpia() {
+            cabeza = rabo = null;
+            peso = 0;
+        }
+    }
+
+    /* Fracción de la capacidad para la ventana de W-TinyLFU. */
+    private static final double FRACCION_VENTANA = 0.01;
+    /* Fracción de la región principal para la región protegida. */
+    private static final double FRACCION_PROTEGIDA = 0.8;
+    /* Confianza del bosquejo de frecuencias; da cuatro renglones. */
+    private static final double CONFIANZA = 0.02;
+    /* Accesos por entrada antes de envejecer el bosquejo. */
+    private static final int MUESTRAS_POR_ENTRADA = 10;
+    /* Máximo número de entradas que se toma en cuenta para el bosquejo. */
+    private static final int MAX_ENTRADAS_BOSQUEJO = 1 << 20;
+
+    /* Las entradas. */
+    private Diccionario<K, Nodo> entradas;
+    /* La política de expulsión. */
+    private PoliticaCache politica;
+    /* La función de peso. */
+    private ToIntBiFunction<? super K, ? super V> pesador;
+    /* La ventana; con LRU, todas las entradas. */
+    private Region ventana;
+    /* La región de prueba de W-TinyLFU. */
+    private Region prueba;
+    /* La región protegida de W-TinyLFU. */
+    private Region protegida;
+    /* La capacidad. */
+    private long capacidad;
+    /* El máximo peso de la ventana. */
+    private long maxVentana;
+    /* El máximo peso de la región principal. */
+    private long maxPrincipal;
+    /* El máximo peso de la región protegida. */
+    private long maxProtegida;
+    /* El peso total. */
+    private long peso;
+    /* Las frecuencias de acceso recientes, con W-TinyLFU. */
+    private BosquejoCountMin<K> frecuencias;
+    /* Los accesos registrados desde el último envejecimiento. */
+    private long muestras;
+    /* Los accesos antes de envejecer el bosquejo. */
+    private long maxMuestras;
+    /* Contadores de aciertos, fallos y expulsiones. */
+    private long aciertos, fallos, expulsiones;
+
+    /**
+     * Construye una cache en la que cada entrada pesa 1; la capacidad es
+     * entonces el máximo número de entradas.
+     * @param capacidad el máximo número de entradas.
+     * @param politica la política de expulsión.
+     * @throws IllegalArgumentException si la capacidad no es positiva o la
+     *         política es <code>null</code>.
+     */
+    public Cache(long capacidad, PoliticaCache politica) {
+        this(capacidad, politica, (K k, V v) -> 1);
+    }
+
+    /**
+     * Construye una cache cuyas entradas pesan lo que diga la función
+     * recibida.
+     * @param capacidad el máximo peso total de las entradas.
+     * @param politica la política de expulsión.
+     * @param pesador la función que calcula el peso de cada entrada.
+     * @throws IllegalArgumentException si la capacidad no es positiva, o la
+     *         política o la función son <code>null</code>.
+     */
+    public Cache(long capacidad, PoliticaCache politica,
+                 ToIntBiFunction<? super K, ? super V> pesador) {
+        if (capacidad <= 0 || politica == null || pesador == null)
+            throw new IllegalArgumentException();
+        this.capacidad = capacidad;
+        this.politica = politica;
+        this.pesador = pesador;
+        int n = (int)Math.min(capacidad, MAX_ENTRADAS_BOSQUEJO);
+        entradas = new Diccionario<K, Nodo>(Math.min(n, 1024));
+        ventana = new Region();
+        prueba = new Region();
+        protegida = new Region();
+        if (politica == PoliticaCache.LRU) {
+            maxVentana = capacidad;
+            return;
+        }
+        maxVentana = Math.max(1, (long)(capacidad * FRACCION_VENTANA));
+        maxPrincipal = capacidad - maxVentana;
+        maxProtegida = (long)(maxPrincipal * FRACCION_PROTEGIDA);
+        frecuencias = new BosquejoCountMin<K>(Math.E / Math.max(16, n),
+                                              CONFIANZA);
+        maxMuestras = (long)MUESTRAS_POR_ENTRADA * Math.max(16, n);
+    }
+
+    /**
+     * Regresa el valor asociado a la llave.
+     * @param llave la llave del valor.
+     * @return el valor asociado a la llave.
+     * @throws NoSuchElementException si la llave no está en la cache.
+     */
+    public V get(K llave) {
+        Nodo n = busca(llave);
+        if (n == null)
+            throw new NoSuchElementException("La llave no está en la cache.");
+        return n.valor;
+    }
+
+    /**
+     * Regresa el valor asociado a la llave, o el valor predeterminado si la
+     * llave no está en la cache.
+     * @param llave la llave del valor.
+     * @param predeterminado el valor a regresar si la llave no está.
+     * @return el valor asociado a la llave, o el predeterminado.
+     */
+    public V getOPredeterminado(K llave, V predeterminado) {
+        Nodo n = busca(llave);
+        return n == null ? predeterminado : n.valor;
+    }
+
+    /**
+     * Regresa el valor asociado a la llave; si la llave no está en la cache,
+     * calcula su valor con la función recibida y lo agrega. Sirve para
+     * memorizar los resultados de una función costosa.
+     * @param llave la llave del valor.
+     * @param funcion la función para calcular el valor a partir de la llave.
+     * @return el valor asociado a la llave, o <code>null</code> si la función
+     *         regresó <code>null</code>.
+     * @throws IllegalArgumentException si la llave es <code>null</code>.
+     */
+    public V calculaSiAusente(K llave,
+                              Function<? super K, ? extends V> funcion) {
+        if (llave == null)
+            throw new IllegalArgumentException();
+        Nodo n = busca(llave);
+        if (n != null)
+            return n.valor;
+        V valor = funcion.apply(llave);
+        if (valor != null)
+            agrega(llave, valor, false);
+        return valor;
+    }
+
+    /**
+     * Agrega un valor a la cache con la llave recibida, reemplazando el valor
+     * anterior si la llave ya estaba. Si hace falta, expulsa entradas. Una
+     * entrada más pesada que la capacidad no se guarda.
+     * @param llave la llave del valor.
+     * @param valor el valor a agregar.
+     * @throws IllegalArgumentException si la llave o el valor son
+     *         <code>null</code>, o si el peso de la entrada es negativo.
+     */
+    public void agrega(K llave, V valor) {
+        agrega(llave, valor, true);
+    }
+
+    /* Agrega el valor a la cache. Si el acceso ya se registró al buscar la
+       llave, no hay que registrarlo otra vez: la llave tendría una frecuencia
+       inflada al decidir si entra a la región principal. */
+    private void agrega(K llave, V valor, boolean registrar) {
+        if (llave == null || valor == null)
+            throw new IllegalArgumentException();
+        int p = pesador.applyAsInt(llave, valor);
+        if (p < 0)
+            throw new IllegalArgumentException("Peso negativo.");
+        if (registrar)
+            registra(llave);
+        Nodo n = entradas.getOPredeterminado(llave, null);
+        if (n != null) {
+            Region r = n.region;
+            r.quita(n);
+            peso -= n.peso;
+            n.valor = valor;
+            n.peso = p;
+            r.agregaCabeza(n);
+            peso += p;
+            toca(n);
+        } else {
+            n = new Nodo(llave, valor, p);
+            entradas.agrega(llave, n);
+            ventana.agregaCabeza(n);
+            peso += p;
+        }
+        if (p > capacidad) {
+            expulsa(n);
+            return;
+        }
+        equilibra();
+    }
+
+    /**
+     * Elimina la entrada con la llave recibida.
+     * @param llave la llave de la entrada a eliminar.
+     * @throws NoSuchElementException si la llave no está en la cache.
+     */
+    public void elimina(K llave) {
+        Nodo n = llave == null ? null :
+            entradas.getOPredeterminado(llave, null);
+        if (n == null)
+            throw new NoSuchElementException("La llave no está en la cache.");
+        n.region.quita(n);
+        entradas.elimina(llave);
+        peso -= n.peso;
+    }
+
+    /**
+     * Nos dice si la llave está en la cache, sin contar un acierto o un fallo
+     * ni cambiar la recencia de la entrada.
+     * @param llave la llave a buscar.
+     * @return <code>true</code> si la llave está en la cache,
+     *         <code>false</code> en otro caso.
+     */
+    public boolean contiene(K llave) {
+        return llave != null && entradas.contiene(llave);
+    }
+
+    /**
+     * Elimina todas las entradas de la cache. Los contadores de aciertos,
+     * fallos y expulsiones no cambian.
+     */
+    public void limpia() {
+        entradas = new Diccionario<K, Nodo>();
+        ventana.limpia();
+        prueba.limpia();
+        protegida.limpia();
+        peso = 0;
+    }
+
+    /**
+     * Regresa el número de entradas en la cache.
+     * @return el número de entradas en la cache.
+     */
+    public int getElementos() {
+        return entradas.getElementos();
+    }
+
+    /**
+     * Regresa el peso total de las entradas en la cache.
+     * @return el peso total de las entradas en la cache.
+     */
+    public long getPeso() {
+        return peso;
+    }
+
+    /**
+     * Regresa la capacidad de la cache.
+     * @return la capacidad de la cache.
+     */
+    public long getCapacidad() {
+        return capacidad;
+    }
+
+    /**
+     * Regresa la política de expulsión de la cache.
+     * @return la política de expulsión de la cache.
+     */
+    public PoliticaCache getPolitica() {
+        return politica;
+    }
+
+    /**
+     * Regresa el número de búsquedas que encontraron su llave.
+     * @return el número de aciertos.
+     */
+    public long aciertos() {
+        return aciertos;
+    }
+
+    /**
+     * Regresa el número de búsquedas que no encontraron su llave.
+     * @return el número de fallos.
+     */
+    public long fallos() {
+        return fallos;
+    }
+
+    /**
+     * Regresa el número de entradas expulsadas o rechazadas por falta de
+     * espacio.
+     * @return el número de expulsiones.
+     */
+    public long expulsiones() {
+        return expulsiones;
+    }
+
+    /**
+     * Regresa la fracción de búsquedas que encontraron su llave.
+     * @return la tasa de aciertos, o 0 si no ha habido búsquedas.
+     */
+    public double tasaAciertos() {
+        long n = aciertos + fallos;
+        return n == 0 ? 0.0 : (double)aciertos / n;
+    }
+
+    /* Busca el nodo de la llave, registrando el acceso. */
+    private Nodo busca(K llave) {
+        if (llave == null)
+            return null;
+        registra(llave);
+        Nodo n = entradas.getOPredeterminado(llave, null);
+        if (n == null) {
+            fallos++;
+            return null;
+        }
+        aciertos++;
+        toca(n);
+        return n;
+    }
+
+    /* Registra un acceso a la llave en el bosquejo de frecuencias. */
+    private void registra(K llave) {
+        if (frecuencias == null)
+            return;
+        frecuencias.agrega(llave);
+        if (++muestras >= maxMuestras) {
+            frecuencias.envejece();
+            muestras >>>= 1;
+        }
+    }
+
+    /* Actualiza la recencia de un nodo usado. */
+    private void toca(Nodo n) {
+        Region r = n.region;
+        r.quita(n);
+        if (r != prueba) {
+            r.agregaCabeza(n);
+            return;
+        }
+        protegida.agregaCabeza(n);
+        while (protegida.peso > maxProtegida && protegida.rabo != n) {
+            Nodo m = protegida.rabo;
+            protegida.quita(m);
+            prueba.agregaCabeza(m);
+        }
+    }
+
+    /* Expulsa entradas hasta que la cache respete sus límites. */
+    private void equilibra() {
+        while (ventana.peso > maxVentana && ventana.rabo != ventana.cabeza) {
+            Nodo c = ventana.rabo;
+            ventana.quita(c);
+            if (politica == PoliticaCache.LRU)
+                expulsa(c);
+            else
+                admite(c);
+        }
+        while (peso > capacidad) {
+            if (prueba.rabo != null)
+                expulsa(prueba.rabo);
+            else if (protegida.rabo != null)
+                expulsa(protegida.rabo);
+            else
+                expulsa(ventana.rabo);
+        }
+    }
+
+    /* Decide si un candidato que sale de la ventana entra a la región
+       principal, comparando su frecuencia con la de las víctimas. */
+    private void admite(Nodo c) {
+        int frecuencia = frecuencias.estima(c.llave);
+        while (prueba.peso + protegida.peso + c.peso > maxPrincipal) {
+            Nodo v = prueba.rabo != null ? prueba.rabo : protegida.rabo;
+            if (v == null)
+                break;
+            if (frecuencia <= frecuencias.estima(v.llave)) {
+                expulsa(c);
+                return;
+            }
+            expulsa(v);
+        }
+        prueba.agregaCabeza(c);
+    }
+
+    /* Expulsa un nodo de la cache. */
+    private void expulsa(Nodo n) {
+        if (n.region != null)
+            n.region.quita(n);
+        entradas.elimina(n.llave);
+        peso -= n.peso;
+        expulsiones++;
+    }
+}
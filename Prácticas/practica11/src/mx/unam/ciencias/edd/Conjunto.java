@@ -1,22 +1,103 @@
 package mx.unam.ciencias.edd;
 
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 /**
- * Clase para conjuntos de elementos. Todos sus métodos tienen complejidad en
- * tiempo <em>O</em>(1) (amortizado), excepto por {@link union} y {@link
- * interseccion}, que son <em>O</em>(<em>n</em>).
+ * <p>Clase para conjuntos de elementos. Todos sus métodos tienen complejidad en
+ * tiempo <em>O</em>(1) (amortizado), excepto por las operaciones entre
+ * conjuntos, que son <em>O</em>(<em>n</em>).</p>
+ *
+ * <p>Los elementos se guardan directamente en un arreglo con direccionamiento
+ * abierto, junto con su dispersión, usando sondeo lineal al estilo <em>Robin
+ * Hood</em> como {@link DiccionarioAbierto}; no hay entradas, listas ni
+ * valores repetidos. Como todos los conjuntos dispersan igual a sus
+ * elementos, las operaciones entre conjuntos reutilizan las dispersiones
+ * guardadas en lugar de volver a calcularlas, reservan de una vez el espacio
+ * que necesita el resultado, y siempre que pueden recorren el conjunto más
+ * chico.</p>
  */
 public class Conjunto<T> implements Coleccion<T> {
 
-    /* El conjunto de elementos. */
-    private Diccionario<T, T> conjunto;
+    /** Máxima carga permitida por el conjunto. */
+    public static final double MAXIMA_CARGA = 0.85;
+
+    /* Clase privada para iteradores de conjuntos. Recorre las casillas hacia
+       atrás, empezando justo antes de una casilla vacía; así, si se elimina
+       el último elemento que regresó, los elementos que se recorren para
+       llenar su lugar ya fueron visitados, y no se pierde ni se repite
+       ninguno. */
+    private class Iterador implements Iterator<T> {
+
+        /* El índice del siguiente elemento, o -1 si no hay. */
+        private int indice;
+        /* Cuántas casillas faltan por revisar. */
+        private int restantes;
+
+        /* Construye un nuevo iterador. */
+        public Iterador() {
+            int vacia = 0;
+            while (casillas[vacia] != null)
+                vacia++;
+            indice = vacia;
+            restantes = casillas.length - 1;
+            avanza();
+        }
+
+        /* Nos dice si hay un siguiente elemento. */
+        @Override public boolean hasNext() {
+            return indice != -1;
+        }
+
+        /* Regresa el siguiente elemento. */
+        @Override public T next() {
+            if (indice == -1)
+                throw new NoSuchElementException("No hay siguiente.");
+            T e = casillas[indice];
+            avanza();
+            return e;
+        }
+
+        /* No lo implementamos: siempre lanza una excepción. */
+        @Override public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        /* Mueve el índice a la anterior casilla ocupada. */
+        private void avanza() {
+            while (restantes > 0) {
+                restantes--;
+                indice = (indice - 1) & mascara;
+                if (casillas[indice] != null)
+                    return;
+            }
+            indice = -1;
+        }
+    }
+
+    /* Tamaño mínimo; decidido arbitrariamente a 2^4. */
+    private static final int MIN_N = 16;
+
+    /* Máscara para no usar módulo. */
+    private int mascara;
+    /* Los elementos; null indica una casilla vacía. */
+    private T[] casillas;
+    /* La dispersión de cada elemento, para no volver a calcularla. */
+    private int[] dispersiones;
+    /* Número de elementos. */
+    private int elementos;
+
+    /* Truco para crear arreglos genéricos. */
+    @SuppressWarnings("unchecked") private static <T> T[] nuevoArreglo(int n) {
+        Object[] arreglo = new Object[n];
+        return (T[])arreglo;
+    }
 
     /**
      * Crea un nuevo conjunto.
      */
     public Conjunto() {
-        this.conjunto = new Diccionario<T, T>();
+        inicializa(MIN_N);
     }
 
     /**
@@ -24,7 +105,7 @@ public class Conjunto<T> implements Coleccion<T> {
      * @param n el número tentativo de elementos.
      */
     public Conjunto(int n) {
-        this.conjunto = new Diccionario<T, T>(n);
+        inicializa(longitud(n));
     }
 
     /**
@@ -33,7 +114,9 @@ public class Conjunto<T> implements Coleccion<T> {
      * @throws IllegalArgumentException si el elemento es <code>null</code>.
      */
     @Override public void agrega(T elemento) {
-        conjunto.agrega(elemento,elemento);
+        if (elemento == null)
+            throw new IllegalArgumentException();
+        agrega(elemento, dispersa(elemento));
     }
 
     /**
@@ -43,15 +126,19 @@ public class Conjunto<T> implements Coleccion<T> {
      *         <code>false</code> en otro caso.
      */
     @Override public boolean contiene(T elemento) {
-        return conjunto.contiene(elemento);
+        return busca(elemento, dispersa(elemento)) != -1;
     }
 
     /**
-     * Elimina el elemento del conjunto es vacío, si está.
+     * Elimina el elemento del conjunto.
      * @param elemento el elemento que queremos eliminar del conjunto.
+     * @throws NoSuchElementException si el elemento no está en el conjunto.
      */
     @Override public void elimina(T elemento) {
-        conjunto.elimina(elemento);
+        int i = busca(elemento, dispersa(elemento));
+        if (i == -1)
+            throw new NoSuchElementException("El elemento no se encuentra.");
+        vacia(i);
     }
 
     /**
@@ -64,7 +151,13 @@ public class Conjunto<T> implements Coleccion<T> {
         if (!(o instanceof Conjunto))
             return false;
         @SuppressWarnings("unchecked") Conjunto<T> c = (Conjunto<T>)o;
-        return c.conjunto.equals(this.conjunto);
+        if (c.elementos != elementos)
+            return false;
+        for (int i = 0; i < casillas.length; i++)
+            if (casillas[i] != null &&
+                c.busca(casillas[i], dispersiones[i]) == -1)
+                return false;
+        return true;
     }
 
     /**
@@ -73,7 +166,7 @@ public class Conjunto<T> implements Coleccion<T> {
      *         otro caso.
      */
     @Override public boolean esVacio() {
-        return conjunto.esVacio();
+        return elementos == 0;
     }
 
     /**
@@ -81,43 +174,336 @@ public class Conjunto<T> implements Coleccion<T> {
      * @return el número de elementos en el conjunto.
      */
     @Override public int getElementos() {
-        return conjunto.getElementos();
+        return elementos;
     }
 
     /**
-     * Regresa la intersección del conjunto y el conjunto recibido.
+     * Regresa la intersección del conjunto y el conjunto recibido. Se recorre
+     * el más chico de los dos.
      * @param conjunto el conjunto que queremos intersectar con éste.
      * @return la intersección del conjunto y el conjunto recibido.
      */
     public Conjunto<T> interseccion(Conjunto<T> conjunto) {
-        Conjunto<T> n = new Conjunto<T>();
-        for (T e : this.conjunto)
-            if (conjunto.conjunto.contiene(e))
-                n.agrega(e);
+        Conjunto<T> chico = elementos <= conjunto.elementos ? this : conjunto;
+        Conjunto<T> grande = chico == this ? conjunto : this;
+        Conjunto<T> n = new Conjunto<T>(chico.elementos);
+        for (int i = 0; i < chico.casillas.length; i++) {
+            T e = chico.casillas[i];
+            int d = chico.dispersiones[i];
+            if (e != null && grande.busca(e, d) != -1)
+                n.coloca(e, d);
+        }
         return n;
     }
 
     /**
-     * Regresa la unión del conjunto y el conjunto recibido.
+     * Regresa la unión del conjunto y el conjunto recibido. El conjunto más
+     * grande se copia sin comparar elementos, y sólo se recorre el más chico.
      * @param conjunto el conjunto que queremos unir con éste.
      * @return la unión del conjunto y el conjunto recibido.
      */
     public Conjunto<T> union(Conjunto<T> conjunto) {
-        Conjunto<T> n = new Conjunto<T>();
-        Lista<T> v1 = this.conjunto.valores();
-        Lista<T> v2 = conjunto.conjunto.valores();
-        for (T v : v1)
-            n.agrega(v);
-        for (T v : v2)
-            n.agrega(v);
+        Conjunto<T> chico = elementos <= conjunto.elementos ? this : conjunto;
+        Conjunto<T> grande = chico == this ? conjunto : this;
+        Conjunto<T> n = new Conjunto<T>(grande.elementos + chico.elementos);
+        n.copia(grande);
+        n.agregaTodos(chico);
+        return n;
+    }
+
+    /**
+     * Regresa la diferencia del conjunto y el conjunto recibido: los elementos
+     * de este conjunto que no están en el recibido. Si el conjunto recibido es
+     * más chico, se copia éste y se le quitan los elementos del recibido.
+     * @param conjunto el conjunto cuyos elementos queremos quitar.
+     * @return la diferencia del conjunto y el conjunto recibido.
+     */
+    public Conjunto<T> diferencia(Conjunto<T> conjunto) {
+        Conjunto<T> n = new Conjunto<T>(elementos);
+        if (conjunto.elementos < elementos) {
+            n.copia(this);
+            n.quitaTodos(conjunto);
+            return n;
+        }
+        for (int i = 0; i < casillas.length; i++) {
+            T e = casillas[i];
+            int d = dispersiones[i];
+            if (e != null && conjunto.busca(e, d) == -1)
+                n.coloca(e, d);
+        }
         return n;
     }
 
     /**
-     * Regresa un iterador para iterar el conjunto.
+     * Regresa la diferencia simétrica del conjunto y el conjunto recibido: los
+     * elementos que están en exactamente uno de los dos. Se copia el conjunto
+     * más grande y sólo se recorre el más chico.
+     * @param conjunto el conjunto con el que queremos la diferencia simétrica.
+     * @return la diferencia simétrica del conjunto y el conjunto recibido.
+     */
+    public Conjunto<T> diferenciaSimetrica(Conjunto<T> conjunto) {
+        Conjunto<T> chico = elementos <= conjunto.elementos ? this : conjunto;
+        Conjunto<T> grande = chico == this ? conjunto : this;
+        Conjunto<T> n = new Conjunto<T>(grande.elementos + chico.elementos);
+        n.copia(grande);
+        n.alternaTodos(chico);
+        return n;
+    }
+
+    /**
+     * Agrega a este conjunto los elementos del conjunto recibido.
+     * @param conjunto el conjunto que queremos unir con éste.
+     */
+    public void unionEnLugar(Conjunto<T> conjunto) {
+        if (conjunto == this)
+            return;
+        reserva(elementos + conjunto.elementos);
+        agregaTodos(conjunto);
+    }
+
+    /**
+     * Deja en este conjunto sólo los elementos que también están en el
+     * conjunto recibido. Si el conjunto recibido es más chico, se recorre
+     * ése y este conjunto se reconstruye con el tamaño del resultado.
+     * @param conjunto el conjunto que queremos intersectar con éste.
+     */
+    public void interseccionEnLugar(Conjunto<T> conjunto) {
+        if (conjunto == this)
+            return;
+        if (conjunto.elementos < elementos) {
+            Conjunto<T> n = interseccion(conjunto);
+            casillas = n.casillas;
+            dispersiones = n.dispersiones;
+            mascara = n.mascara;
+            elementos = n.elementos;
+            return;
+        }
+        int i = 0;
+        while (i < casillas.length) {
+            if (casillas[i] != null &&
+                conjunto.busca(casillas[i], dispersiones[i]) == -1)
+                vacia(i);
+            else
+                i++;
+        }
+    }
+
+    /**
+     * Quita de este conjunto los elementos que están en el conjunto recibido.
+     * @param conjunto el conjunto cuyos elementos queremos quitar.
+     */
+    public void diferenciaEnLugar(Conjunto<T> conjunto) {
+        if (conjunto == this) {
+            inicializa(MIN_N);
+            return;
+        }
+        if (conjunto.elementos < elementos) {
+            quitaTodos(conjunto);
+            return;
+        }
+        int i = 0;
+        while (i < casillas.length) {
+            if (casillas[i] != null &&
+                conjunto.busca(casillas[i], dispersiones[i]) != -1)
+                vacia(i);
+            else
+                i++;
+        }
+    }
+
+    /**
+     * Deja en este conjunto los elementos que están en exactamente uno de los
+     * dos conjuntos. Se recorre el conjunto recibido.
+     * @param conjunto el conjunto con el que queremos la diferencia simétrica.
+     */
+    public void diferenciaSimetricaEnLugar(Conjunto<T> conjunto) {
+        if (conjunto == this) {
+            inicializa(MIN_N);
+            return;
+        }
+        reserva(elementos + conjunto.elementos);
+        alternaTodos(conjunto);
+    }
+
+    /**
+     * Regresa un iterador para iterar el conjunto. Mientras se itera, el
+     * conjunto sólo puede modificarse eliminando el último elemento que
+     * regresó el iterador.
      * @return un iterador para iterar el conjunto.
      */
     @Override public Iterator<T> iterator() {
-        return conjunto.iterator();
+        return new Iterador();
+    }
+
+    /* Dispersa un elemento. Mezclamos los bits del hashCode porque muchos
+       (como los de Integer) casi no varían en los bits bajos, que son los que
+       usa la máscara. */
+    private static int dispersa(Object elemento) {
+        return DiccionarioIntInt.dispersa(elemento.hashCode());
+    }
+
+    /* Crea los arreglos vacíos con la longitud recibida. */
+    private void inicializa(int l) {
+        casillas = nuevoArreglo(l);
+        dispersiones = new int[l];
+        mascara = l - 1;
+        elementos = 0;
+    }
+
+    /* Regresa la longitud, potencia de 2, en la que caben n elementos sin
+       pasar de la carga máxima. */
+    private static int longitud(int n) {
+        int r = MIN_N;
+        while (r * MAXIMA_CARGA <= n)
+            r <<= 1;
+        return r;
+    }
+
+    /* Qué tan lejos está el elemento en i de su índice inicial. */
+    private int distancia(int i) {
+        return (i - (dispersiones[i] & mascara)) & mascara;
+    }
+
+    /* Regresa el índice del elemento con la dispersión d, o -1 si no está. */
+    private int busca(T elemento, int d) {
+        int i = d & mascara;
+        int distancia = 0;
+        while (casillas[i] != null && distancia(i) >= distancia) {
+            if (dispersiones[i] == d && casillas[i].equals(elemento))
+                return i;
+            i = (i + 1) & mascara;
+            distancia++;
+        }
+        return -1;
+    }
+
+    /* Agrega el elemento con la dispersión d, si no está. */
+    private void agrega(T elemento, int d) {
+        int i = d & mascara;
+        int distancia = 0;
+        /* El elemento sólo puede estar antes de la primera casilla cuyo
+           elemento esté más cerca de su índice inicial que nosotros. */
+        while (casillas[i] != null && distancia(i) >= distancia) {
+            if (dispersiones[i] == d && casillas[i].equals(elemento))
+                return;
+            i = (i + 1) & mascara;
+            distancia++;
+        }
+        inserta(i, distancia, elemento, d);
+        if (++elementos >= casillas.length * MAXIMA_CARGA)
+            redimensiona(casillas.length << 1);
+    }
+
+    /* Coloca un elemento que sabemos que no está en el conjunto, y para el que
+       sabemos que hay espacio. */
+    private void coloca(T elemento, int d) {
+        inserta(d & mascara, 0, elemento, d);
+        elementos++;
+    }
+
+    /* Coloca un elemento que sabemos que no está en el conjunto, empezando en
+       la casilla i a la distancia recibida de su índice inicial. Cada vez que
+       encontramos un elemento más cerca de su inicio que el que llevamos,
+       intercambiamos y seguimos con el desplazado. */
+    private void inserta(int i, int distancia, T elemento, int d) {
+        while (casillas[i] != null) {
+            int di = distancia(i);
+            if (di < distancia) {
+                T e = casillas[i];
+                int h = dispersiones[i];
+                casillas[i] = elemento;
+                dispersiones[i] = d;
+                elemento = e;
+                d = h;
+                distancia = di;
+            }
+            i = (i + 1) & mascara;
+            distancia++;
+        }
+        casillas[i] = elemento;
+        dispersiones[i] = d;
+    }
+
+    /* Vacía la casilla i, recorriendo hacia atrás los elementos siguientes
+       mientras no estén en su índice inicial. */
+    private void vacia(int i) {
+        int j = (i + 1) & mascara;
+        while (casillas[j] != null && distancia(j) > 0) {
+            casillas[i] = casillas[j];
+            dispersiones[i] = dispersiones[j];
+            i = j;
+            j = (j + 1) & mascara;
+        }
+        casillas[i] = null;
+        elementos--;
+    }
+
+    /* Se asegura de que quepan n elementos sin crecer. */
+    private void reserva(int n) {
+        int l = longitud(n);
+        if (l > casillas.length)
+            redimensiona(l);
+    }
+
+    /* Cambia la longitud de los arreglos; como la máscara cambia hay qué
+       volver a colocar todos los elementos, pero no hace falta volver a
+       dispersarlos. */
+    private void redimensiona(int l) {
+        T[] cs = casillas;
+        int[] ds = dispersiones;
+        inicializa(l);
+        for (int i = 0; i < cs.length; i++)
+            if (cs[i] != null)
+                coloca(cs[i], ds[i]);
+    }
+
+    /* Copia los elementos de un conjunto a este conjunto vacío. Si los
+       arreglos tienen la misma longitud, se copian tal cual. */
+    private void copia(Conjunto<T> conjunto) {
+        if (casillas.length == conjunto.casillas.length) {
+            System.arraycopy(conjunto.casillas, 0, casillas, 0,
+                             casillas.length);
+            System.arraycopy(conjunto.dispersiones, 0, dispersiones, 0,
+                             dispersiones.length);
+            elementos = conjunto.elementos;
+            return;
+        }
+        for (int i = 0; i < conjunto.casillas.length; i++)
+            if (conjunto.casillas[i] != null)
+                coloca(conjunto.casillas[i], conjunto.dispersiones[i]);
+    }
+
+    /* Agrega los elementos del conjunto recibido. */
+    private void agregaTodos(Conjunto<T> conjunto) {
+        for (int i = 0; i < conjunto.casillas.length; i++)
+            if (conjunto.casillas[i] != null)
+                agrega(conjunto.casillas[i], conjunto.dispersiones[i]);
+    }
+
+    /* Quita los elementos del conjunto recibido que estén en éste. */
+    private void quitaTodos(Conjunto<T> conjunto) {
+        for (int i = 0; i < conjunto.casillas.length; i++) {
+            if (conjunto.casillas[i] == null)
+                continue;
+            int j = busca(conjunto.casillas[i], conjunto.dispersiones[i]);
+            if (j != -1)
+                vacia(j);
+        }
+    }
+
+    /* Quita los elementos del conjunto recibido que estén en éste, y agrega
+       los que no. */
+    private void alternaTodos(Conjunto<T> conjunto) {
+        for (int i = 0; i < conjunto.casillas.length; i++) {
+            T e = conjunto.casillas[i];
+            if (e == null)
+                continue;
+            int d = conjunto.dispersiones[i];
+            int j = busca(e, d);
+            if (j != -1)
+                vacia(j);
+            else
+                agrega(e, d);
+        }
     }
 }
@@ -0,0 +1,861 @@
+package mx.unam.ciencias.edd;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+
+/**
+ * <p>Clase para conjuntos de enteros, representados con un <em>Roaring
+ * bitmap</em>. Los enteros se agrupan por sus 16 bits altos; los 16 bits bajos
+ * de cada grupo se guardan en un contenedor, que puede ser de tres tipos:</p>
+ *
+ * <ul>
+ *   <li>un arreglo ordenado, cuando el grupo tiene a lo más {@link
+ *       #MAX_ARREGLO} enteros;</li>
+ *   <li>un mapa de 2<sup>16</sup> bits, cuando tiene más;</li>
+ *   <li>una lista de corridas de enteros consecutivos, cuando ocupa menos que
+ *       las otras dos opciones; estos contenedores se crean con {@link
+ *       #agregaRango} y {@link #optimiza}.</li>
+ * </ul>
+ *
+ * <p>Así, un conjunto denso ocupa alrededor de un bit por entero, y uno
+ * disperso dos bytes por entero, en lugar de las decenas de bytes por entero
+ * de un {@link Conjunto} de {@link Integer}. La unión y la intersección
+ * trabajan contenedor por contenedor, y entre mapas de bits operan palabra por
+ * palabra.</p>
+ *
+ * <p>El conjunto se itera en orden, de menor a mayor. Mientras se itera, el
+ * conjunto no debe modificarse.</p>
+ */
+public class ConjuntoEntero implements Coleccion<Integer> {
+
+    /* Clase abstracta para los contenedores de los 16 bits bajos. */
+    private static abstract class Contenedor {
+
+        /* Regresa el número de enteros en el contenedor. */
+        public abstract int cardinalidad();
+
+        /* Nos dice si el contenedor tiene al entero. */
+        public abstract boolean contiene(int x);
+
+        /* Agrega el entero; regresa el contenedor resultante, que puede ser
+           otro. */
+        public abstract Contenedor agrega(int x);
+
+        /* Elimina el entero, si está; regresa el contenedor resultante, que
+           puede ser otro. */
+        public abstract Contenedor elimina(int x);
+
+        /* Regresa el menor entero mayor o igual a desde, o -1 si no hay. */
+        public abstract int siguiente(int desde);
+
+        /* Aplica la acción a cada entero, de menor a mayor, sumándole alto. */
+        public abstract void paraCada(int alto, IntConsumer accion);
+
+        /* Regresa un mapa de bits con los mismos enteros. Puede regresar el
+           arreglo de palabras del contenedor mismo, así que no debe
+           modificarse. */
+        public abstract long[] palabras();
+
+        /* Regresa una copia del contenedor. */
+        public abstract Contenedor copia();
+
+        /* Regresa el número aproximado de bytes que ocupa el contenedor. */
+        public abstract int bytes();
+
+        /* Regresa el número de corridas de enteros consecutivos. */
+        public abstract int corridas();
+
+        /* Regresa el contenedor más compacto con los mismos enteros. */
+        public Contenedor optimiza() {
+            int n = cardinalidad();
+            int c = corridas();
+            if (4 * c < Math.min(2 * n, TAM_MAPA / 8))
+                return this instanceof Corridas ? this : Corridas.de(this, c);
+            if (n <= MAX_ARREGLO)
+                return this instanceof Arreglo ? this : Arreglo.de(this, n);
+            return this instanceof Mapa ? this : Mapa.de(palabras(), n);
+        }
+    }
+
+    /* Contenedor con un arreglo ordenado. */
+    private static class Arreglo extends Contenedor {
+
+        /* Los enteros, ordenados. */
+        private char[] valores;
+        /* El número de enteros. */
+        private int n;
+
+        /* Construye un arreglo vacío con la capacidad recibida. */
+        public Arreglo(int capacidad) {
+            valores = new char[capacidad];
+        }
+
+        /* Construye un arreglo con los enteros de un contenedor. */
+        public static Arreglo de(Contenedor c, int n) {
+            Arreglo a = new Arreglo(n);
+            c.paraCada(0, (x) -> a.valores[a.n++] = (char)x);
+            return a;
+        }
+
+        /* Regresa el índice del entero, o -(punto de inserción) - 1. */
+        private int indice(int x) {
+            int a = 0, b = n - 1;
+            while (a <= b) {
+                int m = (a + b) >>> 1;
+                if (valores[m] < x)
+                    a = m + 1;
+                else if (valores[m] > x)
+                    b = m - 1;
+                else
+                    return m;
+            }
+            return -(a + 1);
+        }
+
+        @Override public int cardinalidad() {
+            return n;
+        }
+
+        @Override public boolean contiene(int x) {
+            return indice(x) >= 0;
+        }
+
+        @Override public Contenedor agrega(int x) {
+            int i = indice(x);
+            if (i >= 0)
+                return this;
+            if (n == MAX_ARREGLO)
+                return Mapa.de(palabras(), n).agrega(x);
+            i = -i - 1;
+            if (n == valores.length) {
+                char[] v = new char[Math.min(MAX_ARREGLO,
+                                             Math.max(4, n << 1))];
+                System.arraycopy(valores, 0, v, 0, n);
+                valores = v;
+            }
+            System.arraycopy(valores, i, valores, i + 1, n - i);
+            valores[i] = (char)x;
+            n++;
+            return this;
+        }
+
+        @Override public Contenedor elimina(int x) {
+            int i = indice(x);
+            if (i < 0)
+                return this;
+            System.arraycopy(valores, i + 1, valores, i, n - i - 1);
+            n--;
+            return this;
+        }
+
+        @Override public int siguiente(int desde) {
+            int i = indice(desde);
+            if (i < 0)
+                i = -i - 1;
+            return i < n ? valores[i] : -1;
+        }
+
+        @Override public void paraCada(int alto, IntConsumer accion) {
+            for (int i = 0; i < n; i++)
+                accion.accept(alto | valores[i]);
+        }
+
+        @Override public long[] palabras() {
+            long[] p = new long[PALABRAS];
+            for (int i = 0; i < n; i++)
+                p[valores[i] >>> 6] |= 1L << valores[i];
+            return p;
+        }
+
+        @Override public Contenedor copia() {
+            Arreglo a = new Arreglo(n);
+            System.arraycopy(valores, 0, a.valores, 0, n);
+            a.n = n;
+            return a;
+        }
+
+        @Override public int bytes() {
+            return 16 + 2 * valores.length;
+        }
+
+        @Override public int corridas() {
+            int c = 0;
+            for (int i = 0; i < n; i++)
+                if (i == 0 || valores[i] != valores[i - 1] + 1)
+                    c++;
+            return c;
+        }
+    }
+
+    /* Contenedor con un mapa de bits. */
+    private static class Mapa extends Contenedor {
+
+        /* Los bits. */
+        private long[] palabras;
+        /* El número de enteros. */
+        private int n;
+
+        /* Construye un mapa con las palabras y la cardinalidad recibidas. */
+        public static Mapa de(long[] palabras, int n) {
+            Mapa m = new Mapa();
+            m.palabras = palabras;
+            m.n = n;
+            return m;
+        }
+
+        @Override public int cardinalidad() {
+            return n;
+        }
+
+        @Override public boolean contiene(int x) {
+            return (palabras[x >>> 6] & (1L << x)) != 0;
+        }
+
+        @Override public Contenedor agrega(int x) {
+            long b = 1L << x;
+            if ((palabras[x >>> 6] & b) == 0) {
+                palabras[x >>> 6] |= b;
+                n++;
+            }
+            return this;
+        }
+
+        @Override public Contenedor elimina(int x) {
+            long b = 1L << x;
+            if ((palabras[x >>> 6] & b) == 0)
+                return this;
+            palabras[x >>> 6] &= ~b;
+            if (--n <= MAX_ARREGLO)
+                return Arreglo.de(this, n);
+            return this;
+        }
+
+        @Override public int siguiente(int desde) {
+            int w = desde >>> 6;
+            long p = palabras[w] & (-1L << desde);
+            while (p == 0) {
+                if (++w == PALABRAS)
+                    return -1;
+                p = palabras[w];
+            }
+            return (w << 6) + Long.numberOfTrailingZeros(p);
+        }
+
+        @Override public void paraCada(int alto, IntConsumer accion) {
+            for (int w = 0; w < PALABRAS; w++) {
+                long p = palabras[w];
+                while (p != 0) {
+                    accion.accept(alto | (w << 6) + Long.numberOfTrailingZeros(p));
+                    p &= p - 1;
+                }
+            }
+        }
+
+        @Override public long[] palabras() {
+            return palabras;
+        }
+
+        @Override public Contenedor copia() {
+            return de(palabras.clone(), n);
+        }
+
+        @Override public int bytes() {
+            return 16 + TAM_MAPA / 8;
+        }
+
+        @Override public int corridas() {
+            int c = 0;
+            long anterior = 0;
+            for (int w = 0; w < PALABRAS; w++) {
+                long p = palabras[w];
+                /* Una corrida empieza donde hay un 1 precedido de un 0. */
+                c += Long.bitCount(p & ~((p << 1) | (anterior >>> 63)));
+                anterior = p;
+            }
+            return c;
+        }
+    }
+
+    /* Contenedor con corridas de enteros consecutivos. */
+    private static class Corridas extends Contenedor {
+
+        /* El inicio de cada corrida. */
+        private char[] inicios;
+        /* El final (inclusive) de cada corrida. */
+        private char[] finales;
+        /* El número de corridas. */
+        private int c;
+        /* El número de enteros. */
+        private int n;
+
+        /* Construye un contenedor con una sola corrida. */
+        public static Corridas de(int inicio, int fin) {
+            Corridas r = new Corridas();
+            r.inicios = new char[] { (char)inicio };
+            r.finales = new char[] { (char)fin };
+            r.c = 1;
+            r.n = fin - inicio + 1;
+            return r;
+        }
+
+        /* Construye las corridas de un contenedor, que tiene c corridas. */
+        public static Corridas de(Contenedor contenedor, int c) {
+            Corridas r = new Corridas();
+            r.inicios = new char[c];
+            r.finales = new char[c];
+            r.n = contenedor.cardinalidad();
+            contenedor.paraCada(0, (x) -> {
+                    if (r.c > 0 && r.finales[r.c - 1] == x - 1) {
+                        r.finales[r.c - 1] = (char)x;
+                    } else {
+                        r.inicios[r.c] = (char)x;
+                        r.finales[r.c++] = (char)x;
+                    }
+                });
+            return r;
+        }
+
+        /* Regresa el índice de la última corrida que empieza en o antes de x,
+           o -1 si no hay. */
+        private int corrida(int x) {
+            int a = 0, b = c - 1;
+            while (a <= b) {
+                int m = (a + b) >>> 1;
+                if (inicios[m] <= x)
+                    a = m + 1;
+                else
+                    b = m - 1;
+            }
+            return b;
+        }
+
+        /* Regresa un contenedor sin corridas con los mismos enteros. */
+        private Contenedor sinCorridas() {
+            if (n <= MAX_ARREGLO)
+                return Arreglo.de(this, n);
+            return Mapa.de(palabras(), n);
+        }
+
+        @Override public int cardinalidad() {
+            return n;
+        }
+
+        @Override public boolean contiene(int x) {
+            int i = corrida(x);
+            return i >= 0 && x <= finales[i];
+        }
+
+        @Override public Contenedor agrega(int x) {
+            if (contiene(x))
+                return this;
+            return sinCorridas().agrega(x);
+        }
+
+        @Override public Contenedor elimina(int x) {
+            if (!contiene(x))
+                return this;
+            return sinCorridas().elimina(x);
+        }
+
+        @Override public int siguiente(int desde) {
+            int i = corrida(desde);
+            if (i >= 0 && desde <= finales[i])
+                return desde;
+            return i + 1 < c ? inicios[i + 1] : -1;
+        }
+
+        @Override public void paraCada(int alto, IntConsumer accion) {
+            for (int i = 0; i < c; i++)
+                for (int x = inicios[i]; x <= finales[i]; x++)
+                    accion.accept(alto | x);
+        }
+
+        @Override public long[] palabras() {
+            long[] p = new long[PALABRAS];
+            for (int i = 0; i < c; i++)
+                ponRango(p, inicios[i], finales[i]);
+            return p;
+        }
+
+        @Override public Contenedor copia() {
+            Corridas r = new Corridas();
+            r.inicios = inicios.clone();
+            r.finales = finales.clone();
+            r.c = c;
+            r.n = n;
+            return r;
+        }
+
+        @Override public int bytes() {
+            return 32 + 4 * inicios.length;
+        }
+
+        @Override public int corridas() {
+            return c;
+        }
+    }
+
+    /* Clase privada para iteradores de conjuntos de enteros. */
+    private class Iterador implements Iterator<Integer> {
+
+        /* El índice del contenedor actual. */
+        private int indice;
+        /* Los 16 bits bajos del siguiente entero, o -1 si no hay. */
+        private int siguiente;
+
+        /* Construye un nuevo iterador. */
+        public Iterador() {
+            indice = 0;
+            siguiente = -1;
+            if (contenedores > 0)
+                siguiente = contenedor[0].siguiente(0);
+        }
+
+        /* Nos dice si hay un siguiente elemento. */
+        @Override public boolean hasNext() {
+            return siguiente != -1;
+        }
+
+        /* Regresa el siguiente elemento. */
+        @Override public Integer next() {
+            return siguienteEntero();
+        }
+
+        /* Regresa el siguiente entero, sin envolverlo. */
+        public int siguienteEntero() {
+            if (siguiente == -1)
+                throw new NoSuchElementException("No hay siguiente.");
+            int x = entero(claves[indice], siguiente);
+            siguiente = siguiente < MAX_BAJO ?
+                contenedor[indice].siguiente(siguiente + 1) : -1;
+            while (siguiente == -1 && ++indice < contenedores)
+                siguiente = contenedor[indice].siguiente(0);
+            return x;
+        }
+
+        /* No lo implementamos: siempre lanza una excepción. */
+        @Override public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /** Máximo número de enteros en un contenedor de arreglo. */
+    public static final int MAX_ARREGLO = 4096;
+
+    /* Número de bits en un mapa. */
+    private static final int TAM_MAPA = 1 << 16;
+    /* Número de palabras en un mapa. */
+    private static final int PALABRAS = TAM_MAPA / 64;
+    /* Máximo valor de los 16 bits bajos. */
+    private static final int MAX_BAJO = TAM_MAPA - 1;
+
+    /* Los 16 bits altos de cada contenedor, ordenados. */
+    private char[] claves;
+    /* Los contenedores, en el orden de sus claves. */
+    private Contenedor[] contenedor;
+    /* El número de contenedores. */
+    private int contenedores;
+    /* El número de elementos. */
+    private int elementos;
+
+    /**
+     * Crea un nuevo conjunto de enteros.
+     */
+    public ConjuntoEntero() {
+        claves = new char[4];
+        contenedor = new Contenedor[4];
+    }
+
+    /**
+     * Agrega un elemento al conjunto.
+     * @param elemento el elemento que queremos agregar al conjunto.
+     * @throws IllegalArgumentException si el elemento es <code>null</code>.
+     */
+    @Override public void agrega(Integer elemento) {
+        if (elemento == null)
+            throw new IllegalArgumentException();
+        agrega(elemento.intValue());
+    }
+
+    /**
+     * Agrega un entero al conjunto.
+     * @param x el entero que queremos agregar al conjunto.
+     */
+    public void agrega(int x) {
+        int i = busca(alto(x));
+        if (i < 0) {
+            i = -i - 1;
+            inserta(i, alto(x), new Arreglo(4));
+        }
+        Contenedor c = contenedor[i];
+        int antes = c.cardinalidad();
+        contenedor[i] = c = c.agrega(bajo(x));
+        elementos += c.cardinalidad() - antes;
+    }
+
+    /**
+     * Agrega al conjunto todos los enteros de un intervalo.
+     * @param inicio el primer entero del intervalo.
+     * @param fin el último entero del intervalo (inclusive).
+     * @throws IllegalArgumentException si <code>inicio</code> es mayor que
+     *         <code>fin</code>.
+     */
+    public void agregaRango(int inicio, int fin) {
+        if (inicio > fin)
+            throw new IllegalArgumentException("Intervalo inválido.");
+        int a = alto(inicio), b = alto(fin);
+        for (int k = a; k <= b; k++) {
+            Contenedor r = Corridas.de(k == a ? bajo(inicio) : 0,
+                                       k == b ? bajo(fin) : MAX_BAJO);
+            int i = busca(k);
+            if (i < 0) {
+                inserta(-i - 1, k, r);
+                elementos += r.cardinalidad();
+            } else {
+                int antes = contenedor[i].cardinalidad();
+                contenedor[i] = une(contenedor[i], r);
+                elementos += contenedor[i].cardinalidad() - antes;
+            }
+        }
+    }
+
+    /**
+     * Nos dice si el elemento está en el conjunto.
+     * @param elemento el elemento que queremos saber si está en el conjunto.
+     * @return <code>true</code> si el elemento está en el conjunto,
+     *         <code>false</code> en otro caso.
+     */
+    @Override public boolean contiene(Integer elemento) {
+        return contiene(elemento.intValue());
+    }
+
+    /**
+     * Nos dice si el entero está en el conjunto.
+     * @param x el entero que queremos saber si está en el conjunto.
+     * @return <code>true</code> si el entero está en el conjunto,
+     *         <code>false</code> en otro caso.
+     */
+    public boolean contiene(int x) {
+        int i = busca(alto(x));
+        return i >= 0 && contenedor[i].contiene(bajo(x));
+    }
+
+    /**
+     * Elimina el elemento del conjunto.
+     * @param elemento el elemento que queremos eliminar del conjunto.
+     * @throws NoSuchElementException si el elemento no está en el conjunto.
+     */
+    @Override public void elimina(Integer elemento) {
+        elimina(elemento.intValue());
+    }
+
+    /**
+     * Elimina el entero del conjunto.
+     * @param x el entero que queremos eliminar del conjunto.
+     * @throws NoSuchElementException si el entero no está en el conjunto.
+     */
+    public void elimina(int x) {
+        int i = busca(alto(x));
+        if (i < 0 || !contenedor[i].contiene(bajo(x)))
+            throw new NoSuchElementException("El elemento no se encuentra.");
+        contenedor[i] = contenedor[i].elimina(bajo(x));
+        elementos--;
+        if (contenedor[i].cardinalidad() == 0) {
+            contenedores--;
+            System.arraycopy(claves, i + 1, claves, i, contenedores - i);
+            System.arraycopy(contenedor, i + 1, contenedor, i,
+                             contenedores - i);
+            contenedor[contenedores] = null;
+        }
+    }
+
+    /**
+     * Nos dice si el conjunto es vacío.
+     * @return <code>true</code> si el conjunto es vacío, <code>false</code> en
+     *         otro caso.
+     */
+    @Override public boolean esVacio() {
+        return elementos == 0;
+    }
+
+    /**
+     * Regresa el número de elementos en el conjunto.
+     * @return el número de elementos en el conjunto.
+     */
+    @Override public int getElementos() {
+        return elementos;
+    }
+
+    /**
+     * Regresa la unión del conjunto y el conjunto recibido.
+     * @param conjunto el conjunto que queremos unir con éste.
+     * @return la unión del conjunto y el conjunto recibido.
+     */
+    public ConjuntoEntero union(ConjuntoEntero conjunto) {
+        ConjuntoEntero r = new ConjuntoEntero(contenedores +
+                                              conjunto.contenedores);
+        int i = 0, j = 0;
+        while (i < contenedores || j < conjunto.contenedores) {
+            int a = i < contenedores ? claves[i] : TAM_MAPA;
+            int b = j < conjunto.contenedores ? conjunto.claves[j] : TAM_MAPA;
+            Contenedor c;
+            if (a < b) {
+                c = contenedor[i++].copia();
+            } else if (b < a) {
+                c = conjunto.contenedor[j++].copia();
+            } else {
+                c = une(contenedor[i++], conjunto.contenedor[j++]);
+            }
+            r.agregaContenedor(Math.min(a, b), c);
+        }
+        return r;
+    }
+
+    /**
+     * Regresa la intersección del conjunto y el conjunto recibido.
+     * @param conjunto el conjunto que queremos intersectar con éste.
+     * @return la intersección del conjunto y el conjunto recibido.
+     */
+    public ConjuntoEntero interseccion(ConjuntoEntero conjunto) {
+        ConjuntoEntero r = new ConjuntoEntero(Math.min(contenedores,
+                                                       conjunto.contenedores));
+        int i = 0, j = 0;
+        while (i < contenedores && j < conjunto.contenedores) {
+            if (claves[i] < conjunto.claves[j]) {
+                i++;
+            } else if (conjunto.claves[j] < claves[i]) {
+                j++;
+            } else {
+                Contenedor c = intersecta(contenedor[i],
+                                          conjunto.contenedor[j]);
+                if (c.cardinalidad() > 0)
+                    r.agregaContenedor(claves[i], c);
+                i++;
+                j++;
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Cambia cada contenedor por la representación que ocupe menos memoria,
+     * usando corridas de enteros consecutivos donde convenga.
+     */
+    public void optimiza() {
+        for (int i = 0; i < contenedores; i++)
+            contenedor[i] = contenedor[i].optimiza();
+    }
+
+    /**
+     * Regresa el número aproximado de bytes que ocupa el conjunto.
+     * @return el número aproximado de bytes que ocupa el conjunto.
+     */
+    public long memoria() {
+        long m = 32 + 6L * claves.length;
+        for (int i = 0; i < contenedores; i++)
+            m += contenedor[i].bytes();
+        return m;
+    }
+
+    /**
+     * Aplica una acción a cada entero del conjunto, de menor a mayor, sin
+     * envolverlos en {@link Integer}.
+     * @param accion la acción a aplicar.
+     */
+    public void paraCada(IntConsumer accion) {
+        for (int i = 0; i < contenedores; i++) {
+            int alto = (claves[i] << 16) ^ Integer.MIN_VALUE;
+            contenedor[i].paraCada(alto, accion);
+        }
+    }
+
+    /**
+     * Regresa un arreglo con los enteros del conjunto, de menor a mayor.
+     * @return un arreglo con los enteros del conjunto.
+     */
+    public int[] aArreglo() {
+        int[] a = new int[elementos];
+        int[] i = { 0 };
+        paraCada((x) -> a[i[0]++] = x);
+        return a;
+    }
+
+    /**
+     * Nos dice si el conjunto es igual al objeto recibido.
+     * @param o el objeto que queremos saber si es igual al conjunto.
+     * @return <code>true</code> si el objeto recibido es instancia de
+     *         ConjuntoEntero, y tiene los mismos elementos.
+     */
+    @Override public boolean equals(Object o) {
+        if (!(o instanceof ConjuntoEntero))
+            return false;
+        ConjuntoEntero c = (ConjuntoEntero)o;
+        if (c.elementos != elementos || c.contenedores != contenedores)
+            return false;
+        Iterador a = new Iterador();
+        Iterador b = c.new Iterador();
+        while (a.hasNext())
+            if (a.siguienteEntero() != b.siguienteEntero())
+                return false;
+        return true;
+    }
+
+    /**
+     * Regresa un iterador para iterar el conjunto, de menor a mayor.
+     * @return un iterador para iterar el conjunto.
+     */
+    @Override public Iterator<Integer> iterator() {
+        return new Iterador();
+    }
+
+    /* Crea un conjunto vacío con capacidad para n contenedores. */
+    private ConjuntoEntero(int n) {
+        claves = new char[Math.max(n, 4)];
+        contenedor = new Contenedor[Math.max(n, 4)];
+    }
+
+    /* Regresa los 16 bits altos de un entero. Volteamos el bit del signo para
+       que el orden sin signo de las claves sea el orden de los enteros. */
+    private static int alto(int x) {
+        return (x ^ Integer.MIN_VALUE) >>> 16;
+    }
+
+    /* Regresa los 16 bits bajos de un entero. */
+    private static int bajo(int x) {
+        return x & MAX_BAJO;
+    }
+
+    /* Regresa el entero con las partes alta y baja recibidas. */
+    private static int entero(int alto, int bajo) {
+        return ((alto << 16) | bajo) ^ Integer.MIN_VALUE;
+    }
+
+    /* Regresa el índice de la clave, o -(punto de inserción) - 1. */
+    private int busca(int clave) {
+        int a = 0, b = contenedores - 1;
+        while (a <= b) {
+            int m = (a + b) >>> 1;
+            if (claves[m] < clave)
+                a = m + 1;
+            else if (claves[m] > clave)
+                b = m - 1;
+            else
+                return m;
+        }
+        return -(a + 1);
+    }
+
+    /* Inserta un contenedor con la clave en el índice i. */
+    private void inserta(int i, int clave, Contenedor c) {
+        if (contenedores == claves.length) {
+            char[] cs = new char[claves.length << 1];
+            Contenedor[] ct = new Contenedor[claves.length << 1];
+            System.arraycopy(claves, 0, cs, 0, contenedores);
+            System.arraycopy(contenedor, 0, ct, 0, contenedores);
+            claves = cs;
+            contenedor = ct;
+        }
+        System.arraycopy(claves, i, claves, i + 1, contenedores - i);
+        System.arraycopy(contenedor, i, contenedor, i + 1, contenedores - i);
+        claves[i] = (char)clave;
+        contenedor[i] = c;
+        contenedores++;
+    }
+
+    /* Agrega un contenedor con una clave mayor que todas las demás. */
+    private void agregaContenedor(int clave, Contenedor c) {
+        inserta(contenedores, clave, c);
+        elementos += c.cardinalidad();
+    }
+
+    /* Pone en 1 los bits de inicio a fin (inclusive). */
+    private static void ponRango(long[] p, int inicio, int fin) {
+        int a = inicio >>> 6, b = fin >>> 6;
+        long primera = -1L << inicio;
+        long ultima = -1L >>> (63 - (fin & 63));
+        if (a == b) {
+            p[a] |= primera & ultima;
+            return;
+        }
+        p[a] |= primera;
+        for (int w = a + 1; w < b; w++)
+            p[w] = -1L;
+        p[b] |= ultima;
+    }
+
+    /* Regresa la unión de dos contenedores en un contenedor nuevo. */
+    private static Contenedor une(Contenedor a, Contenedor b) {
+        if (a instanceof Arreglo && b instanceof Arreglo) {
+            Arreglo x = (Arreglo)a, y = (Arreglo)b;
+            if (x.n + y.n > MAX_ARREGLO) {
+                long[] p = x.palabras();
+                for (int i = 0; i < y.n; i++)
+                    p[y.valores[i] >>> 6] |= 1L << y.valores[i];
+                return normaliza(p, false);
+            }
+            Arreglo r = new Arreglo(x.n + y.n);
+            int i = 0, j = 0;
+            while (i < x.n || j < y.n) {
+                if (j == y.n || (i < x.n && x.valores[i] < y.valores[j]))
+                    r.valores[r.n++] = x.valores[i++];
+                else if (i == x.n || y.valores[j] < x.valores[i])
+                    r.valores[r.n++] = y.valores[j++];
+                else {
+                    r.valores[r.n++] = x.valores[i++];
+                    j++;
+                }
+            }
+            return r;
+        }
+        long[] p = a instanceof Mapa ? a.palabras().clone() : a.palabras();
+        if (b instanceof Arreglo) {
+            Arreglo y = (Arreglo)b;
+            for (int i = 0; i < y.n; i++)
+                p[y.valores[i] >>> 6] |= 1L << y.valores[i];
+        } else if (b instanceof Corridas) {
+            Corridas y = (Corridas)b;
+            for (int i = 0; i < y.c; i++)
+                ponRango(p, y.inicios[i], y.finales[i]);
+        } else {
+            long[] q = b.palabras();
+            for (int w = 0; w < PALABRAS; w++)
+                p[w] |= q[w];
+        }
+        return normaliza(p, a instanceof Corridas || b instanceof Corridas);
+    }
+
+    /* Regresa la intersección de dos contenedores en un contenedor nuevo. */
+    private static Contenedor intersecta(Contenedor a, Contenedor b) {
+        if (b instanceof Arreglo) {
+            Contenedor t = a;
+            a = b;
+            b = t;
+        }
+        if (a instanceof Arreglo) {
+            Arreglo x = (Arreglo)a;
+            Arreglo r = new Arreglo(x.n);
+            for (int i = 0; i < x.n; i++)
+                if (b.contiene(x.valores[i]))
+                    r.valores[r.n++] = x.valores[i];
+            return r;
+        }
+        long[] p = a.palabras(), q = b.palabras();
+        long[] r = new long[PALABRAS];
+        for (int w = 0; w < PALABRAS; w++)
+            r[w] = p[w] & q[w];
+        return normaliza(r, a instanceof Corridas || b instanceof Corridas);
+    }
+
+    /* Regresa el contenedor adecuado para un mapa de bits recién calculado;
+       si corridas es true, considera también usar corridas. */
+    private static Contenedor normaliza(long[] p, boolean corridas) {
+        int n = 0;
+        for (long w : p)
+            n += Long.bitCount(w);
+        Contenedor m = Mapa.de(p, n);
+        if (corridas)
+            return m.optimiza();
+        return n <= MAX_ARREGLO ? Arreglo.de(m, n) : m;
+    }
+}
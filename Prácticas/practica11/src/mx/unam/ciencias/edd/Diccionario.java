@@ -2,82 +2,190 @@ package mx.unam.ciencias.edd;
 
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 /**
  * Clase para diccionarios (<em>hash tables</em>). Un diccionario generaliza el
  * concepto de arreglo, permitiendo (en general, dependiendo de qué tan bueno
  * sea su método para dispersar) agregar, eliminar, y buscar valores en tiempo
  * <i>O</i>(1) (amortizado) en cada uno de estos casos.
+ *
+ * <p>Si una lista del diccionario crece demasiado (porque el dispersor es malo
+ * o porque alguien escogió las llaves para que choquen), la lista se convierte
+ * en un {@link ArbolRojinegro} ordenado por dispersión y luego por llave, y el
+ * peor caso de una búsqueda pasa a ser <i>O</i>(log <i>n</i>). Cuando el árbol
+ * vuelve a ser pequeño se convierte otra vez en lista.</p>
+ *
+ * <p>Si después de eliminar muchas entradas la carga baja de {@link
+ * #MINIMA_CARGA}, el arreglo se encoge, pero nunca a menos de su tamaño
+ * inicial. La distancia entre la carga mínima y la máxima evita crecer y
+ * encoger una y otra vez cuando se agrega y elimina alrededor del umbral.
+ * {@link #recorta} ajusta el arreglo a las entradas actuales en cualquier
+ * momento.</p>
  */
 public class Diccionario<K, V> implements Iterable<V> {
 
     /** Máxima carga permitida por el diccionario. */
     public static final double MAXIMA_CARGA = 0.72;
 
-    /* Clase para las entradas del diccionario. */
-    private class Entrada {
+    /** Carga debajo de la cual el diccionario encoge su arreglo. */
+    public static final double MINIMA_CARGA = MAXIMA_CARGA / 4;
+
+    /* Clase para las entradas del diccionario. Las entradas se ordenan por
+       dispersión y luego por llave, para poder guardarlas en un árbol. */
+    private class Entrada implements Comparable<Entrada>,
+                                     EntradaDiccionario<K, V> {
 
         /* La llave. */
         public K llave;
         /* El valor. */
         public V valor;
+        /* La dispersión de la llave; la guardamos para poder mover la entrada
+           a otro arreglo sin volver a dispersarla. */
+        public int dispersion;
+        /* Número único de la entrada en el diccionario, para desempatar. */
+        public long orden;
 
         /* Construye una nueva entrada. */
-        public Entrada(K llave, V valor) {
+        public Entrada(K llave, V valor, int dispersion) {
             this.llave = llave;
             this.valor = valor;
+            this.dispersion = dispersion;
+            orden = siguienteOrden++;
+        }
+
+        /* Regresa la llave. */
+        @Override public K getLlave() {
+            return llave;
+        }
+
+        /* Regresa el valor. */
+        @Override public V getValor() {
+            return valor;
+        }
+
+        /* Compara por dispersión, luego por llave si las llaves son
+           comparables entre sí, y al final por el orden de creación, para que
+           dos entradas distintas nunca sean iguales. El código de identidad
+           de la llave no basta: dos llaves distintas pueden compartirlo, y
+           entonces el árbol no encontraría la entrada para eliminarla. */
+        @Override public int compareTo(Entrada e) {
+            if (dispersion != e.dispersion)
+                return dispersion < e.dispersion ? -1 : 1;
+            int c = comparaLlaves(llave, e.llave);
+            if (c != 0)
+                return c;
+            return Long.compare(orden, e.orden);
         }
     }
 
-    /* Clase privada para iteradores de diccionarios. */
-    private class Iterador implements Iterator<V> {
+    /* Clase privada para iteradores de diccionarios; las subclases deciden
+       qué regresar de cada entrada. Si el diccionario está creciendo, primero
+       termina de migrar el arreglo antiguo: una búsqueda mientras iteramos
+       migraría listas y podríamos ver una entrada dos veces. */
+    private abstract class IteradorDiccionario<T> implements Iterator<T> {
 
         /* En qué lista estamos. */
         private int indice;
-        /* Iterador auxiliar. */
+        /* Iterador auxiliar; es null si ya no hay elementos. */
         private Iterator<Diccionario<K,V>.Entrada> iterador;
 
         /* Construye un nuevo iterador, auxiliándose de las listas del
          * diccionario. */
-        public Iterador() {
-            indice = 0;
-            while (indice < entradas.length)
-                if (entradas[indice] != null)
-                    break;
-                else indice++;
-            iterador = entradas[indice].iterator();
+        public IteradorDiccionario() {
+            if (antiguas != null)
+                migra(antiguas.length);
+            indice = -1;
+            avanza();
         }
 
+        /* Regresa lo que el iterador regresa de la entrada. */
+        protected abstract T de(Entrada e);
+
         /* Nos dice si hay un siguiente elemento. */
-        public boolean hasNext() {
-            if (iterador.hasNext())
-                return iterador.hasNext();
-            indice++;
-            while (indice < entradas.length)
-                if (entradas[indice] != null)
-                    break;
-                else indice++;
-            if (indice == entradas.length - 1 && entradas[indice] != null)
-                iterador = entradas[indice].iterator();
-            else if (indice >= entradas.length - 1)
-                return false;
-            iterador = entradas[indice].iterator();
-            return iterador.hasNext();
+        @Override public boolean hasNext() {
+            return iterador != null;
         }
 
         /* Regresa el siguiente elemento. */
-        public V next() { 
-            return iterador.next().valor;
+        @Override public T next() {
+            return de(siguienteEntrada());
         }
 
         /* No lo implementamos: siempre lanza una excepción. */
-        public void remove() {
+        @Override public void remove() {
             throw new UnsupportedOperationException();
         }
+
+        /* Regresa la siguiente entrada. */
+        public Entrada siguienteEntrada() {
+            if (iterador == null)
+                throw new NoSuchElementException("No hay siguiente.");
+            Entrada e = iterador.next();
+            if (!iterador.hasNext())
+                avanza();
+            return e;
+        }
+
+        /* Mueve el iterador auxiliar a la siguiente lista o árbol no
+           vacío. */
+        private void avanza() {
+            iterador = null;
+            while (iterador == null || !iterador.hasNext()) {
+                if (++indice == entradas.length) {
+                    iterador = null;
+                    return;
+                }
+                if (entradas[indice] != null)
+                    iterador = entradas[indice].iterator();
+                else if (arbolDe(entradas, indice) != null)
+                    iterador = arbolDe(entradas, indice).iterator();
+            }
+        }
+    }
+
+    /* Clase privada para iterar los valores del diccionario. */
+    private class Iterador extends IteradorDiccionario<V> {
+
+        /* Regresa el valor de la entrada. */
+        @Override protected V de(Entrada e) {
+            return e.valor;
+        }
+    }
+
+    /* Clase privada para iterar las llaves del diccionario. */
+    private class IteradorLlaves extends IteradorDiccionario<K> {
+
+        /* Regresa la llave de la entrada. */
+        @Override protected K de(Entrada e) {
+            return e.llave;
+        }
+    }
+
+    /* Clase privada para iterar las entradas del diccionario. */
+    private class IteradorEntradas
+        extends IteradorDiccionario<EntradaDiccionario<K, V>> {
+
+        /* Regresa la entrada. */
+        @Override protected EntradaDiccionario<K, V> de(Entrada e) {
+            return e;
+        }
     }
 
     /* Tamaño mínimo; decidido arbitrariamente a 2^6. */
     private static final int MIN_N = 64;
+    /* Cuántas listas del arreglo antiguo se migran en cada operación mientras
+       el diccionario crece de forma incremental. Con 4 la migración siempre
+       termina antes de que el arreglo nuevo se vuelva a llenar. */
+    private static final int MIGRACION_POR_OPERACION = 4;
+    /* Una lista con más entradas que éstas se convierte en árbol. */
+    private static final int UMBRAL_ARBOL = 8;
+    /* Un árbol con estas entradas o menos se convierte otra vez en lista. La
+       diferencia con UMBRAL_ARBOL evita convertir de ida y vuelta cuando se
+       agrega y elimina la misma llave. */
+    private static final int UMBRAL_LISTA = 6;
 
     /* Máscara para no usar módulo. */
     private int mascara;
@@ -87,6 +195,26 @@ public class Diccionario<K, V> implements Iterable<V> {
     private Lista<Entrada>[] entradas;
     /* Número de valores*/
     private int elementos;
+    /* Si crecemos el arreglo poco a poco en lugar de todo de una vez. */
+    private boolean incremental;
+    /* El arreglo anterior mientras migramos sus entradas; null si no estamos
+       creciendo. */
+    private Lista<Entrada>[] antiguas;
+    /* Máscara del arreglo anterior. */
+    private int mascaraAntigua;
+    /* Las listas del arreglo anterior con índice menor a éste ya se migraron. */
+    private int migradas;
+    /* Los árboles en los que se convirtieron las listas largas del arreglo,
+       en el mismo índice; la lista correspondiente es null. Lo creamos hasta
+       que hace falta. */
+    private ArbolRojinegro<Entrada>[] arboles;
+    /* Los árboles del arreglo anterior. */
+    private ArbolRojinegro<Entrada>[] arbolesAntiguos;
+    /* El tamaño inicial del arreglo; al eliminar nunca lo encogemos a menos
+       de esto. */
+    private int minima;
+    /* El orden que le toca a la siguiente entrada que creemos. */
+    private long siguienteOrden;
 
     /* Truco para crear un arreglo genérico. Es necesario hacerlo así por cómo
        Java implementa sus genéricos; de otra forma obtenemos advertencias del
@@ -96,6 +224,13 @@ public class Diccionario<K, V> implements Iterable<V> {
         return (Lista<Entrada>[])arreglo;
     }
 
+    /* Truco para crear un arreglo genérico de árboles. */
+    @SuppressWarnings("unchecked") private ArbolRojinegro<Entrada>[]
+    nuevoArregloDeArboles(int n) {
+        ArbolRojinegro[] arreglo = new ArbolRojinegro[n];
+        return (ArbolRojinegro<Entrada>[])arreglo;
+    }
+
     /**
      * Construye un diccionario con un tamaño inicial y dispersor
      * predeterminados.
@@ -105,6 +240,7 @@ public class Diccionario<K, V> implements Iterable<V> {
         this.entradas = nuevoArreglo(longitud(MIN_N));
         this.elementos = 0;
         this.mascara = entradas.length - 1;
+        this.minima = entradas.length;
     }
 
     /**
@@ -118,6 +254,7 @@ public class Diccionario<K, V> implements Iterable<V> {
         this.entradas = nuevoArreglo(l);
         this.elementos = 0;
         this.mascara = l - 1;
+        this.minima = l;
     }
 
     /**
@@ -130,6 +267,7 @@ public class Diccionario<K, V> implements Iterable<V> {
         this.entradas = nuevoArreglo(MIN_N);
         this.elementos = 0;
         this.mascara = MIN_N - 1;
+        this.minima = MIN_N;
     }
 
     /**
@@ -144,6 +282,7 @@ public class Diccionario<K, V> implements Iterable<V> {
         this.entradas = nuevoArreglo(l);
         this.elementos = 0;
         this.mascara = l - 1;
+        this.minima = l;
     }
 
     /**
@@ -157,18 +296,13 @@ public class Diccionario<K, V> implements Iterable<V> {
     public void agrega(K llave, V valor) {
         if (llave == null || valor == null)
             throw new IllegalArgumentException();
-        int indice = getIndice(llave);
-        if (entradas[indice] == null)
-            entradas[indice] = new Lista<Entrada>();
-        for (Entrada e : entradas[indice])
-            if (e.llave.equals(llave)) {
-                e.valor = valor;
-                return;
-                }
-        entradas[indice].agregaFinal(new Entrada(llave,valor));
-        elementos++;
-        if (estaCargado())
-            creceArreglo();
+        migra(MIGRACION_POR_OPERACION);
+        int d = dispersor.dispersa(llave);
+        Entrada e = busca(llave, d);
+        if (e != null)
+            e.valor = valor;
+        else
+            agregaNueva(llave, valor, d);
     }
 
     /**
@@ -178,13 +312,11 @@ public class Diccionario<K, V> implements Iterable<V> {
      * @throws NoSuchElementException si la llave no está en el diccionario.
      */
     public V get(K llave) {
-        int indice = getIndice(llave);
-        if (contiene(llave)) {
-        for (Entrada e : entradas[indice])
-            if (e.llave.equals(llave))
-                return e.valor;
-        }
-        throw new NoSuchElementException("La llave no está en el diccionario.");
+        migra(MIGRACION_POR_OPERACION);
+        Entrada e = busca(llave);
+        if (e == null)
+            throw new NoSuchElementException("La llave no está en el diccionario.");
+        return e.valor;
     }
 
     /**
@@ -194,13 +326,7 @@ public class Diccionario<K, V> implements Iterable<V> {
      *         <tt>false</tt> en otro caso.
      */
     public boolean contiene(K llave) {
-        int indice = getIndice(llave);
-        if (entradas[indice] == null)
-            return false;
-        for (Entrada e : entradas[indice])
-            if (e.llave.equals(llave))
-                return true;
-        return false;
+        return busca(llave) != null;
     }
 
     /**
@@ -210,13 +336,108 @@ public class Diccionario<K, V> implements Iterable<V> {
      *         el diccionario.
      */
     public void elimina(K llave) {
-        int indice = getIndice(llave);
-        if (!contiene(llave))
+        migra(MIGRACION_POR_OPERACION);
+        Entrada e = busca(llave);
+        if (e == null)
             throw new NoSuchElementException("La llave no se encuentra.");
-        for (Entrada e : entradas[indice])
-            if (e.llave.equals(llave))
-                entradas[indice].elimina(e);
-        elementos--;
+        eliminaEntrada(e);
+    }
+
+    /**
+     * Regresa el valor asociado a la llave proporcionada, o el valor
+     * predeterminado si la llave no está en el diccionario.
+     * @param llave la llave para buscar el valor.
+     * @param predeterminado el valor a regresar si la llave no está.
+     * @return el valor correspondiente a la llave, o el predeterminado.
+     */
+    public V getOPredeterminado(K llave, V predeterminado) {
+        migra(MIGRACION_POR_OPERACION);
+        Entrada e = busca(llave);
+        return e == null ? predeterminado : e.valor;
+    }
+
+    /**
+     * Regresa el valor asociado a la llave proporcionada; si la llave no está
+     * en el diccionario, calcula su valor con la función recibida y lo agrega.
+     * La llave se dispersa y se busca una sola vez.
+     * @param llave la llave para buscar el valor.
+     * @param funcion la función para calcular el valor a partir de la llave.
+     * @return el valor asociado a la llave después de la operación, o
+     *         <code>null</code> si la función regresó <code>null</code>.
+     * @throws IllegalArgumentException si la llave es nula.
+     */
+    public V calculaSiAusente(K llave, Function<? super K, ? extends V> funcion) {
+        if (llave == null)
+            throw new IllegalArgumentException();
+        migra(MIGRACION_POR_OPERACION);
+        int d = dispersor.dispersa(llave);
+        Entrada e = busca(llave, d);
+        if (e != null)
+            return e.valor;
+        V valor = funcion.apply(llave);
+        if (valor != null)
+            agregaNueva(llave, valor, d);
+        return valor;
+    }
+
+    /**
+     * Calcula un nuevo valor para la llave a partir de la llave y su valor
+     * actual (<code>null</code> si la llave no está). Si el nuevo valor es
+     * <code>null</code> la llave se elimina del diccionario; en otro caso se
+     * asocia a la llave. La llave se dispersa y se busca una sola vez.
+     * @param llave la llave para calcular el valor.
+     * @param funcion la función que calcula el nuevo valor.
+     * @return el nuevo valor asociado a la llave, o <code>null</code> si la
+     *         llave se eliminó.
+     * @throws IllegalArgumentException si la llave es nula.
+     */
+    public V calcula(K llave,
+                     BiFunction<? super K, ? super V, ? extends V> funcion) {
+        if (llave == null)
+            throw new IllegalArgumentException();
+        migra(MIGRACION_POR_OPERACION);
+        int d = dispersor.dispersa(llave);
+        Entrada e = busca(llave, d);
+        V valor = funcion.apply(llave, e == null ? null : e.valor);
+        if (e != null && valor != null)
+            e.valor = valor;
+        else if (e != null)
+            eliminaEntrada(e);
+        else if (valor != null)
+            agregaNueva(llave, valor, d);
+        return valor;
+    }
+
+    /**
+     * Mezcla un valor con el asociado a la llave. Si la llave no está en el
+     * diccionario, se le asocia el valor recibido; si está, se le asocia el
+     * resultado de aplicar la función al valor actual y al recibido, y si
+     * ese resultado es <code>null</code> la llave se elimina. La llave se
+     * dispersa y se busca una sola vez.
+     * @param llave la llave del valor a mezclar.
+     * @param valor el valor a mezclar.
+     * @param funcion la función que mezcla el valor actual con el recibido.
+     * @return el nuevo valor asociado a la llave, o <code>null</code> si la
+     *         llave se eliminó.
+     * @throws IllegalArgumentException si la llave o el valor son nulos.
+     */
+    public V mezcla(K llave, V valor,
+                    BiFunction<? super V, ? super V, ? extends V> funcion) {
+        if (llave == null || valor == null)
+            throw new IllegalArgumentException();
+        migra(MIGRACION_POR_OPERACION);
+        int d = dispersor.dispersa(llave);
+        Entrada e = busca(llave, d);
+        if (e == null) {
+            agregaNueva(llave, valor, d);
+            return valor;
+        }
+        V nuevo = funcion.apply(e.valor, valor);
+        if (nuevo != null)
+            e.valor = nuevo;
+        else
+            eliminaEntrada(e);
+        return nuevo;
     }
 
     /**
@@ -226,12 +447,8 @@ public class Diccionario<K, V> implements Iterable<V> {
      */
     public Lista<K> llaves() {
         Lista<K> llaves = new Lista<K>();
-        for (int i = 0 ; i < entradas.length ; i++) {
-            if (entradas[i] == null)
-                continue;
-            for (Entrada e : entradas[i])
-                llaves.agrega(e.llave);
-        }
+        for (K llave : vistaLlaves())
+            llaves.agrega(llave);
         return llaves;
     }
 
@@ -241,43 +458,101 @@ public class Diccionario<K, V> implements Iterable<V> {
      * @return una lista con todos los valores.
      */
     public Lista<V> valores() {
-        Lista<K> llaves = llaves();
         Lista<V> valores = new Lista<V>();
-        for (K k : llaves)
-            valores.agrega(get(k));
+        for (V v : this)
+            valores.agrega(v);
         return valores;
     }
 
+    /**
+     * Regresa una vista de las llaves del diccionario: no copia nada, sino
+     * que recorre directamente las listas del diccionario cada vez que se
+     * itera. A diferencia de {@link #llaves}, el diccionario no debe
+     * modificarse mientras se recorre la vista.
+     * @return una vista de las llaves del diccionario.
+     */
+    public Iterable<K> vistaLlaves() {
+        return () -> new IteradorLlaves();
+    }
+
+    /**
+     * Regresa una vista de los valores del diccionario: no copia nada, sino
+     * que recorre directamente las listas del diccionario cada vez que se
+     * itera. A diferencia de {@link #valores}, el diccionario no debe
+     * modificarse mientras se recorre la vista.
+     * @return una vista de los valores del diccionario.
+     */
+    public Iterable<V> vistaValores() {
+        return this;
+    }
+
+    /**
+     * Regresa una vista de las entradas del diccionario, para recorrer cada
+     * llave junto con su valor sin volver a buscarla. El diccionario no debe
+     * modificarse mientras se recorre la vista.
+     * @return una vista de las entradas del diccionario.
+     */
+    public Iterable<EntradaDiccionario<K, V>> entradas() {
+        return () -> new IteradorEntradas();
+    }
+
+    /**
+     * Aplica una acción a cada llave del diccionario junto con su valor. El
+     * diccionario no debe modificarse desde la acción.
+     * @param accion la acción a aplicar.
+     */
+    public void paraCada(BiConsumer<? super K, ? super V> accion) {
+        if (antiguas != null)
+            migra(antiguas.length);
+        for (int i = 0; i < entradas.length; i++) {
+            Iterable<Entrada> cubeta = entradas[i];
+            if (cubeta == null)
+                cubeta = arbolDe(entradas, i);
+            if (cubeta != null)
+                for (Entrada e : cubeta)
+                    accion.accept(e.llave, e.valor);
+        }
+    }
+
     /**
      * Nos dice cuántas colisiones hay en el diccionario.
      * @return cuántas colisiones hay en el diccionario.
      */
     public int colisiones() {
-        int c = 0;
-        for (int i = 0 ; i < entradas.length ; i++) {
-            if (entradas[i] == null)
-                continue;
-            c += entradas[i].getElementos() - 1;
-        }
+        int c = colisiones(entradas, 0);
+        if (antiguas != null)
+            c += colisiones(antiguas, migradas);
         return c;
     }
 
     /**
      * Nos dice el máximo número de colisiones para una misma llave que tenemos
-     * en el diccionario.
+     * en el diccionario. Las listas convertidas en árboles cuentan igual que
+     * las demás; {@link #indicesConArbol} nos dice cuáles son.
      * @return el máximo número de colisiones para una misma llave.
      */
     public int colisionMaxima() {
-        int c = 0;
-        for (int i = 0 ; i < entradas.length ; i++ ) {
-            if (entradas[i] == null)
-                continue;
-            if (entradas[i].getElementos() - 1 > c)
-                c += entradas[i].getElementos() - 1;
-        }
+        int c = colisionMaxima(entradas, 0);
+        if (antiguas != null)
+            c = Math.max(c, colisionMaxima(antiguas, migradas));
         return c;
     }
 
+    /**
+     * Regresa los índices de las listas del arreglo que se convirtieron en
+     * árboles por tener demasiadas colisiones. Si el diccionario está creciendo
+     * de forma incremental, sólo se consideran las del arreglo nuevo.
+     * @return una lista con los índices de las listas convertidas en árboles.
+     */
+    public Lista<Integer> indicesConArbol() {
+        Lista<Integer> indices = new Lista<Integer>();
+        if (arboles != null)
+            for (int i = 0; i < arboles.length; i++)
+                if (arboles[i] != null)
+                    indices.agrega(i);
+        return indices;
+    }
+
     /**
      * Nos dice la carga del diccionario.
      * @return la carga del diccionario.
@@ -305,6 +580,43 @@ public class Diccionario<K, V> implements Iterable<V> {
         return elementos == 0;
     }
 
+    /**
+     * Libera las listas vacías del arreglo, y el arreglo de árboles si ya no
+     * queda ninguno. Si el diccionario está creciendo de forma incremental,
+     * primero termina de migrar el arreglo antiguo. No cambia el tamaño del
+     * arreglo.
+     */
+    public void compacta() {
+        if (antiguas != null)
+            migra(antiguas.length);
+        boolean hayArboles = false;
+        for (int i = 0; i < entradas.length; i++) {
+            if (entradas[i] != null && entradas[i].esVacio())
+                entradas[i] = null;
+            if (arboles != null && arboles[i] != null)
+                hayArboles = true;
+        }
+        if (!hayArboles)
+            arboles = null;
+    }
+
+    /**
+     * Ajusta el arreglo del diccionario al número de entradas que tiene: lo
+     * cambia por el arreglo más pequeño (de al menos 64 listas) en el que las
+     * entradas quedan debajo de la carga máxima, y libera las listas vacías.
+     * A diferencia del encogimiento automático, puede dejar el arreglo por
+     * debajo de su tamaño inicial.
+     */
+    public void recorta() {
+        int l = MIN_N;
+        while (elementos >= MAXIMA_CARGA * l)
+            l <<= 1;
+        if (l < entradas.length)
+            redimensiona(l);
+        else
+            compacta();
+    }
+
     /**
      * Nos dice si el diccionario es igual al objeto recibido.
      * @param o el objeto que queremos saber si es igual al diccionario.
@@ -318,11 +630,9 @@ public class Diccionario<K, V> implements Iterable<V> {
         @SuppressWarnings("unchecked") Diccionario<K, V> d = (Diccionario<K, V>)o;
         if (d.elementos != this.elementos)
             return false;
-        for(int i = 0 ; i < entradas.length ; i++)
-            if (entradas[i] != null)
-                for (Entrada e : entradas[i])
-                    if (!d.contiene(e.llave))
-                        return false;
+        for (K llave : vistaLlaves())
+            if (!d.contiene(llave))
+                return false;
         return true;
     }
 
@@ -356,23 +666,245 @@ public class Diccionario<K, V> implements Iterable<V> {
     }
 
     /**
-    * Crece el arreglo de las entradas; hay qué volver a agregar todos los 
-    * elementos uno por uno por el problema de las diferentes máscaras.
+     * Define si el diccionario crece de forma incremental. En ese caso, al
+     * llegar a la carga máxima el arreglo anterior se conserva junto con el
+     * nuevo, y cada llamada a {@link #agrega}, {@link #get} y {@link #elimina}
+     * migra unas cuantas listas del anterior al nuevo; las búsquedas consultan
+     * ambos arreglos mientras tanto. Así ninguna operación individual tiene
+     * que volver a colocar todas las entradas. Por omisión el diccionario
+     * crece de una vez.
+     * @param incremental si el diccionario debe crecer de forma incremental.
+     */
+    public void setCrecimientoIncremental(boolean incremental) {
+        this.incremental = incremental;
+        if (!incremental && antiguas != null)
+            migra(antiguas.length);
+    }
+
+    /**
+    * Crece el arreglo de las entradas.
     */
     private void creceArreglo() {
-        int tam = longitud(entradas.length);  
-        this.mascara = tam - 1;
-        this.elementos = 0;
-        Lista<Entrada>[] antiguo = this.entradas;
-        Lista<Entrada>[] nuevo = nuevoArreglo(tam);
-        this.entradas = nuevo;
-        for (int i = 0 ; i < antiguo.length ; i++)
-            if (antiguo[i] != null)
-                for (Entrada e : antiguo[i])
-                    agrega(e.llave,e.valor);
+        redimensiona(longitud(entradas.length));
+    }
+
+    /* Cambia el arreglo de las entradas por uno de longitud l. El arreglo
+       actual pasa a ser el antiguo y sus listas se migran al nuevo, todas de
+       una vez o de poco en poco si el crecimiento es incremental. Sirve igual
+       para crecer que para encoger. */
+    private void redimensiona(int l) {
+        if (antiguas != null)
+            migra(antiguas.length);
+        antiguas = entradas;
+        arbolesAntiguos = arboles;
+        mascaraAntigua = mascara;
+        migradas = 0;
+        entradas = nuevoArreglo(l);
+        arboles = null;
+        mascara = l - 1;
+        if (!incremental)
+            migra(antiguas.length);
+    }
+
+    /* Encoge el arreglo si la carga bajó de la mínima. No lo hacemos mientras
+       migramos, y nunca a menos del tamaño inicial; el arreglo nuevo queda con
+       carga entre un cuarto y un medio, lejos de ambos umbrales. */
+    private void encogeSiHaceFalta() {
+        if (antiguas != null || entradas.length <= minima ||
+            carga() >= MINIMA_CARGA)
+            return;
+        redimensiona(Math.max(longitud(elementos), minima));
+    }
+
+    /* Migra a lo más n listas (o árboles) del arreglo antiguo al nuevo. Las
+       entradas se mueven tal cual, sin crearlas de nuevo ni volver a
+       dispersarlas. */
+    private void migra(int n) {
+        while (antiguas != null && n-- > 0) {
+            Iterable<Entrada> l = antiguas[migradas];
+            if (l == null)
+                l = arbolDe(antiguas, migradas);
+            antiguas[migradas] = null;
+            if (arbolesAntiguos != null)
+                arbolesAntiguos[migradas] = null;
+            migradas++;
+            if (l != null)
+                for (Entrada e : l)
+                    coloca(entradas, e);
+            if (migradas == antiguas.length) {
+                antiguas = null;
+                arbolesAntiguos = null;
+            }
+        }
+    }
+
+    /* Regresa el arreglo en el que debe estar una llave con la dispersión
+       recibida: el antiguo si su lista ahí todavía no se ha migrado, o el
+       actual en otro caso. */
+    private Lista<Entrada>[] arregloDe(int dispersion) {
+        if (antiguas != null && (dispersion & mascaraAntigua) >= migradas)
+            return antiguas;
+        return entradas;
     }
 
-    private int getIndice(K llave) {
-        return (mascara & (dispersor.dispersa(llave)));
+    /* Regresa la entrada de la llave, o null si no está. */
+    private Entrada busca(K llave) {
+        return busca(llave, dispersor.dispersa(llave));
+    }
+
+    /* Regresa la entrada de la llave con la dispersión recibida, o null si no
+       está. */
+    private Entrada busca(K llave, int d) {
+        Lista<Entrada>[] arreglo = arregloDe(d);
+        int indice = d & (arreglo.length - 1);
+        Lista<Entrada> lista = arreglo[indice];
+        if (lista != null) {
+            for (Entrada e : lista)
+                if (e.dispersion == d && e.llave.equals(llave))
+                    return e;
+            return null;
+        }
+        ArbolRojinegro<Entrada> arbol = arbolDe(arreglo, indice);
+        if (arbol == null || arbol.esVacio())
+            return null;
+        return buscaEnArbol(arbol.raiz(), llave, d);
+    }
+
+    /* Busca la entrada de la llave en el subárbol del vértice. Si dos llaves
+       tienen la misma dispersión y no se pueden comparar, no sabemos de qué
+       lado está la llave y buscamos en ambos. */
+    private Entrada buscaEnArbol(VerticeArbolBinario<Entrada> v, K llave, int d) {
+        while (true) {
+            Entrada e = v.get();
+            int c = 0;
+            if (d != e.dispersion)
+                c = d < e.dispersion ? -1 : 1;
+            else if (e.llave.equals(llave))
+                return e;
+            else
+                c = comparaLlaves(llave, e.llave);
+            if (c == 0 && v.hayIzquierdo()) {
+                Entrada r = buscaEnArbol(v.getIzquierdo(), llave, d);
+                if (r != null)
+                    return r;
+            }
+            if (c < 0 && v.hayIzquierdo())
+                v = v.getIzquierdo();
+            else if (c >= 0 && v.hayDerecho())
+                v = v.getDerecho();
+            else
+                return null;
+        }
+    }
+
+    /* Compara dos llaves si son de la misma clase y comparables; regresa 0 si
+       no se pueden comparar. */
+    @SuppressWarnings("unchecked")
+    private static int comparaLlaves(Object a, Object b) {
+        if (!(a instanceof Comparable) || a.getClass() != b.getClass())
+            return 0;
+        return ((Comparable<Object>)a).compareTo(b);
+    }
+
+    /* Regresa el árbol en el índice del arreglo, o null si ahí no hay. */
+    private ArbolRojinegro<Entrada> arbolDe(Lista<Entrada>[] arreglo, int i) {
+        ArbolRojinegro<Entrada>[] a = arreglo == entradas ? arboles : arbolesAntiguos;
+        return a == null ? null : a[i];
+    }
+
+    /* Regresa los árboles del arreglo, creándolos si todavía no existen. */
+    private ArbolRojinegro<Entrada>[] arbolesDe(Lista<Entrada>[] arreglo) {
+        if (arreglo == entradas) {
+            if (arboles == null)
+                arboles = nuevoArregloDeArboles(arreglo.length);
+            return arboles;
+        }
+        if (arbolesAntiguos == null)
+            arbolesAntiguos = nuevoArregloDeArboles(arreglo.length);
+        return arbolesAntiguos;
+    }
+
+    /* Coloca una entrada en la lista o árbol que le corresponde en el
+       arreglo; si la lista pasa del umbral, la convierte en árbol. */
+    private void coloca(Lista<Entrada>[] arreglo, Entrada e) {
+        int indice = e.dispersion & (arreglo.length - 1);
+        ArbolRojinegro<Entrada> arbol = arbolDe(arreglo, indice);
+        if (arbol != null) {
+            arbol.agrega(e);
+            return;
+        }
+        if (arreglo[indice] == null)
+            arreglo[indice] = new Lista<Entrada>();
+        arreglo[indice].agregaFinal(e);
+        if (arreglo[indice].getElementos() > UMBRAL_ARBOL) {
+            arbol = new ArbolRojinegro<Entrada>();
+            for (Entrada f : arreglo[indice])
+                arbol.agrega(f);
+            arreglo[indice] = null;
+            arbolesDe(arreglo)[indice] = arbol;
+        }
+    }
+
+    /* Agrega una entrada para una llave que sabemos que no está en el
+       diccionario, y crece el arreglo si hace falta. */
+    private void agregaNueva(K llave, V valor, int d) {
+        coloca(arregloDe(d), new Entrada(llave, valor, d));
+        elementos++;
+        if (estaCargado())
+            creceArreglo();
+    }
+
+    /* Elimina una entrada que sabemos que está en el diccionario; si estaba
+       en un árbol que se vuelve pequeño, lo convierte otra vez en lista. Una
+       lista que se queda vacía se libera, y si la carga baja demasiado el
+       arreglo se encoge. */
+    private void eliminaEntrada(Entrada e) {
+        Lista<Entrada>[] arreglo = arregloDe(e.dispersion);
+        int indice = e.dispersion & (arreglo.length - 1);
+        elementos--;
+        if (arreglo[indice] != null) {
+            arreglo[indice].elimina(e);
+            if (arreglo[indice].esVacio())
+                arreglo[indice] = null;
+            encogeSiHaceFalta();
+            return;
+        }
+        ArbolRojinegro<Entrada> arbol = arbolDe(arreglo, indice);
+        arbol.elimina(e);
+        if (arbol.getElementos() <= UMBRAL_LISTA) {
+            Lista<Entrada> lista = new Lista<Entrada>();
+            for (Entrada f : arbol)
+                lista.agregaFinal(f);
+            arreglo[indice] = lista;
+            arbolesDe(arreglo)[indice] = null;
+        }
+        encogeSiHaceFalta();
+    }
+
+    /* Regresa cuántas entradas hay en el índice del arreglo. */
+    private int tamanoEn(Lista<Entrada>[] arreglo, int i) {
+        if (arreglo[i] != null)
+            return arreglo[i].getElementos();
+        ArbolRojinegro<Entrada> arbol = arbolDe(arreglo, i);
+        return arbol == null ? 0 : arbol.getElementos();
+    }
+
+    /* Cuenta las colisiones de un arreglo a partir del índice recibido. */
+    private int colisiones(Lista<Entrada>[] arreglo, int desde) {
+        int c = 0;
+        for (int i = desde; i < arreglo.length; i++)
+            if (tamanoEn(arreglo, i) > 1)
+                c += tamanoEn(arreglo, i) - 1;
+        return c;
+    }
+
+    /* Regresa la colisión máxima de un arreglo a partir del índice
+       recibido. */
+    private int colisionMaxima(Lista<Entrada>[] arreglo, int desde) {
+        int c = 0;
+        for (int i = desde; i < arreglo.length; i++)
+            if (tamanoEn(arreglo, i) - 1 > c)
+                c = tamanoEn(arreglo, i) - 1;
+        return c;
     }
 }
@@ -0,0 +1,420 @@
+package mx.unam.ciencias.edd;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>Clase para diccionarios con direccionamiento abierto. A diferencia de
+ * {@link Diccionario}, las llaves y los valores se guardan directamente en
+ * arreglos paralelos, sin entradas ni listas; las colisiones se resuelven con
+ * sondeo lineal al estilo <em>Robin Hood</em>: al insertar, una entrada que
+ * está más lejos de su índice inicial le quita su lugar a una que está más
+ * cerca del suyo.</p>
+ *
+ * <p>Gracias a esto las búsquedas fallidas terminan pronto, y al eliminar se
+ * recorren hacia atrás las entradas siguientes en lugar de dejar lápidas. El
+ * diccionario tiene la misma interfaz pública que {@link Diccionario}, y usa
+ * el mismo tipo de {@link Dispersor}; como {@link Conjunto}, mezcla la
+ * dispersión con {@link DiccionarioIntInt#dispersa} antes de aplicarle la
+ * máscara, para que llaves consecutivas no formen cúmulos.</p>
+ */
+public class DiccionarioAbierto<K, V> implements Iterable<V> {
+
+    /** Máxima carga permitida por el diccionario. */
+    public static final double MAXIMA_CARGA = 0.85;
+
+    /* Clase privada para iteradores de diccionarios. */
+    private class Iterador implements Iterator<V> {
+
+        /* El índice del siguiente elemento. */
+        private int indice;
+
+        /* Construye un nuevo iterador. */
+        public Iterador() {
+            indice = siguienteOcupado(0);
+        }
+
+        /* Nos dice si hay un siguiente elemento. */
+        @Override public boolean hasNext() {
+            return indice < llaves.length;
+        }
+
+        /* Regresa el siguiente elemento. */
+        @Override public V next() {
+            if (indice >= llaves.length)
+                throw new NoSuchElementException("No hay siguiente.");
+            V v = valores[indice];
+            indice = siguienteOcupado(indice + 1);
+            return v;
+        }
+
+        /* No lo implementamos: siempre lanza una excepción. */
+        @Override public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /* Tamaño mínimo; decidido arbitrariamente a 2^6. */
+    private static final int MIN_N = 64;
+
+    /* Máscara para no usar módulo. */
+    private int mascara;
+    /* Dispersor. */
+    private Dispersor<K> dispersor;
+    /* Las llaves; null indica una casilla vacía. */
+    private K[] llaves;
+    /* Los valores, en el mismo índice que su llave. */
+    private V[] valores;
+    /* La dispersión mezclada de cada llave, para no volver a calcularla. */
+    private int[] dispersiones;
+    /* Número de valores. */
+    private int elementos;
+
+    /* Truco para crear arreglos genéricos. */
+    @SuppressWarnings("unchecked") private static <T> T[] nuevoArreglo(int n) {
+        Object[] arreglo = new Object[n];
+        return (T[])arreglo;
+    }
+
+    /**
+     * Construye un diccionario con un tamaño inicial y dispersor
+     * predeterminados.
+     */
+    public DiccionarioAbierto() {
+        this(MIN_N, (K o) -> o.hashCode());
+    }
+
+    /**
+     * Construye un diccionario con un tamaño inicial definido por el usuario, y
+     * un dispersor predeterminado.
+     * @param tam el tamaño a utilizar.
+     */
+    public DiccionarioAbierto(int tam) {
+        this(tam, (K o) -> o.hashCode());
+    }
+
+    /**
+     * Construye un diccionario con un tamaño inicial predeterminado, y un
+     * dispersor definido por el usuario.
+     * @param dispersor el dispersor a utilizar.
+     */
+    public DiccionarioAbierto(Dispersor<K> dispersor) {
+        this(MIN_N, dispersor);
+    }
+
+    /**
+     * Construye un diccionario con un tamaño inicial, y un método de dispersor
+     * definidos por el usuario.
+     * @param tam el tamaño del diccionario.
+     * @param dispersor el dispersor a utilizar.
+     */
+    public DiccionarioAbierto(int tam, Dispersor<K> dispersor) {
+        this.dispersor = dispersor;
+        inicializa(longitud(tam));
+    }
+
+    /**
+     * Agrega un nuevo valor al diccionario, usando la llave proporcionada. Si
+     * la llave ya había sido utilizada antes para agregar un valor, el
+     * diccionario reemplaza ese valor con el recibido aquí.
+     * @param llave la llave para agregar el valor.
+     * @param valor el valor a agregar.
+     * @throws IllegalArgumentException si la llave o el valor son nulos.
+     */
+    public void agrega(K llave, V valor) {
+        if (llave == null || valor == null)
+            throw new IllegalArgumentException();
+        int d = dispersa(llave);
+        int i = d & mascara;
+        int distancia = 0;
+        /* La llave sólo puede estar antes de la primera casilla cuya entrada
+           esté más cerca de su índice inicial que nosotros. */
+        while (llaves[i] != null && distancia(i) >= distancia) {
+            if (dispersiones[i] == d && llaves[i].equals(llave)) {
+                valores[i] = valor;
+                return;
+            }
+            i = (i + 1) & mascara;
+            distancia++;
+        }
+        inserta(i, distancia, llave, valor, d);
+        elementos++;
+        if (estaCargado())
+            creceArreglo();
+    }
+
+    /**
+     * Regresa el valor del diccionario asociado a la llave proporcionada.
+     * @param llave la llave para buscar el valor.
+     * @return el valor correspondiente a la llave.
+     * @throws NoSuchElementException si la llave no está en el diccionario.
+     */
+    public V get(K llave) {
+        int i = busca(llave);
+        if (i == -1)
+            throw new NoSuchElementException("La llave no está en el diccionario.");
+        return valores[i];
+    }
+
+    /**
+     * Nos dice si una llave se encuentra en el diccionario.
+     * @param llave la llave que queremos ver si está en el diccionario.
+     * @return <tt>true</tt> si la llave está en el diccionario,
+     *         <tt>false</tt> en otro caso.
+     */
+    public boolean contiene(K llave) {
+        return busca(llave) != -1;
+    }
+
+    /**
+     * Elimina el valor del diccionario asociado a la llave proporcionada. Las
+     * entradas que siguen a la eliminada se recorren una casilla hacia atrás
+     * mientras no estén en su índice inicial.
+     * @param llave la llave para buscar el valor a eliminar.
+     * @throws NoSuchElementException si la llave no se encuentra en
+     *         el diccionario.
+     */
+    public void elimina(K llave) {
+        int i = busca(llave);
+        if (i == -1)
+            throw new NoSuchElementException("La llave no se encuentra.");
+        int j = (i + 1) & mascara;
+        while (llaves[j] != null && distancia(j) > 0) {
+            llaves[i] = llaves[j];
+            valores[i] = valores[j];
+            dispersiones[i] = dispersiones[j];
+            i = j;
+            j = (j + 1) & mascara;
+        }
+        llaves[i] = null;
+        valores[i] = null;
+        elementos--;
+    }
+
+    /**
+     * Regresa una lista con todas las llaves con valores asociados en el
+     * diccionario. La lista no tiene ningún tipo de orden.
+     * @return una lista con todas las llaves.
+     */
+    public Lista<K> llaves() {
+        Lista<K> l = new Lista<K>();
+        for (int i = 0; i < llaves.length; i++)
+            if (llaves[i] != null)
+                l.agrega(llaves[i]);
+        return l;
+    }
+
+    /**
+     * Regresa una lista con todos los valores en el diccionario. La lista no
+     * tiene ningún tipo de orden.
+     * @return una lista con todos los valores.
+     */
+    public Lista<V> valores() {
+        Lista<V> l = new Lista<V>();
+        for (int i = 0; i < llaves.length; i++)
+            if (llaves[i] != null)
+                l.agrega(valores[i]);
+        return l;
+    }
+
+    /**
+     * Nos dice cuántas colisiones hay en el diccionario. Como en {@link
+     * Diccionario}, una colisión es una llave que comparte índice inicial con
+     * otra; el sondeo <em>Robin Hood</em> mantiene juntas a todas las llaves
+     * con el mismo índice inicial, así que basta compararlas con su vecina.
+     * @return cuántas colisiones hay en el diccionario.
+     */
+    public int colisiones() {
+        int c = 0;
+        for (int i = 0; i < llaves.length; i++)
+            if (mismoInicioQueAnterior(i))
+                c++;
+        return c;
+    }
+
+    /**
+     * Nos dice el máximo número de colisiones para una misma llave que tenemos
+     * en el diccionario.
+     * @return el máximo número de colisiones para una misma llave.
+     */
+    public int colisionMaxima() {
+        int max = 0, c = 0;
+        /* Empezamos en una casilla vacía para no partir un grupo en dos. */
+        int inicio = 0;
+        while (inicio < llaves.length && llaves[inicio] != null)
+            inicio++;
+        for (int k = 0; k < llaves.length; k++) {
+            int i = (inicio + k) & mascara;
+            c = mismoInicioQueAnterior(i) ? c + 1 : 0;
+            if (c > max)
+                max = c;
+        }
+        return max;
+    }
+
+    /**
+     * Nos dice la carga del diccionario.
+     * @return la carga del diccionario.
+     */
+    public double carga() {
+        double e = elementos;
+        double l = llaves.length;
+        return e / l;
+    }
+
+    /**
+     * Regresa el número de entradas en el diccionario.
+     * @return el número de entradas en el diccionario.
+     */
+    public int getElementos() {
+        return elementos;
+    }
+
+    /**
+     * Nos dice si el diccionario es vacío.
+     * @return <code>true</code> si el diccionario es vacío, <code>false</code>
+     *         en otro caso.
+     */
+    public boolean esVacio() {
+        return elementos == 0;
+    }
+
+    /**
+     * Nos dice si el diccionario es igual al objeto recibido.
+     * @param o el objeto que queremos saber si es igual al diccionario.
+     * @return <code>true</code> si el objeto recibido es instancia de
+     *         DiccionarioAbierto, y tiene las mismas llaves asociadas a los
+     *         mismos valores.
+     */
+    @Override public boolean equals(Object o) {
+        if (!(o instanceof DiccionarioAbierto))
+            return false;
+        @SuppressWarnings("unchecked") DiccionarioAbierto<K, V> d =
+            (DiccionarioAbierto<K, V>)o;
+        if (d.elementos != this.elementos)
+            return false;
+        for (int i = 0; i < llaves.length; i++) {
+            if (llaves[i] == null)
+                continue;
+            int j = d.busca(llaves[i]);
+            if (j == -1 || !d.valores[j].equals(valores[i]))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Regresa un iterador para iterar los valores del diccionario. El
+     * diccionario se itera sin ningún orden específico.
+     * @return un iterador para iterar el diccionario.
+     */
+    @Override public Iterator<V> iterator() {
+        return new Iterador();
+    }
+
+    /* Crea los arreglos vacíos con la longitud recibida. */
+    private void inicializa(int l) {
+        llaves = nuevoArreglo(l);
+        valores = nuevoArreglo(l);
+        dispersiones = new int[l];
+        mascara = l - 1;
+        elementos = 0;
+    }
+
+    /* Regresa el tamaño del arreglo en una potencia de 2. */
+    private int longitud(int n) {
+        int r = 1;
+        while (r < n)
+            r <<= 1;
+        return (r << 1 < MIN_N) ? MIN_N : r << 1;
+    }
+
+    /* Nos dice si el diccionario está en su carga máxima. */
+    private boolean estaCargado() {
+        return carga() >= MAXIMA_CARGA;
+    }
+
+    /* Qué tan lejos está la entrada en i de su índice inicial. */
+    private int distancia(int i) {
+        return (i - (dispersiones[i] & mascara)) & mascara;
+    }
+
+    /* Nos dice si la entrada en i tiene el mismo índice inicial que la
+       entrada en la casilla anterior. */
+    private boolean mismoInicioQueAnterior(int i) {
+        int j = (i - 1) & mascara;
+        return llaves[i] != null && llaves[j] != null &&
+            distancia(i) > 0 &&
+            (dispersiones[i] & mascara) == (dispersiones[j] & mascara);
+    }
+
+    /* Regresa la dispersión mezclada de la llave. Sin mezclar, llaves
+       consecutivas caen en casillas consecutivas y el sondeo lineal se
+       vuelve cuadrático. */
+    private int dispersa(K llave) {
+        return DiccionarioIntInt.dispersa(dispersor.dispersa(llave));
+    }
+
+    /* Regresa el índice de la llave, o -1 si no está. */
+    private int busca(K llave) {
+        int d = dispersa(llave);
+        int i = d & mascara;
+        int distancia = 0;
+        while (llaves[i] != null && distancia(i) >= distancia) {
+            if (dispersiones[i] == d && llaves[i].equals(llave))
+                return i;
+            i = (i + 1) & mascara;
+            distancia++;
+        }
+        return -1;
+    }
+
+    /* Coloca una llave que sabemos que no está en el diccionario, empezando
+       en la casilla i a la distancia recibida de su índice inicial. Cada vez
+       que encontramos una entrada más cerca de su inicio que la que llevamos,
+       intercambiamos y seguimos con la desplazada. */
+    private void inserta(int i, int distancia, K llave, V valor, int d) {
+        while (llaves[i] != null) {
+            int di = distancia(i);
+            if (di < distancia) {
+                K k = llaves[i];
+                V v = valores[i];
+                int h = dispersiones[i];
+                llaves[i] = llave;
+                valores[i] = valor;
+                dispersiones[i] = d;
+                llave = k;
+                valor = v;
+                d = h;
+                distancia = di;
+            }
+            i = (i + 1) & mascara;
+            distancia++;
+        }
+        llaves[i] = llave;
+        valores[i] = valor;
+        dispersiones[i] = d;
+    }
+
+    /* Duplica los arreglos; como la máscara cambia hay qué volver a colocar
+       todas las entradas, pero no hace falta volver a dispersarlas. */
+    private void creceArreglo() {
+        K[] ll = llaves;
+        V[] vs = valores;
+        int[] ds = dispersiones;
+        int n = elementos;
+        inicializa(longitud(ll.length));
+        for (int i = 0; i < ll.length; i++)
+            if (ll[i] != null)
+                inserta(ds[i] & mascara, 0, ll[i], vs[i], ds[i]);
+        elementos = n;
+    }
+
+    /* Regresa el índice de la primera casilla ocupada a partir de i, o la
+       longitud del arreglo si no hay. */
+    private int siguienteOcupado(int i) {
+        while (i < llaves.length && llaves[i] == null)
+            i++;
+        return i;
+    }
+}
@@ -0,0 +1,613 @@
+package mx.unam.ciencias.edd;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * <p>Clase para diccionarios que pueden compartirse entre varios hilos. Como
+ * en {@link Diccionario}, cada llave se manda a una cubeta usando un {@link
+ * Dispersor} y una máscara, y las llaves de una misma cubeta forman una
+ * lista.</p>
+ *
+ * <p>Las búsquedas no usan candados. Para modificar una cubeta vacía basta
+ * una operación <em>compare-and-set</em> sobre su cabeza; para modificar una
+ * cubeta con elementos se sincroniza sobre su primer nodo, así que dos hilos
+ * sólo compiten si escriben en la misma cubeta. Las operaciones {@link
+ * #mezcla}, {@link #calculaSiAusente} y {@link #calcula} son atómicas.</p>
+ *
+ * <p>Cuando el diccionario llega a su carga máxima se crea un arreglo del
+ * doble de tamaño, y las cubetas se migran en bloques que los hilos se
+ * reparten: cualquier hilo que escriba mientras tanto ayuda a migrar. Cada
+ * cubeta migrada se marca con un nodo de reenvío que manda las operaciones al
+ * arreglo nuevo.</p>
+ *
+ * <p>Los iteradores y los métodos que recorren todo el diccionario ({@link
+ * #llaves}, {@link #valores}, {@link #colisiones}) regresan una vista del
+ * diccionario en algún momento durante el recorrido; no lanzan excepciones si
+ * otro hilo lo modifica al mismo tiempo.</p>
+ */
+public class DiccionarioConcurrente<K, V> implements Iterable<V> {
+
+    /** Máxima carga permitida por el diccionario. */
+    public static final double MAXIMA_CARGA = 0.72;
+
+    /* Clase para los nodos de las cubetas. La llave y su dispersión no
+       cambian; el valor y el siguiente nodo son volátiles para que las
+       búsquedas sin candado vean los cambios. */
+    private static class Nodo<K, V> {
+
+        /* La dispersión de la llave. */
+        public final int dispersion;
+        /* La llave. */
+        public final K llave;
+        /* El valor. */
+        public volatile V valor;
+        /* El siguiente nodo de la cubeta. */
+        public volatile Nodo<K, V> siguiente;
+
+        /* Construye un nuevo nodo. */
+        public Nodo(int dispersion, K llave, V valor, Nodo<K, V> siguiente) {
+            this.dispersion = dispersion;
+            this.llave = llave;
+            this.valor = valor;
+            this.siguiente = siguiente;
+        }
+    }
+
+    /* Nodo que marca una cubeta ya migrada; las operaciones que lo encuentran
+       continúan en el arreglo nuevo. */
+    private static class Reenvio<K, V> extends Nodo<K, V> {
+
+        /* El arreglo al que se migró la cubeta. */
+        public final AtomicReferenceArray<Nodo<K, V>> destino;
+
+        /* Construye un nuevo nodo de reenvío. */
+        public Reenvio(AtomicReferenceArray<Nodo<K, V>> destino) {
+            super(0, null, null, null);
+            this.destino = destino;
+        }
+    }
+
+    /* Nodo que aparta una cubeta vacía mientras calculaSiAusente o calcula
+       evalúan su función, para que nadie más agregue la llave mientras
+       tanto. */
+    private static class Reserva<K, V> extends Nodo<K, V> {
+
+        /* Construye un nuevo nodo de reserva. */
+        public Reserva() {
+            super(0, null, null, null);
+        }
+    }
+
+    /* Clase para el estado de un crecimiento en curso. */
+    private static class Crecimiento<K, V> {
+
+        /* El arreglo que estamos migrando. */
+        public final AtomicReferenceArray<Nodo<K, V>> origen;
+        /* El arreglo nuevo. */
+        public final AtomicReferenceArray<Nodo<K, V>> destino;
+        /* El reenvío que dejamos en las cubetas migradas. */
+        public final Reenvio<K, V> reenvio;
+        /* La siguiente cubeta que nadie ha tomado para migrar. */
+        public final AtomicInteger siguiente;
+        /* Cuántas cubetas se han terminado de migrar. */
+        public final AtomicInteger migradas;
+
+        /* Construye el estado para crecer el arreglo recibido. */
+        public Crecimiento(AtomicReferenceArray<Nodo<K, V>> origen) {
+            this.origen = origen;
+            this.destino = new AtomicReferenceArray<Nodo<K, V>>(origen.length() << 1);
+            this.reenvio = new Reenvio<K, V>(destino);
+            this.siguiente = new AtomicInteger(0);
+            this.migradas = new AtomicInteger(0);
+        }
+    }
+
+    /* Interfaz para las acciones que se hacen sobre cada nodo al recorrer el
+       diccionario. */
+    @FunctionalInterface
+    private interface AccionNodo<K, V> {
+        public void actua(Nodo<K, V> nodo);
+    }
+
+    /* Tamaño mínimo; decidido arbitrariamente a 2^6. */
+    private static final int MIN_N = 64;
+    /* Cuántas cubetas toma un hilo cada vez que ayuda a migrar. */
+    private static final int BLOQUE_MIGRACION = 16;
+
+    /* Dispersor. */
+    private final Dispersor<K> dispersor;
+    /* El arreglo de cubetas actual. */
+    private final AtomicReference<AtomicReferenceArray<Nodo<K, V>>> tabla;
+    /* El crecimiento en curso, o null si no estamos creciendo. */
+    private final AtomicReference<Crecimiento<K, V>> crecimiento;
+    /* Número de valores; un LongAdder para que los hilos no compitan por un
+       solo contador. */
+    private final LongAdder elementos;
+
+    /**
+     * Construye un diccionario con un tamaño inicial y dispersor
+     * predeterminados.
+     */
+    public DiccionarioConcurrente() {
+        this(MIN_N, (K o) -> o.hashCode());
+    }
+
+    /**
+     * Construye un diccionario con un tamaño inicial definido por el usuario, y
+     * un dispersor predeterminado.
+     * @param tam el tamaño a utilizar.
+     */
+    public DiccionarioConcurrente(int tam) {
+        this(tam, (K o) -> o.hashCode());
+    }
+
+    /**
+     * Construye un diccionario con un tamaño inicial predeterminado, y un
+     * dispersor definido por el usuario.
+     * @param dispersor el dispersor a utilizar.
+     */
+    public DiccionarioConcurrente(Dispersor<K> dispersor) {
+        this(MIN_N, dispersor);
+    }
+
+    /**
+     * Construye un diccionario con un tamaño inicial, y un método de dispersor
+     * definidos por el usuario.
+     * @param tam el tamaño del diccionario.
+     * @param dispersor el dispersor a utilizar.
+     */
+    public DiccionarioConcurrente(int tam, Dispersor<K> dispersor) {
+        this.dispersor = dispersor;
+        this.tabla = new AtomicReference<AtomicReferenceArray<Nodo<K, V>>>(
+            new AtomicReferenceArray<Nodo<K, V>>(longitud(tam)));
+        this.crecimiento = new AtomicReference<Crecimiento<K, V>>();
+        this.elementos = new LongAdder();
+    }
+
+    /**
+     * Agrega un nuevo valor al diccionario, usando la llave proporcionada. Si
+     * la llave ya había sido utilizada antes para agregar un valor, el
+     * diccionario reemplaza ese valor con el recibido aquí.
+     * @param llave la llave para agregar el valor.
+     * @param valor el valor a agregar.
+     * @throws IllegalArgumentException si la llave o el valor son nulos.
+     */
+    public void agrega(K llave, V valor) {
+        if (llave == null || valor == null)
+            throw new IllegalArgumentException();
+        mezcla(llave, valor, (a, b) -> b);
+    }
+
+    /**
+     * Regresa el valor del diccionario asociado a la llave proporcionada.
+     * @param llave la llave para buscar el valor.
+     * @return el valor correspondiente a la llave.
+     * @throws NoSuchElementException si la llave no está en el diccionario.
+     */
+    public V get(K llave) {
+        V v = getOPredeterminado(llave, null);
+        if (v == null)
+            throw new NoSuchElementException("La llave no está en el diccionario.");
+        return v;
+    }
+
+    /**
+     * Regresa el valor asociado a la llave proporcionada, o el valor
+     * predeterminado si la llave no está en el diccionario. No usa candados.
+     * @param llave la llave para buscar el valor.
+     * @param predeterminado el valor a regresar si la llave no está.
+     * @return el valor correspondiente a la llave, o el predeterminado.
+     */
+    public V getOPredeterminado(K llave, V predeterminado) {
+        int d = dispersor.dispersa(llave);
+        AtomicReferenceArray<Nodo<K, V>> t = tabla.get();
+        Nodo<K, V> n = t.get(d & (t.length() - 1));
+        while (n instanceof Reenvio) {
+            t = ((Reenvio<K, V>)n).destino;
+            n = t.get(d & (t.length() - 1));
+        }
+        for (; n != null; n = n.siguiente)
+            if (n.dispersion == d && llave.equals(n.llave)) {
+                V v = n.valor;
+                if (v != null)
+                    return v;
+            }
+        return predeterminado;
+    }
+
+    /**
+     * Nos dice si una llave se encuentra en el diccionario.
+     * @param llave la llave que queremos ver si está en el diccionario.
+     * @return <tt>true</tt> si la llave está en el diccionario,
+     *         <tt>false</tt> en otro caso.
+     */
+    public boolean contiene(K llave) {
+        return getOPredeterminado(llave, null) != null;
+    }
+
+    /**
+     * Elimina el valor del diccionario asociado a la llave proporcionada.
+     * @param llave la llave para buscar el valor a eliminar.
+     * @throws NoSuchElementException si la llave no se encuentra en
+     *         el diccionario.
+     */
+    public void elimina(K llave) {
+        if (llave == null)
+            throw new IllegalArgumentException();
+        boolean[] estaba = { false };
+        calcula(llave, (k, v) -> {
+                estaba[0] = v != null;
+                return null;
+            });
+        if (!estaba[0])
+            throw new NoSuchElementException("La llave no se encuentra.");
+    }
+
+    /**
+     * Regresa el valor asociado a la llave proporcionada; si la llave no está
+     * en el diccionario, calcula su valor con la función recibida y lo agrega.
+     * La operación es atómica: la función se evalúa a lo más una vez, y
+     * ningún otro hilo puede agregar la llave mientras tanto.
+     * @param llave la llave para buscar el valor.
+     * @param funcion la función para calcular el valor a partir de la llave.
+     * @return el valor asociado a la llave después de la operación, o
+     *         <code>null</code> si la función regresó <code>null</code>.
+     * @throws IllegalArgumentException si la llave es nula.
+     */
+    public V calculaSiAusente(K llave, Function<? super K, ? extends V> funcion) {
+        if (llave == null)
+            throw new IllegalArgumentException();
+        V v = getOPredeterminado(llave, null);
+        if (v != null)
+            return v;
+        return calcula(llave, (k, a) -> a != null ? a : funcion.apply(k));
+    }
+
+    /**
+     * Mezcla un valor con el asociado a la llave. Si la llave no está en el
+     * diccionario, se le asocia el valor recibido; si está, se le asocia el
+     * resultado de aplicar la función al valor actual y al recibido, y si ese
+     * resultado es <code>null</code> la llave se elimina. La operación es
+     * atómica.
+     * @param llave la llave del valor a mezclar.
+     * @param valor el valor a mezclar.
+     * @param funcion la función que mezcla el valor actual con el recibido.
+     * @return el nuevo valor asociado a la llave, o <code>null</code> si la
+     *         llave se eliminó.
+     * @throws IllegalArgumentException si la llave o el valor son nulos.
+     */
+    public V mezcla(K llave, V valor,
+                    BiFunction<? super V, ? super V, ? extends V> funcion) {
+        if (llave == null || valor == null)
+            throw new IllegalArgumentException();
+        int d = dispersor.dispersa(llave);
+        AtomicReferenceArray<Nodo<K, V>> t = tabla.get();
+        while (true) {
+            int i = d & (t.length() - 1);
+            Nodo<K, V> cabeza = t.get(i);
+            if (cabeza == null) {
+                if (t.compareAndSet(i, null, new Nodo<K, V>(d, llave, valor, null))) {
+                    agregado(t);
+                    return valor;
+                }
+            } else if (cabeza instanceof Reenvio) {
+                t = ayuda(t, (Reenvio<K, V>)cabeza);
+            } else {
+                synchronized (cabeza) {
+                    if (t.get(i) != cabeza)
+                        continue;
+                    Nodo<K, V> anterior = null;
+                    for (Nodo<K, V> n = cabeza; n != null; n = n.siguiente) {
+                        if (n.dispersion == d && llave.equals(n.llave)) {
+                            V nuevo = funcion.apply(n.valor, valor);
+                            if (nuevo != null)
+                                n.valor = nuevo;
+                            else
+                                quita(t, i, anterior, n);
+                            return nuevo;
+                        }
+                        anterior = n;
+                    }
+                    anterior.siguiente = new Nodo<K, V>(d, llave, valor, null);
+                }
+                agregado(t);
+                return valor;
+            }
+        }
+    }
+
+    /**
+     * Calcula un nuevo valor para la llave a partir de la llave y su valor
+     * actual (<code>null</code> si la llave no está). Si el nuevo valor es
+     * <code>null</code> la llave se elimina del diccionario; en otro caso se
+     * asocia a la llave. La operación es atómica.
+     * @param llave la llave para calcular el valor.
+     * @param funcion la función que calcula el nuevo valor.
+     * @return el nuevo valor asociado a la llave, o <code>null</code> si la
+     *         llave se eliminó.
+     * @throws IllegalArgumentException si la llave es nula.
+     */
+    public V calcula(K llave,
+                     BiFunction<? super K, ? super V, ? extends V> funcion) {
+        if (llave == null)
+            throw new IllegalArgumentException();
+        int d = dispersor.dispersa(llave);
+        AtomicReferenceArray<Nodo<K, V>> t = tabla.get();
+        while (true) {
+            int i = d & (t.length() - 1);
+            Nodo<K, V> cabeza = t.get(i);
+            if (cabeza == null) {
+                Reserva<K, V> reserva = new Reserva<K, V>();
+                V nuevo = null;
+                boolean apartada = false;
+                synchronized (reserva) {
+                    if (t.compareAndSet(i, null, reserva)) {
+                        apartada = true;
+                        try {
+                            nuevo = funcion.apply(llave, null);
+                        } finally {
+                            t.set(i, nuevo == null ? null :
+                                  new Nodo<K, V>(d, llave, nuevo, null));
+                        }
+                    }
+                }
+                if (!apartada)
+                    continue;
+                if (nuevo != null)
+                    agregado(t);
+                return nuevo;
+            } else if (cabeza instanceof Reenvio) {
+                t = ayuda(t, (Reenvio<K, V>)cabeza);
+            } else {
+                boolean nuevaLlave = false;
+                V nuevo;
+                synchronized (cabeza) {
+                    if (t.get(i) != cabeza)
+                        continue;
+                    Nodo<K, V> anterior = null, n = cabeza;
+                    while (n != null && !(n.dispersion == d && llave.equals(n.llave))) {
+                        anterior = n;
+                        n = n.siguiente;
+                    }
+                    nuevo = funcion.apply(llave, n == null ? null : n.valor);
+                    if (n != null && nuevo != null) {
+                        n.valor = nuevo;
+                    } else if (n != null) {
+                        quita(t, i, anterior, n);
+                    } else if (nuevo != null) {
+                        anterior.siguiente = new Nodo<K, V>(d, llave, nuevo, null);
+                        nuevaLlave = true;
+                    }
+                }
+                if (nuevaLlave)
+                    agregado(t);
+                return nuevo;
+            }
+        }
+    }
+
+    /**
+     * Regresa una lista con todas las llaves con valores asociados en el
+     * diccionario. La lista no tiene ningún tipo de orden.
+     * @return una lista con todas las llaves.
+     */
+    public Lista<K> llaves() {
+        Lista<K> l = new Lista<K>();
+        recorre(n -> l.agrega(n.llave));
+        return l;
+    }
+
+    /**
+     * Regresa una lista con todos los valores en el diccionario. La lista no
+     * tiene ningún tipo de orden.
+     * @return una lista con todos los valores.
+     */
+    public Lista<V> valores() {
+        Lista<V> l = new Lista<V>();
+        recorre(n -> l.agrega(n.valor));
+        return l;
+    }
+
+    /**
+     * Nos dice cuántas colisiones hay en el diccionario.
+     * @return cuántas colisiones hay en el diccionario.
+     */
+    public int colisiones() {
+        int c = 0;
+        for (int n : longitudesCubetas())
+            if (n > 1)
+                c += n - 1;
+        return c;
+    }
+
+    /**
+     * Nos dice el máximo número de colisiones para una misma llave que tenemos
+     * en el diccionario.
+     * @return el máximo número de colisiones para una misma llave.
+     */
+    public int colisionMaxima() {
+        int c = 0;
+        for (int n : longitudesCubetas())
+            if (n - 1 > c)
+                c = n - 1;
+        return c;
+    }
+
+    /**
+     * Nos dice la carga del diccionario.
+     * @return la carga del diccionario.
+     */
+    public double carga() {
+        double e = elementos.sum();
+        double l = tabla.get().length();
+        return e / l;
+    }
+
+    /**
+     * Regresa el número de entradas en el diccionario.
+     * @return el número de entradas en el diccionario.
+     */
+    public int getElementos() {
+        return elementos.intValue();
+    }
+
+    /**
+     * Nos dice si el diccionario es vacío.
+     * @return <code>true</code> si el diccionario es vacío, <code>false</code>
+     *         en otro caso.
+     */
+    public boolean esVacio() {
+        return elementos.sum() == 0;
+    }
+
+    /**
+     * Regresa un iterador para iterar los valores del diccionario. El
+     * diccionario se itera sin ningún orden específico, sobre una copia de sus
+     * valores.
+     * @return un iterador para iterar el diccionario.
+     */
+    @Override public Iterator<V> iterator() {
+        return valores().iterator();
+    }
+
+    /* Regresa el tamaño del arreglo en una potencia de 2. */
+    private static int longitud(int n) {
+        int r = 1;
+        while (r < n)
+            r <<= 1;
+        return (r << 1 < MIN_N) ? MIN_N : r << 1;
+    }
+
+    /* Quita el nodo n de la cubeta i; se llama con el candado de la cabeza.
+       Si n es la cabeza, la nueva cabeza pasa a ser su siguiente; los hilos
+       que esperaban el candado de la cabeza anterior vuelven a intentar. */
+    private void quita(AtomicReferenceArray<Nodo<K, V>> t, int i,
+                       Nodo<K, V> anterior, Nodo<K, V> n) {
+        if (anterior == null)
+            t.set(i, n.siguiente);
+        else
+            anterior.siguiente = n.siguiente;
+        elementos.decrement();
+    }
+
+    /* Cuenta una llave nueva y, si llegamos a la carga máxima, empieza a
+       crecer el arreglo o ayuda al crecimiento en curso. */
+    private void agregado(AtomicReferenceArray<Nodo<K, V>> t) {
+        elementos.increment();
+        Crecimiento<K, V> c = crecimiento.get();
+        if (c != null) {
+            migra(c);
+            return;
+        }
+        AtomicReferenceArray<Nodo<K, V>> actual = tabla.get();
+        if (elementos.sum() < MAXIMA_CARGA * actual.length())
+            return;
+        c = new Crecimiento<K, V>(actual);
+        if (!crecimiento.compareAndSet(null, c))
+            return;
+        /* Si otro hilo terminó un crecimiento justo antes, este ya no
+           corresponde al arreglo actual. */
+        if (tabla.get() != actual) {
+            crecimiento.compareAndSet(c, null);
+            return;
+        }
+        migra(c);
+    }
+
+    /* Ayuda a migrar la cubeta reenviada y regresa el arreglo destino. */
+    private AtomicReferenceArray<Nodo<K, V>> ayuda(AtomicReferenceArray<Nodo<K, V>> t,
+                                                    Reenvio<K, V> r) {
+        Crecimiento<K, V> c = crecimiento.get();
+        if (c != null && c.origen == t)
+            migra(c);
+        return r.destino;
+    }
+
+    /* Toma bloques de cubetas del crecimiento hasta que no quede ninguno. El
+       hilo que migra la última cubeta publica el arreglo nuevo. */
+    private void migra(Crecimiento<K, V> c) {
+        int n = c.origen.length();
+        int inicio;
+        while ((inicio = c.siguiente.getAndAdd(BLOQUE_MIGRACION)) < n) {
+            int fin = Math.min(inicio + BLOQUE_MIGRACION, n);
+            for (int i = inicio; i < fin; i++)
+                migraCubeta(c, i);
+            if (c.migradas.addAndGet(fin - inicio) == n) {
+                tabla.compareAndSet(c.origen, c.destino);
+                crecimiento.compareAndSet(c, null);
+            }
+        }
+    }
+
+    /* Migra una cubeta del arreglo de origen: sus nodos se copian (para que
+       las búsquedas que todavía recorren la cubeta vieja no se pierdan) y se
+       reparten entre las cubetas i e i + n del destino. */
+    private void migraCubeta(Crecimiento<K, V> c, int i) {
+        AtomicReferenceArray<Nodo<K, V>> t = c.origen;
+        int n = t.length();
+        while (true) {
+            Nodo<K, V> cabeza = t.get(i);
+            if (cabeza == null) {
+                if (t.compareAndSet(i, null, c.reenvio))
+                    return;
+                continue;
+            }
+            if (cabeza instanceof Reenvio)
+                return;
+            synchronized (cabeza) {
+                if (t.get(i) != cabeza)
+                    continue;
+                Nodo<K, V> bajos = null, altos = null;
+                for (Nodo<K, V> m = cabeza; m != null; m = m.siguiente)
+                    if ((m.dispersion & n) == 0)
+                        bajos = new Nodo<K, V>(m.dispersion, m.llave, m.valor, bajos);
+                    else
+                        altos = new Nodo<K, V>(m.dispersion, m.llave, m.valor, altos);
+                c.destino.set(i, bajos);
+                c.destino.set(i + n, altos);
+                t.set(i, c.reenvio);
+                return;
+            }
+        }
+    }
+
+    /* Recorre todos los nodos del diccionario, siguiendo los reenvíos. */
+    private void recorre(AccionNodo<K, V> accion) {
+        AtomicReferenceArray<Nodo<K, V>> t = tabla.get();
+        for (int i = 0; i < t.length(); i++)
+            recorre(t, i, accion);
+    }
+
+    /* Recorre los nodos de la cubeta i del arreglo t. */
+    private void recorre(AtomicReferenceArray<Nodo<K, V>> t, int i,
+                         AccionNodo<K, V> accion) {
+        Nodo<K, V> n = t.get(i);
+        if (n instanceof Reenvio) {
+            AtomicReferenceArray<Nodo<K, V>> d = ((Reenvio<K, V>)n).destino;
+            recorre(d, i, accion);
+            recorre(d, i + t.length(), accion);
+            return;
+        }
+        for (; n != null; n = n.siguiente)
+            if (n.llave != null && n.valor != null)
+                accion.actua(n);
+    }
+
+    /* Regresa el número de llaves en cada cubeta del arreglo actual. */
+    private int[] longitudesCubetas() {
+        AtomicReferenceArray<Nodo<K, V>> t = tabla.get();
+        int[] c = new int[t.length()];
+        for (int i = 0; i < t.length(); i++) {
+            int j = i;
+            recorre(t, i, n -> c[j]++);
+        }
+        return c;
+    }
+}
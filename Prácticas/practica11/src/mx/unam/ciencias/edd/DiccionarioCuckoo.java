@@ -0,0 +1,767 @@
+package mx.unam.ciencias.edd;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+import java.util.function.LongFunction;
+
+/**
+ * <p>Clase para diccionarios con dispersión <em>cuckoo</em>. Cada llave tiene
+ * exactamente dos cubetas posibles, dadas por dos dispersores distintos, y
+ * cada cubeta tiene {@link #RANURAS} ranuras; además hay una pequeña reserva
+ * de {@link #TAM_RESERVA} entradas. Por lo tanto {@link #get} y {@link
+ * #contiene} revisan a lo más 2&middot;{@link #RANURAS} + {@link
+ * #TAM_RESERVA} ranuras, sin importar cuántas llaves haya, mientras el
+ * desborde (ver abajo) esté vacío.</p>
+ *
+ * <p>Si al agregar las dos cubetas de una llave están llenas, la llave echa a
+ * una de las entradas que ya estaban, y ésta se mueve a su otra cubeta,
+ * posiblemente echando a otra; el camino de desplazamientos está acotado por
+ * {@link #MAX_DESPLAZAMIENTOS}. Si se acaba, la entrada que quedó sin lugar va
+ * a la reserva, y si la reserva está llena el diccionario se reconstruye con
+ * dispersores nuevos, a lo más {@link #MAX_INTENTOS} veces.</p>
+ *
+ * <p>Las llaves con exactamente la misma dispersión tienen las mismas dos
+ * cubetas con cualquier semilla, así que ninguna reconstrucción las separa.
+ * Las entradas que no caben ni así van a un {@link Diccionario} de desborde,
+ * que convierte sus listas largas en árboles (donde buscar toma tiempo
+ * logarítmico si las llaves son comparables); la tabla y la reserva nunca
+ * crecen por ellas. Mientras el desborde no esté vacío las búsquedas que
+ * fallan en la tabla también lo consultan, y las inserciones que no caben van
+ * directo a él en lugar de reconstruir la tabla.</p>
+ *
+ * <p>Los dos dispersores salen de una familia de dispersores con semilla; cada
+ * reconstrucción usa semillas nuevas. Para cadenas, {@link #deCadenas} usa los
+ * dispersores con semilla de {@link FabricaDispersores}.</p>
+ */
+public class DiccionarioCuckoo<K, V> implements Iterable<V> {
+
+    /* Clase para las entradas que regresa el diccionario. */
+    private class Entrada implements EntradaDiccionario<K, V> {
+
+        /* La llave. */
+        private K llave;
+        /* El valor. */
+        private V valor;
+
+        /* Construye una entrada con la llave y el valor recibidos. */
+        public Entrada(K llave, V valor) {
+            this.llave = llave;
+            this.valor = valor;
+        }
+
+        /* Regresa la llave. */
+        @Override public K getLlave() {
+            return llave;
+        }
+
+        /* Regresa el valor. */
+        @Override public V getValor() {
+            return valor;
+        }
+    }
+
+    /* Clase privada para iteradores de diccionarios cuckoo; las subclases
+       deciden qué regresar de cada llave y su valor. Primero recorre las
+       ranuras y después el desborde. */
+    private abstract class IteradorCuckoo<T> implements Iterator<T> {
+
+        /* La siguiente ranura ocupada. */
+        private int siguiente;
+        /* Iterador del desborde; es null si no hay desborde. */
+        private Iterator<EntradaDiccionario<K, V>> desbordado;
+
+        /* Construye un nuevo iterador. */
+        public IteradorCuckoo() {
+            siguiente = -1;
+            avanza();
+            if (desborde != null)
+                desbordado = desborde.entradas().iterator();
+        }
+
+        /* Regresa lo que el iterador regresa de la llave y su valor. */
+        protected abstract T de(K llave, V valor);
+
+        /* Nos dice si hay un siguiente elemento. */
+        @Override public boolean hasNext() {
+            return siguiente < llaves.length ||
+                (desbordado != null && desbordado.hasNext());
+        }
+
+        /* Regresa el siguiente elemento. */
+        @Override public T next() {
+            if (siguiente < llaves.length) {
+                int r = siguiente;
+                avanza();
+                return de(llaves[r], valores[r]);
+            }
+            if (desbordado == null || !desbordado.hasNext())
+                throw new NoSuchElementException("No hay siguiente.");
+            EntradaDiccionario<K, V> e = desbordado.next();
+            return de(e.getLlave(), e.getValor());
+        }
+
+        /* No lo implementamos: siempre lanza una excepción. */
+        @Override public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        /* Mueve el iterador a la siguiente ranura ocupada. */
+        private void avanza() {
+            do {
+                siguiente++;
+            } while (siguiente < llaves.length && llaves[siguiente] == null);
+        }
+    }
+
+    /** Número de ranuras en cada cubeta. */
+    public static final int RANURAS = 4;
+    /** Número de entradas que caben en la reserva. */
+    public static final int TAM_RESERVA = 4;
+    /** Máximo número de desplazamientos al agregar una llave. */
+    public static final int MAX_DESPLAZAMIENTOS = 128;
+    /**
+     * Máximo número de veces que se cambian los dispersores al reconstruir el
+     * diccionario; si con el último todavía no caben todas las entradas, las
+     * que sobran van al desborde.
+     */
+    public static final int MAX_INTENTOS = 4;
+    /** Máxima carga permitida antes de crecer el diccionario. */
+    public static final double MAXIMA_CARGA = 0.9;
+
+    /* Número mínimo de cubetas. */
+    private static final int MIN_CUBETAS = 4;
+    /* Incremento de las semillas: la parte fraccionaria de la razón áurea. */
+    private static final long AUREA = 0x9e3779b97f4a7c15L;
+
+    /* La familia de dispersores. */
+    private LongFunction<Dispersor<K>> familia;
+    /* El primer dispersor. */
+    private Dispersor<K> dispersor1;
+    /* El segundo dispersor. */
+    private Dispersor<K> dispersor2;
+    /* La semilla de la última reconstrucción. */
+    private long semilla;
+    /* Las llaves; las primeras ranuras son las de las cubetas, y las
+       últimas son las de la reserva. */
+    private K[] llaves;
+    /* Los valores, en la misma ranura que su llave. */
+    private V[] valores;
+    /* La primera dispersión de cada llave. */
+    private int[] dispersiones1;
+    /* La segunda dispersión de cada llave. */
+    private int[] dispersiones2;
+    /* Máscara para no usar módulo con las cubetas. */
+    private int mascara;
+    /* Número de ranuras en cubetas (sin contar la reserva). */
+    private int capacidad;
+    /* Número de entradas en la reserva. */
+    private int enReserva;
+    /* Las entradas que no cupieron ni en las cubetas ni en la reserva; es
+       null si nunca ha hecho falta. */
+    private Diccionario<K, V> desborde;
+    /* Número de valores. */
+    private int elementos;
+    /* Estado del generador que elige a quién echar. */
+    private long azar;
+    /* Desplazamientos hechos desde que se creó el diccionario. */
+    private long desplazamientos;
+    /* Desplazamientos del camino más largo. */
+    private int desplazamientoMaximo;
+    /* Reconstrucciones hechas desde que se creó el diccionario. */
+    private int reconstrucciones;
+
+    /* La entrada que se quedó sin lugar en el último intento de agregar. */
+    private K sinLugarLlave;
+    private V sinLugarValor;
+
+    /* Truco para crear un arreglo genérico. Es necesario hacerlo así por cómo
+       Java implementa sus genéricos; de otra forma obtenemos advertencias del
+       compilador. */
+    @SuppressWarnings("unchecked") private <T> T[] nuevoArreglo(int n) {
+        return (T[])new Object[n];
+    }
+
+    /**
+     * Construye un diccionario con un tamaño inicial y dispersor
+     * predeterminados.
+     */
+    public DiccionarioCuckoo() {
+        this(MIN_CUBETAS * RANURAS, (K o) -> o.hashCode());
+    }
+
+    /**
+     * Construye un diccionario con un tamaño inicial definido por el usuario, y
+     * un dispersor predeterminado.
+     * @param tam el tamaño a utilizar.
+     */
+    public DiccionarioCuckoo(int tam) {
+        this(tam, (K o) -> o.hashCode());
+    }
+
+    /**
+     * Construye un diccionario con un tamaño inicial predeterminado, y un
+     * dispersor definido por el usuario.
+     * @param dispersor el dispersor a utilizar.
+     */
+    public DiccionarioCuckoo(Dispersor<K> dispersor) {
+        this(MIN_CUBETAS * RANURAS, dispersor);
+    }
+
+    /**
+     * Construye un diccionario con un tamaño inicial, y un dispersor definidos
+     * por el usuario. Los dos dispersores del diccionario se obtienen
+     * mezclando la dispersión recibida con dos semillas distintas; por lo
+     * tanto, llaves con la misma dispersión siempre comparten sus dos cubetas.
+     * @param tam el tamaño del diccionario.
+     * @param dispersor el dispersor a utilizar.
+     */
+    public DiccionarioCuckoo(int tam, Dispersor<K> dispersor) {
+        this(tam, (long s) ->
+             (K o) -> DiccionarioLongLong.dispersa(s ^ dispersor.dispersa(o)),
+             0);
+    }
+
+    /**
+     * Construye un diccionario con un tamaño inicial y una familia de
+     * dispersores definidos por el usuario. La familia regresa un dispersor
+     * distinto para cada semilla.
+     * @param tam el tamaño del diccionario.
+     * @param familia la familia de dispersores.
+     * @param semilla la semilla inicial.
+     */
+    public DiccionarioCuckoo(int tam, LongFunction<Dispersor<K>> familia,
+                             long semilla) {
+        this.familia = familia;
+        this.semilla = semilla;
+        this.azar = semilla ^ AUREA;
+        int n = MIN_CUBETAS;
+        while (n * RANURAS < tam)
+            n <<= 1;
+        nuevasDispersiones();
+        inicializa(n);
+    }
+
+    /**
+     * Regresa un diccionario cuckoo para cadenas que usa los dispersores con
+     * semilla de {@link FabricaDispersores}.
+     * @param <V> el tipo de los valores del diccionario.
+     * @param algoritmo el algoritmo de dispersor a utilizar.
+     * @return un diccionario cuckoo vacío para cadenas.
+     * @throws IllegalArgumentException si el algoritmo no acepta semilla.
+     */
+    public static <V> DiccionarioCuckoo<String, V>
+    deCadenas(AlgoritmoDispersor algoritmo) {
+        if (!algoritmo.aceptaSemilla())
+            throw new IllegalArgumentException("El algoritmo no acepta " +
+                                               "semilla.");
+        return new DiccionarioCuckoo<String, V>(
+            MIN_CUBETAS * RANURAS,
+            (long s) -> FabricaDispersores.getInstancia(algoritmo, s), 0);
+    }
+
+    /**
+     * Agrega un nuevo valor al diccionario, usando la llave proporcionada. Si
+     * la llave ya había sido utilizada antes para agregar un valor, el
+     * diccionario reemplaza ese valor con el recibido aquí.
+     * @param llave la llave para agregar el valor.
+     * @param valor el valor a agregar.
+     * @throws IllegalArgumentException si la llave o el valor son nulos.
+     */
+    public void agrega(K llave, V valor) {
+        if (llave == null || valor == null)
+            throw new IllegalArgumentException();
+        int r = busca(llave);
+        if (r != -1) {
+            valores[r] = valor;
+            return;
+        }
+        if (desbordadas() > 0 && desborde.contiene(llave)) {
+            desborde.agrega(llave, valor);
+            return;
+        }
+        elementos++;
+        if (elementos - desbordadas() > capacidad * MAXIMA_CARGA) {
+            sinLugarLlave = llave;
+            sinLugarValor = valor;
+            reconstruye((mascara + 1) << 1);
+            return;
+        }
+        if (inserta(llave, valor))
+            return;
+        /* Si ya hay desbordadas, cambiar de dispersores ya falló antes. */
+        if (desbordadas() > 0)
+            desborda(sinLugarLlave, sinLugarValor);
+        else
+            reconstruye(mascara + 1);
+    }
+
+    /**
+     * Regresa el valor del diccionario asociado a la llave proporcionada.
+     * @param llave la llave para buscar el valor.
+     * @return el valor correspondiente a la llave.
+     * @throws NoSuchElementException si la llave no está en el diccionario.
+     */
+    public V get(K llave) {
+        V v = valorDe(llave);
+        if (v == null)
+            throw new NoSuchElementException("La llave no está en el diccionario.");
+        return v;
+    }
+
+    /**
+     * Regresa el valor asociado a la llave proporcionada, o el valor
+     * predeterminado si la llave no está en el diccionario.
+     * @param llave la llave para buscar el valor.
+     * @param predeterminado el valor a regresar si la llave no está.
+     * @return el valor correspondiente a la llave, o el predeterminado.
+     */
+    public V getOPredeterminado(K llave, V predeterminado) {
+        V v = valorDe(llave);
+        return v == null ? predeterminado : v;
+    }
+
+    /**
+     * Nos dice si una llave se encuentra en el diccionario.
+     * @param llave la llave que queremos ver si está en el diccionario.
+     * @return <tt>true</tt> si la llave está en el diccionario,
+     *         <tt>false</tt> en otro caso.
+     */
+    public boolean contiene(K llave) {
+        return valorDe(llave) != null;
+    }
+
+    /**
+     * Elimina el valor del diccionario asociado a la llave proporcionada.
+     * @param llave la llave para buscar el valor a eliminar.
+     * @throws NoSuchElementException si la llave no se encuentra en
+     *         el diccionario.
+     */
+    public void elimina(K llave) {
+        int r = busca(llave);
+        if (r == -1) {
+            if (desbordadas() == 0 || !desborde.contiene(llave))
+                throw new NoSuchElementException("La llave no se encuentra.");
+            desborde.elimina(llave);
+            elementos--;
+            return;
+        }
+        vacia(r);
+        elementos--;
+        if (r >= capacidad)
+            enReserva--;
+        else if (enReserva > 0)
+            vaciaReserva();
+    }
+
+    /**
+     * Regresa una lista con todas las llaves con valores asociados en el
+     * diccionario. La lista no tiene ningún orden específico.
+     * @return una lista con todas las llaves.
+     */
+    public Lista<K> llaves() {
+        Lista<K> l = new Lista<K>();
+        for (K k : vistaLlaves())
+            l.agrega(k);
+        return l;
+    }
+
+    /**
+     * Regresa una lista con todos los valores en el diccionario. La lista no
+     * tiene ningún orden específico.
+     * @return una lista con todos los valores.
+     */
+    public Lista<V> valores() {
+        Lista<V> l = new Lista<V>();
+        for (V v : this)
+            l.agrega(v);
+        return l;
+    }
+
+    /**
+     * Regresa una vista de las llaves del diccionario. La vista no copia nada;
+     * el diccionario no debe modificarse mientras se recorre.
+     * @return una vista de las llaves del diccionario.
+     */
+    public Iterable<K> vistaLlaves() {
+        return () -> new IteradorCuckoo<K>() {
+            @Override protected K de(K llave, V valor) {
+                return llave;
+            }
+        };
+    }
+
+    /**
+     * Regresa una vista de las entradas del diccionario. La vista no copia
+     * nada; el diccionario no debe modificarse mientras se recorre.
+     * @return una vista de las entradas del diccionario.
+     */
+    public Iterable<EntradaDiccionario<K, V>> entradas() {
+        return () -> new IteradorCuckoo<EntradaDiccionario<K, V>>() {
+            @Override protected EntradaDiccionario<K, V> de(K llave,
+                                                            V valor) {
+                return new Entrada(llave, valor);
+            }
+        };
+    }
+
+    /**
+     * Aplica una acción a cada llave del diccionario junto con su valor. El
+     * diccionario no debe modificarse desde la acción.
+     * @param accion la acción a aplicar.
+     */
+    public void paraCada(BiConsumer<? super K, ? super V> accion) {
+        for (int i = 0; i < llaves.length; i++)
+            if (llaves[i] != null)
+                accion.accept(llaves[i], valores[i]);
+        if (desborde != null)
+            desborde.paraCada(accion);
+    }
+
+    /**
+     * Nos dice cuántas colisiones hay en el diccionario: cuántas entradas no
+     * están en la cubeta de su primer dispersor.
+     * @return cuántas colisiones hay en el diccionario.
+     */
+    public int colisiones() {
+        int c = enReserva + desbordadas();
+        for (int i = 0; i < capacidad; i++)
+            if (llaves[i] != null &&
+                (dispersiones1[i] & mascara) != i / RANURAS)
+                c++;
+        return c;
+    }
+
+    /**
+     * Nos dice el máximo número de colisiones para una misma cubeta: cuántas
+     * entradas, sin contar la primera, tienen a una misma cubeta como la de su
+     * primer dispersor.
+     * @return el máximo número de colisiones para una misma cubeta.
+     */
+    public int colisionMaxima() {
+        int[] c = new int[mascara + 1];
+        int m = 0;
+        for (int i = 0; i < llaves.length; i++)
+            if (llaves[i] != null)
+                m = Math.max(m, c[dispersiones1[i] & mascara]++);
+        if (desborde != null)
+            for (K k : desborde.vistaLlaves())
+                m = Math.max(m, c[dispersor1.dispersa(k) & mascara]++);
+        return m;
+    }
+
+    /**
+     * Nos dice la carga del diccionario: la proporción de ranuras ocupadas en
+     * las cubetas, sin contar la reserva ni el desborde.
+     * @return la carga del diccionario.
+     */
+    public double carga() {
+        double e = elementos - enReserva - desbordadas();
+        double c = capacidad;
+        return e / c;
+    }
+
+    /**
+     * Regresa el número de desplazamientos hechos al agregar llaves desde que
+     * se creó el diccionario, incluyendo los de las reconstrucciones.
+     * @return el número total de desplazamientos.
+     */
+    public long desplazamientos() {
+        return desplazamientos;
+    }
+
+    /**
+     * Regresa el número de desplazamientos del camino más largo que ha
+     * seguido una llave al agregarse.
+     * @return el número máximo de desplazamientos para una llave.
+     */
+    public int desplazamientoMaximo() {
+        return desplazamientoMaximo;
+    }
+
+    /**
+     * Regresa el número de veces que se ha reconstruido el diccionario, ya
+     * sea para crecer o para cambiar de dispersores.
+     * @return el número de reconstrucciones.
+     */
+    public int reconstrucciones() {
+        return reconstrucciones;
+    }
+
+    /**
+     * Regresa el número de entradas en la reserva.
+     * @return el número de entradas en la reserva.
+     */
+    public int enReserva() {
+        return enReserva;
+    }
+
+    /**
+     * Regresa el número de entradas en el desborde: las que no cupieron ni en
+     * sus cubetas ni en la reserva después de cambiar de dispersores.
+     * @return el número de entradas en el desborde.
+     */
+    public int desbordadas() {
+        return desborde == null ? 0 : desborde.getElementos();
+    }
+
+    /**
+     * Regresa el número de entradas en el diccionario.
+     * @return el número de entradas en el diccionario.
+     */
+    public int getElementos() {
+        return elementos;
+    }
+
+    /**
+     * Nos dice si el diccionario es vacío.
+     * @return <code>true</code> si el diccionario es vacío, <code>false</code>
+     *         en otro caso.
+     */
+    public boolean esVacio() {
+        return elementos == 0;
+    }
+
+    /**
+     * Nos dice si el diccionario es igual al objeto recibido.
+     * @param o el objeto que queremos saber si es igual al diccionario.
+     * @return <code>true</code> si el objeto recibido es instancia de
+     *         DiccionarioCuckoo, y tiene las mismas llaves asociadas a los
+     *         mismos valores.
+     */
+    @Override public boolean equals(Object o) {
+        if (!(o instanceof DiccionarioCuckoo))
+            return false;
+        @SuppressWarnings("unchecked") DiccionarioCuckoo<K, V> d =
+            (DiccionarioCuckoo<K, V>)o;
+        if (d.elementos != elementos)
+            return false;
+        for (EntradaDiccionario<K, V> e : entradas()) {
+            V v = d.valorDe(e.getLlave());
+            if (v == null || !v.equals(e.getValor()))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Regresa un iterador para iterar los valores del diccionario. El
+     * diccionario se itera sin ningún orden específico.
+     * @return un iterador para iterar el diccionario.
+     */
+    @Override public Iterator<V> iterator() {
+        return new IteradorCuckoo<V>() {
+            @Override protected V de(K llave, V valor) {
+                return valor;
+            }
+        };
+    }
+
+    /* Crea arreglos vacíos para n cubetas y la reserva. */
+    private void inicializa(int n) {
+        capacidad = n * RANURAS;
+        mascara = n - 1;
+        llaves = nuevoArreglo(capacidad + TAM_RESERVA);
+        valores = nuevoArreglo(capacidad + TAM_RESERVA);
+        dispersiones1 = new int[capacidad + TAM_RESERVA];
+        dispersiones2 = new int[capacidad + TAM_RESERVA];
+        enReserva = 0;
+    }
+
+    /* Obtiene dos dispersores nuevos de la familia. */
+    private void nuevasDispersiones() {
+        semilla += AUREA;
+        dispersor1 = familia.apply(semilla);
+        dispersor2 = familia.apply(Long.rotateLeft(semilla, 32) ^ AUREA);
+    }
+
+    /* Regresa el valor de la llave, buscándola también en el desborde, o null
+       si no está. */
+    private V valorDe(K llave) {
+        int r = busca(llave);
+        if (r != -1)
+            return valores[r];
+        if (desbordadas() == 0)
+            return null;
+        return desborde.getOPredeterminado(llave, null);
+    }
+
+    /* Regresa la ranura de la llave, o -1 si no está en las cubetas ni en la
+       reserva. */
+    private int busca(K llave) {
+        int d = dispersor1.dispersa(llave);
+        int r = buscaEnCubeta(llave, d, dispersiones1, (d & mascara) * RANURAS);
+        if (r != -1)
+            return r;
+        d = dispersor2.dispersa(llave);
+        r = buscaEnCubeta(llave, d, dispersiones2, (d & mascara) * RANURAS);
+        if (r != -1 || enReserva == 0)
+            return r;
+        for (int i = capacidad; i < llaves.length; i++)
+            if (llaves[i] != null && llaves[i].equals(llave))
+                return i;
+        return -1;
+    }
+
+    /* Busca la llave en la cubeta que empieza en la ranura c. */
+    private int buscaEnCubeta(K llave, int d, int[] dispersiones, int c) {
+        for (int i = c; i < c + RANURAS; i++)
+            if (llaves[i] != null && dispersiones[i] == d &&
+                llaves[i].equals(llave))
+                return i;
+        return -1;
+    }
+
+    /* Regresa una ranura vacía en la cubeta que empieza en c, o -1. */
+    private int vaciaEnCubeta(int c) {
+        for (int i = c; i < c + RANURAS; i++)
+            if (llaves[i] == null)
+                return i;
+        return -1;
+    }
+
+    /* Pone la entrada en la ranura. */
+    private void pon(int r, K llave, V valor, int d1, int d2) {
+        llaves[r] = llave;
+        valores[r] = valor;
+        dispersiones1[r] = d1;
+        dispersiones2[r] = d2;
+    }
+
+    /* Vacía la ranura. */
+    private void vacia(int r) {
+        llaves[r] = null;
+        valores[r] = null;
+    }
+
+    /* Regresa un número pseudoaleatorio (xorshift). */
+    private int azar() {
+        azar ^= azar << 13;
+        azar ^= azar >>> 7;
+        azar ^= azar << 17;
+        return (int)(azar >>> 32);
+    }
+
+    /* Acomoda una llave que no está en el diccionario, desplazando entradas si
+       es necesario. Si no lo logra, guarda en sinLugarLlave y sinLugarValor
+       la entrada que se quedó sin lugar (que puede no ser la recibida) y
+       regresa false. */
+    private boolean inserta(K llave, V valor) {
+        int d1 = dispersor1.dispersa(llave);
+        int d2 = dispersor2.dispersa(llave);
+        int c1 = (d1 & mascara) * RANURAS;
+        int c2 = (d2 & mascara) * RANURAS;
+        int r = vaciaEnCubeta(c1);
+        if (r == -1)
+            r = vaciaEnCubeta(c2);
+        if (r != -1) {
+            pon(r, llave, valor, d1, d2);
+            return true;
+        }
+        int c = (azar() & 1) == 0 ? c1 : c2;
+        for (int n = 1; n <= MAX_DESPLAZAMIENTOS; n++) {
+            r = c + (azar() & (RANURAS - 1));
+            K k = llaves[r];
+            V v = valores[r];
+            int e1 = dispersiones1[r];
+            int e2 = dispersiones2[r];
+            pon(r, llave, valor, d1, d2);
+            llave = k;
+            valor = v;
+            d1 = e1;
+            d2 = e2;
+            desplazamientos++;
+            if (n > desplazamientoMaximo)
+                desplazamientoMaximo = n;
+            c1 = (d1 & mascara) * RANURAS;
+            c = c1 == c ? (d2 & mascara) * RANURAS : c1;
+            r = vaciaEnCubeta(c);
+            if (r != -1) {
+                pon(r, llave, valor, d1, d2);
+                return true;
+            }
+        }
+        for (int i = capacidad; i < llaves.length; i++) {
+            if (llaves[i] == null) {
+                pon(i, llave, valor, d1, d2);
+                enReserva++;
+                return true;
+            }
+        }
+        sinLugarLlave = llave;
+        sinLugarValor = valor;
+        return false;
+    }
+
+    /* Trata de regresar las entradas de la reserva a las cubetas. */
+    private void vaciaReserva() {
+        for (int i = capacidad; i < llaves.length; i++) {
+            if (llaves[i] == null)
+                continue;
+            int r = vaciaEnCubeta((dispersiones1[i] & mascara) * RANURAS);
+            if (r == -1)
+                r = vaciaEnCubeta((dispersiones2[i] & mascara) * RANURAS);
+            if (r == -1)
+                continue;
+            pon(r, llaves[i], valores[i], dispersiones1[i], dispersiones2[i]);
+            vacia(i);
+            enReserva--;
+        }
+    }
+
+    /* Agrega al desborde una entrada que no está en el diccionario. */
+    private void desborda(K llave, V valor) {
+        if (desborde == null)
+            desborde = new Diccionario<K, V>(familia.apply(semilla));
+        desborde.agrega(llave, valor);
+    }
+
+    /* Reconstruye el diccionario con n cubetas y dispersores nuevos,
+       incluyendo la entrada que se quedó sin lugar y las del desborde. Si no
+       se pueden acomodar todas las entradas, lo intenta de nuevo con otros
+       dispersores; en el último intento las que no caben se quedan en el
+       desborde. Ni las cubetas ni la reserva crecen aquí: si las llaves
+       comparten dispersión, crecerlas no las separa. */
+    private void reconstruye(int n) {
+        K[] ll = llaves;
+        V[] vs = valores;
+        Diccionario<K, V> desbordadas = desborde;
+        K pendienteLlave = sinLugarLlave;
+        V pendienteValor = sinLugarValor;
+        sinLugarLlave = null;
+        sinLugarValor = null;
+        for (int intento = 1; ; intento++) {
+            boolean ultimo = intento == MAX_INTENTOS;
+            reconstrucciones++;
+            nuevasDispersiones();
+            inicializa(n);
+            desborde = null;
+            boolean acomodadas = acomoda(pendienteLlave, pendienteValor,
+                                         ultimo);
+            for (int i = 0; acomodadas && i < ll.length; i++)
+                if (ll[i] != null)
+                    acomodadas = acomoda(ll[i], vs[i], ultimo);
+            if (desbordadas != null) {
+                Iterator<EntradaDiccionario<K, V>> it =
+                    desbordadas.entradas().iterator();
+                while (acomodadas && it.hasNext()) {
+                    EntradaDiccionario<K, V> e = it.next();
+                    acomodadas = acomoda(e.getLlave(), e.getValor(), ultimo);
+                }
+            }
+            if (acomodadas)
+                return;
+        }
+    }
+
+    /* Acomoda una entrada al reconstruir. Si no cabe y se puede desbordar,
+       manda al desborde la entrada que se quedó sin lugar. */
+    private boolean acomoda(K llave, V valor, boolean desbordar) {
+        if (inserta(llave, valor))
+            return true;
+        if (!desbordar)
+            return false;
+        desborda(sinLugarLlave, sinLugarValor);
+        return true;
+    }
+}
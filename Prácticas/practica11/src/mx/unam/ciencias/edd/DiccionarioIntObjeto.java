@@ -0,0 +1,407 @@
+package mx.unam.ciencias.edd;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.BiFunction;
+import java.util.function.IntFunction;
+
+/**
+ * <p>Clase para diccionarios con llaves de tipo <code>int</code>. Tiene las
+ * mismas operaciones que {@link Diccionario}, pero las llaves se guardan
+ * directamente en un arreglo de enteros y los valores en un arreglo paralelo,
+ * así que no hay que envolver las llaves en objetos ni crear entradas.</p>
+ *
+ * <p>Las colisiones se resuelven con direccionamiento abierto y sondeo
+ * lineal; al eliminar, las entradas siguientes se recorren hacia atrás para
+ * no dejar huecos. La llave se mezcla con el finalizador de MurmurHash3 (ver
+ * {@link DiccionarioIntInt#dispersa}) antes de aplicarle la máscara.</p>
+ */
+public class DiccionarioIntObjeto<V> implements Iterable<V> {
+
+    /** Máxima carga permitida por el diccionario. */
+    public static final double MAXIMA_CARGA = 0.72;
+
+    /* Clase privada para iteradores de diccionarios. */
+    private class Iterador implements Iterator<V> {
+
+        /* El índice del siguiente elemento. */
+        private int indice;
+
+        /* Construye un nuevo iterador. */
+        public Iterador() {
+            indice = siguienteOcupado(0);
+        }
+
+        /* Nos dice si hay un siguiente elemento. */
+        @Override public boolean hasNext() {
+            return indice < valores.length;
+        }
+
+        /* Regresa el siguiente elemento. */
+        @Override public V next() {
+            if (indice >= valores.length)
+                throw new NoSuchElementException("No hay siguiente.");
+            V v = valores[indice];
+            indice = siguienteOcupado(indice + 1);
+            return v;
+        }
+
+        /* No lo implementamos: siempre lanza una excepción. */
+        @Override public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /* Tamaño mínimo; decidido arbitrariamente a 2^6. */
+    private static final int MIN_N = 64;
+
+    /* Máscara para no usar módulo. */
+    private int mascara;
+    /* Las llaves. */
+    private int[] llaves;
+    /* Los valores, en el mismo índice que su llave; null indica una casilla
+       vacía. */
+    private V[] valores;
+    /* Número de valores. */
+    private int elementos;
+
+    /* Truco para crear un arreglo genérico. */
+    @SuppressWarnings("unchecked") private V[] nuevoArreglo(int n) {
+        Object[] arreglo = new Object[n];
+        return (V[])arreglo;
+    }
+
+    /**
+     * Construye un diccionario con un tamaño inicial predeterminado.
+     */
+    public DiccionarioIntObjeto() {
+        this(MIN_N);
+    }
+
+    /**
+     * Construye un diccionario con un tamaño inicial definido por el usuario.
+     * @param tam el tamaño a utilizar.
+     */
+    public DiccionarioIntObjeto(int tam) {
+        inicializa(longitud(tam));
+    }
+
+    /**
+     * Agrega un nuevo valor al diccionario, usando la llave proporcionada. Si
+     * la llave ya había sido utilizada antes para agregar un valor, el
+     * diccionario reemplaza ese valor con el recibido aquí.
+     * @param llave la llave para agregar el valor.
+     * @param valor el valor a agregar.
+     * @throws IllegalArgumentException si el valor es nulo.
+     */
+    public void agrega(int llave, V valor) {
+        if (valor == null)
+            throw new IllegalArgumentException();
+        int i = busca(llave);
+        if (valores[i] != null) {
+            valores[i] = valor;
+            return;
+        }
+        coloca(i, llave, valor);
+    }
+
+    /**
+     * Regresa el valor del diccionario asociado a la llave proporcionada.
+     * @param llave la llave para buscar el valor.
+     * @return el valor correspondiente a la llave.
+     * @throws NoSuchElementException si la llave no está en el diccionario.
+     */
+    public V get(int llave) {
+        V v = valores[busca(llave)];
+        if (v == null)
+            throw new NoSuchElementException("La llave no está en el diccionario.");
+        return v;
+    }
+
+    /**
+     * Regresa el valor asociado a la llave proporcionada, o el valor
+     * predeterminado si la llave no está en el diccionario.
+     * @param llave la llave para buscar el valor.
+     * @param predeterminado el valor a regresar si la llave no está.
+     * @return el valor correspondiente a la llave, o el predeterminado.
+     */
+    public V getOPredeterminado(int llave, V predeterminado) {
+        V v = valores[busca(llave)];
+        return v == null ? predeterminado : v;
+    }
+
+    /**
+     * Regresa el valor asociado a la llave proporcionada; si la llave no está
+     * en el diccionario, calcula su valor con la función recibida y lo agrega.
+     * La llave se busca una sola vez.
+     * @param llave la llave para buscar el valor.
+     * @param funcion la función para calcular el valor a partir de la llave.
+     * @return el valor asociado a la llave después de la operación, o
+     *         <code>null</code> si la función regresó <code>null</code>.
+     */
+    public V calculaSiAusente(int llave, IntFunction<? extends V> funcion) {
+        int i = busca(llave);
+        if (valores[i] != null)
+            return valores[i];
+        V valor = funcion.apply(llave);
+        if (valor != null)
+            coloca(i, llave, valor);
+        return valor;
+    }
+
+    /**
+     * Mezcla un valor con el asociado a la llave. Si la llave no está en el
+     * diccionario, se le asocia el valor recibido; si está, se le asocia el
+     * resultado de aplicar la función al valor actual y al recibido, y si
+     * ese resultado es <code>null</code> la llave se elimina. La llave se
+     * busca una sola vez.
+     * @param llave la llave del valor a mezclar.
+     * @param valor el valor a mezclar.
+     * @param funcion la función que mezcla el valor actual con el recibido.
+     * @return el nuevo valor asociado a la llave, o <code>null</code> si la
+     *         llave se eliminó.
+     * @throws IllegalArgumentException si el valor es nulo.
+     */
+    public V mezcla(int llave, V valor,
+                    BiFunction<? super V, ? super V, ? extends V> funcion) {
+        if (valor == null)
+            throw new IllegalArgumentException();
+        int i = busca(llave);
+        if (valores[i] == null) {
+            coloca(i, llave, valor);
+            return valor;
+        }
+        V nuevo = funcion.apply(valores[i], valor);
+        if (nuevo != null) {
+            valores[i] = nuevo;
+        } else {
+            recorre(i);
+            elementos--;
+        }
+        return nuevo;
+    }
+
+    /**
+     * Nos dice si una llave se encuentra en el diccionario.
+     * @param llave la llave que queremos ver si está en el diccionario.
+     * @return <tt>true</tt> si la llave está en el diccionario,
+     *         <tt>false</tt> en otro caso.
+     */
+    public boolean contiene(int llave) {
+        return valores[busca(llave)] != null;
+    }
+
+    /**
+     * Elimina el valor del diccionario asociado a la llave proporcionada.
+     * @param llave la llave para buscar el valor a eliminar.
+     * @throws NoSuchElementException si la llave no se encuentra en
+     *         el diccionario.
+     */
+    public void elimina(int llave) {
+        int i = busca(llave);
+        if (valores[i] == null)
+            throw new NoSuchElementException("La llave no se encuentra.");
+        recorre(i);
+        elementos--;
+    }
+
+    /**
+     * Regresa un arreglo con todas las llaves con valores asociados en el
+     * diccionario. El arreglo no tiene ningún tipo de orden.
+     * @return un arreglo con todas las llaves.
+     */
+    public int[] llaves() {
+        int[] r = new int[elementos];
+        int k = 0;
+        for (int i = 0; i < valores.length; i++)
+            if (valores[i] != null)
+                r[k++] = llaves[i];
+        return r;
+    }
+
+    /**
+     * Regresa una lista con todos los valores en el diccionario, en el mismo
+     * orden que las llaves de {@link #llaves}.
+     * @return una lista con todos los valores.
+     */
+    public Lista<V> valores() {
+        Lista<V> l = new Lista<V>();
+        for (int i = 0; i < valores.length; i++)
+            if (valores[i] != null)
+                l.agrega(valores[i]);
+        return l;
+    }
+
+    /**
+     * Nos dice cuántas colisiones hay en el diccionario; es decir, cuántas
+     * llaves comparten su índice inicial con otra llave.
+     * @return cuántas colisiones hay en el diccionario.
+     */
+    public int colisiones() {
+        int c = 0;
+        for (int n : cuentaIniciales())
+            if (n > 1)
+                c += n - 1;
+        return c;
+    }
+
+    /**
+     * Nos dice el máximo número de colisiones para una misma llave que tenemos
+     * en el diccionario.
+     * @return el máximo número de colisiones para una misma llave.
+     */
+    public int colisionMaxima() {
+        int c = 0;
+        for (int n : cuentaIniciales())
+            if (n - 1 > c)
+                c = n - 1;
+        return c;
+    }
+
+    /**
+     * Nos dice la carga del diccionario.
+     * @return la carga del diccionario.
+     */
+    public double carga() {
+        double e = elementos;
+        double l = valores.length;
+        return e / l;
+    }
+
+    /**
+     * Regresa el número de entradas en el diccionario.
+     * @return el número de entradas en el diccionario.
+     */
+    public int getElementos() {
+        return elementos;
+    }
+
+    /**
+     * Nos dice si el diccionario es vacío.
+     * @return <code>true</code> si el diccionario es vacío, <code>false</code>
+     *         en otro caso.
+     */
+    public boolean esVacio() {
+        return elementos == 0;
+    }
+
+    /**
+     * Nos dice si el diccionario es igual al objeto recibido.
+     * @param o el objeto que queremos saber si es igual al diccionario.
+     * @return <code>true</code> si el objeto recibido es instancia de
+     *         DiccionarioIntObjeto, y tiene las mismas llaves asociadas a los
+     *         mismos valores.
+     */
+    @Override public boolean equals(Object o) {
+        if (!(o instanceof DiccionarioIntObjeto))
+            return false;
+        @SuppressWarnings("unchecked") DiccionarioIntObjeto<V> d =
+            (DiccionarioIntObjeto<V>)o;
+        if (d.elementos != elementos)
+            return false;
+        for (int i = 0; i < valores.length; i++) {
+            if (valores[i] == null)
+                continue;
+            V v = d.valores[d.busca(llaves[i])];
+            if (v == null || !v.equals(valores[i]))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Regresa un iterador para iterar los valores del diccionario. El
+     * diccionario se itera sin ningún orden específico.
+     * @return un iterador para iterar el diccionario.
+     */
+    @Override public Iterator<V> iterator() {
+        return new Iterador();
+    }
+
+    /* Crea los arreglos vacíos con la longitud recibida. */
+    private void inicializa(int l) {
+        llaves = new int[l];
+        valores = nuevoArreglo(l);
+        mascara = l - 1;
+    }
+
+    /* Regresa el tamaño del arreglo en una potencia de 2. */
+    private int longitud(int n) {
+        int r = 1;
+        while (r < n)
+            r <<= 1;
+        return (r << 1 < MIN_N) ? MIN_N : r << 1;
+    }
+
+    /* Nos dice si el diccionario está en su carga máxima. */
+    private boolean estaCargado() {
+        return carga() >= MAXIMA_CARGA;
+    }
+
+    /* Regresa el índice de la llave, o el de la casilla vacía donde debería
+       ir. */
+    private int busca(int llave) {
+        int i = DiccionarioIntInt.dispersa(llave) & mascara;
+        while (valores[i] != null && llaves[i] != llave)
+            i = (i + 1) & mascara;
+        return i;
+    }
+
+    /* Coloca una entrada nueva en la casilla vacía i. */
+    private void coloca(int i, int llave, V valor) {
+        llaves[i] = llave;
+        valores[i] = valor;
+        elementos++;
+        if (estaCargado())
+            creceArreglo();
+    }
+
+    /* Vacía la casilla i, recorriendo hacia atrás las entradas siguientes que
+       ya no serían alcanzables desde su índice inicial. */
+    private void recorre(int i) {
+        int j = i;
+        while (true) {
+            j = (j + 1) & mascara;
+            if (valores[j] == null)
+                break;
+            int k = DiccionarioIntInt.dispersa(llaves[j]) & mascara;
+            if (((j - k) & mascara) < ((j - i) & mascara))
+                continue;
+            llaves[i] = llaves[j];
+            valores[i] = valores[j];
+            i = j;
+        }
+        llaves[i] = 0;
+        valores[i] = null;
+    }
+
+    /* Duplica los arreglos y vuelve a colocar todas las entradas. */
+    private void creceArreglo() {
+        int[] ll = llaves;
+        V[] vs = valores;
+        inicializa(longitud(ll.length));
+        for (int i = 0; i < ll.length; i++)
+            if (vs[i] != null) {
+                int j = busca(ll[i]);
+                llaves[j] = ll[i];
+                valores[j] = vs[i];
+            }
+    }
+
+    /* Regresa el índice de la primera casilla ocupada a partir de i, o la
+       longitud del arreglo si no hay. */
+    private int siguienteOcupado(int i) {
+        while (i < valores.length && valores[i] == null)
+            i++;
+        return i;
+    }
+
+    /* Cuenta cuántas llaves tiene cada índice inicial. */
+    private int[] cuentaIniciales() {
+        int[] c = new int[valores.length];
+        for (int i = 0; i < valores.length; i++)
+            if (valores[i] != null)
+                c[DiccionarioIntInt.dispersa(llaves[i]) & mascara]++;
+        return c;
+    }
+}
@@ -0,0 +1,373 @@
+package mx.unam.ciencias.edd;
+
+import java.util.NoSuchElementException;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * <p>Clase para diccionarios con llaves y valores de tipo <code>long</code>.
+ * Tiene las mismas operaciones que {@link Diccionario}, pero las llaves y los
+ * valores se guardan directamente en dos arreglos de enteros largos, así que
+ * no hay que envolverlos en objetos ni crear entradas.</p>
+ *
+ * <p>Las colisiones se resuelven con direccionamiento abierto y sondeo
+ * lineal; al eliminar, las entradas siguientes se recorren hacia atrás para
+ * no dejar huecos. Como el índice se obtiene con una máscara, la llave se
+ * mezcla antes con el finalizador de MurmurHash3, para que todos sus bits
+ * influyan en los bits bajos.</p>
+ */
+public class DiccionarioLongLong {
+
+    /** Máxima carga permitida por el diccionario. */
+    public static final double MAXIMA_CARGA = 0.72;
+
+    /* Tamaño mínimo; decidido arbitrariamente a 2^6. */
+    private static final int MIN_N = 64;
+
+    /* Máscara para no usar módulo. */
+    private int mascara;
+    /* Las llaves; el 0 indica una casilla vacía. */
+    private long[] llaves;
+    /* Los valores, en el mismo índice que su llave. */
+    private long[] valores;
+    /* Si la llave 0 está en el diccionario; la guardamos aparte. */
+    private boolean hayCero;
+    /* El valor asociado a la llave 0. */
+    private long valorCero;
+    /* Número de valores. */
+    private int elementos;
+
+    /**
+     * Construye un diccionario con un tamaño inicial predeterminado.
+     */
+    public DiccionarioLongLong() {
+        this(MIN_N);
+    }
+
+    /**
+     * Construye un diccionario con un tamaño inicial definido por el usuario.
+     * @param tam el tamaño a utilizar.
+     */
+    public DiccionarioLongLong(int tam) {
+        inicializa(longitud(tam));
+    }
+
+    /**
+     * Agrega un nuevo valor al diccionario, usando la llave proporcionada. Si
+     * la llave ya había sido utilizada antes para agregar un valor, el
+     * diccionario reemplaza ese valor con el recibido aquí.
+     * @param llave la llave para agregar el valor.
+     * @param valor el valor a agregar.
+     */
+    public void agrega(long llave, long valor) {
+        if (llave == 0) {
+            if (!hayCero)
+                elementos++;
+            hayCero = true;
+            valorCero = valor;
+            return;
+        }
+        int i = busca(llave);
+        if (llaves[i] == llave) {
+            valores[i] = valor;
+            return;
+        }
+        llaves[i] = llave;
+        valores[i] = valor;
+        elementos++;
+        if (estaCargado())
+            creceArreglo();
+    }
+
+    /**
+     * Regresa el valor del diccionario asociado a la llave proporcionada.
+     * @param llave la llave para buscar el valor.
+     * @return el valor correspondiente a la llave.
+     * @throws NoSuchElementException si la llave no está en el diccionario.
+     */
+    public long get(long llave) {
+        if (llave == 0) {
+            if (!hayCero)
+                throw new NoSuchElementException("La llave no está en el diccionario.");
+            return valorCero;
+        }
+        int i = busca(llave);
+        if (llaves[i] != llave)
+            throw new NoSuchElementException("La llave no está en el diccionario.");
+        return valores[i];
+    }
+
+    /**
+     * Regresa el valor asociado a la llave proporcionada, o el valor
+     * predeterminado si la llave no está en el diccionario.
+     * @param llave la llave para buscar el valor.
+     * @param predeterminado el valor a regresar si la llave no está.
+     * @return el valor correspondiente a la llave, o el predeterminado.
+     */
+    public long getOPredeterminado(long llave, long predeterminado) {
+        if (llave == 0)
+            return hayCero ? valorCero : predeterminado;
+        int i = busca(llave);
+        return llaves[i] == llave ? valores[i] : predeterminado;
+    }
+
+    /**
+     * Mezcla un valor con el asociado a la llave. Si la llave no está en el
+     * diccionario, se le asocia el valor recibido; si está, se le asocia el
+     * resultado de aplicar la función al valor actual y al recibido. La
+     * llave se busca una sola vez.
+     * @param llave la llave del valor a mezclar.
+     * @param valor el valor a mezclar.
+     * @param funcion la función que mezcla el valor actual con el recibido.
+     * @return el nuevo valor asociado a la llave.
+     */
+    public long mezcla(long llave, long valor, LongBinaryOperator funcion) {
+        if (llave == 0) {
+            valorCero = hayCero ? funcion.applyAsLong(valorCero, valor) : valor;
+            if (!hayCero)
+                elementos++;
+            hayCero = true;
+            return valorCero;
+        }
+        int i = busca(llave);
+        if (llaves[i] == llave)
+            return valores[i] = funcion.applyAsLong(valores[i], valor);
+        llaves[i] = llave;
+        valores[i] = valor;
+        elementos++;
+        if (estaCargado())
+            creceArreglo();
+        return valor;
+    }
+
+    /**
+     * Nos dice si una llave se encuentra en el diccionario.
+     * @param llave la llave que queremos ver si está en el diccionario.
+     * @return <tt>true</tt> si la llave está en el diccionario,
+     *         <tt>false</tt> en otro caso.
+     */
+    public boolean contiene(long llave) {
+        if (llave == 0)
+            return hayCero;
+        return llaves[busca(llave)] == llave;
+    }
+
+    /**
+     * Elimina el valor del diccionario asociado a la llave proporcionada.
+     * @param llave la llave para buscar el valor a eliminar.
+     * @throws NoSuchElementException si la llave no se encuentra en
+     *         el diccionario.
+     */
+    public void elimina(long llave) {
+        if (llave == 0) {
+            if (!hayCero)
+                throw new NoSuchElementException("La llave no se encuentra.");
+            hayCero = false;
+            elementos--;
+            return;
+        }
+        int i = busca(llave);
+        if (llaves[i] != llave)
+            throw new NoSuchElementException("La llave no se encuentra.");
+        recorre(i);
+        elementos--;
+    }
+
+    /**
+     * Regresa un arreglo con todas las llaves con valores asociados en el
+     * diccionario. El arreglo no tiene ningún tipo de orden.
+     * @return un arreglo con todas las llaves.
+     */
+    public long[] llaves() {
+        long[] r = new long[elementos];
+        int k = 0;
+        if (hayCero)
+            r[k++] = 0;
+        for (int i = 0; i < llaves.length; i++)
+            if (llaves[i] != 0)
+                r[k++] = llaves[i];
+        return r;
+    }
+
+    /**
+     * Regresa un arreglo con todos los valores en el diccionario, en el mismo
+     * orden que las llaves de {@link #llaves}.
+     * @return un arreglo con todos los valores.
+     */
+    public long[] valores() {
+        long[] r = new long[elementos];
+        int k = 0;
+        if (hayCero)
+            r[k++] = valorCero;
+        for (int i = 0; i < llaves.length; i++)
+            if (llaves[i] != 0)
+                r[k++] = valores[i];
+        return r;
+    }
+
+    /**
+     * Nos dice cuántas colisiones hay en el diccionario; es decir, cuántas
+     * llaves comparten su índice inicial con otra llave.
+     * @return cuántas colisiones hay en el diccionario.
+     */
+    public int colisiones() {
+        int c = 0;
+        for (int n : cuentaIniciales())
+            if (n > 1)
+                c += n - 1;
+        return c;
+    }
+
+    /**
+     * Nos dice el máximo número de colisiones para una misma llave que tenemos
+     * en el diccionario.
+     * @return el máximo número de colisiones para una misma llave.
+     */
+    public int colisionMaxima() {
+        int c = 0;
+        for (int n : cuentaIniciales())
+            if (n - 1 > c)
+                c = n - 1;
+        return c;
+    }
+
+    /**
+     * Nos dice la carga del diccionario.
+     * @return la carga del diccionario.
+     */
+    public double carga() {
+        double e = elementos;
+        double l = llaves.length;
+        return e / l;
+    }
+
+    /**
+     * Regresa el número de entradas en el diccionario.
+     * @return el número de entradas en el diccionario.
+     */
+    public int getElementos() {
+        return elementos;
+    }
+
+    /**
+     * Nos dice si el diccionario es vacío.
+     * @return <code>true</code> si el diccionario es vacío, <code>false</code>
+     *         en otro caso.
+     */
+    public boolean esVacio() {
+        return elementos == 0;
+    }
+
+    /**
+     * Nos dice si el diccionario es igual al objeto recibido.
+     * @param o el objeto que queremos saber si es igual al diccionario.
+     * @return <code>true</code> si el objeto recibido es instancia de
+     *         DiccionarioLongLong, y tiene las mismas llaves asociadas a los
+     *         mismos valores.
+     */
+    @Override public boolean equals(Object o) {
+        if (!(o instanceof DiccionarioLongLong))
+            return false;
+        DiccionarioLongLong d = (DiccionarioLongLong)o;
+        if (d.elementos != elementos || d.hayCero != hayCero)
+            return false;
+        if (hayCero && d.valorCero != valorCero)
+            return false;
+        for (int i = 0; i < llaves.length; i++) {
+            if (llaves[i] == 0)
+                continue;
+            int j = d.busca(llaves[i]);
+            if (d.llaves[j] != llaves[i] || d.valores[j] != valores[i])
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Mezcla los bits de un entero largo con el finalizador de 64 bits de
+     * MurmurHash3, y regresa los 32 bits bajos del resultado.
+     * @param x el entero largo a mezclar.
+     * @return el resultado de mezclar el entero largo.
+     */
+    public static int dispersa(long x) {
+        x ^= x >>> 33;
+        x *= 0xff51afd7ed558ccdL;
+        x ^= x >>> 33;
+        x *= 0xc4ceb9fe1a85ec53L;
+        x ^= x >>> 33;
+        return (int)x;
+    }
+
+    /* Crea los arreglos vacíos con la longitud recibida. */
+    private void inicializa(int l) {
+        llaves = new long[l];
+        valores = new long[l];
+        mascara = l - 1;
+    }
+
+    /* Regresa el tamaño del arreglo en una potencia de 2. */
+    private int longitud(int n) {
+        int r = 1;
+        while (r < n)
+            r <<= 1;
+        return (r << 1 < MIN_N) ? MIN_N : r << 1;
+    }
+
+    /* Nos dice si el diccionario está en su carga máxima. */
+    private boolean estaCargado() {
+        return carga() >= MAXIMA_CARGA;
+    }
+
+    /* Regresa el índice de la llave (distinta de 0), o el de la casilla vacía
+       donde debería ir. */
+    private int busca(long llave) {
+        int i = dispersa(llave) & mascara;
+        while (llaves[i] != 0 && llaves[i] != llave)
+            i = (i + 1) & mascara;
+        return i;
+    }
+
+    /* Vacía la casilla i, recorriendo hacia atrás las entradas siguientes que
+       ya no serían alcanzables desde su índice inicial. */
+    private void recorre(int i) {
+        int j = i;
+        while (true) {
+            j = (j + 1) & mascara;
+            if (llaves[j] == 0)
+                break;
+            int k = dispersa(llaves[j]) & mascara;
+            /* La entrada en j se queda si su índice inicial está entre i
+               (exclusivo) y j (inclusivo), circularmente. */
+            if (((j - k) & mascara) < ((j - i) & mascara))
+                continue;
+            llaves[i] = llaves[j];
+            valores[i] = valores[j];
+            i = j;
+        }
+        llaves[i] = 0;
+        valores[i] = 0;
+    }
+
+    /* Duplica los arreglos y vuelve a colocar todas las entradas. */
+    private void creceArreglo() {
+        long[] ll = llaves;
+        long[] vs = valores;
+        inicializa(longitud(ll.length));
+        for (int i = 0; i < ll.length; i++)
+            if (ll[i] != 0) {
+                int j = busca(ll[i]);
+                llaves[j] = ll[i];
+                valores[j] = vs[i];
+            }
+    }
+
+    /* Cuenta cuántas llaves tiene cada índice inicial. */
+    private int[] cuentaIniciales() {
+        int[] c = new int[llaves.length];
+        for (int i = 0; i < llaves.length; i++)
+            if (llaves[i] != 0)
+                c[dispersa(llaves[i]) & mascara]++;
+        if (hayCero)
+            c[dispersa(0) & mascara]++;
+        return c;
+    }
+}
@@ -0,0 +1,487 @@
+package mx.unam.ciencias.edd;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+
+/**
+ * <p>Clase para diccionarios que recuerdan el orden en que se agregaron sus
+ * llaves. Tiene las mismas operaciones que {@link Diccionario}, pero al
+ * iterarlo las entradas salen siempre en el orden en que se agregaron (volver
+ * a agregar una llave que ya está no cambia su lugar).</p>
+ *
+ * <p>Las entradas se guardan juntas, en orden de inserción, en arreglos
+ * densos; aparte hay un índice con direccionamiento abierto que a cada llave le
+ * asocia su posición en esos arreglos. Así, recorrer el diccionario es recorrer
+ * un arreglo sin huecos, en lugar de saltar las listas vacías de una tabla
+ * dispersa. Al eliminar, la posición de la entrada se queda vacía; cuando las
+ * posiciones vacías son demasiadas, los arreglos se compactan.</p>
+ */
+public class DiccionarioOrdenadoPorInsercion<K, V> implements Iterable<V> {
+
+    /* Clase para ver una posición de los arreglos como entrada. */
+    private class Entrada implements EntradaDiccionario<K, V> {
+
+        /* La posición de la entrada. */
+        private int posicion;
+
+        /* Construye una entrada para la posición recibida. */
+        public Entrada(int posicion) {
+            this.posicion = posicion;
+        }
+
+        /* Regresa la llave. */
+        @Override public K getLlave() {
+            return llaves[posicion];
+        }
+
+        /* Regresa el valor. */
+        @Override public V getValor() {
+            return valores[posicion];
+        }
+    }
+
+    /* Clase privada para iteradores de diccionarios ordenados; las subclases
+       deciden qué regresar de cada posición. */
+    private abstract class IteradorOrdenado<T> implements Iterator<T> {
+
+        /* La siguiente posición ocupada. */
+        private int siguiente;
+
+        /* Construye un nuevo iterador. */
+        public IteradorOrdenado() {
+            siguiente = -1;
+            avanza();
+        }
+
+        /* Regresa lo que el iterador regresa de la posición. */
+        protected abstract T de(int posicion);
+
+        /* Nos dice si hay un siguiente elemento. */
+        @Override public boolean hasNext() {
+            return siguiente < usadas;
+        }
+
+        /* Regresa el siguiente elemento. */
+        @Override public T next() {
+            if (siguiente >= usadas)
+                throw new NoSuchElementException("No hay siguiente.");
+            int p = siguiente;
+            avanza();
+            return de(p);
+        }
+
+        /* No lo implementamos: siempre lanza una excepción. */
+        @Override public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        /* Mueve el iterador a la siguiente posición ocupada. */
+        private void avanza() {
+            do {
+                siguiente++;
+            } while (siguiente < usadas && llaves[siguiente] == null);
+        }
+    }
+
+    /* Tamaño mínimo de los arreglos densos. */
+    private static final int MIN_N = 16;
+
+    /* Dispersor. */
+    private Dispersor<K> dispersor;
+    /* Las llaves, en orden de inserción; null en las posiciones vacías. */
+    private K[] llaves;
+    /* Los valores, en la misma posición que su llave. */
+    private V[] valores;
+    /* Las dispersiones de las llaves, en la misma posición. */
+    private int[] dispersiones;
+    /* Cuántas posiciones de los arreglos densos se han usado. */
+    private int usadas;
+    /* El índice: cada casilla tiene la posición de una llave más uno, o 0 si
+       está vacía. Su longitud es el doble de la de los arreglos densos, así
+       que su carga nunca pasa de 1/2. */
+    private int[] indice;
+    /* Máscara para no usar módulo en el índice. */
+    private int mascara;
+    /* Número de valores. */
+    private int elementos;
+
+    /* Truco para crear un arreglo genérico. Es necesario hacerlo así por cómo
+       Java implementa sus genéricos; de otra forma obtenemos advertencias del
+       compilador. */
+    @SuppressWarnings("unchecked") private <T> T[] nuevoArreglo(int n) {
+        return (T[])new Object[n];
+    }
+
+    /**
+     * Construye un diccionario con un tamaño inicial y dispersor
+     * predeterminados.
+     */
+    public DiccionarioOrdenadoPorInsercion() {
+        this(MIN_N, (K o) -> o.hashCode());
+    }
+
+    /**
+     * Construye un diccionario con un tamaño inicial definido por el usuario, y
+     * un dispersor predeterminado.
+     * @param tam el tamaño a utilizar.
+     */
+    public DiccionarioOrdenadoPorInsercion(int tam) {
+        this(tam, (K o) -> o.hashCode());
+    }
+
+    /**
+     * Construye un diccionario con un tamaño inicial predeterminado, y un
+     * dispersor definido por el usuario.
+     * @param dispersor el dispersor a utilizar.
+     */
+    public DiccionarioOrdenadoPorInsercion(Dispersor<K> dispersor) {
+        this(MIN_N, dispersor);
+    }
+
+    /**
+     * Construye un diccionario con un tamaño inicial, y un método de dispersor
+     * definidos por el usuario.
+     * @param tam el tamaño del diccionario.
+     * @param dispersor el dispersor a utilizar.
+     */
+    public DiccionarioOrdenadoPorInsercion(int tam, Dispersor<K> dispersor) {
+        this.dispersor = dispersor;
+        int l = MIN_N;
+        while (l < tam)
+            l <<= 1;
+        inicializa(l);
+    }
+
+    /**
+     * Agrega un nuevo valor al diccionario, usando la llave proporcionada. Si
+     * la llave ya había sido utilizada antes para agregar un valor, el
+     * diccionario reemplaza ese valor con el recibido aquí, sin cambiar el
+     * lugar de la llave en el orden.
+     * @param llave la llave para agregar el valor.
+     * @param valor el valor a agregar.
+     * @throws IllegalArgumentException si la llave o el valor son nulos.
+     */
+    public void agrega(K llave, V valor) {
+        if (llave == null || valor == null)
+            throw new IllegalArgumentException();
+        int d = dispersor.dispersa(llave);
+        int c = busca(llave, d);
+        if (indice[c] != 0) {
+            valores[indice[c] - 1] = valor;
+            return;
+        }
+        if (usadas == llaves.length) {
+            creceArreglos();
+            c = busca(llave, d);
+        }
+        llaves[usadas] = llave;
+        valores[usadas] = valor;
+        dispersiones[usadas] = d;
+        indice[c] = ++usadas;
+        elementos++;
+    }
+
+    /**
+     * Regresa el valor del diccionario asociado a la llave proporcionada.
+     * @param llave la llave para buscar el valor.
+     * @return el valor correspondiente a la llave.
+     * @throws NoSuchElementException si la llave no está en el diccionario.
+     */
+    public V get(K llave) {
+        int p = indice[busca(llave, dispersor.dispersa(llave))];
+        if (p == 0)
+            throw new NoSuchElementException("La llave no está en el diccionario.");
+        return valores[p - 1];
+    }
+
+    /**
+     * Regresa el valor asociado a la llave proporcionada, o el valor
+     * predeterminado si la llave no está en el diccionario.
+     * @param llave la llave para buscar el valor.
+     * @param predeterminado el valor a regresar si la llave no está.
+     * @return el valor correspondiente a la llave, o el predeterminado.
+     */
+    public V getOPredeterminado(K llave, V predeterminado) {
+        int p = indice[busca(llave, dispersor.dispersa(llave))];
+        return p == 0 ? predeterminado : valores[p - 1];
+    }
+
+    /**
+     * Nos dice si una llave se encuentra en el diccionario.
+     * @param llave la llave que queremos ver si está en el diccionario.
+     * @return <tt>true</tt> si la llave está en el diccionario,
+     *         <tt>false</tt> en otro caso.
+     */
+    public boolean contiene(K llave) {
+        return indice[busca(llave, dispersor.dispersa(llave))] != 0;
+    }
+
+    /**
+     * Elimina el valor del diccionario asociado a la llave proporcionada.
+     * @param llave la llave para buscar el valor a eliminar.
+     * @throws NoSuchElementException si la llave no se encuentra en
+     *         el diccionario.
+     */
+    public void elimina(K llave) {
+        int c = busca(llave, dispersor.dispersa(llave));
+        if (indice[c] == 0)
+            throw new NoSuchElementException("La llave no se encuentra.");
+        int p = indice[c] - 1;
+        recorre(c);
+        llaves[p] = null;
+        valores[p] = null;
+        elementos--;
+        if (elementos == 0)
+            usadas = 0;
+        else if (usadas - elementos > usadas / 2)
+            compacta();
+    }
+
+    /**
+     * Regresa una lista con todas las llaves con valores asociados en el
+     * diccionario, en el orden en que se agregaron.
+     * @return una lista con todas las llaves.
+     */
+    public Lista<K> llaves() {
+        Lista<K> l = new Lista<K>();
+        for (int i = 0; i < usadas; i++)
+            if (llaves[i] != null)
+                l.agregaFinal(llaves[i]);
+        return l;
+    }
+
+    /**
+     * Regresa una lista con todos los valores en el diccionario, en el orden
+     * en que se agregaron sus llaves.
+     * @return una lista con todos los valores.
+     */
+    public Lista<V> valores() {
+        Lista<V> l = new Lista<V>();
+        for (int i = 0; i < usadas; i++)
+            if (llaves[i] != null)
+                l.agregaFinal(valores[i]);
+        return l;
+    }
+
+    /**
+     * Regresa una vista de las llaves del diccionario, en el orden en que se
+     * agregaron. La vista no copia nada; el diccionario no debe modificarse
+     * mientras se recorre.
+     * @return una vista de las llaves del diccionario.
+     */
+    public Iterable<K> vistaLlaves() {
+        return () -> new IteradorOrdenado<K>() {
+            @Override protected K de(int posicion) {
+                return llaves[posicion];
+            }
+        };
+    }
+
+    /**
+     * Regresa una vista de las entradas del diccionario, en el orden en que se
+     * agregaron. La vista no copia nada; el diccionario no debe modificarse
+     * mientras se recorre.
+     * @return una vista de las entradas del diccionario.
+     */
+    public Iterable<EntradaDiccionario<K, V>> entradas() {
+        return () -> new IteradorOrdenado<EntradaDiccionario<K, V>>() {
+            @Override protected EntradaDiccionario<K, V> de(int posicion) {
+                return new Entrada(posicion);
+            }
+        };
+    }
+
+    /**
+     * Aplica una acción a cada llave del diccionario junto con su valor, en el
+     * orden en que se agregaron. El diccionario no debe modificarse desde la
+     * acción.
+     * @param accion la acción a aplicar.
+     */
+    public void paraCada(BiConsumer<? super K, ? super V> accion) {
+        for (int i = 0; i < usadas; i++)
+            if (llaves[i] != null)
+                accion.accept(llaves[i], valores[i]);
+    }
+
+    /**
+     * Nos dice cuántas colisiones hay en el índice del diccionario; es decir,
+     * cuántas llaves comparten su casilla inicial con otra llave.
+     * @return cuántas colisiones hay en el diccionario.
+     */
+    public int colisiones() {
+        int c = 0;
+        for (int n : cuentaIniciales())
+            if (n > 1)
+                c += n - 1;
+        return c;
+    }
+
+    /**
+     * Nos dice el máximo número de colisiones para una misma llave que tenemos
+     * en el diccionario.
+     * @return el máximo número de colisiones para una misma llave.
+     */
+    public int colisionMaxima() {
+        int c = 0;
+        for (int n : cuentaIniciales())
+            if (n - 1 > c)
+                c = n - 1;
+        return c;
+    }
+
+    /**
+     * Nos dice la carga del diccionario: la proporción de casillas ocupadas en
+     * el índice.
+     * @return la carga del diccionario.
+     */
+    public double carga() {
+        double e = elementos;
+        double l = indice.length;
+        return e / l;
+    }
+
+    /**
+     * Regresa el número de entradas en el diccionario.
+     * @return el número de entradas en el diccionario.
+     */
+    public int getElementos() {
+        return elementos;
+    }
+
+    /**
+     * Nos dice si el diccionario es vacío.
+     * @return <code>true</code> si el diccionario es vacío, <code>false</code>
+     *         en otro caso.
+     */
+    public boolean esVacio() {
+        return elementos == 0;
+    }
+
+    /**
+     * Nos dice si el diccionario es igual al objeto recibido. El orden de las
+     * llaves no se toma en cuenta.
+     * @param o el objeto que queremos saber si es igual al diccionario.
+     * @return <code>true</code> si el objeto recibido es instancia de
+     *         DiccionarioOrdenadoPorInsercion, y tiene las mismas llaves
+     *         asociadas a los mismos valores.
+     */
+    @Override public boolean equals(Object o) {
+        if (!(o instanceof DiccionarioOrdenadoPorInsercion))
+            return false;
+        @SuppressWarnings("unchecked") DiccionarioOrdenadoPorInsercion<K, V> d =
+            (DiccionarioOrdenadoPorInsercion<K, V>)o;
+        if (d.elementos != elementos)
+            return false;
+        for (int i = 0; i < usadas; i++) {
+            if (llaves[i] == null)
+                continue;
+            int p = d.indice[d.busca(llaves[i], d.dispersor.dispersa(llaves[i]))];
+            if (p == 0 || !d.valores[p - 1].equals(valores[i]))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Regresa un iterador para iterar los valores del diccionario, en el orden
+     * en que se agregaron sus llaves.
+     * @return un iterador para iterar el diccionario.
+     */
+    @Override public Iterator<V> iterator() {
+        return new IteradorOrdenado<V>() {
+            @Override protected V de(int posicion) {
+                return valores[posicion];
+            }
+        };
+    }
+
+    /* Crea arreglos densos vacíos de longitud l, y su índice. */
+    private void inicializa(int l) {
+        llaves = nuevoArreglo(l);
+        valores = nuevoArreglo(l);
+        dispersiones = new int[l];
+        indice = new int[l << 1];
+        mascara = indice.length - 1;
+        usadas = 0;
+    }
+
+    /* Regresa la casilla inicial de una dispersión en el índice. */
+    private int inicial(int d) {
+        return DiccionarioIntInt.dispersa(d) & mascara;
+    }
+
+    /* Regresa la casilla del índice que apunta a la llave, o la casilla
+       vacía donde debería ir. */
+    private int busca(K llave, int d) {
+        int c = inicial(d);
+        while (indice[c] != 0) {
+            int p = indice[c] - 1;
+            if (dispersiones[p] == d && llaves[p].equals(llave))
+                return c;
+            c = (c + 1) & mascara;
+        }
+        return c;
+    }
+
+    /* Vacía la casilla c del índice, recorriendo hacia atrás las casillas
+       siguientes que ya no serían alcanzables desde su casilla inicial. */
+    private void recorre(int c) {
+        int j = c;
+        while (true) {
+            j = (j + 1) & mascara;
+            if (indice[j] == 0)
+                break;
+            int k = inicial(dispersiones[indice[j] - 1]);
+            if (((j - k) & mascara) < ((j - c) & mascara))
+                continue;
+            indice[c] = indice[j];
+            c = j;
+        }
+        indice[c] = 0;
+    }
+
+    /* Los arreglos densos están llenos: si hay muchas posiciones vacías los
+       compacta, y si no, duplica su tamaño. */
+    private void creceArreglos() {
+        if (usadas - elementos > usadas / 4)
+            compacta();
+        else
+            reconstruye(llaves.length << 1);
+    }
+
+    /* Compacta los arreglos densos sin cambiar su tamaño. */
+    private void compacta() {
+        reconstruye(llaves.length);
+    }
+
+    /* Copia las entradas, en orden y sin huecos, a arreglos densos nuevos de
+       longitud l, y reconstruye el índice. */
+    private void reconstruye(int l) {
+        K[] ll = llaves;
+        V[] vs = valores;
+        int[] ds = dispersiones;
+        int u = usadas;
+        inicializa(l);
+        for (int i = 0; i < u; i++) {
+            if (ll[i] == null)
+                continue;
+            llaves[usadas] = ll[i];
+            valores[usadas] = vs[i];
+            dispersiones[usadas] = ds[i];
+            int c = inicial(ds[i]);
+            while (indice[c] != 0)
+                c = (c + 1) & mascara;
+            indice[c] = ++usadas;
+        }
+    }
+
+    /* Cuenta cuántas llaves tiene cada casilla inicial del índice. */
+    private int[] cuentaIniciales() {
+        int[] c = new int[indice.length];
+        for (int i = 0; i < usadas; i++)
+            if (llaves[i] != null)
+                c[inicial(dispersiones[i])]++;
+        return c;
+    }
+}
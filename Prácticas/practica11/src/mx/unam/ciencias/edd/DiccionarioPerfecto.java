@@ -0,0 +1,565 @@
+package mx.unam.ciencias.edd;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * <p>Clase para diccionarios inmutables de cadenas, construidos con una
+ * función de dispersión perfecta y mínima: a cada una de las <em>n</em> llaves
+ * le corresponde un índice distinto entre 0 y <em>n</em>-1, así que cada
+ * búsqueda revisa exactamente una llave.</p>
+ *
+ * <p>La función es del estilo de CHD (<em>compress, hash and displace</em>):
+ * las llaves se reparten en cubetas de {@link #LAMBDA} llaves en promedio, y a
+ * cada cubeta se le asigna un <em>piloto</em>, el primer número que manda sus
+ * llaves a ranuras libres de una tabla un poco más grande que <em>n</em>. Las
+ * cubetas se acomodan de la más grande a la más chica, y el reparto está
+ * sesgado (como en PTHash): el 60% de las llaves va al 30% de las cubetas,
+ * así que las cubetas que se acomodan al final, cuando la tabla ya está casi
+ * llena, son de una o dos llaves y sus pilotos son chicos. Las pocas llaves
+ * que caen en las ranuras después de <em>n</em> se reubican en los huecos que
+ * quedaron antes de <em>n</em>. Los pilotos y las reubicaciones se guardan con
+ * el mínimo número de bits necesario, así que el índice ocupa alrededor de
+ * tres bits por llave (ver {@link #bitsPorLlave}).</p>
+ *
+ * <p>Los diccionarios se construyen con {@link #deDiccionario} o {@link
+ * #deLista}, y pueden guardarse en un archivo con {@link #guarda} y leerse con
+ * {@link #carga}.</p>
+ */
+public class DiccionarioPerfecto<V> implements Iterable<V> {
+
+    /* Clase privada para iteradores de diccionarios perfectos. */
+    private class Iterador implements Iterator<V> {
+
+        /* El índice del siguiente valor. */
+        private int siguiente;
+
+        /* Nos dice si hay un siguiente elemento. */
+        @Override public boolean hasNext() {
+            return siguiente < valores.length;
+        }
+
+        /* Regresa el siguiente elemento. */
+        @Override public V next() {
+            if (siguiente >= valores.length)
+                throw new NoSuchElementException("No hay siguiente.");
+            return valores[siguiente++];
+        }
+
+        /* No lo implementamos: siempre lanza una excepción. */
+        @Override public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /** Número promedio de llaves por cubeta. */
+    public static final int LAMBDA = 5;
+    /** Proporción de la tabla que ocupan las llaves al buscar pilotos. */
+    public static final double ALFA = 0.99;
+
+    /* Algoritmo con el que se dispersan las llaves. */
+    private static final AlgoritmoDispersor ALGORITMO =
+        AlgoritmoDispersor.XXHASH_64;
+    /* Proporción de las huellas que van a las cubetas densas. */
+    private static final long UMBRAL_DENSAS = (long)(0.6 * (1L << 32));
+    /* Máximo piloto que se prueba antes de cambiar de semilla. */
+    private static final int MAX_PILOTO = 1 << 16;
+    /* Incremento de las semillas: la parte fraccionaria de la razón áurea. */
+    private static final long AUREA = 0x9e3779b97f4a7c15L;
+    /* Número mágico al inicio de los archivos ("EDDP"). */
+    private static final int MAGIA = 0x45444450;
+    /* Versión del formato de los archivos. */
+    private static final int VERSION = 1;
+
+    /* La semilla del dispersor. */
+    private long semilla;
+    /* Número de cubetas. */
+    private int cubetas;
+    /* Número de cubetas densas, las primeras. */
+    private int densas;
+    /* Número de ranuras al buscar pilotos. */
+    private int ranuras;
+    /* Número de bits de cada piloto. */
+    private int ancho;
+    /* Los pilotos de las cubetas, empacados con ancho bits cada uno. */
+    private long[] pilotos;
+    /* El índice final de las llaves que cayeron en la ranura n + i,
+       empacados con anchoReubicacion bits cada uno. */
+    private long[] reubicacion;
+    /* Número de bits de cada reubicación. */
+    private int anchoReubicacion;
+    /* Las llaves, en su índice. */
+    private String[] llaves;
+    /* Los valores, en el índice de su llave. */
+    private V[] valores;
+
+    /* Truco para crear un arreglo genérico. Es necesario hacerlo así por cómo
+       Java implementa sus genéricos; de otra forma obtenemos advertencias del
+       compilador. */
+    @SuppressWarnings("unchecked") private static <T> T[] nuevoArreglo(int n) {
+        return (T[])new Object[n];
+    }
+
+    /* Constructor privado; los diccionarios se construyen con deDiccionario,
+       deLista o carga. */
+    private DiccionarioPerfecto() {}
+
+    /**
+     * Construye un diccionario perfecto con las llaves y valores de un
+     * diccionario.
+     * @param <V> el tipo de los valores del diccionario.
+     * @param diccionario el diccionario a congelar.
+     * @return un diccionario perfecto con las mismas llaves y valores.
+     */
+    public static <V> DiccionarioPerfecto<V>
+    deDiccionario(Diccionario<String, V> diccionario) {
+        String[] ll = new String[diccionario.getElementos()];
+        V[] vs = nuevoArreglo(ll.length);
+        int i = 0;
+        for (EntradaDiccionario<String, V> e : diccionario.entradas()) {
+            ll[i] = e.getLlave();
+            vs[i++] = e.getValor();
+        }
+        DiccionarioPerfecto<V> d = new DiccionarioPerfecto<V>();
+        d.construye(ll, vs);
+        return d;
+    }
+
+    /**
+     * Construye un diccionario perfecto que asocia cada cadena de una lista
+     * con su posición en la lista. Si una cadena aparece varias veces, se usa
+     * su primera posición.
+     * @param lista la lista de cadenas.
+     * @return un diccionario perfecto de las cadenas a sus posiciones.
+     * @throws IllegalArgumentException si la lista contiene a null.
+     */
+    public static DiccionarioPerfecto<Integer> deLista(Lista<String> lista) {
+        Diccionario<String, Integer> posiciones =
+            new Diccionario<String, Integer>(lista.getLongitud());
+        int i = 0;
+        for (String s : lista) {
+            if (s == null)
+                throw new IllegalArgumentException();
+            if (!posiciones.contiene(s))
+                posiciones.agrega(s, i);
+            i++;
+        }
+        return deDiccionario(posiciones);
+    }
+
+    /**
+     * Regresa el índice de una llave: un entero entre 0 y el número de llaves
+     * menos uno, distinto para cada llave.
+     * @param llave la llave.
+     * @return el índice de la llave, o -1 si la llave no está en el
+     *         diccionario.
+     */
+    public int indice(String llave) {
+        if (llaves.length == 0)
+            return -1;
+        int i = ranura(FabricaDispersores.dispersaLargo(ALGORITMO, semilla,
+                                                         llave));
+        return llaves[i].equals(llave) ? i : -1;
+    }
+
+    /**
+     * Regresa el valor del diccionario asociado a la llave proporcionada.
+     * @param llave la llave para buscar el valor.
+     * @return el valor correspondiente a la llave.
+     * @throws NoSuchElementException si la llave no está en el diccionario.
+     */
+    public V get(String llave) {
+        int i = indice(llave);
+        if (i == -1)
+            throw new NoSuchElementException("La llave no está en el diccionario.");
+        return valores[i];
+    }
+
+    /**
+     * Regresa el valor asociado a la llave proporcionada, o el valor
+     * predeterminado si la llave no está en el diccionario.
+     * @param llave la llave para buscar el valor.
+     * @param predeterminado el valor a regresar si la llave no está.
+     * @return el valor correspondiente a la llave, o el predeterminado.
+     */
+    public V getOPredeterminado(String llave, V predeterminado) {
+        int i = indice(llave);
+        return i == -1 ? predeterminado : valores[i];
+    }
+
+    /**
+     * Nos dice si una llave se encuentra en el diccionario.
+     * @param llave la llave que queremos ver si está en el diccionario.
+     * @return <tt>true</tt> si la llave está en el diccionario,
+     *         <tt>false</tt> en otro caso.
+     */
+    public boolean contiene(String llave) {
+        return indice(llave) != -1;
+    }
+
+    /**
+     * Regresa una lista con todas las llaves del diccionario, en el orden de
+     * sus índices.
+     * @return una lista con todas las llaves.
+     */
+    public Lista<String> llaves() {
+        Lista<String> l = new Lista<String>();
+        for (String s : llaves)
+            l.agregaFinal(s);
+        return l;
+    }
+
+    /**
+     * Regresa una lista con todos los valores del diccionario, en el orden de
+     * los índices de sus llaves.
+     * @return una lista con todos los valores.
+     */
+    public Lista<V> valores() {
+        Lista<V> l = new Lista<V>();
+        for (V v : valores)
+            l.agregaFinal(v);
+        return l;
+    }
+
+    /**
+     * Regresa el número de entradas en el diccionario.
+     * @return el número de entradas en el diccionario.
+     */
+    public int getElementos() {
+        return llaves.length;
+    }
+
+    /**
+     * Nos dice si el diccionario es vacío.
+     * @return <code>true</code> si el diccionario es vacío, <code>false</code>
+     *         en otro caso.
+     */
+    public boolean esVacio() {
+        return llaves.length == 0;
+    }
+
+    /**
+     * Regresa el número de bits por llave que ocupa el índice (los pilotos y
+     * la reubicación), sin contar las llaves ni los valores.
+     * @return el número de bits por llave del índice.
+     */
+    public double bitsPorLlave() {
+        if (llaves.length == 0)
+            return 0.0;
+        double bits = (double)cubetas * ancho +
+            (double)(ranuras - llaves.length) * anchoReubicacion;
+        return bits / llaves.length;
+    }
+
+    /**
+     * Guarda el diccionario en un archivo. Los valores se guardan como cadenas
+     * usando el codificador recibido.
+     * @param ruta la ruta del archivo.
+     * @param codificador la función que convierte cada valor en cadena.
+     * @throws IOException si no se puede escribir el archivo.
+     */
+    public void guarda(String ruta, Function<? super V, String> codificador)
+        throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                 new BufferedOutputStream(new FileOutputStream(ruta)))) {
+            out.writeInt(MAGIA);
+            out.writeInt(VERSION);
+            out.writeInt(llaves.length);
+            out.writeInt(ranuras);
+            out.writeInt(cubetas);
+            out.writeInt(ancho);
+            out.writeLong(semilla);
+            for (long p : pilotos)
+                out.writeLong(p);
+            for (long r : reubicacion)
+                out.writeLong(r);
+            for (int i = 0; i < llaves.length; i++) {
+                escribeCadena(out, llaves[i]);
+                escribeCadena(out, codificador.apply(valores[i]));
+            }
+        }
+    }
+
+    /**
+     * Lee un diccionario de un archivo escrito con {@link #guarda}.
+     * @param <V> el tipo de los valores del diccionario.
+     * @param ruta la ruta del archivo.
+     * @param decodificador la función que convierte cada cadena en valor.
+     * @return el diccionario guardado en el archivo.
+     * @throws IOException si no se puede leer el archivo, o si no es un
+     *         diccionario perfecto válido.
+     */
+    public static <V> DiccionarioPerfecto<V>
+    carga(String ruta, Function<String, ? extends V> decodificador)
+        throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                 new BufferedInputStream(new FileInputStream(ruta)))) {
+            if (in.readInt() != MAGIA || in.readInt() != VERSION)
+                throw new IOException("Archivo inválido.");
+            DiccionarioPerfecto<V> d = new DiccionarioPerfecto<V>();
+            int n = in.readInt();
+            d.ranuras = in.readInt();
+            d.cubetas = in.readInt();
+            d.ancho = in.readInt();
+            d.semilla = in.readLong();
+            if (n < 0 || d.ranuras < n || d.cubetas < 0 ||
+                d.ancho < 0 || d.ancho > 31 || (n > 0 && d.cubetas == 0))
+                throw new IOException("Archivo inválido.");
+            d.pilotos = new long[palabras(d.cubetas, d.ancho)];
+            for (int i = 0; i < d.pilotos.length; i++)
+                d.pilotos[i] = in.readLong();
+            d.densas = d.cubetas * 3 / 10;
+            d.anchoReubicacion = anchoDe(n - 1);
+            d.reubicacion = new long[palabras(d.ranuras - n,
+                                              d.anchoReubicacion)];
+            for (int i = 0; i < d.reubicacion.length; i++)
+                d.reubicacion[i] = in.readLong();
+            for (int i = 0; i < d.ranuras - n; i++)
+                if (lee(d.reubicacion, i, d.anchoReubicacion) >= n)
+                    throw new IOException("Archivo inválido.");
+            d.llaves = new String[n];
+            d.valores = nuevoArreglo(n);
+            for (int i = 0; i < n; i++) {
+                d.llaves[i] = leeCadena(in);
+                d.valores[i] = decodificador.apply(leeCadena(in));
+            }
+            for (int i = 0; i < n; i++)
+                if (d.indice(d.llaves[i]) != i)
+                    throw new IOException("Archivo inválido.");
+            return d;
+        }
+    }
+
+    /**
+     * Nos dice si el diccionario es igual al objeto recibido.
+     * @param o el objeto que queremos saber si es igual al diccionario.
+     * @return <code>true</code> si el objeto recibido es instancia de
+     *         DiccionarioPerfecto, y tiene las mismas llaves asociadas a los
+     *         mismos valores.
+     */
+    @Override public boolean equals(Object o) {
+        if (!(o instanceof DiccionarioPerfecto))
+            return false;
+        @SuppressWarnings("unchecked") DiccionarioPerfecto<V> d =
+            (DiccionarioPerfecto<V>)o;
+        if (d.llaves.length != llaves.length)
+            return false;
+        for (int i = 0; i < llaves.length; i++) {
+            int j = d.indice(llaves[i]);
+            if (j == -1 || !d.valores[j].equals(valores[i]))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Regresa un iterador para iterar los valores del diccionario, en el orden
+     * de los índices de sus llaves.
+     * @return un iterador para iterar el diccionario.
+     */
+    @Override public Iterator<V> iterator() {
+        return new Iterador();
+    }
+
+    /* Reduce un entero sin signo de 32 bits al intervalo [0, n). */
+    private static int reduce(int x, int n) {
+        return (int)(((x & 0xffffffffL) * n) >>> 32);
+    }
+
+    /* Regresa la ranura de una huella con el piloto recibido. */
+    private static int ranura(long huella, int piloto, int ranuras) {
+        return reduce((int)huella ^ DiccionarioIntInt.dispersa(piloto),
+                      ranuras);
+    }
+
+    /* Regresa la cubeta de una huella: las huellas debajo de UMBRAL_DENSAS
+       van a las cubetas densas, y las demás al resto. */
+    private int cubeta(long huella) {
+        int x = (int)(huella >>> 32);
+        int y = DiccionarioIntInt.dispersa(x);
+        if ((x & 0xffffffffL) < UMBRAL_DENSAS)
+            return reduce(y, densas);
+        return densas + reduce(y, cubetas - densas);
+    }
+
+    /* Regresa el índice final de una huella. */
+    private int ranura(long huella) {
+        int r = ranura(huella, lee(pilotos, cubeta(huella), ancho), ranuras);
+        if (r < llaves.length)
+            return r;
+        return lee(reubicacion, r - llaves.length, anchoReubicacion);
+    }
+
+    /* Regresa el número de bits necesarios para guardar x. */
+    private static int anchoDe(int x) {
+        return 32 - Integer.numberOfLeadingZeros(Math.max(x, 0));
+    }
+
+    /* Regresa cuántos enteros largos se necesitan para n valores de ancho
+       bits. */
+    private static int palabras(int n, int ancho) {
+        return (int)(((long)n * ancho + 63) >>> 6);
+    }
+
+    /* Regresa el i-ésimo valor de ancho bits empacado en el arreglo. */
+    private static int lee(long[] a, int i, int ancho) {
+        if (ancho == 0)
+            return 0;
+        long bit = (long)i * ancho;
+        int p = (int)(bit >>> 6);
+        int d = (int)(bit & 63);
+        long x = a[p] >>> d;
+        if (d + ancho > 64)
+            x |= a[p + 1] << (64 - d);
+        return (int)(x & ((1L << ancho) - 1));
+    }
+
+    /* Escribe el i-ésimo valor de ancho bits en el arreglo, que debe tener
+       ceros en su lugar. */
+    private static void escribe(long[] a, int i, int ancho, int valor) {
+        if (ancho == 0)
+            return;
+        long bit = (long)i * ancho;
+        int p = (int)(bit >>> 6);
+        int d = (int)(bit & 63);
+        a[p] |= (long)valor << d;
+        if (d + ancho > 64)
+            a[p + 1] |= (long)valor >>> (64 - d);
+    }
+
+    /* Construye el índice para las llaves, que deben ser distintas, y acomoda
+       las llaves y valores. Si con una semilla algún piloto pasa de
+       MAX_PILOTO, o dos llaves tienen la misma huella, prueba con otra. */
+    private void construye(String[] ll, V[] vs) {
+        int n = ll.length;
+        llaves = new String[n];
+        valores = nuevoArreglo(n);
+        cubetas = (n + LAMBDA - 1) / LAMBDA;
+        densas = cubetas * 3 / 10;
+        ranuras = n == 0 ? 0 : Math.max(n, (int)Math.ceil(n / ALFA));
+        long[] huellas = new long[n];
+        int[] p = new int[cubetas];
+        semilla = 0;
+        do {
+            semilla += AUREA;
+            for (int i = 0; i < n; i++)
+                huellas[i] = FabricaDispersores.dispersaLargo(ALGORITMO,
+                                                              semilla, ll[i]);
+        } while (!buscaPilotos(huellas, p));
+        int max = 0;
+        for (int x : p)
+            max = Math.max(max, x);
+        ancho = anchoDe(max);
+        pilotos = new long[palabras(cubetas, ancho)];
+        for (int c = 0; c < cubetas; c++)
+            escribe(pilotos, c, ancho, p[c]);
+        anchoReubicacion = anchoDe(n - 1);
+        reubicacion = new long[palabras(ranuras - n, anchoReubicacion)];
+        boolean[] ocupada = new boolean[ranuras];
+        for (int i = 0; i < n; i++)
+            ocupada[ranura(huellas[i], p[cubeta(huellas[i])], ranuras)] = true;
+        int libre = 0;
+        for (int r = n; r < ranuras; r++) {
+            if (!ocupada[r])
+                continue;
+            while (ocupada[libre])
+                libre++;
+            escribe(reubicacion, r - n, anchoReubicacion, libre++);
+        }
+        for (int i = 0; i < n; i++) {
+            int r = ranura(huellas[i]);
+            llaves[r] = ll[i];
+            valores[r] = vs[i];
+        }
+    }
+
+    /* Busca los pilotos de las cubetas, de la más grande a la más chica.
+       Regresa false si alguna cubeta no tiene piloto menor a MAX_PILOTO. */
+    private boolean buscaPilotos(long[] huellas, int[] p) {
+        int n = huellas.length;
+        /* Ordenamos las llaves por cubeta con conteo. */
+        int[] inicio = new int[cubetas + 1];
+        for (long h : huellas)
+            inicio[cubeta(h) + 1]++;
+        int maxTam = 0;
+        for (int c = 0; c < cubetas; c++) {
+            maxTam = Math.max(maxTam, inicio[c + 1]);
+            inicio[c + 1] += inicio[c];
+        }
+        long[] ordenadas = new long[n];
+        int[] siguiente = new int[cubetas];
+        for (int c = 0; c < cubetas; c++)
+            siguiente[c] = inicio[c];
+        for (long h : huellas)
+            ordenadas[siguiente[cubeta(h)]++] = h;
+        /* Y las cubetas por tamaño, de mayor a menor, también con conteo. */
+        int[] porTam = new int[maxTam + 2];
+        for (int c = 0; c < cubetas; c++)
+            porTam[maxTam - (inicio[c + 1] - inicio[c]) + 1]++;
+        for (int t = 0; t <= maxTam; t++)
+            porTam[t + 1] += porTam[t];
+        int[] orden = new int[cubetas];
+        for (int c = 0; c < cubetas; c++)
+            orden[porTam[maxTam - (inicio[c + 1] - inicio[c])]++] = c;
+        boolean[] ocupada = new boolean[ranuras];
+        int[] r = new int[maxTam];
+        for (int c : orden) {
+            int a = inicio[c], b = inicio[c + 1];
+            if (a == b) {
+                p[c] = 0;
+                continue;
+            }
+            int piloto = 0;
+            while (!prueba(ordenadas, a, b, piloto, ocupada, r))
+                if (++piloto >= MAX_PILOTO)
+                    return false;
+            for (int i = 0; i < b - a; i++)
+                ocupada[r[i]] = true;
+            p[c] = piloto;
+        }
+        return true;
+    }
+
+    /* Nos dice si el piloto manda las huellas de a a b a ranuras libres y
+       distintas; deja las ranuras en r. */
+    private boolean prueba(long[] huellas, int a, int b, int piloto,
+                           boolean[] ocupada, int[] r) {
+        for (int i = a; i < b; i++) {
+            int x = ranura(huellas[i], piloto, ranuras);
+            if (ocupada[x])
+                return false;
+            for (int j = 0; j < i - a; j++)
+                if (r[j] == x)
+                    return false;
+            r[i - a] = x;
+        }
+        return true;
+    }
+
+    /* Escribe una cadena como su longitud en UTF-8 y sus bytes. */
+    private static void escribeCadena(DataOutputStream out, String s)
+        throws IOException {
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    /* Lee una cadena escrita con escribeCadena. */
+    private static String leeCadena(DataInputStream in) throws IOException {
+        int n = in.readInt();
+        if (n < 0)
+            throw new IOException("Archivo inválido.");
+        byte[] b = new byte[n];
+        in.readFully(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,20 @@
+package mx.unam.ciencias.edd;
+
+/**
+ * Interfaz para las entradas de un diccionario: una llave y el valor asociado
+ * a ella.
+ */
+public interface EntradaDiccionario<K, V> {
+
+    /**
+     * Regresa la llave de la entrada.
+     * @return la llave de la entrada.
+     */
+    public K getLlave();
+
+    /**
+     * Regresa el valor de la entrada.
+     * @return el valor de la entrada.
+     */
+    public V getValor();
+}
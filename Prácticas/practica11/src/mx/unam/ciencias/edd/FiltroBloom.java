@@ -0,0 +1,318 @@
+package mx.unam.ciencias.edd;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * <p>Clase para filtros de Bloom.</p>
+ *
+ * <p>Un filtro de Bloom representa un conjunto con un arreglo de bits, sin
+ * guardar los elementos. Cada elemento enciende <em>k</em> bits del arreglo;
+ * si alguno de los <em>k</em> bits de un elemento está apagado, el elemento
+ * seguro no fue agregado. Si todos están encendidos, el elemento
+ * <em>probablemente</em> fue agregado: puede haber falsos positivos, pero
+ * nunca falsos negativos. Esto lo hace útil para descartar rápidamente llaves
+ * ausentes antes de buscarlas en una estructura más cara.</p>
+ *
+ * <p>Los <em>k</em> bits de cada elemento se obtienen por dispersión doble de
+ * dos {@link Dispersor}es: el <em>i</em>-ésimo es <em>h<sub>1</sub> +
+ * i·h<sub>2</sub> + (i<sup>3</sup> - i)/6</em>, reducido al tamaño del
+ * arreglo. Para cadenas, {@link #deCadenas} usa dos dispersores con semilla de
+ * {@link FabricaDispersores}.</p>
+ *
+ * <p>El filtro se dimensiona a partir del número esperado de elementos y de
+ * la probabilidad de falso positivo deseada. Dos filtros con las mismas
+ * dimensiones y los mismos dispersores pueden unirse, y un filtro puede
+ * convertirse en bytes y reconstruirse a partir de ellos.</p>
+ *
+ * @param <T> el tipo de los elementos del filtro.
+ */
+public class FiltroBloom<T> {
+
+    /* Semillas de los dispersores para cadenas. */
+    static final long SEMILLA_1 = 0x2545f4914f6cdd1dL;
+    static final long SEMILLA_2 = 0x9e3779b97f4a7c15L;
+    /* Número mágico al inicio de los bytes ("EDDB"). */
+    private static final int MAGIA = 0x45444442;
+    /* Versión del formato de los bytes. */
+    private static final int VERSION = 1;
+    /* Máximo número de funciones de dispersión; lo compartimos con los
+       filtros con contadores. */
+    static final int MAX_FUNCIONES = 30;
+
+    /* El primer dispersor. */
+    private Dispersor<T> dispersor1;
+    /* El segundo dispersor. */
+    private Dispersor<T> dispersor2;
+    /* Los bits del filtro. */
+    private long[] bits;
+    /* El número de bits del filtro. */
+    private int m;
+    /* El número de funciones de dispersión. */
+    private int k;
+    /* El número de veces que se ha llamado agrega. */
+    private long agregados;
+
+    /**
+     * Construye un filtro de Bloom para elementos cualesquiera, usando su
+     * método {@link Object#hashCode}. Dos elementos con la misma huella de
+     * {@link Object#hashCode} son indistinguibles para el filtro; para cadenas
+     * conviene usar {@link #deCadenas}.
+     * @param esperados el número esperado de elementos.
+     * @param probabilidad la probabilidad de falso positivo deseada.
+     * @throws IllegalArgumentException si el número esperado de elementos no
+     *         es positivo, o si la probabilidad no está entre 0 y 1.
+     */
+    public FiltroBloom(int esperados, double probabilidad) {
+        this(esperados, probabilidad,
+             (T o) -> DiccionarioIntInt.dispersa(o.hashCode()),
+             (T o) -> DiccionarioIntInt.dispersa(~o.hashCode()));
+    }
+
+    /**
+     * Construye un filtro de Bloom con los dispersores recibidos. Los
+     * dispersores deben ser independientes: si dos elementos tienen las mismas
+     * dos huellas, son indistinguibles para el filtro.
+     * @param esperados el número esperado de elementos.
+     * @param probabilidad la probabilidad de falso positivo deseada.
+     * @param dispersor1 el primer dispersor.
+     * @param dispersor2 el segundo dispersor.
+     * @throws IllegalArgumentException si el número esperado de elementos no
+     *         es positivo, si la probabilidad no está entre 0 y 1, o si algún
+     *         dispersor es <code>null</code>.
+     */
+    public FiltroBloom(int esperados, double probabilidad,
+                       Dispersor<T> dispersor1, Dispersor<T> dispersor2) {
+        this(dispersor1, dispersor2, tamano(esperados, probabilidad), 0);
+        k = funciones(esperados, m);
+    }
+
+    /* Construye un filtro vacío de m bits y k funciones. */
+    private FiltroBloom(Dispersor<T> dispersor1, Dispersor<T> dispersor2,
+                        int m, int k) {
+        if (dispersor1 == null || dispersor2 == null)
+            throw new IllegalArgumentException();
+        this.dispersor1 = dispersor1;
+        this.dispersor2 = dispersor2;
+        this.m = m;
+        this.k = k;
+        bits = new long[m >>> 6];
+    }
+
+    /**
+     * Construye un filtro de Bloom para cadenas, con dos dispersores con
+     * semilla del algoritmo recibido.
+     * @param esperados el número esperado de elementos.
+     * @param probabilidad la probabilidad de falso positivo deseada.
+     * @param algoritmo el algoritmo de los dispersores.
+     * @return un filtro de Bloom vacío para cadenas.
+     * @throws IllegalArgumentException si el número esperado de elementos no
+     *         es positivo, si la probabilidad no está entre 0 y 1, o si el
+     *         algoritmo no acepta semilla.
+     */
+    public static FiltroBloom<String> deCadenas(int esperados,
+                                                double probabilidad,
+                                                AlgoritmoDispersor algoritmo) {
+        return new FiltroBloom<String>(esperados, probabilidad,
+                                       dispersor(algoritmo, SEMILLA_1),
+                                       dispersor(algoritmo, SEMILLA_2));
+    }
+
+    /**
+     * Reconstruye un filtro de Bloom a partir de los bytes generados por
+     * {@link #aBytes}. Los dispersores deben ser los mismos del filtro
+     * original.
+     * @param <T> el tipo de los elementos del filtro.
+     * @param bytes los bytes del filtro.
+     * @param dispersor1 el primer dispersor.
+     * @param dispersor2 el segundo dispersor.
+     * @return el filtro de Bloom representado por los bytes.
+     * @throws IllegalArgumentException si los bytes no representan un filtro
+     *         de Bloom válido, o si algún dispersor es <code>null</code>.
+     */
+    public static <T> FiltroBloom<T> deBytes(byte[] bytes,
+                                             Dispersor<T> dispersor1,
+                                             Dispersor<T> dispersor2) {
+        try {
+            ByteBuffer b = ByteBuffer.wrap(bytes);
+            if (b.getInt() != MAGIA || b.getInt() != VERSION)
+                throw new IllegalArgumentException("Bytes inválidos.");
+            int m = b.getInt();
+            int k = b.getInt();
+            long agregados = b.getLong();
+            if (m <= 0 || (m & 63) != 0 || k < 1 || k > MAX_FUNCIONES ||
+                agregados < 0 || b.remaining() != m >>> 3)
+                throw new IllegalArgumentException("Bytes inválidos.");
+            FiltroBloom<T> f = new FiltroBloom<T>(dispersor1, dispersor2,
+                                                  m, k);
+            f.agregados = agregados;
+            b.asLongBuffer().get(f.bits);
+            return f;
+        } catch (BufferUnderflowException bue) {
+            throw new IllegalArgumentException("Bytes inválidos.");
+        }
+    }
+
+    /**
+     * Reconstruye un filtro de Bloom para cadenas a partir de los bytes
+     * generados por {@link #aBytes} de un filtro creado con {@link
+     * #deCadenas}.
+     * @param bytes los bytes del filtro.
+     * @param algoritmo el algoritmo de los dispersores del filtro original.
+     * @return el filtro de Bloom representado por los bytes.
+     * @throws IllegalArgumentException si los bytes no representan un filtro
+     *         de Bloom válido, o si el algoritmo no acepta semilla.
+     */
+    public static FiltroBloom<String> deBytes(byte[] bytes,
+                                              AlgoritmoDispersor algoritmo) {
+        return deBytes(bytes, dispersor(algoritmo, SEMILLA_1),
+                       dispersor(algoritmo, SEMILLA_2));
+    }
+
+    /**
+     * Agrega un elemento al filtro.
+     * @param elemento el elemento a agregar.
+     * @throws IllegalArgumentException si el elemento es <code>null</code>.
+     */
+    public void agrega(T elemento) {
+        if (elemento == null)
+            throw new IllegalArgumentException();
+        int h1 = dispersor1.dispersa(elemento);
+        int h2 = dispersor2.dispersa(elemento);
+        for (int i = 0; i < k; i++) {
+            int j = reduce(h1, m);
+            bits[j >>> 6] |= 1L << j;
+            h1 += h2;
+            h2 += i;
+        }
+        agregados++;
+    }
+
+    /**
+     * Nos dice si el elemento pudo haber sido agregado al filtro. Si regresa
+     * <code>false</code>, el elemento seguro no fue agregado; si regresa
+     * <code>true</code>, probablemente sí, con la probabilidad de error que
+     * estima {@link #probabilidadFalsoPositivo}.
+     * @param elemento el elemento a buscar.
+     * @return <code>false</code> si el elemento seguro no está en el filtro,
+     *         <code>true</code> en otro caso.
+     */
+    public boolean contiene(T elemento) {
+        if (elemento == null)
+            return false;
+        int h1 = dispersor1.dispersa(elemento);
+        int h2 = dispersor2.dispersa(elemento);
+        for (int i = 0; i < k; i++) {
+            int j = reduce(h1, m);
+            if ((bits[j >>> 6] & (1L << j)) == 0)
+                return false;
+            h1 += h2;
+            h2 += i;
+        }
+        return true;
+    }
+
+    /**
+     * Agrega al filtro los elementos del filtro recibido. Los dos filtros deben
+     * tener las mismas dimensiones y usar los mismos dispersores.
+     * @param filtro el filtro a unir con éste.
+     * @throws IllegalArgumentException si el filtro recibido no tiene las
+     *         mismas dimensiones.
+     */
+    public void une(FiltroBloom<T> filtro) {
+        if (filtro.m != m || filtro.k != k)
+            throw new IllegalArgumentException("Los filtros tienen " +
+                                               "dimensiones distintas.");
+        for (int i = 0; i < bits.length; i++)
+            bits[i] |= filtro.bits[i];
+        agregados += filtro.agregados;
+    }
+
+    /**
+     * Elimina todos los elementos del filtro.
+     */
+    public void limpia() {
+        for (int i = 0; i < bits.length; i++)
+            bits[i] = 0;
+        agregados = 0;
+    }
+
+    /**
+     * Regresa los bytes del filtro, de los que se puede reconstruir con {@link
+     * #deBytes}. Los dispersores no se guardan.
+     * @return los bytes del filtro.
+     */
+    public byte[] aBytes() {
+        ByteBuffer b = ByteBuffer.allocate(24 + (m >>> 3));
+        b.putInt(MAGIA).putInt(VERSION).putInt(m).putInt(k).putLong(agregados);
+        b.asLongBuffer().put(bits);
+        return b.array();
+    }
+
+    /**
+     * Regresa el número de bits del filtro.
+     * @return el número de bits del filtro.
+     */
+    public int getBits() {
+        return m;
+    }
+
+    /**
+     * Regresa el número de funciones de dispersión del filtro.
+     * @return el número de funciones de dispersión del filtro.
+     */
+    public int getFunciones() {
+        return k;
+    }
+
+    /**
+     * Regresa el número de veces que se ha agregado un elemento al filtro,
+     * contando repeticiones.
+     * @return el número de elementos agregados al filtro.
+     */
+    public long getAgregados() {
+        return agregados;
+    }
+
+    /**
+     * Estima la probabilidad de falso positivo actual del filtro, a partir de
+     * la fracción de bits encendidos.
+     * @return la probabilidad estimada de falso positivo.
+     */
+    public double probabilidadFalsoPositivo() {
+        long encendidos = 0;
+        for (long w : bits)
+            encendidos += Long.bitCount(w);
+        return Math.pow((double)encendidos / m, k);
+    }
+
+    /* Regresa el número de bits para el número esperado de elementos y la
+       probabilidad de falso positivo, redondeado a un múltiplo de 64. */
+    static int tamano(int esperados, double probabilidad) {
+        if (esperados <= 0 || !(probabilidad > 0.0 && probabilidad < 1.0))
+            throw new IllegalArgumentException();
+        double ln2 = Math.log(2);
+        double m = -esperados * Math.log(probabilidad) / (ln2 * ln2);
+        if (m > Integer.MAX_VALUE - 63)
+            throw new IllegalArgumentException("El filtro es demasiado " +
+                                               "grande.");
+        return Math.max(64, ((int)Math.ceil(m) + 63) & ~63);
+    }
+
+    /* Regresa el número óptimo de funciones de dispersión. */
+    static int funciones(int esperados, int m) {
+        int k = (int)Math.round((double)m / esperados * Math.log(2));
+        return Math.max(1, Math.min(MAX_FUNCIONES, k));
+    }
+
+    /* Reduce una huella al intervalo [0, m) sin usar el módulo. */
+    static int reduce(int h, int m) {
+        return (int)(((h & 0xffffffffL) * m) >>> 32);
+    }
+
+    /* Regresa un dispersor para cadenas del algoritmo con la semilla. */
+    static Dispersor<String> dispersor(AlgoritmoDispersor algoritmo,
+                                       long semilla) {
+        return FabricaDispersores.getInstancia(algoritmo, semilla);
+    }
+}
@@ -0,0 +1,331 @@
+package mx.unam.ciencias.edd;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>Clase para filtros de Bloom con contadores.</p>
+ *
+ * <p>Funciona como {@link FiltroBloom}, pero en lugar de un bit cada posición
+ * tiene un contador de 4 bits, que se incrementa al agregar un elemento y se
+ * decrementa al eliminarlo; así el filtro permite eliminar elementos. Un
+ * contador que llega a {@link #MAX_CONTADOR} se queda ahí para siempre, porque
+ * ya no se sabe cuántos elementos lo comparten; esto sólo ocurre con
+ * probabilidad despreciable si el filtro está bien dimensionado.</p>
+ *
+ * <p>Sólo deben eliminarse elementos que se hayan agregado: eliminar un falso
+ * positivo apaga posiciones de otros elementos, y produce falsos
+ * negativos.</p>
+ *
+ * @param <T> el tipo de los elementos del filtro.
+ */
+public class FiltroBloomContador<T> {
+
+    /** Valor máximo de un contador. */
+    public static final int MAX_CONTADOR = 15;
+
+    /* Número mágico al inicio de los bytes ("EDDC"). */
+    private static final int MAGIA = 0x45444443;
+    /* Versión del formato de los bytes. */
+    private static final int VERSION = 1;
+
+    /* El primer dispersor. */
+    private Dispersor<T> dispersor1;
+    /* El segundo dispersor. */
+    private Dispersor<T> dispersor2;
+    /* Los contadores, 16 por palabra. */
+    private long[] contadores;
+    /* El número de contadores. */
+    private int m;
+    /* El número de funciones de dispersión. */
+    private int k;
+    /* El número de elementos agregados menos el de eliminados. */
+    private long elementos;
+
+    /**
+     * Construye un filtro de Bloom con contadores para elementos cualesquiera,
+     * usando su método {@link Object#hashCode}.
+     * @param esperados el número esperado de elementos.
+     * @param probabilidad la probabilidad de falso positivo deseada.
+     * @throws IllegalArgumentException si el número esperado de elementos no
+     *         es positivo, o si la probabilidad no está entre 0 y 1.
+     */
+    public FiltroBloomContador(int esperados, double probabilidad) {
+        this(esperados, probabilidad,
+             (T o) -> DiccionarioIntInt.dispersa(o.hashCode()),
+             (T o) -> DiccionarioIntInt.dispersa(~o.hashCode()));
+    }
+
+    /**
+     * Construye un filtro de Bloom con contadores con los dispersores
+     * recibidos.
+     * @param esperados el número esperado de elementos.
+     * @param probabilidad la probabilidad de falso positivo deseada.
+     * @param dispersor1 el primer dispersor.
+     * @param dispersor2 el segundo dispersor.
+     * @throws IllegalArgumentException si el número esperado de elementos no
+     *         es positivo, si la probabilidad no está entre 0 y 1, o si algún
+     *         dispersor es <code>null</code>.
+     */
+    public FiltroBloomContador(int esperados, double probabilidad,
+                               Dispersor<T> dispersor1,
+                               Dispersor<T> dispersor2) {
+        this(dispersor1, dispersor2,
+             FiltroBloom.tamano(esperados, probabilidad), 0);
+        k = FiltroBloom.funciones(esperados, m);
+    }
+
+    /* Construye un filtro vacío de m contadores y k funciones. */
+    private FiltroBloomContador(Dispersor<T> dispersor1,
+                                Dispersor<T> dispersor2, int m, int k) {
+        if (dispersor1 == null || dispersor2 == null)
+            throw new IllegalArgumentException();
+        this.dispersor1 = dispersor1;
+        this.dispersor2 = dispersor2;
+        this.m = m;
+        this.k = k;
+        contadores = new long[m >>> 4];
+    }
+
+    /**
+     * Construye un filtro de Bloom con contadores para cadenas, con dos
+     * dispersores con semilla del algoritmo recibido.
+     * @param esperados el número esperado de elementos.
+     * @param probabilidad la probabilidad de falso positivo deseada.
+     * @param algoritmo el algoritmo de los dispersores.
+     * @return un filtro de Bloom con contadores vacío para cadenas.
+     * @throws IllegalArgumentException si el número esperado de elementos no
+     *         es positivo, si la probabilidad no está entre 0 y 1, o si el
+     *         algoritmo no acepta semilla.
+     */
+    public static FiltroBloomContador<String>
+    deCadenas(int esperados, double probabilidad,
+              AlgoritmoDispersor algoritmo) {
+        return new FiltroBloomContador<String>(
+            esperados, probabilidad,
+            FiltroBloom.dispersor(algoritmo, FiltroBloom.SEMILLA_1),
+            FiltroBloom.dispersor(algoritmo, FiltroBloom.SEMILLA_2));
+    }
+
+    /**
+     * Reconstruye un filtro de Bloom con contadores a partir de los bytes
+     * generados por {@link #aBytes}. Los dispersores deben ser los mismos del
+     * filtro original.
+     * @param <T> el tipo de los elementos del filtro.
+     * @param bytes los bytes del filtro.
+     * @param dispersor1 el primer dispersor.
+     * @param dispersor2 el segundo dispersor.
+     * @return el filtro representado por los bytes.
+     * @throws IllegalArgumentException si los bytes no representan un filtro
+     *         de Bloom con contadores válido, o si algún dispersor es
+     *         <code>null</code>.
+     */
+    public static <T> FiltroBloomContador<T>
+    deBytes(byte[] bytes, Dispersor<T> dispersor1, Dispersor<T> dispersor2) {
+        try {
+            ByteBuffer b = ByteBuffer.wrap(bytes);
+            if (b.getInt() != MAGIA || b.getInt() != VERSION)
+                throw new IllegalArgumentException("Bytes inválidos.");
+            int m = b.getInt();
+            int k = b.getInt();
+            long elementos = b.getLong();
+            if (m <= 0 || (m & 63) != 0 || k < 1 ||
+                k > FiltroBloom.MAX_FUNCIONES || elementos < 0 ||
+                b.remaining() != m >>> 1)
+                throw new IllegalArgumentException("Bytes inválidos.");
+            FiltroBloomContador<T> f =
+                new FiltroBloomContador<T>(dispersor1, dispersor2, m, k);
+            f.elementos = elementos;
+            b.asLongBuffer().get(f.contadores);
+            return f;
+        } catch (BufferUnderflowException bue) {
+            throw new IllegalArgumentException("Bytes inválidos.");
+        }
+    }
+
+    /**
+     * Reconstruye un filtro de Bloom con contadores para cadenas a partir de
+     * los bytes generados por {@link #aBytes} de un filtro creado con {@link
+     * #deCadenas}.
+     * @param bytes los bytes del filtro.
+     * @param algoritmo el algoritmo de los dispersores del filtro original.
+     * @return el filtro representado por los bytes.
+     * @throws IllegalArgumentException si los bytes no representan un filtro
+     *         de Bloom con contadores válido, o si el algoritmo no acepta
+     *         semilla.
+     */
+    public static FiltroBloomContador<String>
+    deBytes(byte[] bytes, AlgoritmoDispersor algoritmo) {
+        return deBytes(bytes,
+                       FiltroBloom.dispersor(algoritmo, FiltroBloom.SEMILLA_1),
+                       FiltroBloom.dispersor(algoritmo, FiltroBloom.SEMILLA_2));
+    }
+
+    /**
+     * Agrega un elemento al filtro.
+     * @param elemento el elemento a agregar.
+     * @throws IllegalArgumentException si el elemento es <code>null</code>.
+     */
+    public void agrega(T elemento) {
+        if (elemento == null)
+            throw new IllegalArgumentException();
+        int h1 = dispersor1.dispersa(elemento);
+        int h2 = dispersor2.dispersa(elemento);
+        for (int i = 0; i < k; i++) {
+            int j = FiltroBloom.reduce(h1, m);
+            if (contador(j) < MAX_CONTADOR)
+                contadores[j >>> 4] += 1L << ((j & 15) << 2);
+            h1 += h2;
+            h2 += i;
+        }
+        elementos++;
+    }
+
+    /**
+     * Elimina un elemento del filtro. El elemento debe haber sido agregado
+     * antes.
+     * @param elemento el elemento a eliminar.
+     * @throws NoSuchElementException si el elemento seguro no está en el
+     *         filtro.
+     */
+    public void elimina(T elemento) {
+        if (!contiene(elemento))
+            throw new NoSuchElementException("El elemento no se encuentra.");
+        int h1 = dispersor1.dispersa(elemento);
+        int h2 = dispersor2.dispersa(elemento);
+        for (int i = 0; i < k; i++) {
+            int j = FiltroBloom.reduce(h1, m);
+            if (contador(j) < MAX_CONTADOR)
+                contadores[j >>> 4] -= 1L << ((j & 15) << 2);
+            h1 += h2;
+            h2 += i;
+        }
+        elementos--;
+    }
+
+    /**
+     * Nos dice si el elemento pudo haber sido agregado al filtro. Si regresa
+     * <code>false</code>, el elemento seguro no está en el filtro; si regresa
+     * <code>true</code>, probablemente sí.
+     * @param elemento el elemento a buscar.
+     * @return <code>false</code> si el elemento seguro no está en el filtro,
+     *         <code>true</code> en otro caso.
+     */
+    public boolean contiene(T elemento) {
+        if (elemento == null)
+            return false;
+        int h1 = dispersor1.dispersa(elemento);
+        int h2 = dispersor2.dispersa(elemento);
+        for (int i = 0; i < k; i++) {
+            if (contador(FiltroBloom.reduce(h1, m)) == 0)
+                return false;
+            h1 += h2;
+            h2 += i;
+        }
+        return true;
+    }
+
+    /**
+     * Agrega al filtro los elementos del filtro recibido, sumando los
+     * contadores. Los dos filtros deben tener las mismas dimensiones y usar
+     * los mismos dispersores.
+     * @param filtro el filtro a unir con éste.
+     * @throws IllegalArgumentException si el filtro recibido no tiene las
+     *         mismas dimensiones.
+     */
+    public void une(FiltroBloomContador<T> filtro) {
+        if (filtro.m != m || filtro.k != k)
+            throw new IllegalArgumentException("Los filtros tienen " +
+                                               "dimensiones distintas.");
+        for (int i = 0; i < contadores.length; i++) {
+            long a = contadores[i], b = filtro.contadores[i], r = 0;
+            for (int s = 0; s < 64; s += 4) {
+                long c = ((a >>> s) & 15) + ((b >>> s) & 15);
+                r |= Math.min(c, MAX_CONTADOR) << s;
+            }
+            contadores[i] = r;
+        }
+        elementos += filtro.elementos;
+    }
+
+    /**
+     * Elimina todos los elementos del filtro.
+     */
+    public void limpia() {
+        for (int i = 0; i < contadores.length; i++)
+            contadores[i] = 0;
+        elementos = 0;
+    }
+
+    /**
+     * Regresa los bytes del filtro, de los que se puede reconstruir con {@link
+     * #deBytes}. Los dispersores no se guardan.
+     * @return los bytes del filtro.
+     */
+    public byte[] aBytes() {
+        ByteBuffer b = ByteBuffer.allocate(24 + (m >>> 1));
+        b.putInt(MAGIA).putInt(VERSION).putInt(m).putInt(k).putLong(elementos);
+        b.asLongBuffer().put(contadores);
+        return b.array();
+    }
+
+    /**
+     * Regresa el número de contadores del filtro.
+     * @return el número de contadores del filtro.
+     */
+    public int getContadores() {
+        return m;
+    }
+
+    /**
+     * Regresa el número de funciones de dispersión del filtro.
+     * @return el número de funciones de dispersión del filtro.
+     */
+    public int getFunciones() {
+        return k;
+    }
+
+    /**
+     * Regresa el número de elementos agregados menos el número de elementos
+     * eliminados.
+     * @return el número de elementos en el filtro.
+     */
+    public long getElementos() {
+        return elementos;
+    }
+
+    /**
+     * Regresa el número de contadores que llegaron a {@link #MAX_CONTADOR} y
+     * ya no pueden decrementarse.
+     * @return el número de contadores saturados.
+     */
+    public int saturados() {
+        int s = 0;
+        for (int j = 0; j < m; j++)
+            if (contador(j) == MAX_CONTADOR)
+                s++;
+        return s;
+    }
+
+    /**
+     * Estima la probabilidad de falso positivo actual del filtro, a partir de
+     * la fracción de contadores distintos de cero.
+     * @return la probabilidad estimada de falso positivo.
+     */
+    public double probabilidadFalsoPositivo() {
+        long distintos = 0;
+        for (long w : contadores) {
+            /* Junta en el bit bajo de cada contador el OR de sus 4 bits. */
+            w |= w >>> 2;
+            w |= w >>> 1;
+            distintos += Long.bitCount(w & 0x1111111111111111L);
+        }
+        return Math.pow((double)distintos / m, k);
+    }
+
+    /* Regresa el valor del j-ésimo contador. */
+    private int contador(int j) {
+        return (int)(contadores[j >>> 4] >>> ((j & 15) << 2)) & 15;
+    }
+}
@@ -93,14 +93,14 @@ public class Grafica<T> implements Coleccion<T> {
         /* El índice del vértice. */
         public int indice;
         /* El conjunto de vecinos del vértice. */
-        public Diccionario<T, Grafica<T>.Vecino> vecinos;
+        public DiccionarioOrdenadoPorInsercion<T, Grafica<T>.Vecino> vecinos;
 
         /* Crea un nuevo vértice a partir de un elemento. */
         public Vertice(T elemento) {
             this.elemento = elemento;
             this.color = Color.NINGUNO;
             this.distancia = -1;
-            vecinos = new Diccionario<T, Grafica<T>.Vecino>();
+            vecinos = new DiccionarioOrdenadoPorInsercion<T, Grafica<T>.Vecino>();
         }
 
         /* Regresa el elemento del vértice. */
@@ -157,7 +157,7 @@ public class Grafica<T> implements Coleccion<T> {
     }
 
     /* Vértices. */
-    private Diccionario<T, Vertice> vertices;
+    private DiccionarioOrdenadoPorInsercion<T, Vertice> vertices;
     /* Número de aristas. */
     private int aristas;
 
@@ -165,7 +165,7 @@ public class Grafica<T> implements Coleccion<T> {
      * Constructor único.
      */
     public Grafica() {
-        this.vertices = new Diccionario<T, Vertice>();
+        this.vertices = new DiccionarioOrdenadoPorInsercion<T, Vertice>();
         this.aristas = 0;
     }
 
@@ -278,8 +278,7 @@ public class Grafica<T> implements Coleccion<T> {
      */
     @Override public void elimina(T elemento) {
         Vertice v = castVertice(vertice(elemento));
-        Lista<T> k = v.vecinos.llaves();
-        for (T llave : k) {
+        for (T llave : v.vecinos.vistaLlaves()) {
             Vertice vecino = vertices.get(llave);
             vecino.vecinos.elimina(elemento);
             aristas--;
@@ -60,6 +60,26 @@ public class Practica11 {
                           "AVL con %s elementos.\n",
                           (tiempoTotal/1000000000.0), nf.format(N));
 
+        /* Los árboles también pueden construirse de golpe a partir de los
+           elementos ordenados; el orden lo da el árbol que ya llenamos. */
+        Lista<Integer> ordenados = new Lista<Integer>();
+        for (int e : arn)
+            ordenados.agrega(e);
+
+        tiempoInicial = System.nanoTime();
+        arn = ArbolRojinegro.deOrdenados(ordenados);
+        tiempoTotal = System.nanoTime() - tiempoInicial;
+        System.out.printf("%2.9f segundos en construir un árbol " +
+                          "rojinegro con %s elementos ordenados.\n",
+                          (tiempoTotal/1000000000.0), nf.format(N));
+
+        tiempoInicial = System.nanoTime();
+        avl = ArbolAVL.deOrdenados(ordenados);
+        tiempoTotal = System.nanoTime() - tiempoInicial;
+        System.out.printf("%2.9f segundos en construir un árbol " +
+                          "AVL con %s elementos ordenados.\n",
+                          (tiempoTotal/1000000000.0), nf.format(N));
+
         Diccionario<Integer, Integer> dicc = new Diccionario<Integer, Integer>();
         tiempoInicial = System.nanoTime();
         for (int i = 0; i < N; i++)
@@ -69,6 +89,25 @@ public class Practica11 {
                           "con %s elementos.\n",
                           (tiempoTotal/1000000000.0), nf.format(N));
 
+        DiccionarioAbierto<Integer, Integer> abierto =
+            new DiccionarioAbierto<Integer, Integer>();
+        tiempoInicial = System.nanoTime();
+        for (int i = 0; i < N; i++)
+            abierto.agrega(arreglo[i], arreglo[i]);
+        tiempoTotal = System.nanoTime() - tiempoInicial;
+        System.out.printf("%2.9f segundos en llenar un diccionario " +
+                          "abierto con %s elementos.\n",
+                          (tiempoTotal/1000000000.0), nf.format(N));
+
+        DiccionarioIntInt enteros = new DiccionarioIntInt();
+        tiempoInicial = System.nanoTime();
+        for (int i = 0; i < N; i++)
+            enteros.agrega(arreglo[i], arreglo[i]);
+        tiempoTotal = System.nanoTime() - tiempoInicial;
+        System.out.printf("%2.9f segundos en llenar un diccionario " +
+                          "de enteros con %s elementos.\n",
+                          (tiempoTotal/1000000000.0), nf.format(N));
+
         Conjunto<Integer> conjunto = new Conjunto<Integer>();
         tiempoInicial = System.nanoTime();
         for (int i = 0; i < N; i++)
@@ -0,0 +1,119 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.Random;
+import mx.unam.ciencias.edd.AlgoritmoDispersor;
+import mx.unam.ciencias.edd.AnalizadorDispersores;
+import mx.unam.ciencias.edd.Dispersor;
+import mx.unam.ciencias.edd.FabricaDispersores;
+import mx.unam.ciencias.edd.Lista;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link AnalizadorDispersores}.
+ */
+public class TestAnalizadorDispersores {
+
+    private Random random;
+    private int total;
+    private AnalizadorDispersores analizador;
+    private Dispersor<String> murmur;
+    private Dispersor<String> constante;
+
+    /**
+     * Crea un analizador con llaves aleatorias para cada prueba.
+     */
+    public TestAnalizadorDispersores() {
+        random = new Random();
+        total = 1000 + random.nextInt(1000);
+        analizador = AnalizadorDispersores.aleatorias(total, 10, random);
+        murmur = FabricaDispersores.getInstancia(AlgoritmoDispersor.MURMUR3_32);
+        constante = (s) -> 7;
+    }
+
+    /**
+     * Prueba unitaria para {@link
+     * AnalizadorDispersores#AnalizadorDispersores}.
+     */
+    @Test public void testConstructor() {
+        Lista<String> llaves = new Lista<String>();
+        llaves.agrega("a");
+        llaves.agrega("b");
+        llaves.agrega("a");
+        Assert.assertTrue(new AnalizadorDispersores(llaves).getLlaves() == 2);
+        try {
+            new AnalizadorDispersores(new Lista<String>());
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link AnalizadorDispersores#distribucion}.
+     */
+    @Test public void testDistribucion() {
+        int n = analizador.getLlaves();
+        int[] d = analizador.distribucion(murmur, 256);
+        int suma = 0;
+        for (int c : d)
+            suma += c;
+        Assert.assertTrue(suma == n);
+        d = analizador.distribucion(constante, 256);
+        Assert.assertTrue(d[7] == n);
+        try {
+            analizador.distribucion(murmur, 100);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link AnalizadorDispersores#chiCuadrada}.
+     */
+    @Test public void testChiCuadrada() {
+        double chi = analizador.chiCuadrada(murmur, 64);
+        /* Con 63 grados de libertad, el percentil 99.99 es menor a 130. */
+        Assert.assertTrue(chi < 130.0);
+        Assert.assertTrue(analizador.chiCuadrada(constante, 64) > 1000.0);
+    }
+
+    /**
+     * Prueba unitaria para {@link AnalizadorDispersores#sesgoAvalancha} y
+     * {@link AnalizadorDispersores#sesgoAvalanchaMaximo}.
+     */
+    @Test public void testSesgoAvalancha() {
+        Assert.assertTrue(analizador.sesgoAvalancha(murmur, 1000) < 0.1);
+        Assert.assertTrue(analizador.sesgoAvalanchaMaximo(murmur, 1000) < 0.25);
+        Assert.assertTrue(analizador.sesgoAvalancha(constante, 1000) == 1.0);
+        Dispersor<String> xor =
+            FabricaDispersores.getInstancia(AlgoritmoDispersor.XOR_STRING);
+        Assert.assertTrue(analizador.sesgoAvalancha(xor, 1000) > 0.9);
+    }
+
+    /**
+     * Prueba unitaria para {@link AnalizadorDispersores#colisiones} y {@link
+     * AnalizadorDispersores#colisionMaxima}.
+     */
+    @Test public void testColisiones() {
+        int n = analizador.getLlaves();
+        Assert.assertTrue(analizador.colisiones(constante, n) == n - 1);
+        Assert.assertTrue(analizador.colisionMaxima(constante, n) == n - 1);
+        Assert.assertTrue(analizador.colisionMaxima(murmur, n * 16) < 10);
+        Assert.assertTrue(analizador.colisiones(murmur, n * 16) <
+                          analizador.colisiones(murmur, n));
+    }
+
+    /**
+     * Prueba unitaria para {@link AnalizadorDispersores#nanosegundosPorByte}.
+     */
+    @Test public void testNanosegundosPorByte() {
+        Assert.assertTrue(analizador.nanosegundosPorByte(murmur, 2) > 0.0);
+    }
+
+    /**
+     * Prueba unitaria para {@link AnalizadorDispersores#reporte}.
+     */
+    @Test public void testReporte() {
+        String r = analizador.reporte("MURMUR3_32", murmur);
+        Assert.assertTrue(r.startsWith("MURMUR3_32\n"));
+        Assert.assertTrue(r.contains("ns/byte"));
+    }
+}
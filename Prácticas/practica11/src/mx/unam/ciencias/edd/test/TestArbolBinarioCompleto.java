@@ -127,6 +127,54 @@ public class TestArbolBinarioCompleto {
         }
     }
 
+    /**
+     * Prueba unitaria para {@link ArbolBinarioCompleto#setIndiceElementos}.
+     */
+    @Test public void testIndiceElementos() {
+        ArbolBinarioCompleto<Integer> sinIndice =
+            new ArbolBinarioCompleto<Integer>();
+        int[] a = new int[total];
+        for (int i = 0; i < total; i++) {
+            a[i] = random.nextInt(total / 2 + 1);
+            arbol.agrega(a[i]);
+            sinIndice.agrega(a[i]);
+            if (i == total / 2)
+                arbol.setIndiceElementos(true);
+        }
+        for (int i = 0; i < total; i++) {
+            VerticeArbolBinario<Integer> v = arbol.busca(a[i]);
+            Assert.assertTrue(v != null && v.get() == a[i]);
+        }
+        Assert.assertTrue(arbol.busca(-1) == null);
+        int n = total;
+        while (arbol.getElementos() > 0) {
+            int i = random.nextInt(total);
+            if (a[i] == -1)
+                continue;
+            arbol.elimina(a[i]);
+            sinIndice.elimina(a[i]);
+            Assert.assertTrue(arbol.getElementos() == --n);
+            /* Con repetidos, los árboles pueden eliminar vértices distintos;
+               comparamos cuántas veces aparece cada elemento. */
+            int[] cuenta = new int[total];
+            for (int e : arbol)
+                cuenta[e]++;
+            for (int e : sinIndice)
+                cuenta[e]--;
+            for (int c : cuenta)
+                Assert.assertTrue(c == 0);
+            arbolBinarioCompletoValido(arbol);
+            for (int j = 0; j < total; j++)
+                if (a[j] != -1 && j != i)
+                    Assert.assertTrue(arbol.busca(a[j]).get() == a[j]);
+            if (n % 7 == 0)
+                arbol.setIndiceElementos(n % 2 == 0);
+            a[i] = -1;
+        }
+        arbol.elimina(0);
+        Assert.assertTrue(arbol.esVacio());
+    }
+
     /**
      * Prueba unitaria para {@link ArbolBinarioCompleto#profundidad}.
      */
@@ -0,0 +1,238 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import mx.unam.ciencias.edd.ArbolBinarioCompleto;
+import mx.unam.ciencias.edd.ArbolBinarioCompletoArreglo;
+import mx.unam.ciencias.edd.Lista;
+import mx.unam.ciencias.edd.VerticeArbolBinario;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link
+ * ArbolBinarioCompletoArreglo}.
+ */
+public class TestArbolBinarioCompletoArreglo {
+
+    private int total;
+    private Random random;
+    private ArbolBinarioCompletoArreglo<Integer> arbol;
+
+    /**
+     * Valida un árbol binario completo en arreglo. Comprueba que todos los
+     * niveles del árbol estén llenos excepto tal vez el último.
+     * @param <T> tipo del que puede ser el árbol binario completo.
+     * @param arbol el árbol a revisar.
+     */
+    public static <T extends Comparable<T>> void
+    arbolBinarioCompletoValido(ArbolBinarioCompletoArreglo<T> arbol) {
+        if (arbol.esVacio())
+            return;
+        UtilTestArbolBinario.arbolBinarioValido(arbol);
+        Assert.assertTrue(arbol.profundidad() ==
+                          (int)(Math.floor(Math.log(arbol.getElementos()) /
+                                           Math.log(2))));
+        int c = 0;
+        for (T e : arbol)
+            c++;
+        Assert.assertTrue(c == arbol.getElementos());
+    }
+
+    /**
+     * Crea un árbol binario completo para cada prueba.
+     */
+    public TestArbolBinarioCompletoArreglo() {
+        random = new Random();
+        arbol = new ArbolBinarioCompletoArreglo<Integer>();
+        total = 3 + random.nextInt(100);
+    }
+
+    /**
+     * Prueba unitaria para {@link
+     * ArbolBinarioCompletoArreglo#ArbolBinarioCompletoArreglo()}.
+     */
+    @Test public void testConstructor() {
+        Assert.assertTrue(arbol.esVacio());
+        Assert.assertTrue(arbol.getElementos() == 0);
+        Assert.assertTrue(arbol.profundidad() == -1);
+        Assert.assertTrue(arbol.toString().equals(""));
+    }
+
+    /**
+     * Prueba unitaria para {@link
+     * ArbolBinarioCompletoArreglo#ArbolBinarioCompletoArreglo(Coleccion)}.
+     */
+    @Test public void testConstructorColeccion() {
+        Lista<Integer> lista = new Lista<Integer>();
+        for (int i = 0; i < total; i++)
+            lista.agrega(random.nextInt(total));
+        arbol = new ArbolBinarioCompletoArreglo<Integer>(lista);
+        Assert.assertTrue(lista.getLongitud() == arbol.getElementos());
+        Iterator<Integer> iterador = arbol.iterator();
+        for (Integer n : lista)
+            Assert.assertTrue(iterador.next().equals(n));
+        arbolBinarioCompletoValido(arbol);
+    }
+
+    /**
+     * Prueba unitaria para {@link ArbolBinarioCompletoArreglo#agrega}.
+     */
+    @Test public void testAgrega() {
+        try {
+            arbol.agrega(null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        for (int i = 0; i < total; i++) {
+            int n = random.nextInt(100);
+            arbol.agrega(n);
+            Assert.assertTrue(arbol.getElementos() == i+1);
+            VerticeArbolBinario<Integer> v = arbol.busca(n);
+            Assert.assertTrue(v != null);
+            Assert.assertTrue(v.get() == n);
+            Assert.assertTrue(arbol.getUltimoVerticeAgregado().get() == n);
+            arbolBinarioCompletoValido(arbol);
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link ArbolBinarioCompletoArreglo#elimina}.
+     */
+    @Test public void testElimina() {
+        int[] a = new int[total];
+        for (int i = 0; i < total; i++) {
+            a[i] = i;
+            arbol.agrega(a[i]);
+        }
+        arbol.elimina(-1);
+        Assert.assertTrue(arbol.getElementos() == total);
+        int n = total;
+        while (arbol.getElementos() > 0) {
+            int i = random.nextInt(total);
+            if (a[i] == -1)
+                continue;
+            Assert.assertTrue(arbol.contiene(a[i]));
+            arbol.elimina(a[i]);
+            Assert.assertFalse(arbol.contiene(a[i]));
+            Assert.assertTrue(arbol.getElementos() == --n);
+            arbolBinarioCompletoValido(arbol);
+            a[i] = -1;
+        }
+        Assert.assertTrue(arbol.esVacio());
+    }
+
+    /**
+     * Prueba unitaria para {@link ArbolBinarioCompletoArreglo#eliminaUltimo}.
+     */
+    @Test public void testEliminaUltimo() {
+        try {
+            arbol.eliminaUltimo();
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        for (int i = 0; i < total; i++)
+            arbol.agrega(i);
+        for (int i = total - 1; i >= 0; i--) {
+            Assert.assertTrue(arbol.eliminaUltimo() == i);
+            Assert.assertTrue(arbol.getElementos() == i);
+            arbolBinarioCompletoValido(arbol);
+        }
+        Assert.assertTrue(arbol.getUltimoVerticeAgregado() == null);
+    }
+
+    /**
+     * Prueba que el árbol tenga la misma forma, y se dibuje igual, que un
+     * {@link ArbolBinarioCompleto} con los mismos elementos.
+     */
+    @Test public void testToString() {
+        ArbolBinarioCompleto<Integer> completo =
+            new ArbolBinarioCompleto<Integer>();
+        for (int i = 0; i < total; i++) {
+            int n = random.nextInt(total);
+            arbol.agrega(n);
+            completo.agrega(n);
+            Assert.assertTrue(arbol.toString().equals(completo.toString()));
+        }
+        String cadena =
+            "1\n" +
+            "├─›2\n" +
+            "│  ├─›4\n" +
+            "│  └─»5\n" +
+            "└─»3";
+        arbol = new ArbolBinarioCompletoArreglo<Integer>();
+        for (int i = 1; i <= 5; i++)
+            arbol.agrega(i);
+        Assert.assertTrue(arbol.toString().equals(cadena));
+    }
+
+    /**
+     * Prueba unitaria para {@link ArbolBinarioCompletoArreglo#equals}.
+     */
+    @Test public void testEquals() {
+        ArbolBinarioCompletoArreglo<Integer> arbol2 =
+            new ArbolBinarioCompletoArreglo<Integer>();
+        Assert.assertTrue(arbol.equals(arbol2));
+        for (int i = 0; i < total; i++) {
+            arbol.agrega(i);
+            arbol2.agrega(i);
+        }
+        Assert.assertTrue(arbol.equals(arbol2));
+        Assert.assertTrue(arbol.raiz().equals(arbol2.raiz()));
+        arbol2.eliminaUltimo();
+        Assert.assertFalse(arbol.equals(arbol2));
+        Assert.assertFalse(arbol.raiz().equals(arbol2.raiz()));
+        Assert.assertFalse(arbol.equals(null));
+    }
+
+    /**
+     * Prueba unitaria para los vértices de {@link
+     * ArbolBinarioCompletoArreglo}.
+     */
+    @Test public void testVertices() {
+        try {
+            arbol.raiz();
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        for (int i = 0; i < total; i++)
+            arbol.agrega(i);
+        VerticeArbolBinario<Integer> v = arbol.raiz();
+        Assert.assertTrue(v.get() == 0);
+        Assert.assertFalse(v.hayPadre());
+        try {
+            v.getPadre();
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        Assert.assertTrue(v.getIzquierdo().get() == 1);
+        Assert.assertTrue(v.getDerecho().get() == 2);
+        Assert.assertTrue(v.getIzquierdo() == arbol.busca(1));
+        VerticeArbolBinario<Integer> u = arbol.busca(total - 1);
+        Assert.assertFalse(u.hayIzquierdo());
+        Assert.assertTrue(u.getPadre().get() == (total - 2) / 2);
+        try {
+            u.getIzquierdo();
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link ArbolBinarioCompletoArreglo#iterator}.
+     */
+    @Test public void testIterator() {
+        Iterator<Integer> iterador = arbol.iterator();
+        Assert.assertFalse(iterador.hasNext());
+        try {
+            iterador.next();
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        for (int i = 0; i < total; i++)
+            arbol.agrega(i);
+        iterador = arbol.iterator();
+        for (int i = 0; i < total; i++)
+            Assert.assertTrue(iterador.next() == i);
+        Assert.assertFalse(iterador.hasNext());
+        try {
+            iterador.remove();
+            Assert.fail();
+        } catch (UnsupportedOperationException uoe) {}
+    }
+}
@@ -5,7 +5,9 @@ import java.util.NoSuchElementException;
 import java.util.Random;
 import mx.unam.ciencias.edd.ArbolBinario;
 import mx.unam.ciencias.edd.ArbolBinarioOrdenado;
+import mx.unam.ciencias.edd.ArbolRojinegro;
 import mx.unam.ciencias.edd.Cola;
+import mx.unam.ciencias.edd.ExcepcionIndiceInvalido;
 import mx.unam.ciencias.edd.Lista;
 import mx.unam.ciencias.edd.VerticeArbolBinario;
 import org.junit.Assert;
@@ -671,4 +673,146 @@ public class TestArbolBinarioOrdenado {
             vertice = vertice.getPadre();
         }
     }
+
+    /* Revisa que selecciona, get y rango coincidan con el recorrido en orden
+       del árbol. */
+    private void revisaOrden() {
+        int[] a = new int[arbol.getElementos()];
+        int n = 0;
+        for (int e : arbol)
+            a[n++] = e;
+        for (int i = 0; i < n; i++) {
+            Assert.assertTrue(arbol.get(i) == a[i]);
+            Assert.assertTrue(arbol.selecciona(i).get() == a[i]);
+        }
+        for (int x = -1; x <= total + 1; x++) {
+            int r = 0;
+            while (r < n && a[r] < x)
+                r++;
+            Assert.assertTrue(arbol.rango(x) == r);
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link ArbolBinarioOrdenado#selecciona}, {@link ArbolBinarioOrdenado#get} y
+     * {@link ArbolBinarioOrdenado#rango}.
+     */
+    @Test public void testSelecciona() {
+        try {
+            arbol.selecciona(0);
+            Assert.fail();
+        } catch (ExcepcionIndiceInvalido eii) {}
+        int[] a = new int[total];
+        for (int i = 0; i < total; i++) {
+            a[i] = random.nextInt(total);
+            arbol.agrega(a[i]);
+            revisaOrden();
+        }
+        try {
+            arbol.get(total);
+            Assert.fail();
+        } catch (ExcepcionIndiceInvalido eii) {}
+        try {
+            arbol.get(-1);
+            Assert.fail();
+        } catch (ExcepcionIndiceInvalido eii) {}
+        for (int i = 0; i < total; i++) {
+            arbol.elimina(a[i]);
+            revisaOrden();
+        }
+        Assert.assertTrue(arbol.rango(0) == 0);
+    }
+
+    /* Llena el árbol con elementos aleatorios, posiblemente repetidos, y
+       regresa un arreglo con ellos ordenados. */
+    private int[] llena(ArbolBinarioOrdenado<Integer> a) {
+        int[] r = new int[total];
+        for (int i = 0; i < total; i++)
+            a.agrega(2 * random.nextInt(total));
+        int n = 0;
+        for (int e : a)
+            r[n++] = e;
+        return r;
+    }
+
+    /**
+     * Prueba unitaria para {@link ArbolBinarioOrdenado#rango(Comparable,
+     * Comparable)} y {@link ArbolBinarioOrdenado#iteradorDesde}.
+     */
+    @Test public void testRangoIterador() {
+        Lista<ArbolBinarioOrdenado<Integer>> arboles =
+            new Lista<ArbolBinarioOrdenado<Integer>>();
+        arboles.agrega(arbol);
+        arboles.agrega(new ArbolRojinegro<Integer>());
+        for (ArbolBinarioOrdenado<Integer> a : arboles) {
+            int[] r = llena(a);
+            for (int k = 0; k < total; k++) {
+                int desde = random.nextInt(2 * total + 2) - 1;
+                int hasta = desde + random.nextInt(total);
+                int i = 0;
+                while (i < total && r[i] < desde)
+                    i++;
+                Iterator<Integer> it = a.iteradorDesde(desde);
+                for (int j = i; j < total; j++)
+                    Assert.assertTrue(it.next() == r[j]);
+                Assert.assertFalse(it.hasNext());
+                for (int e : a.rango(desde, hasta)) {
+                    Assert.assertTrue(i < total && e == r[i++]);
+                    Assert.assertTrue(e >= desde && e <= hasta);
+                }
+                Assert.assertTrue(i == total || r[i] > hasta);
+            }
+            Assert.assertFalse(a.rango(1, 0).iterator().hasNext());
+            try {
+                a.rango(-2, -1).iterator().next();
+                Assert.fail();
+            } catch (NoSuchElementException nsee) {}
+            try {
+                a.iteradorDesde(null);
+                Assert.fail();
+            } catch (IllegalArgumentException iae) {}
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link ArbolBinarioOrdenado#piso}, {@link
+     * ArbolBinarioOrdenado#techo}, {@link ArbolBinarioOrdenado#sucesor} y
+     * {@link ArbolBinarioOrdenado#predecesor}.
+     */
+    @Test public void testPisoTecho() {
+        Assert.assertTrue(arbol.piso(0) == null);
+        Assert.assertTrue(arbol.techo(0) == null);
+        Lista<ArbolBinarioOrdenado<Integer>> arboles =
+            new Lista<ArbolBinarioOrdenado<Integer>>();
+        arboles.agrega(arbol);
+        arboles.agrega(new ArbolRojinegro<Integer>());
+        for (ArbolBinarioOrdenado<Integer> a : arboles) {
+            int[] r = llena(a);
+            for (int x = -1; x <= 2 * total + 1; x++) {
+                Integer piso = null, techo = null, suc = null, pred = null;
+                for (int e : r) {
+                    if (e <= x)
+                        piso = e;
+                    if (e < x)
+                        pred = e;
+                    if (e >= x && techo == null)
+                        techo = e;
+                    if (e > x && suc == null)
+                        suc = e;
+                }
+                Assert.assertTrue(a.piso(x) == piso ||
+                                  a.piso(x).equals(piso));
+                Assert.assertTrue(a.techo(x) == techo ||
+                                  a.techo(x).equals(techo));
+                Assert.assertTrue(a.sucesor(x) == suc ||
+                                  a.sucesor(x).equals(suc));
+                Assert.assertTrue(a.predecesor(x) == pred ||
+                                  a.predecesor(x).equals(pred));
+            }
+            try {
+                a.piso(null);
+                Assert.fail();
+            } catch (IllegalArgumentException iae) {}
+        }
+    }
 }
@@ -6,6 +6,8 @@ import mx.unam.ciencias.edd.ArbolBinario;
 import mx.unam.ciencias.edd.ArbolRojinegro;
 import mx.unam.ciencias.edd.Cola;
 import mx.unam.ciencias.edd.Color;
+import mx.unam.ciencias.edd.ExcepcionIndiceInvalido;
+import mx.unam.ciencias.edd.Lista;
 import mx.unam.ciencias.edd.VerticeArbolBinario;
 import org.junit.Assert;
 import org.junit.Test;
@@ -495,4 +497,97 @@ public class TestArbolRojinegro {
             arbol.agrega(i);
         Assert.assertTrue(arbol.toString().equals(cadena));
     }
+
+    /* Revisa que selecciona, get y rango coincidan con el recorrido en orden
+       del árbol. */
+    private void revisaOrden() {
+        int[] a = new int[arbol.getElementos()];
+        int n = 0;
+        for (int e : arbol)
+            a[n++] = e;
+        for (int i = 0; i < n; i++) {
+            Assert.assertTrue(arbol.get(i) == a[i]);
+            Assert.assertTrue(arbol.selecciona(i).get() == a[i]);
+        }
+        for (int x = -1; x <= total + 1; x++) {
+            int r = 0;
+            while (r < n && a[r] < x)
+                r++;
+            Assert.assertTrue(arbol.rango(x) == r);
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link ArbolRojinegro#selecciona}, {@link ArbolRojinegro#get} y
+     * {@link ArbolRojinegro#rango}.
+     */
+    @Test public void testSelecciona() {
+        try {
+            arbol.selecciona(0);
+            Assert.fail();
+        } catch (ExcepcionIndiceInvalido eii) {}
+        int[] a = new int[total];
+        for (int i = 0; i < total; i++) {
+            a[i] = random.nextInt(total);
+            arbol.agrega(a[i]);
+            revisaOrden();
+        }
+        arbolRojinegroValido(arbol);
+        try {
+            arbol.get(total);
+            Assert.fail();
+        } catch (ExcepcionIndiceInvalido eii) {}
+        try {
+            arbol.get(-1);
+            Assert.fail();
+        } catch (ExcepcionIndiceInvalido eii) {}
+        for (int i = 0; i < total; i++) {
+            arbol.elimina(a[i]);
+            revisaOrden();
+        }
+        Assert.assertTrue(arbol.rango(0) == 0);
+    }
+
+    /**
+     * Prueba unitaria para {@link ArbolRojinegro#deOrdenados}.
+     */
+    @Test public void testDeOrdenados() {
+        try {
+            ArbolRojinegro.deOrdenados(null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        Lista<Integer> lista = new Lista<Integer>();
+        lista.agrega(1);
+        lista.agrega(0);
+        try {
+            ArbolRojinegro.deOrdenados(lista);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        lista = new Lista<Integer>();
+        arbol = ArbolRojinegro.deOrdenados(lista);
+        Assert.assertTrue(arbol.esVacio());
+        for (int i = 0; i < total; i++) {
+            lista.agrega(random.nextInt(total));
+            lista = Lista.mergeSort(lista);
+            arbol = ArbolRojinegro.deOrdenados(lista);
+            Assert.assertTrue(arbol.getElementos() == i + 1);
+            Assert.assertTrue(arbol.profundidad() ==
+                              31 - Integer.numberOfLeadingZeros(i + 1));
+            arbolRojinegroValido(arbol);
+            Iterator<Integer> iterador = arbol.iterator();
+            for (Integer n : lista)
+                Assert.assertTrue(iterador.next().equals(n));
+            revisaOrden();
+        }
+        for (int i = 0; i < total; i++) {
+            arbol.agrega(random.nextInt(total));
+            arbolRojinegroValido(arbol);
+            revisaOrden();
+        }
+        for (Integer n : lista) {
+            arbol.elimina(n);
+            arbolRojinegroValido(arbol);
+        }
+        Assert.assertTrue(arbol.getElementos() == total);
+    }
 }
@@ -0,0 +1,121 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.Random;
+import mx.unam.ciencias.edd.BosquejoCountMin;
+import mx.unam.ciencias.edd.DiccionarioIntInt;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link BosquejoCountMin}.
+ */
+public class TestBosquejoCountMin {
+
+    private int total;
+    private Random random;
+    private BosquejoCountMin<Integer> bosquejo;
+
+    private static final int N = 1000;
+    private static final double ERROR = 0.001;
+    private static final double CONFIANZA = 0.01;
+
+    /**
+     * Crea un bosquejo para cada prueba.
+     */
+    public TestBosquejoCountMin() {
+        random = new Random();
+        total = N + random.nextInt(N);
+        bosquejo = new BosquejoCountMin<Integer>(ERROR, CONFIANZA);
+    }
+
+    /**
+     * Prueba unitaria para {@link BosquejoCountMin#BosquejoCountMin}.
+     */
+    @Test public void testConstructor() {
+        Assert.assertTrue(bosquejo.getTotal() == 0);
+        Assert.assertTrue(bosquejo.getAncho() == 2719);
+        Assert.assertTrue(bosquejo.getProfundidad() == 5);
+        Assert.assertTrue(bosquejo.estima(1) == 0);
+        try {
+            new BosquejoCountMin<Integer>(0.0, CONFIANZA);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            new BosquejoCountMin<Integer>(ERROR, 1.0);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link BosquejoCountMin#agrega} y {@link
+     * BosquejoCountMin#estima}.
+     */
+    @Test public void testAgrega() {
+        DiccionarioIntInt reales = new DiccionarioIntInt();
+        long n = 0;
+        for (int i = 0; i < 20 * total; i++) {
+            /* Una distribución sesgada, con pocos elementos muy frecuentes. */
+            int x = (int)Math.floor(Math.pow(random.nextDouble(), 3) * total);
+            bosquejo.agrega(x);
+            reales.agrega(x, reales.getOPredeterminado(x, 0) + 1);
+            n++;
+        }
+        Assert.assertTrue(bosquejo.getTotal() == n);
+        int malas = 0;
+        for (int x = 0; x < total; x++) {
+            int real = reales.getOPredeterminado(x, 0);
+            int estimada = bosquejo.estima(x);
+            Assert.assertTrue(estimada >= real);
+            if (estimada - real > bosquejo.cotaError())
+                malas++;
+        }
+        Assert.assertTrue(malas <= total * CONFIANZA * 3);
+        Assert.assertTrue(bosquejo.agrega(-1, 5) >= 5);
+        try {
+            bosquejo.agrega(null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba que {@link BosquejoCountMin#estima} no modifique el bosquejo,
+     * aunque se llame entre llamadas a {@link BosquejoCountMin#agrega}.
+     */
+    @Test public void testEstimaSoloLee() {
+        BosquejoCountMin<Integer> otro =
+            new BosquejoCountMin<Integer>(ERROR, CONFIANZA);
+        for (int i = 0; i < 4 * total; i++) {
+            int x = random.nextInt(total);
+            for (int j = 0; j < 3; j++)
+                otro.estima(random.nextInt(4 * total));
+            Assert.assertTrue(bosquejo.agrega(x, 1) == otro.agrega(x, 1));
+        }
+        for (int x = 0; x < 4 * total; x++)
+            Assert.assertTrue(bosquejo.estima(x) == otro.estima(x));
+    }
+
+    /**
+     * Prueba unitaria para {@link BosquejoCountMin#une} y {@link
+     * BosquejoCountMin#limpia}.
+     */
+    @Test public void testUne() {
+        BosquejoCountMin<Integer> otro =
+            new BosquejoCountMin<Integer>(ERROR, CONFIANZA);
+        for (int i = 0; i < total; i++) {
+            bosquejo.agrega(i % 10);
+            otro.agrega(i % 10);
+        }
+        bosquejo.une(otro);
+        Assert.assertTrue(bosquejo.getTotal() == 2 * total);
+        for (int i = 0; i < 10; i++)
+            Assert.assertTrue(bosquejo.estima(i) >= 2 * (total / 10));
+        try {
+            bosquejo.une(new BosquejoCountMin<Integer>(0.1, CONFIANZA));
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        bosquejo.limpia();
+        Assert.assertTrue(bosquejo.getTotal() == 0);
+        for (int i = 0; i < 10; i++)
+            Assert.assertTrue(bosquejo.estima(i) == 0);
+    }
+}
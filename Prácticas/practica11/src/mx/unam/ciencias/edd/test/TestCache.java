@@ -0,0 +1,210 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+import mx.unam.ciencias.edd.Cache;
+import mx.unam.ciencias.edd.PoliticaCache;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link Cache}.
+ */
+public class TestCache {
+
+    private int total;
+    private Random random;
+
+    private static final int N = 100;
+
+    /**
+     * Crea un generador de números aleatorios para cada prueba.
+     */
+    public TestCache() {
+        random = new Random();
+        total = N + random.nextInt(N);
+    }
+
+    /* Corre una carga con llaves populares y recorridos de llaves que se usan
+       una sola vez, y regresa la tasa de aciertos. */
+    private double carga(Cache<Integer, Integer> cache) {
+        int unica = 1 << 20;
+        for (int i = 0; i < 200 * total; i++) {
+            int llave;
+            if (i % 1000 < 300)
+                llave = unica++;
+            else
+                llave = (int)Math.floor(Math.pow(random.nextDouble(), 3) *
+                                        10 * total);
+            cache.calculaSiAusente(llave, (k) -> k);
+        }
+        return cache.tasaAciertos();
+    }
+
+    /**
+     * Prueba unitaria para {@link Cache#Cache}.
+     */
+    @Test public void testConstructor() {
+        Cache<String, String> cache =
+            new Cache<String, String>(total, PoliticaCache.LRU);
+        Assert.assertTrue(cache.getElementos() == 0);
+        Assert.assertTrue(cache.getPeso() == 0);
+        Assert.assertTrue(cache.getCapacidad() == total);
+        Assert.assertTrue(cache.getPolitica() == PoliticaCache.LRU);
+        Assert.assertTrue(cache.tasaAciertos() == 0.0);
+        try {
+            new Cache<String, String>(0, PoliticaCache.LRU);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            new Cache<String, String>(total, null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link Cache#agrega} y {@link Cache#get} con la
+     * política LRU.
+     */
+    @Test public void testLRU() {
+        Cache<Integer, String> cache =
+            new Cache<Integer, String>(total, PoliticaCache.LRU);
+        for (int i = 0; i < total; i++)
+            cache.agrega(i, String.valueOf(i));
+        Assert.assertTrue(cache.getElementos() == total);
+        /* Usar la llave 0 la vuelve la más reciente. */
+        Assert.assertTrue(cache.get(0).equals("0"));
+        cache.agrega(total, String.valueOf(total));
+        Assert.assertTrue(cache.getElementos() == total);
+        Assert.assertTrue(cache.contiene(0));
+        Assert.assertFalse(cache.contiene(1));
+        Assert.assertTrue(cache.expulsiones() == 1);
+        for (int i = 2; i <= total; i++)
+            Assert.assertTrue(cache.get(i).equals(String.valueOf(i)));
+        try {
+            cache.get(1);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        Assert.assertTrue(cache.getOPredeterminado(1, "X").equals("X"));
+        Assert.assertTrue(cache.aciertos() == total);
+        Assert.assertTrue(cache.fallos() == 2);
+        cache.agrega(0, "cero");
+        Assert.assertTrue(cache.get(0).equals("cero"));
+        Assert.assertTrue(cache.getElementos() == total);
+        try {
+            cache.agrega(null, "X");
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link Cache#agrega} con pesos.
+     */
+    @Test public void testPeso() {
+        for (PoliticaCache politica : PoliticaCache.values()) {
+            Cache<String, String> cache =
+                new Cache<String, String>(10 * total, politica,
+                                          (k, v) -> v.length());
+            for (int i = 0; i < 10 * total; i++) {
+                String v = "";
+                for (int j = 0; j < random.nextInt(20); j++)
+                    v += "x";
+                cache.agrega(String.valueOf(i), v);
+                Assert.assertTrue(cache.getPeso() <= cache.getCapacidad());
+            }
+            Assert.assertTrue(cache.expulsiones() > 0);
+            String grande = "";
+            for (int j = 0; j <= 10 * total; j++)
+                grande += "x";
+            cache.agrega("grande", grande);
+            Assert.assertFalse(cache.contiene("grande"));
+            Assert.assertTrue(cache.getPeso() <= cache.getCapacidad());
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link Cache#elimina} y {@link Cache#limpia}.
+     */
+    @Test public void testElimina() {
+        for (PoliticaCache politica : PoliticaCache.values()) {
+            Cache<Integer, Integer> cache =
+                new Cache<Integer, Integer>(total, politica);
+            for (int i = 0; i < total; i++) {
+                cache.agrega(i, i);
+                cache.get(i);
+            }
+            int n = cache.getElementos();
+            int k = -1;
+            for (int i = 0; i < total; i++)
+                if (cache.contiene(i))
+                    k = i;
+            cache.elimina(k);
+            Assert.assertFalse(cache.contiene(k));
+            Assert.assertTrue(cache.getElementos() == n - 1);
+            Assert.assertTrue(cache.getPeso() == n - 1);
+            try {
+                cache.elimina(k);
+                Assert.fail();
+            } catch (NoSuchElementException nsee) {}
+            cache.limpia();
+            Assert.assertTrue(cache.getElementos() == 0);
+            Assert.assertTrue(cache.getPeso() == 0);
+            cache.agrega(k, k);
+            Assert.assertTrue(cache.get(k) == k);
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link Cache#calculaSiAusente}.
+     */
+    @Test public void testCalculaSiAusente() {
+        Cache<Integer, Integer> cache =
+            new Cache<Integer, Integer>(total, PoliticaCache.W_TINY_LFU);
+        int[] llamadas = { 0 };
+        for (int j = 0; j < 3; j++)
+            for (int i = 0; i < total / 2; i++)
+                Assert.assertTrue(cache.calculaSiAusente(i, (k) -> {
+                            llamadas[0]++;
+                            return 2 * k;
+                        }) == 2 * i);
+        Assert.assertTrue(llamadas[0] < total);
+        Assert.assertTrue(cache.calculaSiAusente(-1, (k) -> null) == null);
+        Assert.assertFalse(cache.contiene(-1));
+    }
+
+    /**
+     * Prueba que {@link Cache#calculaSiAusente} registre una sola vez el
+     * acceso de una llave que no estaba: con dos registros tendría más
+     * frecuencia que una víctima usada una vez, y entraría a la región
+     * principal.
+     */
+    @Test public void testCalculaSiAusenteFrecuencia() {
+        Cache<Integer, Integer> cache =
+            new Cache<Integer, Integer>(100 * N, PoliticaCache.W_TINY_LFU,
+                                        (k, v) -> 100);
+        for (int i = 0; i < N; i++)
+            cache.agrega(i, i);
+        Assert.assertTrue(cache.getElementos() == N);
+        cache.calculaSiAusente(-1, (k) -> k);
+        cache.agrega(-2, -2);
+        Assert.assertFalse(cache.contiene(-1));
+        Assert.assertTrue(cache.contiene(0));
+        Assert.assertTrue(cache.contiene(-2));
+    }
+
+    /**
+     * Prueba que W-TinyLFU resista mejor que LRU los recorridos de llaves que
+     * se usan una sola vez.
+     */
+    @Test public void testWTinyLFU() {
+        Cache<Integer, Integer> lru =
+            new Cache<Integer, Integer>(total, PoliticaCache.LRU);
+        Cache<Integer, Integer> lfu =
+            new Cache<Integer, Integer>(total, PoliticaCache.W_TINY_LFU);
+        double a = carga(lru);
+        double b = carga(lfu);
+        Assert.assertTrue(b > a);
+        Assert.assertTrue(lfu.getElementos() <= total);
+        Assert.assertTrue(lfu.aciertos() + lfu.fallos() == 200 * total);
+    }
+}
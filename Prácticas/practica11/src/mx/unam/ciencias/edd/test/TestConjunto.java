@@ -185,6 +185,115 @@ public class TestConjunto {
             Assert.assertTrue(union.contiene(n));
     }
 
+    /* Llena el conjunto y otro conjunto con elementos aleatorios que se
+       traslapan, y regresa el otro. */
+    private Conjunto<Integer> llena() {
+        Conjunto<Integer> c2 = new Conjunto<Integer>();
+        for (int i = 0; i < total; i++)
+            conjunto.agrega(random.nextInt(total * 2));
+        int n = 1 + random.nextInt(total * 2);
+        for (int i = 0; i < n; i++)
+            c2.agrega(random.nextInt(total * 2));
+        return c2;
+    }
+
+    /* Revisa que el resultado tenga exactamente los elementos de a y b que
+       cumplen con la operación. */
+    private void revisa(Conjunto<Integer> r, Conjunto<Integer> a,
+                        Conjunto<Integer> b, boolean enA, boolean enB,
+                        boolean enAmbos) {
+        int n = 0;
+        for (int i = 0; i < total * 2; i++) {
+            boolean x = a.contiene(i), y = b.contiene(i);
+            boolean esperado = (x && y) ? enAmbos : (x ? enA : (y && enB));
+            Assert.assertTrue(r.contiene(i) == esperado);
+            if (esperado)
+                n++;
+        }
+        Assert.assertTrue(r.getElementos() == n);
+        int c = 0;
+        for (Integer e : r)
+            c++;
+        Assert.assertTrue(c == n);
+    }
+
+    /* Regresa una copia del conjunto. */
+    private Conjunto<Integer> copia(Conjunto<Integer> c) {
+        Conjunto<Integer> r = new Conjunto<Integer>();
+        for (Integer e : c)
+            r.agrega(e);
+        return r;
+    }
+
+    /**
+     * Prueba unitaria para {@link Conjunto#diferencia}.
+     */
+    @Test public void testDiferencia() {
+        Conjunto<Integer> c2 = llena();
+        revisa(conjunto.diferencia(c2), conjunto, c2, true, false, false);
+        revisa(c2.diferencia(conjunto), c2, conjunto, true, false, false);
+        Assert.assertTrue(conjunto.diferencia(conjunto).esVacio());
+    }
+
+    /**
+     * Prueba unitaria para {@link Conjunto#diferenciaSimetrica}.
+     */
+    @Test public void testDiferenciaSimetrica() {
+        Conjunto<Integer> c2 = llena();
+        revisa(conjunto.diferenciaSimetrica(c2), conjunto, c2,
+               true, true, false);
+        Assert.assertTrue(conjunto.diferenciaSimetrica(c2)
+                          .equals(c2.diferenciaSimetrica(conjunto)));
+    }
+
+    /**
+     * Prueba unitaria para {@link Conjunto#unionEnLugar}.
+     */
+    @Test public void testUnionEnLugar() {
+        Conjunto<Integer> c2 = llena();
+        Conjunto<Integer> original = copia(conjunto);
+        conjunto.unionEnLugar(c2);
+        revisa(conjunto, original, c2, true, true, true);
+        Assert.assertTrue(conjunto.equals(original.union(c2)));
+    }
+
+    /**
+     * Prueba unitaria para {@link Conjunto#interseccionEnLugar}.
+     */
+    @Test public void testInterseccionEnLugar() {
+        Conjunto<Integer> c2 = llena();
+        Conjunto<Integer> original = copia(conjunto);
+        conjunto.interseccionEnLugar(c2);
+        revisa(conjunto, original, c2, false, false, true);
+        c2.interseccionEnLugar(original);
+        Assert.assertTrue(c2.equals(conjunto));
+    }
+
+    /**
+     * Prueba unitaria para {@link Conjunto#diferenciaEnLugar}.
+     */
+    @Test public void testDiferenciaEnLugar() {
+        Conjunto<Integer> c2 = llena();
+        Conjunto<Integer> original = copia(conjunto);
+        Conjunto<Integer> otro = copia(c2);
+        conjunto.diferenciaEnLugar(c2);
+        revisa(conjunto, original, c2, true, false, false);
+        otro.diferenciaEnLugar(original);
+        revisa(otro, c2, original, true, false, false);
+        otro.diferenciaEnLugar(otro);
+        Assert.assertTrue(otro.esVacio());
+    }
+
+    /**
+     * Prueba unitaria para {@link Conjunto#diferenciaSimetricaEnLugar}.
+     */
+    @Test public void testDiferenciaSimetricaEnLugar() {
+        Conjunto<Integer> c2 = llena();
+        Conjunto<Integer> original = copia(conjunto);
+        conjunto.diferenciaSimetricaEnLugar(c2);
+        revisa(conjunto, original, c2, true, true, false);
+    }
+
     /**
      * Prueba unitaria para {@link Conjunto#iterator}.
      */
@@ -0,0 +1,251 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import mx.unam.ciencias.edd.Conjunto;
+import mx.unam.ciencias.edd.ConjuntoEntero;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link ConjuntoEntero}.
+ */
+public class TestConjuntoEntero {
+
+    private Random random;
+    private int total;
+    private ConjuntoEntero conjunto;
+
+    /**
+     * Crea un generador de números aleatorios para cada prueba, un
+     * número total de elementos para nuestro conjunto, y un conjunto.
+     */
+    public TestConjuntoEntero() {
+        random = new Random();
+        total = 1000 + random.nextInt(9000);
+        conjunto = new ConjuntoEntero();
+    }
+
+    /* Llena el conjunto y su copia con enteros aleatorios de un intervalo de
+       tamaño rango alrededor de base. */
+    private void llena(ConjuntoEntero c, Conjunto<Integer> copia,
+                       int n, int base, int rango) {
+        for (int i = 0; i < n; i++) {
+            int x = base + random.nextInt(rango);
+            c.agrega(x);
+            if (!copia.contiene(x))
+                copia.agrega(x);
+        }
+    }
+
+    /* Revisa que el conjunto tenga exactamente los elementos de la copia, y
+       que se itere en orden. */
+    private void revisa(ConjuntoEntero c, Conjunto<Integer> copia) {
+        Assert.assertTrue(c.getElementos() == copia.getElementos());
+        for (Integer x : copia)
+            Assert.assertTrue(c.contiene(x));
+        int n = 0;
+        Integer anterior = null;
+        for (Integer x : c) {
+            Assert.assertTrue(copia.contiene(x));
+            Assert.assertTrue(anterior == null || anterior < x);
+            anterior = x;
+            n++;
+        }
+        Assert.assertTrue(n == copia.getElementos());
+    }
+
+    /**
+     * Prueba unitaria para {@link ConjuntoEntero#ConjuntoEntero}.
+     */
+    @Test public void testConstructor() {
+        Assert.assertTrue(conjunto.esVacio());
+        Assert.assertTrue(conjunto.getElementos() == 0);
+        Assert.assertFalse(conjunto.iterator().hasNext());
+    }
+
+    /**
+     * Prueba unitaria para {@link ConjuntoEntero#agrega}.
+     */
+    @Test public void testAgrega() {
+        try {
+            conjunto.agrega((Integer)null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        Conjunto<Integer> copia = new Conjunto<Integer>();
+        llena(conjunto, copia, total, -total, 2 * total);
+        revisa(conjunto, copia);
+        /* Suficientes enteros en un grupo para usar un mapa de bits. */
+        llena(conjunto, copia, 3 * ConjuntoEntero.MAX_ARREGLO,
+              1 << 20, 1 << 14);
+        revisa(conjunto, copia);
+        int[] extremos = { Integer.MIN_VALUE, Integer.MAX_VALUE, 0, -1 };
+        for (int x : extremos) {
+            conjunto.agrega(x);
+            if (!copia.contiene(x))
+                copia.agrega(x);
+        }
+        revisa(conjunto, copia);
+        Iterator<Integer> i = conjunto.iterator();
+        Assert.assertTrue(i.next() == Integer.MIN_VALUE);
+    }
+
+    /**
+     * Prueba unitaria para {@link ConjuntoEntero#agregaRango}.
+     */
+    @Test public void testAgregaRango() {
+        int inicio = random.nextInt(1 << 20) - (1 << 19);
+        int fin = inicio + total * 30;
+        conjunto.agrega(inicio - 1);
+        conjunto.agregaRango(inicio, fin);
+        Assert.assertTrue(conjunto.getElementos() == fin - inicio + 2);
+        for (int x = inicio - 1; x <= fin; x++)
+            Assert.assertTrue(conjunto.contiene(x));
+        Assert.assertFalse(conjunto.contiene(fin + 1));
+        Assert.assertFalse(conjunto.contiene(inicio - 2));
+        conjunto.agregaRango(fin - 10, fin + 10);
+        Assert.assertTrue(conjunto.getElementos() == fin - inicio + 12);
+        conjunto.elimina(inicio + 5);
+        Assert.assertFalse(conjunto.contiene(inicio + 5));
+        conjunto.agrega(inicio + 5);
+        int[] a = conjunto.aArreglo();
+        for (int i = 0; i < a.length; i++)
+            Assert.assertTrue(a[i] == inicio - 1 + i);
+        try {
+            conjunto.agregaRango(1, 0);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link ConjuntoEntero#elimina}.
+     */
+    @Test public void testElimina() {
+        Conjunto<Integer> copia = new Conjunto<Integer>();
+        llena(conjunto, copia, total, 0, 2 * total);
+        llena(conjunto, copia, 2 * ConjuntoEntero.MAX_ARREGLO,
+              1 << 16, 1 << 13);
+        int[] a = conjunto.aArreglo();
+        for (int i = 0; i < a.length; i += 2) {
+            conjunto.elimina(a[i]);
+            copia.elimina(a[i]);
+            Assert.assertFalse(conjunto.contiene(a[i]));
+        }
+        revisa(conjunto, copia);
+        try {
+            conjunto.elimina(a[0]);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        for (int i = 1; i < a.length; i += 2)
+            conjunto.elimina(a[i]);
+        Assert.assertTrue(conjunto.esVacio());
+        Assert.assertFalse(conjunto.iterator().hasNext());
+    }
+
+    /**
+     * Prueba unitaria para {@link ConjuntoEntero#union}.
+     */
+    @Test public void testUnion() {
+        ConjuntoEntero otro = new ConjuntoEntero();
+        Conjunto<Integer> copia = new Conjunto<Integer>();
+        llena(conjunto, copia, total, 0, 1 << 18);
+        llena(conjunto, copia, 2 * ConjuntoEntero.MAX_ARREGLO, 0, 1 << 13);
+        llena(otro, copia, total, 1 << 17, 1 << 18);
+        otro.agregaRango(1 << 12, 1 << 14);
+        for (int x = 1 << 12; x <= 1 << 14; x++)
+            if (!copia.contiene(x))
+                copia.agrega(x);
+        ConjuntoEntero a = conjunto.union(otro);
+        ConjuntoEntero b = otro.union(conjunto);
+        revisa(a, copia);
+        Assert.assertTrue(a.equals(b));
+        Assert.assertTrue(conjunto.union(new ConjuntoEntero())
+                          .equals(conjunto));
+    }
+
+    /**
+     * Prueba unitaria para {@link ConjuntoEntero#interseccion}.
+     */
+    @Test public void testInterseccion() {
+        ConjuntoEntero otro = new ConjuntoEntero();
+        Conjunto<Integer> c1 = new Conjunto<Integer>();
+        Conjunto<Integer> c2 = new Conjunto<Integer>();
+        llena(conjunto, c1, total, 0, 1 << 18);
+        llena(conjunto, c1, 2 * ConjuntoEntero.MAX_ARREGLO, 0, 1 << 13);
+        llena(otro, c2, total, 1 << 17, 1 << 18);
+        llena(otro, c2, 2 * ConjuntoEntero.MAX_ARREGLO, 0, 1 << 13);
+        otro.agregaRango(1 << 16, 1 << 17);
+        for (int x = 1 << 16; x <= 1 << 17; x++)
+            if (!c2.contiene(x))
+                c2.agrega(x);
+        ConjuntoEntero a = conjunto.interseccion(otro);
+        revisa(a, c1.interseccion(c2));
+        Assert.assertTrue(a.equals(otro.interseccion(conjunto)));
+        Assert.assertTrue(conjunto.interseccion(new ConjuntoEntero())
+                          .esVacio());
+    }
+
+    /**
+     * Prueba unitaria para {@link ConjuntoEntero#optimiza} y {@link
+     * ConjuntoEntero#memoria}.
+     */
+    @Test public void testOptimiza() {
+        Conjunto<Integer> copia = new Conjunto<Integer>();
+        for (int i = 0; i < total; i++) {
+            for (int x = i * 100; x < i * 100 + 50; x++) {
+                conjunto.agrega(x);
+                copia.agrega(x);
+            }
+        }
+        long antes = conjunto.memoria();
+        conjunto.optimiza();
+        Assert.assertTrue(conjunto.memoria() < antes);
+        revisa(conjunto, copia);
+        conjunto.agrega(-1);
+        copia.agrega(-1);
+        conjunto.elimina(25);
+        copia.elimina(25);
+        revisa(conjunto, copia);
+        ConjuntoEntero denso = new ConjuntoEntero();
+        for (int x = 0; x < 1 << 16; x += 2)
+            denso.agrega(x);
+        Assert.assertTrue(denso.memoria() < (1 << 16) / 8 + 256);
+    }
+
+    /**
+     * Prueba unitaria para {@link ConjuntoEntero#paraCada} y {@link
+     * ConjuntoEntero#aArreglo}.
+     */
+    @Test public void testParaCada() {
+        Conjunto<Integer> copia = new Conjunto<Integer>();
+        llena(conjunto, copia, total, -total, 2 * total);
+        int[] a = conjunto.aArreglo();
+        Assert.assertTrue(a.length == copia.getElementos());
+        int[] i = { 0 };
+        conjunto.paraCada((x) -> Assert.assertTrue(a[i[0]++] == x));
+        Assert.assertTrue(i[0] == a.length);
+        i[0] = 0;
+        for (int x : conjunto)
+            Assert.assertTrue(a[i[0]++] == x);
+    }
+
+    /**
+     * Prueba unitaria para {@link ConjuntoEntero#equals}.
+     */
+    @Test public void testEquals() {
+        ConjuntoEntero otro = new ConjuntoEntero();
+        Assert.assertTrue(conjunto.equals(otro));
+        for (int i = 0; i < total; i++) {
+            conjunto.agrega(i * 7);
+            otro.agrega((total - 1 - i) * 7);
+        }
+        Assert.assertTrue(conjunto.equals(otro));
+        otro.optimiza();
+        Assert.assertTrue(conjunto.equals(otro));
+        otro.elimina(0);
+        otro.agrega(1);
+        Assert.assertFalse(conjunto.equals(otro));
+        Assert.assertFalse(conjunto.equals(null));
+    }
+}
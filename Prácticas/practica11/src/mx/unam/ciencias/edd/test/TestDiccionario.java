@@ -6,6 +6,7 @@ import mx.unam.ciencias.edd.AlgoritmoDispersor;
 import mx.unam.ciencias.edd.Arreglos;
 import mx.unam.ciencias.edd.Diccionario;
 import mx.unam.ciencias.edd.Dispersor;
+import mx.unam.ciencias.edd.EntradaDiccionario;
 import mx.unam.ciencias.edd.FabricaDispersores;
 import mx.unam.ciencias.edd.Lista;
 import org.junit.Assert;
@@ -305,4 +306,400 @@ public class TestDiccionario {
             diccionario.elimina(llave);
         for (String s : diccionario);
     }
+
+    /**
+     * Prueba unitaria para {@link Diccionario#setCrecimientoIncremental}.
+     */
+    @Test public void testCrecimientoIncremental() {
+        diccionario.setCrecimientoIncremental(true);
+        int ini = random.nextInt(10000);
+        String[] arreglo = new String[total * 8];
+        for (int i = 0; i < arreglo.length; i++) {
+            arreglo[i] = String.format("%x", ini + i * 1000);
+            diccionario.agrega(arreglo[i], arreglo[i]);
+            Assert.assertTrue(diccionario.getElementos() == i+1);
+            Assert.assertTrue(diccionario.carga() < Diccionario.MAXIMA_CARGA);
+            for (int j = 0; j <= i; j += 1 + i / 8)
+                Assert.assertTrue(diccionario.contiene(arreglo[j]));
+            /* Las búsquedas migran listas; aun así el recorrido debe ver
+               cada entrada una sola vez. */
+            int c = 0;
+            for (String s : diccionario) {
+                Assert.assertTrue(diccionario.get(s).equals(s));
+                c++;
+            }
+            Assert.assertTrue(c == i+1);
+        }
+        Assert.assertTrue(diccionario.llaves().getLongitud() == arreglo.length);
+        int c = 0;
+        for (String s : diccionario)
+            c++;
+        Assert.assertTrue(c == arreglo.length);
+        for (int i = 0; i < arreglo.length; i++) {
+            Assert.assertTrue(diccionario.get(arreglo[i]).equals(arreglo[i]));
+            diccionario.elimina(arreglo[i]);
+            Assert.assertFalse(diccionario.contiene(arreglo[i]));
+        }
+        Assert.assertTrue(diccionario.esVacio());
+    }
+
+    /**
+     * Prueba unitaria para {@link Diccionario#getOPredeterminado}.
+     */
+    @Test public void testGetOPredeterminado() {
+        int ini = random.nextInt(10000);
+        for (int i = 0; i < total; i++) {
+            String s = String.format("%x", ini + i * 1000);
+            Assert.assertTrue(diccionario.getOPredeterminado(s, "X").equals("X"));
+            diccionario.agrega(s, s);
+            Assert.assertTrue(diccionario.getOPredeterminado(s, "X").equals(s));
+        }
+        Assert.assertTrue(diccionario.getElementos() == total);
+    }
+
+    /**
+     * Prueba unitaria para {@link Diccionario#calculaSiAusente}.
+     */
+    @Test public void testCalculaSiAusente() {
+        int ini = random.nextInt(10000);
+        for (int i = 0; i < total; i++) {
+            String s = String.format("%x", ini + i * 1000);
+            String v = diccionario.calculaSiAusente(s, k -> k + "!");
+            Assert.assertTrue(v.equals(s + "!"));
+            v = diccionario.calculaSiAusente(s, k -> { Assert.fail(); return k; });
+            Assert.assertTrue(v.equals(s + "!"));
+            Assert.assertTrue(diccionario.getElementos() == i+1);
+        }
+        Assert.assertTrue(diccionario.calculaSiAusente("X", k -> null) == null);
+        Assert.assertFalse(diccionario.contiene("X"));
+        try {
+            diccionario.calculaSiAusente(null, k -> k);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link Diccionario#calcula}.
+     */
+    @Test public void testCalcula() {
+        int ini = random.nextInt(10000);
+        String[] arreglo = new String[total];
+        for (int i = 0; i < total; i++) {
+            arreglo[i] = String.format("%x", ini + i * 1000);
+            String v = diccionario.calcula(arreglo[i], (k, a) -> {
+                    Assert.assertTrue(a == null);
+                    return k;
+                });
+            Assert.assertTrue(v.equals(arreglo[i]));
+            v = diccionario.calcula(arreglo[i], (k, a) -> a + k);
+            Assert.assertTrue(v.equals(arreglo[i] + arreglo[i]));
+            Assert.assertTrue(diccionario.get(arreglo[i]).equals(v));
+        }
+        Assert.assertTrue(diccionario.getElementos() == total);
+        for (int i = 0; i < total; i++) {
+            Assert.assertTrue(diccionario.calcula(arreglo[i], (k, a) -> null) == null);
+            Assert.assertFalse(diccionario.contiene(arreglo[i]));
+            Assert.assertTrue(diccionario.getElementos() == total - (i+1));
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link Diccionario#mezcla}.
+     */
+    @Test public void testMezcla() {
+        Diccionario<String, Integer> cuentas = new Diccionario<String, Integer>();
+        int ini = random.nextInt(10000);
+        String[] arreglo = new String[total];
+        for (int i = 0; i < total; i++)
+            arreglo[i] = String.format("%x", ini + i * 1000);
+        for (int n = 1; n <= 3; n++)
+            for (int i = 0; i < total; i++) {
+                int v = cuentas.mezcla(arreglo[i], 1, Integer::sum);
+                Assert.assertTrue(v == n);
+            }
+        Assert.assertTrue(cuentas.getElementos() == total);
+        for (int i = 0; i < total; i++) {
+            Assert.assertTrue(cuentas.mezcla(arreglo[i], 1, (a, b) -> null) == null);
+            Assert.assertFalse(cuentas.contiene(arreglo[i]));
+        }
+        Assert.assertTrue(cuentas.esVacio());
+        try {
+            cuentas.mezcla("X", null, Integer::sum);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link Diccionario#indicesConArbol}.
+     */
+    @Test public void testIndicesConArbol() {
+        for (int k = 0; k < 2; k++) {
+            Diccionario<String, String> d =
+                new Diccionario<String, String>(s -> s.length() & 1);
+            d.setCrecimientoIncremental(k == 1);
+            Assert.assertTrue(d.indicesConArbol().esVacio());
+            int ini = random.nextInt(10000);
+            String[] arreglo = new String[total * 4];
+            for (int i = 0; i < arreglo.length; i++) {
+                arreglo[i] = String.format("%x", ini + i * 1000);
+                d.agrega(arreglo[i], arreglo[i]);
+            }
+            Assert.assertFalse(d.indicesConArbol().esVacio());
+            Assert.assertTrue(d.colisionMaxima() >= arreglo.length / 2 - 1);
+            for (String s : arreglo)
+                Assert.assertTrue(d.get(s).equals(s));
+            Assert.assertFalse(d.contiene("X"));
+            Lista<String> llaves = d.llaves();
+            Assert.assertTrue(llaves.getLongitud() == arreglo.length);
+            for (String s : arreglo)
+                Assert.assertTrue(llaves.contiene(s));
+            for (int i = 0; i < arreglo.length; i++) {
+                d.elimina(arreglo[i]);
+                Assert.assertFalse(d.contiene(arreglo[i]));
+                Assert.assertTrue(d.getElementos() == arreglo.length - (i+1));
+            }
+            Assert.assertTrue(d.indicesConArbol().esVacio());
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link Diccionario#indicesConArbol} con llaves que
+     * no se pueden comparar.
+     */
+    @Test public void testIndicesConArbolIncomparables() {
+        Diccionario<Object, Integer> d =
+            new Diccionario<Object, Integer>(o -> 0);
+        Object[] arreglo = new Object[total];
+        for (int i = 0; i < total; i++) {
+            arreglo[i] = new Object();
+            d.agrega(arreglo[i], i);
+        }
+        Assert.assertTrue(d.indicesConArbol().getLongitud() == 1);
+        Assert.assertTrue(d.colisionMaxima() == total - 1);
+        for (int i = 0; i < total; i++)
+            Assert.assertTrue(d.get(arreglo[i]) == i);
+        Assert.assertFalse(d.contiene(new Object()));
+        for (int i = 0; i < total; i++)
+            d.elimina(arreglo[i]);
+        Assert.assertTrue(d.esVacio());
+        Assert.assertTrue(d.indicesConArbol().esVacio());
+    }
+
+    /**
+     * Prueba unitaria para {@link Diccionario#elimina} en un árbol con dos
+     * llaves incomparables que tienen el mismo código de identidad.
+     */
+    @Test public void testEliminaIdentidadesIguales() {
+        Diccionario<Integer, Object> vistos =
+            new Diccionario<Integer, Object>();
+        Object a = null, b = null;
+        while (a == null) {
+            Object o = new Object();
+            int h = System.identityHashCode(o);
+            if (vistos.contiene(h)) {
+                a = vistos.get(h);
+                b = o;
+            } else {
+                vistos.agrega(h, o);
+            }
+        }
+        vistos = null;
+        for (int k = 0; k < 2; k++) {
+            Diccionario<Object, Integer> d =
+                new Diccionario<Object, Integer>(o -> 0);
+            Object[] arreglo = new Object[total];
+            for (int i = 0; i < total; i++) {
+                arreglo[i] = i == total / 3 ? a : i == total / 2 ? b :
+                    new Object();
+                d.agrega(arreglo[i], i);
+            }
+            Assert.assertTrue(d.indicesConArbol().getLongitud() == 1);
+            Object x = k == 0 ? a : b;
+            Object y = k == 0 ? b : a;
+            d.elimina(x);
+            Assert.assertFalse(d.contiene(x));
+            Assert.assertTrue(d.contiene(y));
+            Assert.assertTrue(d.getElementos() == total - 1);
+            d.elimina(y);
+            Assert.assertFalse(d.contiene(y));
+            Assert.assertTrue(d.getElementos() == total - 2);
+            int c = 0;
+            for (Integer v : d)
+                c++;
+            Assert.assertTrue(c == total - 2);
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link Diccionario#vistaLlaves} y {@link
+     * Diccionario#vistaValores}.
+     */
+    @Test public void testVistas() {
+        diccionario.setCrecimientoIncremental(true);
+        int ini = random.nextInt(10000);
+        String[] arreglo = new String[total * 2];
+        for (int i = 0; i < arreglo.length; i++) {
+            arreglo[i] = String.format("%x", ini + i * 1000);
+            diccionario.agrega(arreglo[i], arreglo[i] + "v");
+        }
+        Iterable<String> llaves = diccionario.vistaLlaves();
+        Iterable<String> valores = diccionario.vistaValores();
+        for (int k = 0; k < 2; k++) {
+            Lista<String> l = new Lista<String>();
+            for (String llave : llaves) {
+                Assert.assertFalse(l.contiene(llave));
+                Assert.assertTrue(diccionario.get(llave).equals(llave + "v"));
+                l.agrega(llave);
+            }
+            Assert.assertTrue(l.getLongitud() == arreglo.length);
+            int c = 0;
+            for (String valor : valores) {
+                Assert.assertTrue(valor.endsWith("v"));
+                c++;
+            }
+            Assert.assertTrue(c == arreglo.length);
+            /* La vista refleja los cambios hechos entre recorridos. */
+            diccionario.elimina(arreglo[k]);
+            diccionario.agrega(arreglo[k], arreglo[k] + "v");
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link Diccionario#entradas}.
+     */
+    @Test public void testEntradas() {
+        Assert.assertFalse(diccionario.entradas().iterator().hasNext());
+        int ini = random.nextInt(10000);
+        for (int i = 0; i < total; i++) {
+            String s = String.format("%x", ini + i * 1000);
+            diccionario.agrega(s, s + s);
+        }
+        int c = 0;
+        for (EntradaDiccionario<String, String> e : diccionario.entradas()) {
+            Assert.assertTrue(e.getValor().equals(e.getLlave() + e.getLlave()));
+            Assert.assertTrue(diccionario.get(e.getLlave()) == e.getValor());
+            c++;
+        }
+        Assert.assertTrue(c == total);
+    }
+
+    /**
+     * Prueba unitaria para {@link Diccionario#paraCada}.
+     */
+    @Test public void testParaCada() {
+        Diccionario<String, Integer> d =
+            new Diccionario<String, Integer>(s -> s.length());
+        d.setCrecimientoIncremental(true);
+        int suma = 0;
+        for (int i = 0; i < total * 4; i++) {
+            d.agrega(String.valueOf(i), i);
+            suma += i;
+        }
+        int[] r = new int[2];
+        d.paraCada((k, v) -> {
+                Assert.assertTrue(k.equals(String.valueOf(v)));
+                r[0] += v;
+                r[1]++;
+            });
+        Assert.assertTrue(r[0] == suma);
+        Assert.assertTrue(r[1] == total * 4);
+    }
+
+    /* Regresa la longitud del arreglo del diccionario. */
+    private static long longitud(Diccionario<?, ?> d) {
+        return Math.round(d.getElementos() / d.carga());
+    }
+
+    /**
+     * Prueba unitaria para el encogimiento de {@link Diccionario} al
+     * eliminar.
+     */
+    @Test public void testEncoge() {
+        Diccionario<String, String> d = new Diccionario<String, String>(1);
+        String[] arreglo = new String[total * 64];
+        for (int i = 0; i < arreglo.length; i++) {
+            arreglo[i] = String.valueOf(i);
+            d.agrega(arreglo[i], arreglo[i]);
+        }
+        long l = longitud(d);
+        long maxima = l;
+        for (int i = 0; i < arreglo.length - 1; i++) {
+            d.elimina(arreglo[i]);
+            double c = d.carga();
+            long n = Math.round((arreglo.length - i - 1) / c);
+            if (n != l) {
+                Assert.assertTrue(n < l);
+                Assert.assertTrue(c <= 0.5);
+                l = n;
+            }
+            Assert.assertTrue(c >= Diccionario.MINIMA_CARGA || l == 64);
+        }
+        Assert.assertTrue(l < maxima);
+        Assert.assertTrue(l == 64);
+        Assert.assertTrue(d.getElementos() == 1);
+        Assert.assertTrue(d.get(arreglo[arreglo.length - 1]).equals(
+                              arreglo[arreglo.length - 1]));
+        int c = 0;
+        for (String s : d)
+            c++;
+        Assert.assertTrue(c == 1);
+    }
+
+    /**
+     * Prueba unitaria para {@link Diccionario#recorta}.
+     */
+    @Test public void testRecorta() {
+        for (int k = 0; k < 2; k++) {
+            Diccionario<String, String> d =
+                new Diccionario<String, String>(total * 64);
+            d.setCrecimientoIncremental(k == 1);
+            String[] arreglo = new String[total];
+            for (int i = 0; i < total; i++) {
+                arreglo[i] = String.valueOf(random.nextInt());
+                d.agrega(arreglo[i], arreglo[i]);
+            }
+            long l = longitud(d);
+            d.recorta();
+            Assert.assertTrue(longitud(d) < l);
+            Assert.assertTrue(d.carga() < Diccionario.MAXIMA_CARGA);
+            Assert.assertTrue(d.carga() >= Diccionario.MAXIMA_CARGA / 2 ||
+                              longitud(d) == 64);
+            for (int i = 0; i < total; i++)
+                Assert.assertTrue(d.get(arreglo[i]).equals(arreglo[i]));
+            Assert.assertTrue(d.llaves().getLongitud() == d.getElementos());
+            for (int i = 0; i < total; i++)
+                if (d.contiene(arreglo[i]))
+                    d.elimina(arreglo[i]);
+            Assert.assertTrue(d.esVacio());
+            d.recorta();
+            d.agrega("a", "a");
+            Assert.assertTrue(longitud(d) == 64);
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link Diccionario#compacta}.
+     */
+    @Test public void testCompacta() {
+        Diccionario<String, String> d =
+            new Diccionario<String, String>(total, (s) -> s.length());
+        String[] arreglo = new String[total];
+        for (int i = 0; i < total; i++) {
+            arreglo[i] = String.valueOf(i);
+            d.agrega(arreglo[i], arreglo[i]);
+        }
+        long l = longitud(d);
+        for (int i = 0; i < total; i += 2)
+            d.elimina(arreglo[i]);
+        int colisiones = d.colisiones();
+        d.compacta();
+        Assert.assertTrue(longitud(d) == l);
+        Assert.assertTrue(d.colisiones() == colisiones);
+        for (int i = 0; i < total; i++)
+            Assert.assertTrue(d.contiene(arreglo[i]) == (i % 2 == 1));
+        int c = 0;
+        for (String s : d)
+            c++;
+        Assert.assertTrue(c == total / 2);
+    }
 }
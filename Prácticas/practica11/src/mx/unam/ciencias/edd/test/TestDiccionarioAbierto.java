@@ -0,0 +1,350 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+import mx.unam.ciencias.edd.AlgoritmoDispersor;
+import mx.unam.ciencias.edd.Arreglos;
+import mx.unam.ciencias.edd.DiccionarioAbierto;
+import mx.unam.ciencias.edd.Dispersor;
+import mx.unam.ciencias.edd.FabricaDispersores;
+import mx.unam.ciencias.edd.Lista;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link DiccionarioAbierto}.
+ */
+public class TestDiccionarioAbierto {
+
+    private int total;
+    private Random random;
+    private DiccionarioAbierto<String, String> diccionario;
+
+    private static final int N = 64;
+
+    /**
+     * Crea un diccionario para cada prueba.
+     */
+    public TestDiccionarioAbierto() {
+        random = new Random();
+        total = N + random.nextInt(N);
+        diccionario = new DiccionarioAbierto<String, String>(total);
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioAbierto#DiccionarioAbierto}.
+     */
+    @Test public void testConstructor() {
+        Assert.assertTrue(diccionario.esVacio());
+        Assert.assertTrue(diccionario.getElementos() == 0);
+        Lista<String> llaves = diccionario.llaves();
+        Lista<String> valores = diccionario.valores();
+        Assert.assertTrue(llaves.getLongitud() == 0);
+        Assert.assertTrue(valores.getLongitud() == 0);
+        Assert.assertTrue(diccionario.carga() == 0.0);
+        Assert.assertTrue(diccionario.colisiones() == 0);
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioAbierto#agrega}.
+     */
+    @Test public void testAgrega() {
+        int ini = random.nextInt(10000);
+        for (int i = 0; i < total * 2; i++) {
+            String s = String.format("%x", ini + i * 1000);
+            Assert.assertFalse(diccionario.contiene(s));
+            diccionario.agrega(s, s);
+            Assert.assertTrue(diccionario.getElementos() == i+1);
+            Assert.assertTrue(diccionario.contiene(s));
+            Assert.assertTrue(diccionario.get(s).equals(s));
+            Assert.assertTrue(diccionario.carga() < DiccionarioAbierto.MAXIMA_CARGA);
+        }
+        String k = String.format("%x", ini);
+        String v = String.format("%x", ini+1);
+        diccionario.agrega(k, v);
+        Assert.assertTrue(diccionario.getElementos() == total*2);
+        Assert.assertTrue(diccionario.contiene(k));
+        Assert.assertTrue(diccionario.get(k).equals(v));
+        Assert.assertTrue(diccionario.carga() < DiccionarioAbierto.MAXIMA_CARGA);
+        try {
+            diccionario.agrega(null, "X");
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            diccionario.agrega("X", null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioAbierto#get}.
+     */
+    @Test public void testGet() {
+        int ini = 1 + random.nextInt(10000);
+        for (int i = 0; i < total; i++) {
+            String s = String.format("%x", ini + i * 1000);
+            diccionario.agrega(s, s);
+            Assert.assertTrue(diccionario.get(s).equals(s));
+        }
+        try {
+            diccionario.get("00000");
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioAbierto#contiene}.
+     */
+    @Test public void testContiene() {
+        int ini = random.nextInt(10000);
+        for (int i = 0; i < total; i++) {
+            String s = String.format("%x", ini + i * 1000);
+            Assert.assertFalse(diccionario.contiene(s));
+            diccionario.agrega(s, s);
+            Assert.assertTrue(diccionario.contiene(s));
+        }
+        Assert.assertFalse(diccionario.contiene("00000"));
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioAbierto#elimina}.
+     */
+    @Test public void testElimina() {
+        String[] arreglo = new String[total];
+        int ini = random.nextInt(10000);
+        for (int i = 0; i < total; i++) {
+            arreglo[i] = String.format("%x", ini + i * 1000);
+            diccionario.agrega(arreglo[i], arreglo[i]);
+        }
+        for (int i = 0; i < total; i++) {
+            Assert.assertTrue(diccionario.contiene(arreglo[i]));
+            diccionario.elimina(arreglo[i]);
+            Assert.assertFalse(diccionario.contiene(arreglo[i]));
+            Assert.assertTrue(diccionario.getElementos() == total - (i+1));
+            try {
+                diccionario.get(arreglo[i]);
+                Assert.fail();
+            } catch (NoSuchElementException nsee) {}
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioAbierto#llaves}.
+     */
+    @Test public void testLlaves() {
+        String[] arreglo = new String[total];
+        int ini = random.nextInt(10000);
+        for (int i = 0; i < total; i++) {
+            arreglo[i] = String.format("%x", ini + i * 1000);
+            diccionario.agrega(arreglo[i], arreglo[i]);
+        }
+        Lista<String> llaves = diccionario.llaves();
+        Assert.assertTrue(llaves.getLongitud() == total);
+        llaves = Lista.mergeSort(llaves);
+        Arreglos.quickSort(arreglo);
+        int i = 0;
+        for (String k : llaves)
+            Assert.assertTrue(k.equals(arreglo[i++]));
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioAbierto#valores}.
+     */
+    @Test public void testValores() {
+        String[] arreglo = new String[total];
+        int ini = random.nextInt(10000);
+        for (int i = 0; i < total; i++) {
+            arreglo[i] = String.format("%x", ini + i * 1000);
+            diccionario.agrega(arreglo[i], arreglo[i]);
+        }
+        Lista<String> valores = diccionario.valores();
+        Assert.assertTrue(valores.getLongitud() == total);
+        valores = Lista.mergeSort(valores);
+        Arreglos.quickSort(arreglo);
+        int i = 0;
+        for (String k : valores)
+            Assert.assertTrue(k.equals(arreglo[i++]));
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioAbierto#colisiones}.
+     */
+    @Test public void testColisiones() {
+        Dispersor<String> hd;
+        hd = FabricaDispersores.getInstancia(AlgoritmoDispersor.XOR_STRING);
+        diccionario = new DiccionarioAbierto<String, String>(total, hd);
+        byte[] bs1 = { 0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08 };
+        byte[] bs2 = { 0x05, 0x06, 0x07, 0x08, 0x01, 0x02, 0x03, 0x04 };
+        String val1 = String.format("%x", random.nextInt(1000));
+        String val2 = String.format("%x", random.nextInt(1000));
+        diccionario.agrega(new String(bs1), val1);
+        diccionario.agrega(new String(bs2), val2);
+        Assert.assertTrue(diccionario.colisiones() == 1);
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioAbierto#colisionMaxima}.
+     */
+    @Test public void testColisionMaxima() {
+        int r = random.nextInt(10000);
+        String s = String.format("%x", r);
+        diccionario.agrega(s, s);
+        Assert.assertTrue(diccionario.colisionMaxima() == 0);
+        Dispersor<String> hd;
+        hd = FabricaDispersores.getInstancia(AlgoritmoDispersor.XOR_STRING);
+        diccionario = new DiccionarioAbierto<String, String>(total, hd);
+        byte[] bs1 = { 0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08 };
+        byte[] bs2 = { 0x05, 0x06, 0x07, 0x08, 0x01, 0x02, 0x03, 0x04 };
+        String val1 = String.format("%x", random.nextInt(1000));
+        String val2 = String.format("%x", random.nextInt(1000));
+        diccionario.agrega(new String(bs1), val1);
+        diccionario.agrega(new String(bs2), val2);
+        Assert.assertTrue(diccionario.colisionMaxima() == 1);
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioAbierto#carga}.
+     */
+    @Test public void testCarga() {
+        int ini = random.nextInt(10000);
+        double c = 0.0;
+        for (int i = 0; i < total; i++) {
+            String s = String.format("%x", ini + i * 1000);
+            diccionario.agrega(s, s);
+            Assert.assertTrue(diccionario.carga() > c);
+            c = diccionario.carga();
+            Assert.assertTrue(diccionario.carga() < DiccionarioAbierto.MAXIMA_CARGA);
+        }
+        for (int i = total; i < total*4; i++) {
+            String s = String.format("%x", ini + i * 1000);
+            diccionario.agrega(s, s);
+            Assert.assertTrue(diccionario.carga() < DiccionarioAbierto.MAXIMA_CARGA);
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioAbierto#getElementos}.
+     */
+    @Test public void testGetElementos() {
+        int ini = random.nextInt(10000);
+        for (int i = 0; i < total; i++) {
+            String s = String.format("%x", ini + i * 1000);
+            diccionario.agrega(s, s);
+            Assert.assertTrue(diccionario.getElementos() == i+1);
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioAbierto#esVacio}.
+     */
+    @Test public void testEsVacio() {
+        Assert.assertTrue(diccionario.esVacio());
+        int ini = random.nextInt(10000);
+        for (int i = 0; i < total; i++) {
+            String s = String.format("%x", ini + i * 1000);
+            diccionario.agrega(s, s);
+            Assert.assertFalse(diccionario.esVacio());
+        }
+        Lista<String> llaves = diccionario.llaves();
+        for (String llave : llaves) {
+            Assert.assertFalse(diccionario.esVacio());
+            diccionario.elimina(llave);
+        }
+        Assert.assertTrue(diccionario.esVacio());
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioAbierto#equals}.
+     */
+    @Test public void testEquals() {
+        DiccionarioAbierto<String, String> d2 = new DiccionarioAbierto<String, String>();
+        Assert.assertTrue(diccionario.equals(d2));
+        int ini = random.nextInt(10000);
+        String[] a = new String[total];
+        for (int i = 0; i < total; i++)
+            a[i] = String.format("%x", ini + i * 1000);
+        for (int i = 0; i < total; i++) {
+            diccionario.agrega(a[i], a[i]);
+            d2.agrega(a[total - i - 1], a[total - i - 1]);
+        }
+        Assert.assertFalse(diccionario == d2);
+        Assert.assertTrue(diccionario.equals(d2));
+        for (int i = 0; i < total; i++) {
+            diccionario.elimina(a[i]);
+            Assert.assertFalse(diccionario.equals(d2));
+            d2.elimina(a[i]);
+            Assert.assertTrue(diccionario.equals(d2));
+        }
+        Assert.assertTrue(diccionario.esVacio());
+        Assert.assertTrue(d2.esVacio());
+        Assert.assertTrue(diccionario.equals(d2));
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioAbierto#iterator}.
+     */
+    @Test public void testIterator() {
+        int ini = random.nextInt(10000);
+        Lista<String> lista = new Lista<String>();
+        for (int i = 0; i < total; i++) {
+            String s = String.format("%x", ini + i * 1000);
+            diccionario.agrega(s, s);
+            lista.agregaFinal(s);
+        }
+        int c = 0;
+        for (String s : diccionario) {
+            Assert.assertTrue(lista.contiene(s));
+            lista.elimina(s);
+            c++;
+        }
+        Assert.assertTrue(c == total);
+        Assert.assertTrue(lista.getLongitud() == 0);
+        Lista<String> llaves = diccionario.llaves();
+        for (String llave : llaves)
+            diccionario.elimina(llave);
+        for (String s : diccionario);
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioAbierto#elimina} con muchas
+     * llaves en los mismos índices iniciales, para revisar el recorrido hacia
+     * atrás de las entradas.
+     */
+    @Test public void testEliminaConColisiones() {
+        Dispersor<String> malo = (s) -> s.length() % 3;
+        diccionario = new DiccionarioAbierto<String, String>(total, malo);
+        String[] arreglo = new String[total];
+        int ini = random.nextInt(10000);
+        for (int i = 0; i < total; i++) {
+            arreglo[i] = String.format("%x", ini + i * 1000);
+            diccionario.agrega(arreglo[i], arreglo[i]);
+        }
+        Assert.assertTrue(diccionario.getElementos() == total);
+        for (int i = 0; i < total; i += 2) {
+            diccionario.elimina(arreglo[i]);
+            Assert.assertFalse(diccionario.contiene(arreglo[i]));
+        }
+        for (int i = 1; i < total; i += 2) {
+            Assert.assertTrue(diccionario.contiene(arreglo[i]));
+            Assert.assertTrue(diccionario.get(arreglo[i]).equals(arreglo[i]));
+        }
+        Assert.assertTrue(diccionario.getElementos() == total / 2);
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioAbierto#agrega} con llaves cuyas
+     * dispersiones sólo difieren en los bits altos; sin mezclarlas, todas
+     * tendrían el mismo índice inicial.
+     */
+    @Test public void testAgregaDispersionesAltas() {
+        Dispersor<Integer> identidad = (k) -> k;
+        DiccionarioAbierto<Integer, Integer> d;
+        d = new DiccionarioAbierto<Integer, Integer>(total, identidad);
+        for (int i = 0; i < total; i++)
+            d.agrega(i << 16, i);
+        Assert.assertTrue(d.getElementos() == total);
+        Assert.assertTrue(d.colisionMaxima() < total / 4);
+        for (int i = 0; i < total; i++)
+            Assert.assertTrue(d.get(i << 16) == i);
+    }
+}
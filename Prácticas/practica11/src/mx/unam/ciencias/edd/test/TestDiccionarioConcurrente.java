@@ -0,0 +1,147 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import mx.unam.ciencias.edd.DiccionarioConcurrente;
+import mx.unam.ciencias.edd.Lista;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link DiccionarioConcurrente}.
+ */
+public class TestDiccionarioConcurrente {
+
+    private int total;
+    private Random random;
+    private DiccionarioConcurrente<String, String> diccionario;
+
+    private static final int N = 64;
+    private static final int HILOS = 8;
+
+    /**
+     * Crea un diccionario para cada prueba.
+     */
+    public TestDiccionarioConcurrente() {
+        random = new Random();
+        total = N + random.nextInt(N);
+        diccionario = new DiccionarioConcurrente<String, String>();
+    }
+
+    /* Ejecuta la acción en varios hilos y espera a que terminen. */
+    private void enHilos(Runnable accion) {
+        Thread[] hilos = new Thread[HILOS];
+        for (int i = 0; i < HILOS; i++) {
+            hilos[i] = new Thread(accion);
+            hilos[i].start();
+        }
+        try {
+            for (Thread h : hilos)
+                h.join();
+        } catch (InterruptedException ie) {
+            Assert.fail();
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioConcurrente#agrega}, {@link
+     * DiccionarioConcurrente#get} y {@link DiccionarioConcurrente#elimina} en
+     * un solo hilo.
+     */
+    @Test public void testAgregaGetElimina() {
+        int ini = random.nextInt(10000);
+        String[] arreglo = new String[total * 4];
+        for (int i = 0; i < arreglo.length; i++) {
+            arreglo[i] = String.format("%x", ini + i * 1000);
+            Assert.assertFalse(diccionario.contiene(arreglo[i]));
+            diccionario.agrega(arreglo[i], arreglo[i]);
+            Assert.assertTrue(diccionario.getElementos() == i+1);
+            Assert.assertTrue(diccionario.get(arreglo[i]).equals(arreglo[i]));
+        }
+        Assert.assertTrue(diccionario.carga() < DiccionarioConcurrente.MAXIMA_CARGA);
+        Lista<String> llaves = diccionario.llaves();
+        Assert.assertTrue(llaves.getLongitud() == arreglo.length);
+        for (int i = 0; i < arreglo.length; i++) {
+            diccionario.elimina(arreglo[i]);
+            Assert.assertFalse(diccionario.contiene(arreglo[i]));
+            Assert.assertTrue(diccionario.getElementos() == arreglo.length - (i+1));
+        }
+        try {
+            diccionario.get(arreglo[0]);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        try {
+            diccionario.elimina(arreglo[0]);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        try {
+            diccionario.agrega(null, "X");
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioConcurrente#mezcla} con varios
+     * hilos contando las mismas llaves mientras el diccionario crece.
+     */
+    @Test public void testMezclaConcurrente() {
+        DiccionarioConcurrente<Integer, Integer> cuentas =
+            new DiccionarioConcurrente<Integer, Integer>();
+        int llaves = total * 32;
+        enHilos(() -> {
+                for (int r = 0; r < 4; r++)
+                    for (int i = 0; i < llaves; i++)
+                        cuentas.mezcla(i, 1, Integer::sum);
+            });
+        Assert.assertTrue(cuentas.getElementos() == llaves);
+        for (int i = 0; i < llaves; i++)
+            Assert.assertTrue(cuentas.get(i) == HILOS * 4);
+        int suma = 0;
+        for (Integer v : cuentas)
+            suma += v;
+        Assert.assertTrue(suma == llaves * HILOS * 4);
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioConcurrente#calculaSiAusente}: la
+     * función se evalúa una sola vez por llave aunque varios hilos la pidan.
+     */
+    @Test public void testCalculaSiAusenteConcurrente() {
+        AtomicInteger evaluaciones = new AtomicInteger();
+        int llaves = total * 32;
+        enHilos(() -> {
+                for (int i = 0; i < llaves; i++) {
+                    String s = String.valueOf(i);
+                    String v = diccionario.calculaSiAusente(s, k -> {
+                            evaluaciones.incrementAndGet();
+                            return k + "!";
+                        });
+                    Assert.assertTrue(v.equals(s + "!"));
+                }
+            });
+        Assert.assertTrue(evaluaciones.get() == llaves);
+        Assert.assertTrue(diccionario.getElementos() == llaves);
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioConcurrente#elimina} con varios
+     * hilos agregando y eliminando llaves distintas.
+     */
+    @Test public void testEliminaConcurrente() {
+        int llaves = total * 16;
+        AtomicInteger hilo = new AtomicInteger();
+        enHilos(() -> {
+                int h = hilo.getAndIncrement();
+                for (int i = 0; i < llaves; i++)
+                    diccionario.agrega(h + ":" + i, "x");
+                for (int i = 0; i < llaves; i += 2)
+                    diccionario.elimina(h + ":" + i);
+            });
+        Assert.assertTrue(diccionario.getElementos() == HILOS * llaves / 2);
+        for (int h = 0; h < HILOS; h++)
+            for (int i = 0; i < llaves; i++)
+                Assert.assertTrue(diccionario.contiene(h + ":" + i) == (i % 2 == 1));
+        Assert.assertTrue(diccionario.llaves().getLongitud() == HILOS * llaves / 2);
+    }
+}
@@ -0,0 +1,289 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+import mx.unam.ciencias.edd.AlgoritmoDispersor;
+import mx.unam.ciencias.edd.DiccionarioCuckoo;
+import mx.unam.ciencias.edd.EntradaDiccionario;
+import mx.unam.ciencias.edd.Lista;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link DiccionarioCuckoo}.
+ */
+public class TestDiccionarioCuckoo {
+
+    private int total;
+    private Random random;
+    private DiccionarioCuckoo<String, String> diccionario;
+
+    private static final int N = 256;
+
+    /**
+     * Crea un diccionario para cada prueba.
+     */
+    public TestDiccionarioCuckoo() {
+        random = new Random();
+        total = N + random.nextInt(N);
+        diccionario = new DiccionarioCuckoo<String, String>();
+    }
+
+    /* Llave cuyo código de dispersión siempre es el mismo. */
+    private static class Colision implements Comparable<Colision> {
+
+        private int n;
+
+        public Colision(int n) {
+            this.n = n;
+        }
+
+        @Override public int hashCode() {
+            return 42;
+        }
+
+        @Override public boolean equals(Object o) {
+            if (o == null || getClass() != o.getClass())
+                return false;
+            return ((Colision)o).n == n;
+        }
+
+        @Override public int compareTo(Colision c) {
+            return Integer.compare(n, c.n);
+        }
+    }
+
+    /* Regresa la i-ésima llave de las pruebas. */
+    private static String llave(int i) {
+        return String.format("%x", i * 1009);
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioCuckoo#DiccionarioCuckoo}.
+     */
+    @Test public void testConstructor() {
+        Assert.assertTrue(diccionario.esVacio());
+        Assert.assertTrue(diccionario.getElementos() == 0);
+        Assert.assertTrue(diccionario.llaves().getLongitud() == 0);
+        Assert.assertTrue(diccionario.carga() == 0.0);
+        Assert.assertTrue(diccionario.colisiones() == 0);
+        Assert.assertTrue(diccionario.enReserva() == 0);
+        Assert.assertFalse(diccionario.iterator().hasNext());
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioCuckoo#agrega}.
+     */
+    @Test public void testAgrega() {
+        for (int i = 0; i < total; i++) {
+            String s = llave(i);
+            Assert.assertFalse(diccionario.contiene(s));
+            diccionario.agrega(s, s);
+            Assert.assertTrue(diccionario.getElementos() == i+1);
+            Assert.assertTrue(diccionario.contiene(s));
+            Assert.assertTrue(diccionario.get(s).equals(s));
+            Assert.assertTrue(diccionario.carga() <=
+                              DiccionarioCuckoo.MAXIMA_CARGA);
+        }
+        for (int i = 0; i < total; i++)
+            Assert.assertTrue(diccionario.get(llave(i)).equals(llave(i)));
+        diccionario.agrega(llave(0), "X");
+        Assert.assertTrue(diccionario.getElementos() == total);
+        Assert.assertTrue(diccionario.get(llave(0)).equals("X"));
+        try {
+            diccionario.agrega(null, "X");
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            diccionario.agrega("X", null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioCuckoo#get} y {@link
+     * DiccionarioCuckoo#getOPredeterminado}.
+     */
+    @Test public void testGet() {
+        for (int i = 0; i < total; i++)
+            diccionario.agrega(llave(i), String.valueOf(i));
+        for (int i = 0; i < total; i++)
+            Assert.assertTrue(diccionario.get(llave(i))
+                              .equals(String.valueOf(i)));
+        Assert.assertTrue(diccionario.getOPredeterminado("ausente", "X")
+                          .equals("X"));
+        try {
+            diccionario.get("ausente");
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioCuckoo#elimina}.
+     */
+    @Test public void testElimina() {
+        for (int i = 0; i < total; i++)
+            diccionario.agrega(llave(i), llave(i));
+        for (int i = 0; i < total; i += 2) {
+            diccionario.elimina(llave(i));
+            Assert.assertFalse(diccionario.contiene(llave(i)));
+        }
+        Assert.assertTrue(diccionario.getElementos() == total - (total+1)/2);
+        for (int i = 1; i < total; i += 2)
+            Assert.assertTrue(diccionario.get(llave(i)).equals(llave(i)));
+        try {
+            diccionario.elimina(llave(0));
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        for (int i = 1; i < total; i += 2)
+            diccionario.elimina(llave(i));
+        Assert.assertTrue(diccionario.esVacio());
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioCuckoo#llaves}, {@link
+     * DiccionarioCuckoo#valores}, {@link DiccionarioCuckoo#entradas} y {@link
+     * DiccionarioCuckoo#iterator}.
+     */
+    @Test public void testIterator() {
+        Lista<String> l = new Lista<String>();
+        for (int i = 0; i < total; i++) {
+            diccionario.agrega(llave(i), llave(i));
+            l.agrega(llave(i));
+        }
+        Lista<String> llaves = diccionario.llaves();
+        Lista<String> valores = diccionario.valores();
+        Assert.assertTrue(llaves.getLongitud() == total);
+        Assert.assertTrue(valores.getLongitud() == total);
+        for (String s : l) {
+            Assert.assertTrue(llaves.contiene(s));
+            Assert.assertTrue(valores.contiene(s));
+        }
+        int n = 0;
+        for (EntradaDiccionario<String, String> e : diccionario.entradas()) {
+            Assert.assertTrue(e.getLlave().equals(e.getValor()));
+            n++;
+        }
+        Assert.assertTrue(n == total);
+        int[] c = { 0 };
+        diccionario.paraCada((k, v) -> c[0]++);
+        Assert.assertTrue(c[0] == total);
+    }
+
+    /**
+     * Prueba que el diccionario funcione aunque muchas llaves tengan la misma
+     * dispersión, usando la reserva.
+     */
+    @Test public void testReserva() {
+        DiccionarioCuckoo<String, String> d =
+            new DiccionarioCuckoo<String, String>((String s) -> 0);
+        int n = 2 * DiccionarioCuckoo.RANURAS + DiccionarioCuckoo.TAM_RESERVA;
+        for (int i = 0; i < n; i++)
+            d.agrega(llave(i), llave(i));
+        Assert.assertTrue(d.enReserva() == DiccionarioCuckoo.TAM_RESERVA);
+        for (int i = 0; i < n; i++)
+            Assert.assertTrue(d.get(llave(i)).equals(llave(i)));
+        for (int i = n; i < 2 * n; i++)
+            d.agrega(llave(i), llave(i));
+        Assert.assertTrue(d.getElementos() == 2 * n);
+        for (int i = 0; i < 2 * n; i++)
+            Assert.assertTrue(d.get(llave(i)).equals(llave(i)));
+        d.elimina(llave(0));
+        Assert.assertFalse(d.contiene(llave(0)));
+        Assert.assertTrue(d.getElementos() == 2 * n - 1);
+    }
+
+    /**
+     * Prueba que muchas llaves con el mismo {@link Object#hashCode} vayan al
+     * desborde sin que crezcan la tabla ni la reserva.
+     */
+    @Test public void testMismoHashCode() {
+        DiccionarioCuckoo<Colision, Integer> d =
+            new DiccionarioCuckoo<Colision, Integer>();
+        int n = 8 * total;
+        for (int i = 0; i < n; i++) {
+            d.agrega(new Colision(i), i);
+            Assert.assertTrue(d.getElementos() == i + 1);
+            Assert.assertTrue(d.enReserva() <= DiccionarioCuckoo.TAM_RESERVA);
+        }
+        int enTabla = 2 * DiccionarioCuckoo.RANURAS +
+            DiccionarioCuckoo.TAM_RESERVA;
+        Assert.assertTrue(d.desbordadas() >= n - enTabla);
+        /* Las reconstrucciones no dependen de cuántas llaves choquen. */
+        Assert.assertTrue(d.reconstrucciones() <=
+                          4 * DiccionarioCuckoo.MAX_INTENTOS);
+        Assert.assertTrue(d.carga() > 0.1);
+        for (int i = 0; i < n; i++)
+            Assert.assertTrue(d.get(new Colision(i)) == i);
+        Assert.assertFalse(d.contiene(new Colision(n)));
+        d.agrega(new Colision(0), -1);
+        Assert.assertTrue(d.get(new Colision(0)) == -1);
+        Assert.assertTrue(d.getElementos() == n);
+        int c = 0;
+        for (Integer v : d)
+            c++;
+        Assert.assertTrue(c == n);
+        for (int i = 0; i < n; i += 2) {
+            d.elimina(new Colision(i));
+            Assert.assertFalse(d.contiene(new Colision(i)));
+        }
+        Assert.assertTrue(d.getElementos() == n / 2);
+        for (int i = 1; i < n; i += 2)
+            Assert.assertTrue(d.get(new Colision(i)) == i);
+        try {
+            d.elimina(new Colision(0));
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioCuckoo#deCadenas}.
+     */
+    @Test public void testDeCadenas() {
+        DiccionarioCuckoo<String, Integer> d =
+            DiccionarioCuckoo.deCadenas(AlgoritmoDispersor.MURMUR3_32);
+        for (int i = 0; i < total; i++)
+            d.agrega(llave(i), i);
+        for (int i = 0; i < total; i++)
+            Assert.assertTrue(d.get(llave(i)) == i);
+        try {
+            DiccionarioCuckoo.deCadenas(AlgoritmoDispersor.BJ_STRING);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioCuckoo#desplazamientos}, {@link
+     * DiccionarioCuckoo#desplazamientoMaximo} y {@link
+     * DiccionarioCuckoo#reconstrucciones}.
+     */
+    @Test public void testEstadisticas() {
+        for (int i = 0; i < total; i++)
+            diccionario.agrega(llave(i), llave(i));
+        Assert.assertTrue(diccionario.desplazamientos() >= 0);
+        Assert.assertTrue(diccionario.desplazamientoMaximo() <=
+                          DiccionarioCuckoo.MAX_DESPLAZAMIENTOS);
+        Assert.assertTrue(diccionario.desplazamientoMaximo() <=
+                          diccionario.desplazamientos());
+        Assert.assertTrue(diccionario.reconstrucciones() > 0);
+        Assert.assertTrue(diccionario.colisiones() <= total);
+        Assert.assertTrue(diccionario.colisionMaxima() < total);
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioCuckoo#equals}.
+     */
+    @Test public void testEquals() {
+        DiccionarioCuckoo<String, String> d =
+            new DiccionarioCuckoo<String, String>();
+        Assert.assertTrue(diccionario.equals(d));
+        for (int i = 0; i < total; i++) {
+            diccionario.agrega(llave(i), llave(i));
+            d.agrega(llave(total - 1 - i), llave(total - 1 - i));
+        }
+        Assert.assertTrue(diccionario.equals(d));
+        d.agrega(llave(0), "X");
+        Assert.assertFalse(diccionario.equals(d));
+        Assert.assertFalse(diccionario.equals(null));
+    }
+}
@@ -0,0 +1,135 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+import mx.unam.ciencias.edd.Diccionario;
+import mx.unam.ciencias.edd.DiccionarioIntInt;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link DiccionarioIntInt}.
+ */
+public class TestDiccionarioIntInt {
+
+    private int total;
+    private Random random;
+    private DiccionarioIntInt diccionario;
+
+    private static final int N = 64;
+
+    /**
+     * Crea un diccionario para cada prueba.
+     */
+    public TestDiccionarioIntInt() {
+        random = new Random();
+        total = N + random.nextInt(N);
+        diccionario = new DiccionarioIntInt(total);
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioIntInt#DiccionarioIntInt}.
+     */
+    @Test public void testConstructor() {
+        Assert.assertTrue(diccionario.esVacio());
+        Assert.assertTrue(diccionario.getElementos() == 0);
+        Assert.assertTrue(diccionario.llaves().length == 0);
+        Assert.assertTrue(diccionario.valores().length == 0);
+        Assert.assertTrue(diccionario.carga() == 0.0);
+        Assert.assertTrue(diccionario.colisiones() == 0);
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioIntInt#agrega} y {@link
+     * DiccionarioIntInt#get}, incluyendo a la llave 0.
+     */
+    @Test public void testAgrega() {
+        for (int i = 0; i < total * 4; i++) {
+            Assert.assertFalse(diccionario.contiene(i));
+            diccionario.agrega(i, -i);
+            Assert.assertTrue(diccionario.getElementos() == i+1);
+            Assert.assertTrue(diccionario.contiene(i));
+            Assert.assertTrue(diccionario.get(i) == -i);
+            Assert.assertTrue(diccionario.carga() < DiccionarioIntInt.MAXIMA_CARGA);
+        }
+        diccionario.agrega(0, 7);
+        Assert.assertTrue(diccionario.get(0) == 7);
+        Assert.assertTrue(diccionario.getElementos() == total * 4);
+        try {
+            diccionario.get(-1);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        Assert.assertTrue(diccionario.getOPredeterminado(-1, 5) == 5);
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioIntInt#elimina}, comparando
+     * contra un {@link Diccionario} con llaves aleatorias.
+     */
+    @Test public void testElimina() {
+        Diccionario<Integer, Integer> d = new Diccionario<Integer, Integer>();
+        for (int i = 0; i < total * 16; i++) {
+            int k = random.nextInt(total * 2);
+            if (random.nextBoolean()) {
+                diccionario.agrega(k, i);
+                d.agrega(k, i);
+            } else if (d.contiene(k)) {
+                diccionario.elimina(k);
+                d.elimina(k);
+            } else {
+                try {
+                    diccionario.elimina(k);
+                    Assert.fail();
+                } catch (NoSuchElementException nsee) {}
+            }
+            Assert.assertTrue(diccionario.getElementos() == d.getElementos());
+        }
+        for (int k = 0; k < total * 2; k++) {
+            Assert.assertTrue(diccionario.contiene(k) == d.contiene(k));
+            if (d.contiene(k))
+                Assert.assertTrue(diccionario.get(k) == d.get(k));
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioIntInt#mezcla}.
+     */
+    @Test public void testMezcla() {
+        for (int n = 1; n <= 3; n++)
+            for (int i = 0; i < total; i++)
+                Assert.assertTrue(diccionario.mezcla(i, 1, Integer::sum) == n);
+        Assert.assertTrue(diccionario.getElementos() == total);
+        int s = 0;
+        for (int v : diccionario.valores())
+            s += v;
+        Assert.assertTrue(s == total * 3);
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioIntInt#colisiones}.
+     */
+    @Test public void testColisiones() {
+        int c = 0;
+        for (int i = 0; i < total; i++) {
+            diccionario.agrega(random.nextInt(), i);
+            Assert.assertTrue(diccionario.colisiones() >= c);
+            c = diccionario.colisiones();
+        }
+        Assert.assertTrue(diccionario.colisionMaxima() <= c);
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioIntInt#equals}.
+     */
+    @Test public void testEquals() {
+        DiccionarioIntInt d2 = new DiccionarioIntInt();
+        Assert.assertTrue(diccionario.equals(d2));
+        for (int i = 0; i < total; i++) {
+            diccionario.agrega(i, i);
+            d2.agrega(total - i - 1, total - i - 1);
+        }
+        Assert.assertTrue(diccionario.equals(d2));
+        d2.agrega(0, 1);
+        Assert.assertFalse(diccionario.equals(d2));
+    }
+}
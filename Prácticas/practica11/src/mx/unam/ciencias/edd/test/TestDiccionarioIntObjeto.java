@@ -0,0 +1,105 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+import mx.unam.ciencias.edd.DiccionarioIntObjeto;
+import mx.unam.ciencias.edd.Lista;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link DiccionarioIntObjeto}.
+ */
+public class TestDiccionarioIntObjeto {
+
+    private int total;
+    private Random random;
+    private DiccionarioIntObjeto<String> diccionario;
+
+    private static final int N = 64;
+
+    /**
+     * Crea un diccionario para cada prueba.
+     */
+    public TestDiccionarioIntObjeto() {
+        random = new Random();
+        total = N + random.nextInt(N);
+        diccionario = new DiccionarioIntObjeto<String>(total);
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioIntObjeto#agrega}.
+     */
+    @Test public void testAgrega() {
+        for (int i = 0; i < total * 4; i++) {
+            String s = String.valueOf(i);
+            Assert.assertFalse(diccionario.contiene(i));
+            diccionario.agrega(i, s);
+            Assert.assertTrue(diccionario.getElementos() == i+1);
+            Assert.assertTrue(diccionario.get(i).equals(s));
+            Assert.assertTrue(diccionario.carga() < DiccionarioIntObjeto.MAXIMA_CARGA);
+        }
+        try {
+            diccionario.agrega(1, null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            diccionario.get(-1);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioIntObjeto#elimina}.
+     */
+    @Test public void testElimina() {
+        for (int i = 0; i < total; i++)
+            diccionario.agrega(i, String.valueOf(i));
+        for (int i = 0; i < total; i += 2) {
+            diccionario.elimina(i);
+            Assert.assertFalse(diccionario.contiene(i));
+        }
+        for (int i = 1; i < total; i += 2)
+            Assert.assertTrue(diccionario.get(i).equals(String.valueOf(i)));
+        Assert.assertTrue(diccionario.getElementos() == total / 2);
+        try {
+            diccionario.elimina(0);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioIntObjeto#calculaSiAusente} y
+     * {@link DiccionarioIntObjeto#mezcla}.
+     */
+    @Test public void testCalculaYMezcla() {
+        for (int i = 0; i < total; i++) {
+            Assert.assertTrue(diccionario.calculaSiAusente(i, String::valueOf)
+                              .equals(String.valueOf(i)));
+            Assert.assertTrue(diccionario.mezcla(i, "!", String::concat)
+                              .equals(i + "!"));
+        }
+        for (int i = 0; i < total; i++)
+            Assert.assertTrue(diccionario.mezcla(i, "!", (a, b) -> null) == null);
+        Assert.assertTrue(diccionario.esVacio());
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioIntObjeto#iterator}.
+     */
+    @Test public void testIterator() {
+        Lista<String> lista = new Lista<String>();
+        for (int i = 0; i < total; i++) {
+            diccionario.agrega(i, String.valueOf(i));
+            lista.agrega(String.valueOf(i));
+        }
+        int c = 0;
+        for (String s : diccionario) {
+            Assert.assertTrue(lista.contiene(s));
+            c++;
+        }
+        Assert.assertTrue(c == total);
+        Assert.assertTrue(diccionario.llaves().length == total);
+        Assert.assertTrue(diccionario.valores().getLongitud() == total);
+    }
+}
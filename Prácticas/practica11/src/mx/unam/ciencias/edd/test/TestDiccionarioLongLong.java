@@ -0,0 +1,135 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+import mx.unam.ciencias.edd.Diccionario;
+import mx.unam.ciencias.edd.DiccionarioLongLong;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link DiccionarioLongLong}.
+ */
+public class TestDiccionarioLongLong {
+
+    private int total;
+    private Random random;
+    private DiccionarioLongLong diccionario;
+
+    private static final int N = 64;
+
+    /**
+     * Crea un diccionario para cada prueba.
+     */
+    public TestDiccionarioLongLong() {
+        random = new Random();
+        total = N + random.nextInt(N);
+        diccionario = new DiccionarioLongLong(total);
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioLongLong#DiccionarioLongLong}.
+     */
+    @Test public void testConstructor() {
+        Assert.assertTrue(diccionario.esVacio());
+        Assert.assertTrue(diccionario.getElementos() == 0);
+        Assert.assertTrue(diccionario.llaves().length == 0);
+        Assert.assertTrue(diccionario.valores().length == 0);
+        Assert.assertTrue(diccionario.carga() == 0.0);
+        Assert.assertTrue(diccionario.colisiones() == 0);
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioLongLong#agrega} y {@link
+     * DiccionarioLongLong#get}, incluyendo a la llave 0.
+     */
+    @Test public void testAgrega() {
+        for (int i = 0; i < total * 4; i++) {
+            Assert.assertFalse(diccionario.contiene(i));
+            diccionario.agrega(i, -i);
+            Assert.assertTrue(diccionario.getElementos() == i+1);
+            Assert.assertTrue(diccionario.contiene(i));
+            Assert.assertTrue(diccionario.get(i) == -i);
+            Assert.assertTrue(diccionario.carga() < DiccionarioLongLong.MAXIMA_CARGA);
+        }
+        diccionario.agrega(0, 7);
+        Assert.assertTrue(diccionario.get(0) == 7);
+        Assert.assertTrue(diccionario.getElementos() == total * 4);
+        try {
+            diccionario.get(-1);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        Assert.assertTrue(diccionario.getOPredeterminado(-1, 5) == 5);
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioLongLong#elimina}, comparando
+     * contra un {@link Diccionario} con llaves aleatorias.
+     */
+    @Test public void testElimina() {
+        Diccionario<Long, Long> d = new Diccionario<Long, Long>();
+        for (int i = 0; i < total * 16; i++) {
+            long k = random.nextInt(total * 2) * 0x100000000L;
+            if (random.nextBoolean()) {
+                diccionario.agrega(k, i);
+                d.agrega(k, (long)i);
+            } else if (d.contiene(k)) {
+                diccionario.elimina(k);
+                d.elimina(k);
+            } else {
+                try {
+                    diccionario.elimina(k);
+                    Assert.fail();
+                } catch (NoSuchElementException nsee) {}
+            }
+            Assert.assertTrue(diccionario.getElementos() == d.getElementos());
+        }
+        for (long k = 0; k < total * 2 * 0x100000000L; k += 0x100000000L) {
+            Assert.assertTrue(diccionario.contiene(k) == d.contiene(k));
+            if (d.contiene(k))
+                Assert.assertTrue(diccionario.get(k) == d.get(k));
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioLongLong#mezcla}.
+     */
+    @Test public void testMezcla() {
+        for (int n = 1; n <= 3; n++)
+            for (int i = 0; i < total; i++)
+                Assert.assertTrue(diccionario.mezcla(i, 1, Long::sum) == n);
+        Assert.assertTrue(diccionario.getElementos() == total);
+        long s = 0;
+        for (long v : diccionario.valores())
+            s += v;
+        Assert.assertTrue(s == total * 3);
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioLongLong#colisiones}.
+     */
+    @Test public void testColisiones() {
+        int c = 0;
+        for (int i = 0; i < total; i++) {
+            diccionario.agrega(random.nextLong(), i);
+            Assert.assertTrue(diccionario.colisiones() >= c);
+            c = diccionario.colisiones();
+        }
+        Assert.assertTrue(diccionario.colisionMaxima() <= c);
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioLongLong#equals}.
+     */
+    @Test public void testEquals() {
+        DiccionarioLongLong d2 = new DiccionarioLongLong();
+        Assert.assertTrue(diccionario.equals(d2));
+        for (int i = 0; i < total; i++) {
+            diccionario.agrega(i, i);
+            d2.agrega(total - i - 1, total - i - 1);
+        }
+        Assert.assertTrue(diccionario.equals(d2));
+        d2.agrega(0, 1);
+        Assert.assertFalse(diccionario.equals(d2));
+    }
+}
@@ -0,0 +1,187 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+import mx.unam.ciencias.edd.DiccionarioOrdenadoPorInsercion;
+import mx.unam.ciencias.edd.EntradaDiccionario;
+import mx.unam.ciencias.edd.Lista;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link
+ * DiccionarioOrdenadoPorInsercion}.
+ */
+public class TestDiccionarioOrdenadoPorInsercion {
+
+    private int total;
+    private Random random;
+    private DiccionarioOrdenadoPorInsercion<String, String> diccionario;
+
+    private static final int N = 64;
+
+    /**
+     * Crea un diccionario para cada prueba.
+     */
+    public TestDiccionarioOrdenadoPorInsercion() {
+        random = new Random();
+        total = N + random.nextInt(N);
+        diccionario = new DiccionarioOrdenadoPorInsercion<String, String>();
+    }
+
+    /* Regresa la i-ésima llave de las pruebas. */
+    private static String llave(int i) {
+        return String.format("%x", i * 1009);
+    }
+
+    /**
+     * Prueba unitaria para {@link
+     * DiccionarioOrdenadoPorInsercion#DiccionarioOrdenadoPorInsercion}.
+     */
+    @Test public void testConstructor() {
+        Assert.assertTrue(diccionario.esVacio());
+        Assert.assertTrue(diccionario.getElementos() == 0);
+        Assert.assertTrue(diccionario.llaves().getLongitud() == 0);
+        Assert.assertTrue(diccionario.valores().getLongitud() == 0);
+        Assert.assertTrue(diccionario.carga() == 0.0);
+        Assert.assertTrue(diccionario.colisiones() == 0);
+        Assert.assertFalse(diccionario.iterator().hasNext());
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioOrdenadoPorInsercion#agrega}.
+     */
+    @Test public void testAgrega() {
+        for (int i = 0; i < total; i++) {
+            String s = llave(i);
+            Assert.assertFalse(diccionario.contiene(s));
+            diccionario.agrega(s, s);
+            Assert.assertTrue(diccionario.getElementos() == i+1);
+            Assert.assertTrue(diccionario.contiene(s));
+            Assert.assertTrue(diccionario.get(s).equals(s));
+            Assert.assertTrue(diccionario.carga() <= 0.5);
+        }
+        diccionario.agrega(llave(0), "X");
+        Assert.assertTrue(diccionario.getElementos() == total);
+        Assert.assertTrue(diccionario.get(llave(0)).equals("X"));
+        Assert.assertTrue(diccionario.llaves().getPrimero().equals(llave(0)));
+        try {
+            diccionario.agrega(null, "X");
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            diccionario.agrega("X", null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioOrdenadoPorInsercion#get} y
+     * {@link DiccionarioOrdenadoPorInsercion#getOPredeterminado}.
+     */
+    @Test public void testGet() {
+        for (int i = 0; i < total; i++)
+            diccionario.agrega(llave(i), String.valueOf(i));
+        for (int i = 0; i < total; i++) {
+            Assert.assertTrue(diccionario.get(llave(i)).equals(String.valueOf(i)));
+            Assert.assertTrue(diccionario.getOPredeterminado(llave(i), "X")
+                              .equals(String.valueOf(i)));
+        }
+        Assert.assertTrue(diccionario.getOPredeterminado("ausente", "X")
+                          .equals("X"));
+        try {
+            diccionario.get("ausente");
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioOrdenadoPorInsercion#elimina}.
+     */
+    @Test public void testElimina() {
+        for (int i = 0; i < total; i++)
+            diccionario.agrega(llave(i), llave(i));
+        for (int i = 0; i < total; i += 2) {
+            diccionario.elimina(llave(i));
+            Assert.assertFalse(diccionario.contiene(llave(i)));
+        }
+        Assert.assertTrue(diccionario.getElementos() == total - (total+1)/2);
+        for (int i = 1; i < total; i += 2)
+            Assert.assertTrue(diccionario.get(llave(i)).equals(llave(i)));
+        try {
+            diccionario.elimina(llave(0));
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        for (int i = 1; i < total; i += 2)
+            diccionario.elimina(llave(i));
+        Assert.assertTrue(diccionario.esVacio());
+        Assert.assertFalse(diccionario.iterator().hasNext());
+    }
+
+    /**
+     * Prueba que el diccionario conserve el orden de inserción al agregar,
+     * eliminar y volver a agregar muchas llaves.
+     */
+    @Test public void testOrden() {
+        Lista<String> esperadas = new Lista<String>();
+        for (int i = 0; i < total * 8; i++) {
+            String s = llave(random.nextInt(total));
+            if (diccionario.contiene(s)) {
+                diccionario.elimina(s);
+                esperadas.elimina(s);
+            } else {
+                diccionario.agrega(s, s);
+                esperadas.agregaFinal(s);
+            }
+            Assert.assertTrue(diccionario.getElementos() ==
+                              esperadas.getLongitud());
+        }
+        Assert.assertTrue(diccionario.llaves().equals(esperadas));
+        Assert.assertTrue(diccionario.valores().equals(esperadas));
+        Lista<String> l = new Lista<String>();
+        for (String v : diccionario)
+            l.agregaFinal(v);
+        Assert.assertTrue(l.equals(esperadas));
+        l = new Lista<String>();
+        for (String k : diccionario.vistaLlaves())
+            l.agregaFinal(k);
+        Assert.assertTrue(l.equals(esperadas));
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioOrdenadoPorInsercion#entradas} y
+     * {@link DiccionarioOrdenadoPorInsercion#paraCada}.
+     */
+    @Test public void testEntradas() {
+        for (int i = 0; i < total; i++)
+            diccionario.agrega(llave(i), String.valueOf(i));
+        int i = 0;
+        for (EntradaDiccionario<String, String> e : diccionario.entradas()) {
+            Assert.assertTrue(e.getLlave().equals(llave(i)));
+            Assert.assertTrue(e.getValor().equals(String.valueOf(i)));
+            i++;
+        }
+        Assert.assertTrue(i == total);
+        Lista<String> l = new Lista<String>();
+        diccionario.paraCada((k, v) -> l.agregaFinal(k + "=" + v));
+        Assert.assertTrue(l.getLongitud() == total);
+        Assert.assertTrue(l.getPrimero().equals(llave(0) + "=0"));
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioOrdenadoPorInsercion#equals}.
+     */
+    @Test public void testEquals() {
+        DiccionarioOrdenadoPorInsercion<String, String> d =
+            new DiccionarioOrdenadoPorInsercion<String, String>();
+        Assert.assertTrue(diccionario.equals(d));
+        for (int i = 0; i < total; i++) {
+            diccionario.agrega(llave(i), llave(i));
+            d.agrega(llave(total - 1 - i), llave(total - 1 - i));
+        }
+        Assert.assertTrue(diccionario.equals(d));
+        d.agrega(llave(0), "X");
+        Assert.assertFalse(diccionario.equals(d));
+        Assert.assertFalse(diccionario.equals(null));
+    }
+}
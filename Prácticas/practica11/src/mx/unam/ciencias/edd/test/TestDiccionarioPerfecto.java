@@ -0,0 +1,174 @@
+package mx.unam.ciencias.edd.test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import mx.unam.ciencias.edd.Diccionario;
+import mx.unam.ciencias.edd.DiccionarioPerfecto;
+import mx.unam.ciencias.edd.Lista;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link DiccionarioPerfecto}.
+ */
+public class TestDiccionarioPerfecto {
+
+    private int total;
+    private Random random;
+    private Diccionario<String, String> diccionario;
+
+    private static final int N = 1000;
+
+    /**
+     * Crea un diccionario para cada prueba.
+     */
+    public TestDiccionarioPerfecto() {
+        random = new Random();
+        total = N + random.nextInt(N);
+        diccionario = new Diccionario<String, String>();
+        for (int i = 0; i < total; i++)
+            diccionario.agrega(llave(i), String.valueOf(i));
+    }
+
+    /* Regresa la i-ésima llave de las pruebas. */
+    private static String llave(int i) {
+        return "palabra" + i;
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioPerfecto#deDiccionario} y {@link
+     * DiccionarioPerfecto#get}.
+     */
+    @Test public void testDeDiccionario() {
+        DiccionarioPerfecto<String> d =
+            DiccionarioPerfecto.deDiccionario(diccionario);
+        Assert.assertTrue(d.getElementos() == total);
+        Assert.assertFalse(d.esVacio());
+        for (int i = 0; i < total; i++) {
+            Assert.assertTrue(d.contiene(llave(i)));
+            Assert.assertTrue(d.get(llave(i)).equals(String.valueOf(i)));
+        }
+        for (int i = total; i < 2 * total; i++)
+            Assert.assertFalse(d.contiene(llave(i)));
+        Assert.assertTrue(d.getOPredeterminado("ausente", "X").equals("X"));
+        try {
+            d.get("ausente");
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioPerfecto#indice}.
+     */
+    @Test public void testIndice() {
+        DiccionarioPerfecto<String> d =
+            DiccionarioPerfecto.deDiccionario(diccionario);
+        boolean[] usados = new boolean[total];
+        for (int i = 0; i < total; i++) {
+            int j = d.indice(llave(i));
+            Assert.assertTrue(j >= 0 && j < total);
+            Assert.assertFalse(usados[j]);
+            usados[j] = true;
+        }
+        Assert.assertTrue(d.indice("ausente") == -1);
+        Lista<String> llaves = d.llaves();
+        int i = 0;
+        for (String s : llaves)
+            Assert.assertTrue(d.indice(s) == i++);
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioPerfecto#deLista}.
+     */
+    @Test public void testDeLista() {
+        Lista<String> lista = new Lista<String>();
+        for (int i = 0; i < total; i++)
+            lista.agregaFinal(llave(i));
+        lista.agregaFinal(llave(0));
+        DiccionarioPerfecto<Integer> d = DiccionarioPerfecto.deLista(lista);
+        Assert.assertTrue(d.getElementos() == total);
+        for (int i = 0; i < total; i++)
+            Assert.assertTrue(d.get(llave(i)) == i);
+        DiccionarioPerfecto<Integer> v =
+            DiccionarioPerfecto.deLista(new Lista<String>());
+        Assert.assertTrue(v.esVacio());
+        Assert.assertFalse(v.contiene("ausente"));
+        Assert.assertFalse(v.iterator().hasNext());
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioPerfecto#bitsPorLlave}.
+     */
+    @Test public void testBitsPorLlave() {
+        Diccionario<String, Integer> d = new Diccionario<String, Integer>();
+        for (int i = 0; i < 100 * N; i++)
+            d.agrega(llave(i), i);
+        DiccionarioPerfecto<Integer> p = DiccionarioPerfecto.deDiccionario(d);
+        Assert.assertTrue(p.bitsPorLlave() > 0.0);
+        Assert.assertTrue(p.bitsPorLlave() < 3.5);
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioPerfecto#iterator} y {@link
+     * DiccionarioPerfecto#valores}.
+     */
+    @Test public void testIterator() {
+        DiccionarioPerfecto<String> d =
+            DiccionarioPerfecto.deDiccionario(diccionario);
+        Lista<String> llaves = d.llaves();
+        Lista<String> valores = d.valores();
+        Assert.assertTrue(valores.getLongitud() == total);
+        int n = 0;
+        for (String v : d) {
+            Assert.assertTrue(v.equals(d.get(llaves.get(n))));
+            Assert.assertTrue(v.equals(valores.get(n)));
+            n++;
+        }
+        Assert.assertTrue(n == total);
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioPerfecto#guarda} y {@link
+     * DiccionarioPerfecto#carga}.
+     */
+    @Test public void testGuardaCarga() throws IOException {
+        DiccionarioPerfecto<String> d =
+            DiccionarioPerfecto.deDiccionario(diccionario);
+        File archivo = File.createTempFile("perfecto", ".edd");
+        archivo.deleteOnExit();
+        d.guarda(archivo.getPath(), (v) -> v);
+        DiccionarioPerfecto<Integer> c =
+            DiccionarioPerfecto.carga(archivo.getPath(), Integer::valueOf);
+        Assert.assertTrue(c.getElementos() == total);
+        for (int i = 0; i < total; i++) {
+            Assert.assertTrue(c.get(llave(i)) == i);
+            Assert.assertTrue(c.indice(llave(i)) == d.indice(llave(i)));
+        }
+        Assert.assertTrue(c.bitsPorLlave() == d.bitsPorLlave());
+        try (FileOutputStream out = new FileOutputStream(archivo)) {
+            out.write(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 });
+        }
+        try {
+            DiccionarioPerfecto.carga(archivo.getPath(), (v) -> v);
+            Assert.fail();
+        } catch (IOException ioe) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioPerfecto#equals}.
+     */
+    @Test public void testEquals() {
+        DiccionarioPerfecto<String> d =
+            DiccionarioPerfecto.deDiccionario(diccionario);
+        Diccionario<String, String> otro = new Diccionario<String, String>();
+        for (int i = total - 1; i >= 0; i--)
+            otro.agrega(llave(i), String.valueOf(i));
+        Assert.assertTrue(d.equals(DiccionarioPerfecto.deDiccionario(otro)));
+        otro.agrega(llave(0), "X");
+        Assert.assertFalse(d.equals(DiccionarioPerfecto.deDiccionario(otro)));
+        Assert.assertFalse(d.equals(null));
+    }
+}
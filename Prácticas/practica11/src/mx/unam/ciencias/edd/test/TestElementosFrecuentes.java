@@ -0,0 +1,84 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.Random;
+import mx.unam.ciencias.edd.DiccionarioIntInt;
+import mx.unam.ciencias.edd.ElementosFrecuentes;
+import mx.unam.ciencias.edd.Lista;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link ElementosFrecuentes}.
+ */
+public class TestElementosFrecuentes {
+
+    private int total;
+    private Random random;
+    private ElementosFrecuentes<Integer> frecuentes;
+
+    private static final int N = 1000;
+    private static final int CAPACIDAD = 50;
+
+    /**
+     * Crea una estructura para cada prueba.
+     */
+    public TestElementosFrecuentes() {
+        random = new Random();
+        total = N + random.nextInt(N);
+        frecuentes = new ElementosFrecuentes<Integer>(CAPACIDAD);
+    }
+
+    /**
+     * Prueba unitaria para {@link ElementosFrecuentes#agrega}, {@link
+     * ElementosFrecuentes#cuenta} y {@link ElementosFrecuentes#error}.
+     */
+    @Test public void testAgrega() {
+        DiccionarioIntInt reales = new DiccionarioIntInt();
+        int n = 20 * total;
+        for (int i = 0; i < n; i++) {
+            int x = (int)Math.floor(Math.pow(random.nextDouble(), 4) * total);
+            frecuentes.agrega(x);
+            reales.agrega(x, reales.getOPredeterminado(x, 0) + 1);
+        }
+        Assert.assertTrue(frecuentes.getTotal() == n);
+        Assert.assertTrue(frecuentes.getElementos() == CAPACIDAD);
+        for (int x = 0; x < total; x++) {
+            int real = reales.getOPredeterminado(x, 0);
+            if (real > n / CAPACIDAD)
+                Assert.assertTrue(frecuentes.contiene(x));
+            if (frecuentes.contiene(x)) {
+                Assert.assertTrue(frecuentes.cuenta(x) >= real);
+                Assert.assertTrue(frecuentes.cuenta(x) -
+                                  frecuentes.error(x) <= real);
+                Assert.assertTrue(frecuentes.error(x) <= n / CAPACIDAD);
+            } else {
+                Assert.assertTrue(frecuentes.cuenta(x) == 0);
+            }
+        }
+        try {
+            frecuentes.agrega(null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link ElementosFrecuentes#getTop}.
+     */
+    @Test public void testGetTop() {
+        for (int i = 0; i < 10; i++)
+            frecuentes.agrega(i, 1000 * (i + 1));
+        for (int i = 0; i < total; i++)
+            frecuentes.agrega(100 + random.nextInt(total));
+        Lista<Integer> top = frecuentes.getTop(10);
+        Assert.assertTrue(top.getLongitud() == 10);
+        int esperado = 9;
+        for (int x : top)
+            Assert.assertTrue(x == esperado--);
+        Assert.assertTrue(frecuentes.getTop(2 * CAPACIDAD).getLongitud() ==
+                          CAPACIDAD);
+        ElementosFrecuentes<Integer> vacia =
+            ElementosFrecuentes.conError(0.01);
+        Assert.assertTrue(vacia.getCapacidad() == 100);
+        Assert.assertTrue(vacia.getTop(10).getLongitud() == 0);
+    }
+}
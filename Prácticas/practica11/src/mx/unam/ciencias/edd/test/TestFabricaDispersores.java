@@ -1,9 +1,11 @@
 package mx.unam.ciencias.edd.test;
 
+import java.nio.ByteBuffer;
 import java.util.Random;
 import mx.unam.ciencias.edd.AlgoritmoDispersor;
 import mx.unam.ciencias.edd.FabricaDispersores;
 import mx.unam.ciencias.edd.Dispersor;
+import mx.unam.ciencias.edd.DispersorLargo;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -104,4 +106,194 @@ public class TestFabricaDispersores {
         for (String mensaje : mensajes)
             Assert.assertTrue(bj.dispersa(mensaje) == dispersoresXOR[i++]);
     }
+
+    private AlgoritmoDispersor[] clasicos = {
+        AlgoritmoDispersor.BJ_STRING,
+        AlgoritmoDispersor.GLIB_STRING,
+        AlgoritmoDispersor.XOR_STRING
+    };
+
+    /* Regresa las huellas esperadas para el algoritmo. */
+    private int[] esperados(AlgoritmoDispersor algoritmo) {
+        switch (algoritmo) {
+            case BJ_STRING: return dispersoresBJ;
+            case GLIB_STRING: return dispersoresGLib;
+            default: return dispersoresXOR;
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link FabricaDispersores#getInstanciaSecuencia}.
+     */
+    @Test public void testGetInstanciaSecuencia() {
+        for (AlgoritmoDispersor algoritmo : clasicos) {
+            Dispersor<CharSequence> d =
+                FabricaDispersores.getInstanciaSecuencia(algoritmo);
+            int[] esperados = esperados(algoritmo);
+            int i = 0;
+            for (String mensaje : mensajes)
+                Assert.assertTrue(d.dispersa(new StringBuilder(mensaje)) ==
+                                  esperados[i++]);
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link FabricaDispersores#dispersa} con pedazos de
+     * arreglos de bytes y con buffers.
+     */
+    @Test public void testDispersaBytes() {
+        for (AlgoritmoDispersor algoritmo : clasicos) {
+            int[] esperados = esperados(algoritmo);
+            int i = 0;
+            for (String mensaje : mensajes) {
+                byte[] bytes = ("xy" + mensaje + "z").getBytes();
+                int n = mensaje.length();
+                Assert.assertTrue(FabricaDispersores.dispersa(algoritmo, bytes,
+                                                              2, n) ==
+                                  esperados[i]);
+                ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+                buffer.put(bytes);
+                buffer.position(2);
+                buffer.limit(2 + n);
+                Assert.assertTrue(FabricaDispersores.dispersa(algoritmo,
+                                                              buffer) ==
+                                  esperados[i]);
+                Assert.assertTrue(buffer.position() == 2);
+                buffer = ByteBuffer.wrap(bytes, 2, n).slice();
+                Assert.assertTrue(FabricaDispersores.dispersa(algoritmo,
+                                                              buffer) ==
+                                  esperados[i++]);
+            }
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link FabricaDispersores#dispersa} con cadenas que
+     * no son ASCII: deben dispersarse como su codificación en UTF-8.
+     */
+    @Test public void testDispersaUTF8() throws Exception {
+        String[] cadenas = { "ñandú", "canción", "€uro", "\uD83D\uDE00!",
+                             "sólo\uD800" };
+        for (AlgoritmoDispersor algoritmo : AlgoritmoDispersor.values())
+            for (String cadena : cadenas) {
+                byte[] bytes = cadena.getBytes("UTF-8");
+                int h = FabricaDispersores.dispersa(algoritmo, bytes, 0,
+                                                    bytes.length);
+                Assert.assertTrue(FabricaDispersores.dispersa(algoritmo,
+                                                              cadena) == h);
+                Assert.assertTrue(FabricaDispersores.getInstancia(algoritmo)
+                                  .dispersa(cadena) == h);
+            }
+    }
+
+    /**
+     * Prueba unitaria para {@link FabricaDispersores#getInstancia} con
+     * MurmurHash3 de 32 bits, usando los vectores de prueba de referencia.
+     */
+    @Test public void testGetInstanciaMurmur3_32() {
+        AlgoritmoDispersor m = AlgoritmoDispersor.MURMUR3_32;
+        Assert.assertTrue(FabricaDispersores.getInstancia(m).dispersa("") == 0);
+        Assert.assertTrue(FabricaDispersores.getInstancia(m, 1)
+                          .dispersa("") == 0x514e28b7);
+        Assert.assertTrue(FabricaDispersores.getInstancia(m).dispersa(
+                          "The quick brown fox jumps over the lazy dog") ==
+                          0x2e4ff723);
+        Assert.assertTrue(FabricaDispersores.getInstancia(m, 1234)
+                          .dispersa("Hello, world!") == 0xfaf6cdb3);
+    }
+
+    /**
+     * Prueba unitaria para {@link FabricaDispersores#dispersaMurmur3_128}.
+     */
+    @Test public void testDispersaMurmur3_128() {
+        byte[] bytes = "The quick brown fox jumps over the lazy dog".getBytes();
+        long[] r = new long[2];
+        FabricaDispersores.dispersaMurmur3_128(0, bytes, 0, bytes.length, r);
+        Assert.assertTrue(r[0] == 0xe34bbc7bbc071b6cL);
+        Assert.assertTrue(r[1] == 0x7a433ca9c49a9347L);
+        Assert.assertTrue(FabricaDispersores.getInstanciaLarga(
+                              AlgoritmoDispersor.MURMUR3_128).dispersaLargo(
+                              "The quick brown fox jumps over the lazy dog") ==
+                          r[0]);
+    }
+
+    /**
+     * Prueba unitaria para {@link FabricaDispersores#dispersaLargo} con
+     * xxHash64, FNV-1a y wyhash, usando los vectores de prueba de referencia.
+     */
+    @Test public void testDispersaLargo() {
+        AlgoritmoDispersor xx = AlgoritmoDispersor.XXHASH_64;
+        Assert.assertTrue(FabricaDispersores.dispersaLargo(xx, 0, "") ==
+                          0xef46db3751d8e999L);
+        Assert.assertTrue(FabricaDispersores.dispersaLargo(xx, 0, "abc") ==
+                          0x44bc2cf5ad770999L);
+        Assert.assertTrue(FabricaDispersores.dispersaLargo(
+                              xx, 0, "Nobody inspects the spammish repetition") ==
+                          0xfbcea83c8a378bf1L);
+        AlgoritmoDispersor fnv = AlgoritmoDispersor.FNV1A_64;
+        Assert.assertTrue(FabricaDispersores.dispersaLargo(fnv, 0, "a") ==
+                          0xaf63dc4c8601ec8cL);
+        Assert.assertTrue(FabricaDispersores.dispersaLargo(fnv, 0, "foobar") ==
+                          0x85944171f73967e8L);
+        String[] mensajes = { "", "a", "abc", "message digest",
+                              "abcdefghijklmnopqrstuvwxyz",
+                              "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789",
+                              "1234567890123456789012345678901234567890" +
+                              "1234567890123456789012345678901234567890" };
+        long[] esperados = { 0x93228a4de0eec5a2L, 0xc5bac3db178713c4L,
+                             0xa97f2f7b1d9b3314L, 0x786d1f1df3801df4L,
+                             0xdca5a8138ad37c87L, 0xb9e734f117cfaf70L,
+                             0x6cc5eab49a92d617L };
+        for (int i = 0; i < mensajes.length; i++)
+            Assert.assertTrue(FabricaDispersores.dispersaLargo(
+                                  AlgoritmoDispersor.WYHASH, i, mensajes[i]) ==
+                              esperados[i]);
+    }
+
+    /**
+     * Prueba unitaria para {@link FabricaDispersores#getInstanciaLarga}: las
+     * distintas fuentes y semillas, y la huella de 32 bits.
+     */
+    @Test public void testGetInstanciaLarga() throws Exception {
+        Random random = new Random();
+        for (AlgoritmoDispersor algoritmo : AlgoritmoDispersor.values()) {
+            if (!algoritmo.esLargo()) {
+                try {
+                    FabricaDispersores.getInstanciaLarga(algoritmo);
+                    Assert.fail();
+                } catch (IllegalArgumentException iae) {}
+                continue;
+            }
+            long semilla = random.nextLong();
+            DispersorLargo<String> d =
+                FabricaDispersores.getInstanciaLarga(algoritmo, semilla);
+            for (int n = 0; n < 100; n++) {
+                StringBuilder sb = new StringBuilder();
+                for (int i = 0; i < n; i++)
+                    sb.append((char)(i % 3 == 0 ? 'á' + i : 'a' + i % 26));
+                String s = sb.toString();
+                long h = d.dispersaLargo(s);
+                byte[] bytes = s.getBytes("UTF-8");
+                Assert.assertTrue(FabricaDispersores.dispersaLargo(
+                                      algoritmo, semilla, bytes, 0,
+                                      bytes.length) == h);
+                ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+                buffer.put(bytes);
+                buffer.flip();
+                Assert.assertTrue(FabricaDispersores.dispersaLargo(
+                                      algoritmo, semilla, buffer) == h);
+                Assert.assertTrue(d.dispersa(s) == (int)(h ^ (h >>> 32)));
+                Assert.assertTrue(FabricaDispersores.getInstancia(
+                                      algoritmo, semilla).dispersa(s) ==
+                                  d.dispersa(s));
+                if (n > 0)
+                    Assert.assertFalse(FabricaDispersores.dispersaLargo(
+                                           algoritmo, semilla + 1, s) == h);
+            }
+        }
+        try {
+            FabricaDispersores.getInstancia(AlgoritmoDispersor.BJ_STRING, 1);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
 }
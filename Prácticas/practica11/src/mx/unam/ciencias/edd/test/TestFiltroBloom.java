@@ -0,0 +1,148 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.Arrays;
+import java.util.Random;
+import mx.unam.ciencias.edd.AlgoritmoDispersor;
+import mx.unam.ciencias.edd.FiltroBloom;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link FiltroBloom}.
+ */
+public class TestFiltroBloom {
+
+    private int total;
+    private Random random;
+    private FiltroBloom<String> filtro;
+
+    private static final int N = 1000;
+    private static final double P = 0.01;
+
+    /**
+     * Crea un filtro para cada prueba.
+     */
+    public TestFiltroBloom() {
+        random = new Random();
+        total = N + random.nextInt(N);
+        filtro = FiltroBloom.deCadenas(total, P, AlgoritmoDispersor.MURMUR3_32);
+    }
+
+    /* Regresa la i-ésima llave de las pruebas. */
+    private static String llave(int i) {
+        return "llave" + i;
+    }
+
+    /* Cuenta los falsos positivos entre las llaves que no se agregaron. */
+    private static int falsosPositivos(FiltroBloom<String> f, int desde,
+                                       int n) {
+        int fp = 0;
+        for (int i = desde; i < desde + n; i++)
+            if (f.contiene(llave(i)))
+                fp++;
+        return fp;
+    }
+
+    /**
+     * Prueba unitaria para {@link FiltroBloom#FiltroBloom}.
+     */
+    @Test public void testConstructor() {
+        Assert.assertTrue(filtro.getAgregados() == 0);
+        Assert.assertTrue(filtro.getBits() % 64 == 0);
+        Assert.assertTrue(filtro.getBits() >= 9 * total);
+        Assert.assertTrue(filtro.getFunciones() == 7);
+        Assert.assertTrue(filtro.probabilidadFalsoPositivo() == 0.0);
+        Assert.assertFalse(filtro.contiene(llave(0)));
+        try {
+            new FiltroBloom<String>(0, P);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            new FiltroBloom<String>(total, 1.0);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            FiltroBloom.deCadenas(total, P, AlgoritmoDispersor.BJ_STRING);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link FiltroBloom#agrega} y {@link
+     * FiltroBloom#contiene}.
+     */
+    @Test public void testAgrega() {
+        for (int i = 0; i < total; i++) {
+            filtro.agrega(llave(i));
+            Assert.assertTrue(filtro.contiene(llave(i)));
+        }
+        Assert.assertTrue(filtro.getAgregados() == total);
+        for (int i = 0; i < total; i++)
+            Assert.assertTrue(filtro.contiene(llave(i)));
+        int fp = falsosPositivos(filtro, total, 10 * total);
+        Assert.assertTrue(fp < 10 * total * P * 3);
+        Assert.assertTrue(filtro.probabilidadFalsoPositivo() < P * 3);
+        Assert.assertFalse(filtro.contiene(null));
+        try {
+            filtro.agrega(null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        FiltroBloom<Integer> enteros = new FiltroBloom<Integer>(total, P);
+        for (int i = 0; i < total; i++)
+            enteros.agrega(i);
+        for (int i = 0; i < total; i++)
+            Assert.assertTrue(enteros.contiene(i));
+    }
+
+    /**
+     * Prueba unitaria para {@link FiltroBloom#une}.
+     */
+    @Test public void testUne() {
+        FiltroBloom<String> otro =
+            FiltroBloom.deCadenas(total, P, AlgoritmoDispersor.MURMUR3_32);
+        for (int i = 0; i < total / 2; i++)
+            filtro.agrega(llave(i));
+        for (int i = total / 2; i < total; i++)
+            otro.agrega(llave(i));
+        filtro.une(otro);
+        Assert.assertTrue(filtro.getAgregados() == total);
+        for (int i = 0; i < total; i++)
+            Assert.assertTrue(filtro.contiene(llave(i)));
+        try {
+            filtro.une(FiltroBloom.deCadenas(2 * total, P,
+                                             AlgoritmoDispersor.MURMUR3_32));
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        filtro.limpia();
+        Assert.assertTrue(filtro.getAgregados() == 0);
+        Assert.assertTrue(filtro.probabilidadFalsoPositivo() == 0.0);
+    }
+
+    /**
+     * Prueba unitaria para {@link FiltroBloom#aBytes} y {@link
+     * FiltroBloom#deBytes}.
+     */
+    @Test public void testBytes() {
+        for (int i = 0; i < total; i++)
+            filtro.agrega(llave(i));
+        byte[] bytes = filtro.aBytes();
+        FiltroBloom<String> copia =
+            FiltroBloom.deBytes(bytes, AlgoritmoDispersor.MURMUR3_32);
+        Assert.assertTrue(copia.getBits() == filtro.getBits());
+        Assert.assertTrue(copia.getFunciones() == filtro.getFunciones());
+        Assert.assertTrue(copia.getAgregados() == filtro.getAgregados());
+        for (int i = 0; i < 2 * total; i++)
+            Assert.assertTrue(copia.contiene(llave(i)) ==
+                              filtro.contiene(llave(i)));
+        try {
+            FiltroBloom.deBytes(new byte[] { 1, 2, 3 },
+                                AlgoritmoDispersor.MURMUR3_32);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            FiltroBloom.deBytes(Arrays.copyOf(bytes, bytes.length - 1),
+                                AlgoritmoDispersor.MURMUR3_32);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+}
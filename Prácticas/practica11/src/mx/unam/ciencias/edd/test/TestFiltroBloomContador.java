@@ -0,0 +1,157 @@
+package mx.unam.ciencias.edd.test;
+
+import java.nio.ByteBuffer;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import mx.unam.ciencias.edd.AlgoritmoDispersor;
+import mx.unam.ciencias.edd.FiltroBloomContador;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link FiltroBloomContador}.
+ */
+public class TestFiltroBloomContador {
+
+    private int total;
+    private Random random;
+    private FiltroBloomContador<String> filtro;
+
+    private static final int N = 1000;
+    private static final double P = 0.01;
+
+    /**
+     * Crea un filtro para cada prueba.
+     */
+    public TestFiltroBloomContador() {
+        random = new Random();
+        total = N + random.nextInt(N);
+        filtro = FiltroBloomContador.deCadenas(total, P,
+                                               AlgoritmoDispersor.XXHASH_64);
+    }
+
+    /* Regresa la i-ésima llave de las pruebas. */
+    private static String llave(int i) {
+        return "llave" + i;
+    }
+
+    /**
+     * Prueba unitaria para {@link FiltroBloomContador#agrega} y {@link
+     * FiltroBloomContador#contiene}.
+     */
+    @Test public void testAgrega() {
+        Assert.assertTrue(filtro.getElementos() == 0);
+        for (int i = 0; i < total; i++) {
+            filtro.agrega(llave(i));
+            Assert.assertTrue(filtro.contiene(llave(i)));
+        }
+        Assert.assertTrue(filtro.getElementos() == total);
+        int fp = 0;
+        for (int i = total; i < 11 * total; i++)
+            if (filtro.contiene(llave(i)))
+                fp++;
+        Assert.assertTrue(fp < 10 * total * P * 3);
+        Assert.assertTrue(filtro.saturados() == 0);
+        try {
+            filtro.agrega(null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link FiltroBloomContador#elimina}.
+     */
+    @Test public void testElimina() {
+        for (int i = 0; i < total; i++)
+            filtro.agrega(llave(i));
+        filtro.agrega(llave(0));
+        for (int i = 0; i < total; i += 2)
+            filtro.elimina(llave(i));
+        Assert.assertTrue(filtro.contiene(llave(0)));
+        for (int i = 1; i < total; i += 2)
+            Assert.assertTrue(filtro.contiene(llave(i)));
+        filtro.elimina(llave(0));
+        for (int i = 1; i < total; i += 2)
+            filtro.elimina(llave(i));
+        Assert.assertTrue(filtro.getElementos() == 0);
+        Assert.assertTrue(filtro.probabilidadFalsoPositivo() == 0.0);
+        for (int i = 0; i < total; i++)
+            Assert.assertFalse(filtro.contiene(llave(i)));
+        try {
+            filtro.elimina(llave(0));
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+    }
+
+    /**
+     * Prueba que los contadores saturados no se decrementen.
+     */
+    @Test public void testSaturados() {
+        FiltroBloomContador<Integer> f =
+            new FiltroBloomContador<Integer>(10, P);
+        for (int i = 0; i < 2 * FiltroBloomContador.MAX_CONTADOR; i++)
+            f.agrega(7);
+        Assert.assertTrue(f.saturados() > 0);
+        for (int i = 0; i < 2 * FiltroBloomContador.MAX_CONTADOR; i++)
+            f.elimina(7);
+        Assert.assertTrue(f.contiene(7));
+        Assert.assertTrue(f.getElementos() == 0);
+    }
+
+    /**
+     * Prueba unitaria para {@link FiltroBloomContador#une}.
+     */
+    @Test public void testUne() {
+        FiltroBloomContador<String> otro =
+            FiltroBloomContador.deCadenas(total, P,
+                                          AlgoritmoDispersor.XXHASH_64);
+        for (int i = 0; i < total; i++) {
+            filtro.agrega(llave(i));
+            otro.agrega(llave(i));
+        }
+        filtro.une(otro);
+        Assert.assertTrue(filtro.getElementos() == 2 * total);
+        for (int i = 0; i < total; i++)
+            filtro.elimina(llave(i));
+        for (int i = 0; i < total; i++)
+            Assert.assertTrue(filtro.contiene(llave(i)));
+        try {
+            filtro.une(FiltroBloomContador.deCadenas(
+                           2 * total, P, AlgoritmoDispersor.XXHASH_64));
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link FiltroBloomContador#aBytes} y {@link
+     * FiltroBloomContador#deBytes}.
+     */
+    @Test public void testBytes() {
+        for (int i = 0; i < total; i++)
+            filtro.agrega(llave(i));
+        FiltroBloomContador<String> copia =
+            FiltroBloomContador.deBytes(filtro.aBytes(),
+                                        AlgoritmoDispersor.XXHASH_64);
+        Assert.assertTrue(copia.getContadores() == filtro.getContadores());
+        Assert.assertTrue(copia.getFunciones() == filtro.getFunciones());
+        Assert.assertTrue(copia.getElementos() == filtro.getElementos());
+        for (int i = 0; i < total; i++)
+            copia.elimina(llave(i));
+        Assert.assertTrue(copia.probabilidadFalsoPositivo() == 0.0);
+        try {
+            FiltroBloomContador.deBytes(new byte[8],
+                                        AlgoritmoDispersor.XXHASH_64);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        /* El número de funciones está en los bytes 12 a 15. */
+        for (int k : new int[] { 0, 31, Integer.MAX_VALUE }) {
+            byte[] bytes = filtro.aBytes();
+            ByteBuffer.wrap(bytes).putInt(12, k);
+            try {
+                FiltroBloomContador.deBytes(bytes,
+                                            AlgoritmoDispersor.XXHASH_64);
+                Assert.fail();
+            } catch (IllegalArgumentException iae) {}
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.Random;
+import mx.unam.ciencias.edd.AlgoritmoDispersor;
+import mx.unam.ciencias.edd.HyperLogLog;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link HyperLogLog}.
+ */
+public class TestHyperLogLog {
+
+    private int total;
+    private Random random;
+    private HyperLogLog<String> estimador;
+
+    private static final int N = 10000;
+    private static final int PRECISION = 12;
+
+    /**
+     * Crea un estimador para cada prueba.
+     */
+    public TestHyperLogLog() {
+        random = new Random();
+        total = N + random.nextInt(N);
+        estimador = HyperLogLog.deCadenas(PRECISION,
+                                          AlgoritmoDispersor.XXHASH_64);
+    }
+
+    /* Regresa la i-ésima llave de las pruebas. */
+    private static String llave(int i) {
+        return "llave" + i;
+    }
+
+    /* Nos dice si la estimación está dentro de cinco errores estándar. */
+    private static boolean cerca(HyperLogLog<?> h, long real) {
+        double error = Math.abs(h.cardinalidad() - real) / (double)real;
+        return error < 5 * h.errorEstandar();
+    }
+
+    /**
+     * Prueba unitaria para {@link HyperLogLog#HyperLogLog}.
+     */
+    @Test public void testConstructor() {
+        Assert.assertTrue(estimador.cardinalidad() == 0);
+        Assert.assertTrue(estimador.getPrecision() == PRECISION);
+        try {
+            new HyperLogLog<String>(HyperLogLog.MIN_PRECISION - 1);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            new HyperLogLog<String>(HyperLogLog.MAX_PRECISION + 1);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            HyperLogLog.deCadenas(PRECISION, AlgoritmoDispersor.MURMUR3_32);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link HyperLogLog#agrega} y {@link
+     * HyperLogLog#cardinalidad}.
+     */
+    @Test public void testAgrega() {
+        for (int i = 0; i < 10; i++)
+            estimador.agrega(llave(i));
+        Assert.assertTrue(estimador.cardinalidad() == 10);
+        for (int i = 0; i < total; i++)
+            estimador.agrega(llave(i));
+        for (int i = 0; i < total; i++)
+            estimador.agrega(llave(random.nextInt(total)));
+        Assert.assertTrue(cerca(estimador, total));
+        HyperLogLog<Integer> enteros = new HyperLogLog<Integer>(PRECISION);
+        for (int i = 0; i < 100 * total; i++)
+            enteros.agrega(i);
+        Assert.assertTrue(cerca(enteros, 100 * total));
+        try {
+            estimador.agrega(null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link HyperLogLog#une}.
+     */
+    @Test public void testUne() {
+        HyperLogLog<String> otro =
+            HyperLogLog.deCadenas(PRECISION, AlgoritmoDispersor.XXHASH_64);
+        for (int i = 0; i < total; i++)
+            estimador.agrega(llave(i));
+        for (int i = total / 2; i < 2 * total; i++)
+            otro.agrega(llave(i));
+        estimador.une(otro);
+        Assert.assertTrue(cerca(estimador, 2 * total));
+        try {
+            estimador.une(HyperLogLog.deCadenas(PRECISION + 1,
+                                                AlgoritmoDispersor.XXHASH_64));
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        estimador.limpia();
+        Assert.assertTrue(estimador.cardinalidad() == 0);
+    }
+
+    /**
+     * Prueba unitaria para {@link HyperLogLog#aBytes} y {@link
+     * HyperLogLog#deBytes}.
+     */
+    @Test public void testBytes() {
+        for (int i = 0; i < total; i++)
+            estimador.agrega(llave(i));
+        byte[] bytes = estimador.aBytes();
+        HyperLogLog<String> copia =
+            HyperLogLog.deBytes(bytes, AlgoritmoDispersor.XXHASH_64);
+        Assert.assertTrue(copia.getPrecision() == PRECISION);
+        Assert.assertTrue(copia.cardinalidad() == estimador.cardinalidad());
+        copia.agrega(llave(0));
+        Assert.assertTrue(copia.cardinalidad() == estimador.cardinalidad());
+        bytes[bytes.length - 1] = 100;
+        try {
+            HyperLogLog.deBytes(bytes, AlgoritmoDispersor.XXHASH_64);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            HyperLogLog.deBytes(new byte[4], AlgoritmoDispersor.XXHASH_64);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+}